@@ -0,0 +1,121 @@
+package com.paulgreenlee.time.periodic;
+
+import java.time.DayOfWeek;
+import java.time.Month;
+import java.time.Period;
+import java.time.temporal.ChronoField;
+import java.time.temporal.Temporal;
+import java.time.temporal.TemporalAdjusters;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures {@link AllOfCompoundTemporalAdjuster#adjustInto(Temporal)} for rules
+ * that are satisfied in the first period as well as for rules that need many
+ * periods (and many failed attempts) before all adjusters agree. Each rule is
+ * built both from JDK adjusters and lambdas, which the adjuster cannot see
+ * into, and from {@link CalendarAdjusters}, which it can solve arithmetically.
+ *
+ * @author Paul Greenlee
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class AllOfCompoundTemporalAdjusterBenchmark {
+
+	public enum Rule {
+		/** Fourth Thursday in November. Satisfied within the first year. */
+		THANKSGIVING {
+			@Override
+			AllOfCompoundTemporalAdjuster create(boolean calendar) {
+				return new AllOfCompoundTemporalAdjuster(
+						Arrays.asList(Month.NOVEMBER, calendar ? CalendarAdjusters.dayOfWeekInMonth(4, DayOfWeek.THURSDAY)
+								: TemporalAdjusters.dayOfWeekInMonth(4, DayOfWeek.THURSDAY)),
+						Period.ofYears(1));
+			}
+		},
+		/** Friday the 13th. Needs a handful of months. */
+		FRIDAY_THE_13TH {
+			@Override
+			AllOfCompoundTemporalAdjuster create(boolean calendar) {
+				return new AllOfCompoundTemporalAdjuster(
+						Arrays.asList(calendar ? CalendarAdjusters.field(ChronoField.DAY_OF_MONTH, 13)
+								: t -> t.with(ChronoField.DAY_OF_MONTH, 13), DayOfWeek.FRIDAY),
+						Period.ofMonths(1));
+			}
+		},
+		/** A fifth Sunday that is also the 31st. Needs months to years. */
+		FIFTH_SUNDAY_THIRTY_FIRST {
+			@Override
+			AllOfCompoundTemporalAdjuster create(boolean calendar) {
+				return new AllOfCompoundTemporalAdjuster(calendar
+						? Arrays.asList(CalendarAdjusters.dayOfWeekInMonth(5, DayOfWeek.SUNDAY),
+								CalendarAdjusters.field(ChronoField.DAY_OF_MONTH, 31))
+						: Arrays.asList(TemporalAdjusters.dayOfWeekInMonth(5, DayOfWeek.SUNDAY),
+								t -> t.with(ChronoField.DAY_OF_MONTH, 31)),
+						Period.ofMonths(1));
+			}
+		},
+		/**
+		 * A leap day that is also a Monday. Only happens every 28 years or so,
+		 * and most attempts fail with an exception.
+		 */
+		LEAP_DAY_MONDAY {
+			@Override
+			AllOfCompoundTemporalAdjuster create(boolean calendar) {
+				return new AllOfCompoundTemporalAdjuster(calendar
+						? Arrays.asList(CalendarAdjusters.field(ChronoField.MONTH_OF_YEAR, 2),
+								CalendarAdjusters.field(ChronoField.DAY_OF_MONTH, 29), DayOfWeek.MONDAY)
+						: Arrays.asList(t -> t.with(ChronoField.MONTH_OF_YEAR, 2).with(ChronoField.DAY_OF_MONTH, 29),
+								DayOfWeek.MONDAY),
+						Period.ofYears(1));
+			}
+		};
+
+		abstract AllOfCompoundTemporalAdjuster create(boolean calendar);
+	}
+
+	public enum Members {
+		/** JDK adjusters and lambdas. */
+		JDK,
+		/** The equivalents from {@link CalendarAdjusters}. */
+		CALENDAR
+	}
+
+	@Param
+	public TemporalKind kind;
+
+	@Param
+	public Rule rule;
+
+	@Param
+	public Members members;
+
+	private AllOfCompoundTemporalAdjuster adjuster;
+	private Temporal[] starts;
+	private int index;
+
+	@Setup
+	public void setUp() {
+		adjuster = rule.create(members == Members.CALENDAR);
+		starts = kind.starts();
+	}
+
+	@Benchmark
+	public Temporal adjustInto() {
+		Temporal start = starts[index];
+		index = (index + 1) % starts.length;
+		return adjuster.adjustInto(start);
+	}
+
+}
@@ -0,0 +1,96 @@
+package com.paulgreenlee.time.periodic;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.MonthDay;
+import java.time.temporal.ChronoField;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures the next occurrence for a large array of dates, one
+ * {@link LocalDate} at a time and through
+ * {@link PeriodicTemporalAdjuster#adjustAll(long[], long[])}. Scores are per
+ * row.
+ *
+ * @author Paul Greenlee
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class BatchAdjustmentBenchmark {
+
+	private static final int ROWS = 64 * 1024;
+
+	public enum Rule {
+		ANNUALLY {
+			@Override
+			PeriodicTemporalAdjuster create() {
+				return PeriodicTemporalAdjusters.annually(MonthDay.of(2, 14));
+			}
+		},
+		WEEKLY_ON_DAYS {
+			@Override
+			PeriodicTemporalAdjuster create() {
+				return PeriodicTemporalAdjusters.weeklyOnDays(DayOfWeek.MONDAY, DayOfWeek.WEDNESDAY, DayOfWeek.FRIDAY);
+			}
+		},
+		/** A lambda, which has no primitive form. */
+		OPAQUE {
+			@Override
+			PeriodicTemporalAdjuster create() {
+				return PeriodicTemporalAdjusters.monthly(t -> t.with(ChronoField.DAY_OF_MONTH, 15));
+			}
+		};
+
+		abstract PeriodicTemporalAdjuster create();
+	}
+
+	@Param
+	public Rule rule;
+
+	private PeriodicTemporalAdjuster adjuster;
+	private long[] in;
+	private long[] out;
+
+	@Setup
+	public void setUp() {
+		adjuster = PeriodicTemporalAdjusters.forwardOnlyOf(rule.create());
+		in = new Random(42).longs(ROWS, LocalDate.of(1990, 1, 1).toEpochDay(), LocalDate.of(2050, 1, 1).toEpochDay()).toArray();
+		out = new long[ROWS];
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(ROWS)
+	public long[] perRow() {
+		for (int i = 0; i < ROWS; i++)
+			out[i] = LocalDate.ofEpochDay(in[i]).with(adjuster).toEpochDay();
+		return out;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(ROWS)
+	public long[] adjustAll() {
+		adjuster.adjustAll(in, out);
+		return out;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(ROWS)
+	public long[] adjustAllParallel() {
+		adjuster.adjustAllParallel(in, out);
+		return out;
+	}
+
+}
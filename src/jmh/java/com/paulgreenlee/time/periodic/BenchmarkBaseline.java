@@ -0,0 +1,127 @@
+package com.paulgreenlee.time.periodic;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <p>
+ * Compares a JMH result file against a saved baseline, both in JMH's CSV
+ * format. A benchmark has regressed if its average time, or its normalized
+ * allocation rate ({@code gc.alloc.rate.norm}, bytes per operation), is worse
+ * than the baseline by more than the given tolerance.
+ * </p>
+ * <p>
+ * Usage: {@code BenchmarkBaseline <baseline.csv> <results.csv> [tolerance]},
+ * where tolerance is a fraction such as {@code 0.15}. The process exits with
+ * status 1 if any regression is found.
+ * </p>
+ *
+ * @author Paul Greenlee
+ *
+ */
+public class BenchmarkBaseline {
+
+	private static final String ALLOCATION_METRIC = ":\u00b7gc.alloc.rate.norm";
+
+	/**
+	 * Allocation rates below this many bytes per operation are treated as
+	 * noise. A benchmark that allocates nothing can otherwise never be compared.
+	 */
+	private static final double ALLOCATION_FLOOR = 16;
+
+	public static void main(String[] args) throws IOException {
+		if (args.length < 2) {
+			System.err.println("usage: BenchmarkBaseline <baseline.csv> <results.csv> [tolerance]");
+			System.exit(2);
+		}
+		double tolerance = args.length > 2 ? Double.parseDouble(args[2]) : 0.15;
+		Map<String, Double> baseline = read(Paths.get(args[0]));
+		Map<String, Double> results = read(Paths.get(args[1]));
+
+		List<String> regressions = new ArrayList<>();
+		for (Map.Entry<String, Double> result : results.entrySet()) {
+			Double expected = baseline.get(result.getKey());
+			if (expected == null) {
+				System.out.printf("NEW       %s = %.2f%n", result.getKey(), result.getValue());
+				continue;
+			}
+			double actual = result.getValue();
+			double floor = result.getKey().contains(ALLOCATION_METRIC) ? ALLOCATION_FLOOR : 0;
+			boolean regressed = actual > Math.max(expected, floor) * (1 + tolerance);
+			String line = String.format("%-9s %s = %.2f (baseline %.2f, %+.1f%%)",
+					regressed ? "REGRESSED" : "OK", result.getKey(), actual, expected, change(expected, actual));
+			System.out.println(line);
+			if (regressed)
+				regressions.add(line);
+		}
+
+		if (!regressions.isEmpty()) {
+			System.out.printf("%n%d benchmark(s) regressed by more than %.0f%%:%n", regressions.size(), tolerance * 100);
+			regressions.forEach(System.out::println);
+			System.exit(1);
+		}
+	}
+
+	private static double change(double expected, double actual) {
+		return expected == 0 ? 0 : (actual - expected) * 100 / expected;
+	}
+
+	/**
+	 * Reads the average time and normalized allocation rows of a JMH CSV file,
+	 * keyed by benchmark name followed by its parameters.
+	 */
+	static Map<String, Double> read(Path file) throws IOException {
+		List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+		Map<String, Double> scores = new LinkedHashMap<>();
+		if (lines.isEmpty())
+			return scores;
+
+		List<String> header = split(lines.get(0));
+		int benchmarkColumn = header.indexOf("Benchmark");
+		int modeColumn = header.indexOf("Mode");
+		int scoreColumn = header.indexOf("Score");
+		for (String line : lines.subList(1, lines.size())) {
+			if (line.trim().isEmpty())
+				continue;
+			List<String> columns = split(line);
+			String benchmark = columns.get(benchmarkColumn);
+			if (!"avgt".equals(columns.get(modeColumn)))
+				continue;
+			if (benchmark.contains(":") && !benchmark.endsWith(ALLOCATION_METRIC))
+				continue;
+
+			StringBuilder key = new StringBuilder(benchmark);
+			for (int i = 0; i < header.size(); i++) {
+				if (header.get(i).startsWith("Param: ") && i < columns.size() && !columns.get(i).isEmpty())
+					key.append(' ').append(header.get(i).substring(7)).append('=').append(columns.get(i));
+			}
+			scores.put(key.toString(), Double.parseDouble(columns.get(scoreColumn)));
+		}
+		return scores;
+	}
+
+	private static List<String> split(String line) {
+		List<String> columns = new ArrayList<>();
+		StringBuilder column = new StringBuilder();
+		boolean quoted = false;
+		for (char c : line.toCharArray()) {
+			if (c == '"')
+				quoted = !quoted;
+			else if (c == ',' && !quoted) {
+				columns.add(column.toString());
+				column.setLength(0);
+			} else
+				column.append(c);
+		}
+		columns.add(column.toString());
+		return columns;
+	}
+
+}
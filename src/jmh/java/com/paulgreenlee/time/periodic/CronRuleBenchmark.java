@@ -0,0 +1,78 @@
+package com.paulgreenlee.time.periodic;
+
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures finding the next time a cron rule matches, with {@link CronRule}
+ * skipping whole fields and by stepping a minute at a time, for a rule every
+ * five minutes during business hours and for a rule once a quarter.
+ *
+ * @author Paul Greenlee
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CronRuleBenchmark {
+
+	private static final LocalDateTime FROM = LocalDateTime.of(2000, 1, 1, 0, 0);
+
+	private final CronRule businessHours = CronRule.parse("0 */5 9-16 * * MON-FRI");
+	private final CronRule quarterly = CronRule.parse("0 30 6 1 JAN,APR,JUL,OCT *");
+	private LocalDateTime time = FROM;
+
+	private LocalDateTime nextTime() {
+		time = time.plusMinutes(7919);
+		if (time.getYear() >= 2090)
+			time = FROM;
+		return time;
+	}
+
+	private static boolean isBusinessHours(LocalDateTime minute) {
+		DayOfWeek dayOfWeek = minute.getDayOfWeek();
+		return dayOfWeek != DayOfWeek.SATURDAY && dayOfWeek != DayOfWeek.SUNDAY && minute.getHour() >= 9
+				&& minute.getHour() <= 16 && minute.getMinute() % 5 == 0;
+	}
+
+	private static boolean isQuarterly(LocalDateTime minute) {
+		return minute.getMonthValue() % 3 == 1 && minute.getDayOfMonth() == 1 && minute.getHour() == 6
+				&& minute.getMinute() == 30;
+	}
+
+	@Benchmark
+	public LocalDateTime businessHours() {
+		return nextTime().with(businessHours);
+	}
+
+	@Benchmark
+	public LocalDateTime businessHoursStepping() {
+		LocalDateTime minute = nextTime().truncatedTo(ChronoUnit.MINUTES);
+		while (!isBusinessHours(minute))
+			minute = minute.plusMinutes(1);
+		return minute;
+	}
+
+	@Benchmark
+	public LocalDateTime quarterly() {
+		return nextTime().with(quarterly);
+	}
+
+	@Benchmark
+	public LocalDateTime quarterlyStepping() {
+		LocalDateTime minute = nextTime().truncatedTo(ChronoUnit.MINUTES);
+		while (!isQuarterly(minute))
+			minute = minute.plusMinutes(1);
+		return minute;
+	}
+
+}
@@ -0,0 +1,114 @@
+package com.paulgreenlee.time.periodic;
+
+import java.time.DayOfWeek;
+import java.time.MonthDay;
+import java.time.temporal.Temporal;
+import java.time.temporal.TemporalAdjusters;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures {@link ForwardOnlyTemporalAdjuster} wrapped around each of the
+ * factories in {@link PeriodicTemporalAdjusters}, both for a single next
+ * occurrence and for walking a year's worth of occurrences. The same rules are
+ * also measured through {@link PrecomputedTemporalAdjuster}, once its table
+ * has been built.
+ *
+ * @author Paul Greenlee
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ForwardOnlyTemporalAdjusterBenchmark {
+
+	private static final int WALK_LENGTH = 52;
+
+	public enum Rule {
+		ANNUALLY {
+			@Override
+			PeriodicTemporalAdjuster create() {
+				return PeriodicTemporalAdjusters.annually(MonthDay.of(2, 14));
+			}
+		},
+		MONTHLY {
+			@Override
+			PeriodicTemporalAdjuster create() {
+				return PeriodicTemporalAdjusters.monthly(TemporalAdjusters.firstInMonth(DayOfWeek.MONDAY));
+			}
+		},
+		WEEKLY {
+			@Override
+			PeriodicTemporalAdjuster create() {
+				return PeriodicTemporalAdjusters.weekly(DayOfWeek.TUESDAY);
+			}
+		},
+		EVERY_N_WEEKS {
+			@Override
+			PeriodicTemporalAdjuster create() {
+				return PeriodicTemporalAdjusters.everyNWeeks(DayOfWeek.THURSDAY, 2);
+			}
+		},
+		WEEKLY_ON_DAYS {
+			@Override
+			PeriodicTemporalAdjuster create() {
+				return PeriodicTemporalAdjusters.weeklyOnDays(DayOfWeek.MONDAY, DayOfWeek.WEDNESDAY, DayOfWeek.FRIDAY);
+			}
+		};
+
+		abstract PeriodicTemporalAdjuster create();
+	}
+
+	@Param
+	public TemporalKind kind;
+
+	@Param
+	public Rule rule;
+
+	private PeriodicTemporalAdjuster adjuster;
+	private PeriodicTemporalAdjuster precomputed;
+	private Temporal[] starts;
+	private int index;
+
+	@Setup
+	public void setUp() {
+		adjuster = PeriodicTemporalAdjusters.forwardOnlyOf(rule.create());
+		starts = kind.starts();
+		precomputed = PeriodicTemporalAdjusters.precomputed(rule.create(), new GregorianCycleTableCache(1024 * 1024));
+		precomputed.adjustInto(starts[0]);
+	}
+
+	@Benchmark
+	public Temporal nextOccurrence() {
+		Temporal start = starts[index];
+		index = (index + 1) % starts.length;
+		return adjuster.adjustInto(start);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(WALK_LENGTH)
+	public Temporal walkOccurrences() {
+		Temporal occurrence = starts[index];
+		index = (index + 1) % starts.length;
+		for (int i = 0; i < WALK_LENGTH; i++)
+			occurrence = adjuster.adjustInto(occurrence);
+		return occurrence;
+	}
+
+	@Benchmark
+	public Temporal nextOccurrencePrecomputed() {
+		Temporal start = starts[index];
+		index = (index + 1) % starts.length;
+		return precomputed.adjustInto(start);
+	}
+
+}
@@ -0,0 +1,65 @@
+package com.paulgreenlee.time.periodic;
+
+import java.time.Duration;
+import java.time.temporal.Temporal;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures finding the first or last day of the year, forward and backward,
+ * with a period of a day (up to some 365 periods away), stepping one period
+ * at a time and galloping.
+ *
+ * @author Paul Greenlee
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class GallopingSearchBenchmark {
+
+	private static final Duration DAY = Duration.ofDays(1);
+
+	private final ForwardOnlyTemporalAdjuster forwardLinear = new ForwardOnlyTemporalAdjuster(
+			CalendarAdjusters.firstDayOfYear(), DAY);
+	private final ForwardOnlyTemporalAdjuster forwardGalloping = new ForwardOnlyTemporalAdjuster(
+			CalendarAdjusters.firstDayOfYear(), DAY, SearchStrategy.GALLOPING);
+	private final BackwardOnlyTemporalAdjuster backwardLinear = new BackwardOnlyTemporalAdjuster(
+			CalendarAdjusters.lastDayOfYear(), DAY);
+	private final BackwardOnlyTemporalAdjuster backwardGalloping = new BackwardOnlyTemporalAdjuster(
+			CalendarAdjusters.lastDayOfYear(), DAY, SearchStrategy.GALLOPING);
+	private final Temporal[] starts = TemporalKind.LOCAL_DATE_TIME.starts();
+	private int index;
+
+	@Benchmark
+	public Temporal forwardLinear() {
+		return next().with(forwardLinear);
+	}
+
+	@Benchmark
+	public Temporal forwardGalloping() {
+		return next().with(forwardGalloping);
+	}
+
+	@Benchmark
+	public Temporal backwardLinear() {
+		return next().with(backwardLinear);
+	}
+
+	@Benchmark
+	public Temporal backwardGalloping() {
+		return next().with(backwardGalloping);
+	}
+
+	private Temporal next() {
+		index = (index + 1) % starts.length;
+		return starts[index];
+	}
+
+}
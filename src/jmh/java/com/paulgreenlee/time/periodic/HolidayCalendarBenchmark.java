@@ -0,0 +1,99 @@
+package com.paulgreenlee.time.periodic;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures moving twenty business days from a date and finding the 3rd
+ * business day of the month after it, with a {@link HolidayCalendar} and by
+ * stepping a day at a time past weekends and a set of holidays.
+ *
+ * @author Paul Greenlee
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class HolidayCalendarBenchmark {
+
+	private static final LocalDate FROM = LocalDate.of(2000, 1, 1);
+	private static final LocalDate TO = LocalDate.of(2100, 1, 1);
+
+	private final Set<LocalDate> holidays = new HashSet<>();
+	private HolidayCalendar calendar;
+	private PeriodicTemporalAdjuster thirdBusinessDay;
+	private LocalDate date = FROM;
+
+	@Setup
+	public void setUp() {
+		Random random = new Random(1);
+		for (int i = 0; i < 1000; i++)
+			holidays.add(FROM.plusDays(random.nextInt(36524)));
+		calendar = new HolidayCalendar(FROM, TO, holidays);
+		thirdBusinessDay = PeriodicTemporalAdjusters.forwardOnlyOf(
+				PeriodicTemporalAdjusters.monthly(calendar.businessDayOfMonth(3)));
+	}
+
+	private LocalDate nextDate() {
+		date = date.plusDays(37);
+		if (date.getYear() >= 2098)
+			date = FROM;
+		return date;
+	}
+
+	private boolean isBusinessDay(LocalDate day) {
+		DayOfWeek dayOfWeek = day.getDayOfWeek();
+		return dayOfWeek != DayOfWeek.SATURDAY && dayOfWeek != DayOfWeek.SUNDAY && !holidays.contains(day);
+	}
+
+	@Benchmark
+	public LocalDate plusBusinessDays() {
+		return calendar.plusBusinessDays(nextDate(), 20);
+	}
+
+	@Benchmark
+	public LocalDate plusBusinessDaysStepping() {
+		LocalDate day = nextDate();
+		for (int i = 0; i < 20; i++) {
+			day = day.plusDays(1);
+			while (!isBusinessDay(day))
+				day = day.plusDays(1);
+		}
+		return day;
+	}
+
+	@Benchmark
+	public LocalDate thirdBusinessDay() {
+		return nextDate().with(thirdBusinessDay);
+	}
+
+	@Benchmark
+	public LocalDate thirdBusinessDayStepping() {
+		LocalDate start = nextDate();
+		LocalDate month = start.withDayOfMonth(1);
+		while (true) {
+			LocalDate day = month;
+			for (int found = isBusinessDay(day) ? 1 : 0; found < 3;) {
+				day = day.plusDays(1);
+				if (isBusinessDay(day))
+					found++;
+			}
+			if (day.isAfter(start))
+				return day;
+			month = month.plusMonths(1);
+		}
+	}
+
+}
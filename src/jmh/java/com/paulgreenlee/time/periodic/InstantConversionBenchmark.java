@@ -0,0 +1,53 @@
+package com.paulgreenlee.time.periodic;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoField;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures converting a year of hourly occurrences to instants in New York,
+ * through {@link ZonedDateTime} and with {@link Occurrences#toInstants}.
+ * Scores are for the whole year.
+ *
+ * @author Paul Greenlee
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class InstantConversionBenchmark {
+
+	private static final ZoneId ZONE = ZoneId.of("America/New_York");
+	private static final LocalDateTime START = LocalDateTime.of(2018, 1, 1, 0, 0);
+
+	private final List<LocalDateTime> occurrences = Occurrences.occurrencesBetween(
+			new SimplePeriodicTemporalAdjuster(t -> t.with(ChronoField.MINUTE_OF_HOUR, 30), Duration.ofHours(1)),
+			START, START.plusYears(1));
+
+	@Benchmark
+	public List<Instant> zonedDateTime() {
+		List<Instant> instants = new ArrayList<>(occurrences.size());
+		for (LocalDateTime occurrence : occurrences)
+			instants.add(ZonedDateTime.of(occurrence, ZONE).toInstant());
+		return instants;
+	}
+
+	@Benchmark
+	public List<Instant> toInstants() {
+		return Occurrences.toInstants(occurrences, ZONE, GapPolicy.SHIFT, OverlapPolicy.EARLIER);
+	}
+
+}
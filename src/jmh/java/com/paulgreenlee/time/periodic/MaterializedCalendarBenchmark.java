@@ -0,0 +1,72 @@
+package com.paulgreenlee.time.periodic;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures adding and taking away Thursday from Monday, Wednesday and Friday
+ * over ten years, with a {@link MaterializedCalendar} expanding only the
+ * Thursdays, and with the whole rule expanded again and compared with the
+ * occurrences before.
+ *
+ * @author Paul Greenlee
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MaterializedCalendarBenchmark {
+
+	private static final LocalDate START = LocalDate.of(2018, 1, 1);
+	private static final LocalDate END = LocalDate.of(2028, 1, 1);
+
+	private final PeriodicTemporalAdjuster[] rules = {
+			PeriodicTemporalAdjusters.weeklyOnDays(DayOfWeek.MONDAY, DayOfWeek.WEDNESDAY, DayOfWeek.FRIDAY),
+			PeriodicTemporalAdjusters.weeklyOnDays(DayOfWeek.MONDAY, DayOfWeek.WEDNESDAY, DayOfWeek.THURSDAY, DayOfWeek.FRIDAY) };
+	private MaterializedCalendar<String, LocalDate> calendar;
+	private TreeSet<LocalDate> expanded;
+	private int next;
+
+	@Setup
+	public void setUp() {
+		calendar = new MaterializedCalendar<>(START, END);
+		calendar.put("rule", rules[0]);
+		expanded = new TreeSet<>(Occurrences.occurrencesBetween(rules[0], START, END));
+		next = 1;
+	}
+
+	private PeriodicTemporalAdjuster nextRule() {
+		PeriodicTemporalAdjuster rule = rules[next];
+		next = 1 - next;
+		return rule;
+	}
+
+	@Benchmark
+	public MaterializedCalendar.Delta<String, LocalDate> incremental() {
+		return calendar.put("rule", nextRule());
+	}
+
+	@Benchmark
+	public int reexpanded() {
+		List<LocalDate> occurrences = Occurrences.occurrencesBetween(nextRule(), START, END);
+		TreeSet<LocalDate> after = new TreeSet<>(occurrences);
+		TreeSet<LocalDate> added = new TreeSet<>(after);
+		added.removeAll(expanded);
+		expanded.removeAll(after);
+		int changed = added.size() + expanded.size();
+		expanded = after;
+		return changed;
+	}
+
+}
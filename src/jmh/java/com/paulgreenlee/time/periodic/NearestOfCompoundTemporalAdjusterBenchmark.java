@@ -0,0 +1,65 @@
+package com.paulgreenlee.time.periodic;
+
+import java.time.temporal.ChronoField;
+import java.time.temporal.Temporal;
+import java.time.temporal.TemporalAdjuster;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures {@link NearestOfCompoundTemporalAdjuster} as the number of members
+ * grows from 2 up to one per day of the month.
+ *
+ * @author Paul Greenlee
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class NearestOfCompoundTemporalAdjusterBenchmark {
+
+	@Param
+	public TemporalKind kind;
+
+	@Param({ "2", "4", "7", "15", "31" })
+	public int members;
+
+	private NearestOfCompoundTemporalAdjuster adjuster;
+	private Temporal[] starts;
+	private int index;
+
+	@Setup
+	public void setUp() {
+		List<TemporalAdjuster> adjusters = new ArrayList<>(members);
+		for (int i = 0; i < members; i++)
+			adjusters.add(dayOfMonth(1 + i * 31 / members));
+		adjuster = new NearestOfCompoundTemporalAdjuster(adjusters);
+		starts = kind.starts();
+	}
+
+	/**
+	 * Adjusts to the given day of the month, or the last day of the month if it
+	 * is shorter. Clamping keeps every member valid in every month.
+	 */
+	private static TemporalAdjuster dayOfMonth(int day) {
+		return t -> t.with(ChronoField.DAY_OF_MONTH, Math.min(day, t.range(ChronoField.DAY_OF_MONTH).getMaximum()));
+	}
+
+	@Benchmark
+	public Temporal adjustInto() {
+		Temporal start = starts[index];
+		index = (index + 1) % starts.length;
+		return adjuster.adjustInto(start);
+	}
+
+}
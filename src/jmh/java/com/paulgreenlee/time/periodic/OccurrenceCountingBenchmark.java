@@ -0,0 +1,70 @@
+package com.paulgreenlee.time.periodic;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.Month;
+import java.time.Period;
+import java.time.temporal.ChronoField;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures counting the occurrences of a rule over fifty years by listing them
+ * and with {@link Occurrences#countBetween}, for a rule counted with period
+ * arithmetic, one counted with a cycle table and one that can only be listed.
+ *
+ * @author Paul Greenlee
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class OccurrenceCountingBenchmark {
+
+	private static final LocalDate START = LocalDate.of(2000, 1, 1);
+	private static final LocalDate END = START.plusYears(50);
+
+	public enum Rule {
+		WEEKLY_ON_DAYS(PeriodicTemporalAdjusters.weeklyOnDays(DayOfWeek.MONDAY, DayOfWeek.WEDNESDAY, DayOfWeek.FRIDAY)),
+		THANKSGIVING(new AllOfCompoundTemporalAdjuster(Arrays.asList(Month.NOVEMBER,
+				CalendarAdjusters.dayOfWeekInMonth(4, DayOfWeek.THURSDAY)), Period.ofYears(1))),
+		/** A lambda, which has no primitive form. */
+		OPAQUE(PeriodicTemporalAdjusters.monthly(t -> t.with(ChronoField.DAY_OF_MONTH, 15)));
+
+		private final PeriodicTemporalAdjuster rule;
+
+		Rule(PeriodicTemporalAdjuster rule) {
+			this.rule = rule;
+		}
+	}
+
+	@Param
+	public Rule rule;
+
+	private PeriodicTemporalAdjuster adjuster;
+
+	@Setup
+	public void setUp() {
+		adjuster = PeriodicTemporalAdjusters.forwardOnlyOf(rule.rule);
+	}
+
+	@Benchmark
+	public long listed() {
+		return Occurrences.occurrences(adjuster, START, END).count();
+	}
+
+	@Benchmark
+	public long countBetween() {
+		return Occurrences.countBetween(adjuster, START, END);
+	}
+
+}
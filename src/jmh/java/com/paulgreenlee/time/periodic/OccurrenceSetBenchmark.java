@@ -0,0 +1,88 @@
+package com.paulgreenlee.time.periodic;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.Period;
+import java.time.temporal.ChronoField;
+import java.time.temporal.TemporalAdjuster;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures listing a year of a union of thirty rules, with the cursors kept
+ * in a heap between steps and with each step adjusting every rule again, and
+ * finding the next Friday the 13th as an intersection and as an
+ * {@link AllOfCompoundTemporalAdjuster}.
+ *
+ * @author Paul Greenlee
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class OccurrenceSetBenchmark {
+
+	private static final LocalDate START = LocalDate.of(2018, 1, 1);
+	private static final LocalDate END = LocalDate.of(2019, 1, 1);
+
+	private PeriodicTemporalAdjuster union;
+	private PeriodicTemporalAdjuster fridayThe13th;
+	private PeriodicTemporalAdjuster fridayThe13thAllOf;
+	private LocalDate date = START;
+
+	@Setup
+	public void setUp() {
+		List<PeriodicTemporalAdjuster> rules = new ArrayList<>();
+		for (int day = 1; day <= 28; day++)
+			rules.add(PeriodicTemporalAdjusters.monthly(CalendarAdjusters.field(ChronoField.DAY_OF_MONTH, day)));
+		rules.add(PeriodicTemporalAdjusters.weekly(DayOfWeek.SATURDAY));
+		rules.add(PeriodicTemporalAdjusters.weekly(DayOfWeek.SUNDAY));
+		union = PeriodicTemporalAdjusters.union(rules.get(0), rules.subList(1, rules.size()).toArray(new PeriodicTemporalAdjuster[0]));
+		TemporalAdjuster thirteenth = CalendarAdjusters.field(ChronoField.DAY_OF_MONTH, 13);
+		fridayThe13th = PeriodicTemporalAdjusters.intersection(PeriodicTemporalAdjusters.weekly(DayOfWeek.FRIDAY),
+				PeriodicTemporalAdjusters.monthly(thirteenth));
+		fridayThe13thAllOf = PeriodicTemporalAdjusters.forwardOnlyOf(
+				new AllOfCompoundTemporalAdjuster(Arrays.asList(thirteenth, DayOfWeek.FRIDAY), Period.ofMonths(1)));
+	}
+
+	private LocalDate nextDate() {
+		date = date.plusDays(37);
+		if (date.getYear() >= 2090)
+			date = START;
+		return date;
+	}
+
+	@Benchmark
+	public long unionListed() {
+		return Occurrences.occurrences(union, START, END).count();
+	}
+
+	@Benchmark
+	public long unionStepped() {
+		long count = 0;
+		for (LocalDate day = START.with(union); day.isBefore(END); day = day.with(union))
+			count++;
+		return count;
+	}
+
+	@Benchmark
+	public LocalDate intersection() {
+		return nextDate().with(fridayThe13th);
+	}
+
+	@Benchmark
+	public LocalDate intersectionAllOf() {
+		return nextDate().with(fridayThe13thAllOf);
+	}
+
+}
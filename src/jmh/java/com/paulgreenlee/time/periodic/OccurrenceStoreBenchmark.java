@@ -0,0 +1,94 @@
+package com.paulgreenlee.time.periodic;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.Month;
+import java.time.MonthDay;
+import java.time.Period;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Measures finding the next occurrence after a date by searching and by
+ * looking it up in an {@link OccurrenceStore} of a hundred years, for a rule the
+ * library can search quickly and for one it has to search the slow way.
+ *
+ * @author Paul Greenlee
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class OccurrenceStoreBenchmark {
+
+	public enum Rule {
+		THANKSGIVING(new AllOfCompoundTemporalAdjuster(Arrays.asList(Month.NOVEMBER,
+				CalendarAdjusters.dayOfWeekInMonth(4, DayOfWeek.THURSDAY)), Period.ofYears(1))),
+		/** The 29th of February on a Monday, with adjusters the library cannot see into. */
+		OPAQUE_LEAP_MONDAY(new AllOfCompoundTemporalAdjuster(Arrays.asList(t -> t.with(MonthDay.of(2, 29)),
+				t -> t.with(DayOfWeek.MONDAY)), Period.ofYears(1)));
+
+		private final PeriodicTemporalAdjuster rule;
+
+		Rule(PeriodicTemporalAdjuster rule) {
+			this.rule = PeriodicTemporalAdjusters.forwardOnlyOf(rule);
+		}
+	}
+
+	private static final LocalDate FROM = LocalDate.of(2000, 1, 1);
+
+	@Param
+	public Rule rule;
+
+	private Path file;
+	private OccurrenceStore store;
+	private LocalDate date = FROM;
+
+	@Setup(Level.Trial)
+	public void setUp() throws IOException {
+		Map<String, PeriodicTemporalAdjuster> rules = Collections.singletonMap("rule", rule.rule);
+		file = Files.createTempFile("occurrences", ".bin");
+		OccurrenceStore.write(file, rules, FROM, FROM.plusYears(100));
+		store = OccurrenceStore.open(file, rules);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws IOException {
+		store.close();
+		Files.deleteIfExists(file);
+	}
+
+	private LocalDate nextDate() {
+		date = date.plusDays(37);
+		if (date.getYear() >= 2099)
+			date = FROM;
+		return date;
+	}
+
+	@Benchmark
+	public LocalDate search() {
+		return nextDate().with(rule.rule);
+	}
+
+	@Benchmark
+	public LocalDate store() {
+		return store.next("rule", nextDate());
+	}
+
+}
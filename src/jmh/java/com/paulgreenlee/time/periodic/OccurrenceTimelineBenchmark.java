@@ -0,0 +1,61 @@
+package com.paulgreenlee.time.periodic;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.Period;
+import java.time.temporal.ChronoField;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+/**
+ * Measures four threads asking for the next ten Fridays the 13th after a date
+ * in the coming year, from one shared {@link OccurrenceTimeline} and with
+ * each thread applying the rule itself.
+ *
+ * @author Paul Greenlee
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Threads(4)
+public class OccurrenceTimelineBenchmark {
+
+	private static final LocalDate START = LocalDate.of(2018, 1, 1);
+
+	private PeriodicTemporalAdjuster rule;
+	private OccurrenceTimeline<LocalDate> timeline;
+
+	@Setup
+	public void setUp() {
+		rule = PeriodicTemporalAdjusters.intersection(PeriodicTemporalAdjusters.weekly(DayOfWeek.FRIDAY),
+				PeriodicTemporalAdjusters.monthly(CalendarAdjusters.field(ChronoField.DAY_OF_MONTH, 13)));
+		timeline = OccurrenceTimeline.ofDates(rule, START, Period.ofYears(20), 1000);
+	}
+
+	private static LocalDate nextDate() {
+		return START.plusDays(ThreadLocalRandom.current().nextInt(365));
+	}
+
+	@Benchmark
+	public List<LocalDate> live() {
+		return Occurrences.occurrences(rule, nextDate(), 10).collect(Collectors.toList());
+	}
+
+	@Benchmark
+	public List<LocalDate> timeline() {
+		return timeline.next(nextDate(), 10);
+	}
+
+}
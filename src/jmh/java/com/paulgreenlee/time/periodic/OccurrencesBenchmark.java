@@ -0,0 +1,73 @@
+package com.paulgreenlee.time.periodic;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.ChronoField;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures listing every occurrence of a rule over fifty years, one after the
+ * other and with {@link Occurrences#occurrencesBetween}. Scores are for the
+ * whole range.
+ *
+ * @author Paul Greenlee
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class OccurrencesBenchmark {
+
+	private static final LocalDate START = LocalDate.of(2000, 1, 1);
+	private static final LocalDate END = START.plusYears(50);
+
+	public enum Rule {
+		WEEKLY_ON_DAYS {
+			@Override
+			PeriodicTemporalAdjuster create() {
+				return PeriodicTemporalAdjusters.weeklyOnDays(DayOfWeek.MONDAY, DayOfWeek.WEDNESDAY, DayOfWeek.FRIDAY);
+			}
+		},
+		/** A lambda, which has no primitive form. */
+		OPAQUE {
+			@Override
+			PeriodicTemporalAdjuster create() {
+				return PeriodicTemporalAdjusters.monthly(t -> t.with(ChronoField.DAY_OF_MONTH, 15));
+			}
+		};
+
+		abstract PeriodicTemporalAdjuster create();
+	}
+
+	@Param
+	public Rule rule;
+
+	private PeriodicTemporalAdjuster adjuster;
+
+	@Setup
+	public void setUp() {
+		adjuster = PeriodicTemporalAdjusters.forwardOnlyOf(rule.create());
+	}
+
+	@Benchmark
+	public List<LocalDate> sequential() {
+		return Occurrences.occurrences(adjuster, START, END).collect(Collectors.toList());
+	}
+
+	@Benchmark
+	public List<LocalDate> occurrencesBetween() {
+		return Occurrences.occurrencesBetween(adjuster, START, END);
+	}
+
+}
@@ -0,0 +1,68 @@
+package com.paulgreenlee.time.periodic;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures parsing recurrence rules, with and without a
+ * {@link RecurrenceRuleCache}, and finding the occurrences of a parsed rule in
+ * a year.
+ *
+ * @author Paul Greenlee
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class RecurrenceRuleBenchmark {
+
+	public enum Rule {
+		LAST_WEEKDAY("RRULE:FREQ=MONTHLY;BYDAY=MO,TU,WE,TH,FR;BYSETPOS=-1"),
+		THANKSGIVING("RRULE:FREQ=YEARLY;BYMONTH=11;BYDAY=4TH"),
+		EVERY_OTHER_WEEK("RRULE:FREQ=WEEKLY;INTERVAL=2;BYDAY=MO,WE,FR;COUNT=100");
+
+		private final String text;
+
+		Rule(String text) {
+			this.text = text;
+		}
+	}
+
+	private static final LocalDate START = LocalDate.of(2018, 1, 1);
+
+	@Param
+	public Rule rule;
+
+	private final RecurrenceRuleCache cache = new RecurrenceRuleCache(1000);
+	private RecurrenceRule parsed;
+
+	@Setup
+	public void setUp() {
+		parsed = RecurrenceRule.parse(rule.text);
+	}
+
+	@Benchmark
+	public RecurrenceRule parse() {
+		return RecurrenceRule.parse(rule.text);
+	}
+
+	@Benchmark
+	public RecurrenceRule cached() {
+		return cache.get(rule.text);
+	}
+
+	@Benchmark
+	public long occurrencesInAYear() {
+		return Occurrences.occurrences(parsed.toAdjuster(START), START, START.plusYears(1)).count();
+	}
+
+}
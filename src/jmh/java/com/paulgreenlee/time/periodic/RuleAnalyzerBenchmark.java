@@ -0,0 +1,98 @@
+package com.paulgreenlee.time.periodic;
+
+import java.time.DateTimeException;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.Month;
+import java.time.MonthDay;
+import java.time.Period;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.temporal.Temporal;
+import java.time.temporal.TemporalAdjuster;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures an impossible rule, January 1 on the second Monday of the month,
+ * failing each time it is used against being rejected once by
+ * {@link PeriodicTemporalAdjusters#compile}, and Thanksgiving in a zone the
+ * solver does not handle, with the checks in the order given and compiled.
+ *
+ * @author Paul Greenlee
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RuleAnalyzerBenchmark {
+
+	private static final ZonedDateTime START = ZonedDateTime.of(2000, 1, 1, 9, 0, 0, 0, ZoneId.of("America/New_York"));
+
+	private PeriodicTemporalAdjuster impossible;
+	private PeriodicTemporalAdjuster thanksgiving;
+	private PeriodicTemporalAdjuster thanksgivingCompiled;
+	private ZonedDateTime time = START;
+
+	@Setup
+	public void setUp() {
+		impossible = new AllOfCompoundTemporalAdjuster(Arrays.<TemporalAdjuster>asList(MonthDay.of(1, 1),
+				CalendarAdjusters.dayOfWeekInMonth(2, DayOfWeek.MONDAY)), Period.ofYears(1));
+		thanksgiving = PeriodicTemporalAdjusters.forwardOnlyOf(new AllOfCompoundTemporalAdjuster(Arrays.asList(
+				Month.NOVEMBER, CalendarAdjusters.dayOfWeekInMonth(4, DayOfWeek.THURSDAY)), Period.ofYears(1)));
+		thanksgivingCompiled = PeriodicTemporalAdjusters.compile(thanksgiving);
+	}
+
+	private ZonedDateTime nextTime() {
+		time = time.plusDays(37);
+		if (time.getYear() >= 2090)
+			time = START;
+		return time;
+	}
+
+	@Benchmark
+	public Temporal impossibleUsed() {
+		try {
+			return LocalDate.of(2018, 1, 1).with(impossible);
+		} catch (DateTimeException e) {
+			return null;
+		}
+	}
+
+	@Benchmark
+	public Temporal impossibleUsedInZone() {
+		try {
+			return START.with(impossible);
+		} catch (DateTimeException e) {
+			return null;
+		}
+	}
+
+	@Benchmark
+	public PeriodicTemporalAdjuster impossibleCompiled() {
+		try {
+			return PeriodicTemporalAdjusters.compile(impossible);
+		} catch (IllegalArgumentException e) {
+			return null;
+		}
+	}
+
+	@Benchmark
+	public ZonedDateTime thanksgiving() {
+		return nextTime().with(thanksgiving);
+	}
+
+	@Benchmark
+	public ZonedDateTime thanksgivingCompiled() {
+		return nextTime().with(thanksgivingCompiled);
+	}
+
+}
@@ -0,0 +1,80 @@
+package com.paulgreenlee.time.periodic;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.MonthDay;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures finding the rule that fires next among many, by polling a
+ * {@link ScheduleIndex} and by scanning every rule, and loading the index in
+ * bulk. There are 100,000 rules.
+ *
+ * @author Paul Greenlee
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ScheduleIndexBenchmark {
+
+	private static final LocalDate START = LocalDate.of(2018, 1, 1);
+	private static final int RULES = 100000;
+
+	private Map<Integer, PeriodicTemporalAdjuster> byKey;
+	private List<PeriodicTemporalAdjuster> forwardOnly;
+	private ScheduleIndex<Integer, LocalDate> index;
+
+	@Setup
+	public void setUp() {
+		Random random = new Random(42);
+		byKey = new HashMap<>();
+		forwardOnly = new ArrayList<>();
+		for (int key = 0; key < RULES; key++) {
+			PeriodicTemporalAdjuster rule = random.nextBoolean()
+					? PeriodicTemporalAdjusters.weekly(DayOfWeek.of(1 + random.nextInt(7)))
+					: PeriodicTemporalAdjusters.annually(MonthDay.of(1 + random.nextInt(12), 1 + random.nextInt(28)));
+			byKey.put(key, rule);
+			forwardOnly.add(PeriodicTemporalAdjusters.forwardOnlyOf(rule));
+		}
+		index = new ScheduleIndex<>();
+		index.putAll(byKey, START);
+	}
+
+	@Benchmark
+	public ScheduleIndex.Entry<Integer, LocalDate> poll() {
+		return index.poll();
+	}
+
+	@Benchmark
+	public LocalDate scan() {
+		LocalDate earliest = LocalDate.MAX;
+		for (PeriodicTemporalAdjuster rule : forwardOnly) {
+			LocalDate next = START.with(rule);
+			if (next.isBefore(earliest))
+				earliest = next;
+		}
+		return earliest;
+	}
+
+	@Benchmark
+	public ScheduleIndex<Integer, LocalDate> putAll() {
+		ScheduleIndex<Integer, LocalDate> loaded = new ScheduleIndex<>();
+		loaded.putAll(byKey, START);
+		return loaded;
+	}
+
+}
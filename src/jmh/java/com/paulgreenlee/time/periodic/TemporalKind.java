@@ -0,0 +1,64 @@
+package com.paulgreenlee.time.periodic;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.temporal.Temporal;
+
+/**
+ * The kinds of {@link Temporal} every benchmark is run against. Each benchmark
+ * takes the kind as a JMH parameter so that results for the different types
+ * can be compared side by side.
+ *
+ * @author Paul Greenlee
+ *
+ */
+public enum TemporalKind {
+
+	LOCAL_DATE {
+		@Override
+		Temporal of(LocalDate date) {
+			return date;
+		}
+	},
+	LOCAL_DATE_TIME {
+		@Override
+		Temporal of(LocalDate date) {
+			return LocalDateTime.of(date, TIME_OF_DAY);
+		}
+	},
+	ZONED_DATE_TIME {
+		@Override
+		Temporal of(LocalDate date) {
+			return ZonedDateTime.of(date, TIME_OF_DAY, ZONE);
+		}
+	};
+
+	private static final LocalTime TIME_OF_DAY = LocalTime.of(9, 30);
+	private static final ZoneId ZONE = ZoneId.of("America/New_York");
+
+	/**
+	 * The number of distinct start values each benchmark cycles through. Using
+	 * more than one keeps the JIT from specializing on a single input.
+	 */
+	static final int START_COUNT = 64;
+
+	abstract Temporal of(LocalDate date);
+
+	/**
+	 * Start values spread across two years, roughly eleven days apart, so that
+	 * every day of the week and every month is represented.
+	 */
+	Temporal[] starts() {
+		Temporal[] starts = new Temporal[START_COUNT];
+		LocalDate date = LocalDate.of(2018, 1, 1);
+		for (int i = 0; i < starts.length; i++) {
+			starts[i] = of(date);
+			date = date.plusDays(11);
+		}
+		return starts;
+	}
+
+}
@@ -0,0 +1,122 @@
+package com.paulgreenlee.time.periodic;
+
+import java.time.temporal.Temporal;
+import java.time.temporal.TemporalAdjuster;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <p>
+ * A thread safe cache of adjustments, keyed by adjuster and the temporal
+ * that was adjusted, and bounded by the number of entries. Adjusters are
+ * compared with {@code equals}, so equal rules share their entries. Used by
+ * {@link CachedTemporalAdjuster} for rules that are slow to apply and are
+ * applied to the same temporals again and again.
+ * </p>
+ * <p>
+ * When the bound is exceeded the least recently used entries are dropped.
+ * Adjustments that throw are not cached. Only immutable temporals, such as
+ * those in {@code java.time}, should be adjusted through the cache.
+ * </p>
+ *
+ * @author Paul Greenlee
+ *
+ */
+public class AdjustmentCache {
+
+	private final BoundedCache<Key, Temporal> entries;
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+
+	public AdjustmentCache(long maxEntries) {
+		this.entries = new BoundedCache<>(maxEntries, adjusted -> 1);
+	}
+
+	/**
+	 * The temporal adjusted by the adjuster, from the cache if it is there.
+	 */
+	Temporal adjust(TemporalAdjuster adjuster, Temporal temporal) {
+		Key key = new Key(adjuster, Objects.requireNonNull(temporal, "temporal is required"));
+		Temporal cached = entries.getIfPresent(key);
+		if (cached != null) {
+			hits.increment();
+			return cached;
+		}
+		misses.increment();
+		// Adjusted outside the map, so an adjuster that uses this cache itself cannot block it.
+		Temporal adjusted = Objects.requireNonNull(adjuster.adjustInto(temporal), "adjusted temporal is required");
+		return entries.get(key, k -> adjusted);
+	}
+
+	/**
+	 * The number of adjustments found in the cache.
+	 */
+	public long hitCount() {
+		return hits.sum();
+	}
+
+	/**
+	 * The number of adjustments that were not in the cache, including any
+	 * that threw.
+	 */
+	public long missCount() {
+		return misses.sum();
+	}
+
+	/**
+	 * The fraction of adjustments found in the cache, or 1 if there have been
+	 * none.
+	 */
+	public double hitRate() {
+		long hitCount = hitCount();
+		long total = hitCount + missCount();
+		return total == 0 ? 1 : (double) hitCount / total;
+	}
+
+	public int size() {
+		return entries.size();
+	}
+
+	public long maxEntries() {
+		return entries.maxWeight();
+	}
+
+	/**
+	 * Drops every entry. The hit and miss counts are kept.
+	 */
+	public void clear() {
+		entries.invalidateAll();
+	}
+
+	private static final class Key {
+
+		private final TemporalAdjuster adjuster;
+		private final Temporal temporal;
+		private final int hash;
+
+		Key(TemporalAdjuster adjuster, Temporal temporal) {
+			this.adjuster = adjuster;
+			this.temporal = temporal;
+			this.hash = 31 * adjuster.hashCode() + temporal.hashCode();
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj)
+				return true;
+			if (obj == null)
+				return false;
+			if (getClass() != obj.getClass())
+				return false;
+			Key other = (Key) obj;
+			return hash == other.hash && temporal.equals(other.temporal) && adjuster.equals(other.adjuster);
+		}
+
+	}
+
+}
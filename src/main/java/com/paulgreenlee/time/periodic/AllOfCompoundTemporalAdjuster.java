@@ -1,6 +1,10 @@
 package com.paulgreenlee.time.periodic;
 
 import java.time.DateTimeException;
+import java.time.DayOfWeek;
+import java.time.Month;
+import java.time.MonthDay;
+import java.time.Period;
 import java.time.temporal.*;
 import java.util.*;
 
@@ -27,34 +31,111 @@ import java.util.*;
  * adjuster adjusts to a specific month, the advancer should advance to the next
  * year.
  * </p>
+ * <p>
+ * When every adjuster is one the library understands ({@link DayOfWeek},
+ * {@link Month}, {@link MonthDay} or anything from {@link CalendarAdjusters})
+ * and the period is a {@link Period}, candidate periods are tested with epoch
+ * day arithmetic and only the successful one is built as a Temporal. The
+ * result is the same either way, but rarely satisfied rules such as a leap day
+ * that falls on a Monday are found far faster.
+ * </p>
  * 
  * @author Paul Greenlee
  * 
  */
 public class AllOfCompoundTemporalAdjuster extends CompoundTemporalAdjuster implements PeriodicTemporalAdjuster {
 
+	private static final String LIMIT_MESSAGE = "iteration reached its limit. No date found meeting criteria";
+
 	private final TemporalAmount period;
+	/** The adjusters in the order their results are checked, which does not change the result. */
+	private final List<TemporalAdjuster> checks;
+	private final AllOfSolver solver;
+	private final EpochDayAdjuster epochDayAdjuster;
+	private final EpochSecondAdjuster epochSecondAdjuster;
 	
 	public AllOfCompoundTemporalAdjuster(List<TemporalAdjuster> adjusters, TemporalAmount period) {
+		this(adjusters, period, adjusters);
+	}
+
+	/**
+	 * @param checks
+	 *            the same adjusters, in the order to check that a candidate
+	 *            meets them, with the ones most candidates fail first
+	 */
+	AllOfCompoundTemporalAdjuster(List<TemporalAdjuster> adjusters, TemporalAmount period, List<TemporalAdjuster> checks) {
 		super(adjusters);
 		this.period = Objects.requireNonNull(period, "period is required");
+		this.checks = new ArrayList<>(checks);
+		// A subclass may step through periods differently, so only the plain class is compiled.
+		this.solver = getClass() == AllOfCompoundTemporalAdjuster.class
+				? AllOfSolver.compile(this.adjusters, this.checks, period) : null;
+		this.epochDayAdjuster = solver == null ? null : solver.epochDayAdjuster(ITERATION_LIMIT + 1);
+		this.epochSecondAdjuster = solver == null ? null : solver.epochSecondAdjuster(ITERATION_LIMIT + 1);
 	}
 	
 	@Override
 	public Temporal adjustInto(final Temporal temporal) {
-		Temporal beforeAttempt = Objects.requireNonNull(temporal);
+		Objects.requireNonNull(temporal);
+		if (solver != null && solver.supports(temporal))
+			return solve(temporal);
+		return search(temporal);
+	}
+
+	private Temporal search(final Temporal temporal) {
+		final SearchListener listener = SearchMetrics.listener();
+		final long started = listener == null ? 0 : System.nanoTime();
+		Temporal beforeAttempt = temporal;
 		Temporal afterAttempt = applyAdjusters(beforeAttempt);
 		int iterCount = 0;
+		int swallowed = 0;
 		while (afterAttempt == null || !allFieldsMatch(afterAttempt)) {
+			if (afterAttempt == null)
+				swallowed++;
 			beforeAttempt = nextPeriod(beforeAttempt);
 			afterAttempt = applyAdjusters(beforeAttempt);
-			if (iterCount++ >= ITERATION_LIMIT)
-				throw new DateTimeException("iteration reached its limit. No date found meeting criteria");
+			if (iterCount++ >= ITERATION_LIMIT) {
+				if (afterAttempt == null)
+					swallowed++;
+				if (listener != null)
+					listener.searchCompleted(this, iterCount, ITERATION_LIMIT, swallowed, System.nanoTime() - started, false);
+				throw new DateTimeException(LIMIT_MESSAGE);
+			}
 		}
+		if (listener != null)
+			listener.searchCompleted(this, iterCount, ITERATION_LIMIT, swallowed, System.nanoTime() - started, true);
 		
 		return afterAttempt;
 	}
 
+	/**
+	 * The same search, visiting the same candidate periods, but with each
+	 * candidate tested as an epoch day.
+	 */
+	private Temporal solve(final Temporal temporal) {
+		if (solver.neverMatches(temporal))
+			throw gaveUp();
+		long result = solver.search(temporal.getLong(ChronoField.EPOCH_DAY), ITERATION_LIMIT + 1);
+		if (result == AllOfSolver.NOT_FOUND)
+			throw gaveUp();
+		if (result == AllOfSolver.UNDECIDED)
+			return search(temporal);
+		Temporal solution = EpochDays.with(temporal, result);
+		// The date already matches, so this only sets the time of day.
+		return solver.hasTimeFields() ? applyAdjusters(solution) : solution;
+	}
+
+	/**
+	 * The solver visits the same periods a search would, so giving up is
+	 * reported as a search that reached the limit.
+	 */
+	private DateTimeException gaveUp() {
+		SearchListener listener = SearchMetrics.listener();
+		if (listener != null)
+			listener.searchCompleted(this, ITERATION_LIMIT + 1, ITERATION_LIMIT, 0, 0, false);
+		return new DateTimeException(LIMIT_MESSAGE);
+	}
+
 	private Temporal applyAdjusters(final Temporal temporal) {
 		Temporal adjusted = temporal;
 		for (TemporalAdjuster adjuster : adjusters) {
@@ -68,11 +149,19 @@ public class AllOfCompoundTemporalAdjuster extends CompoundTemporalAdjuster impl
 		return adjusted;
 	}
 	
+	/**
+	 * Whether every adjuster leaves the temporal as it is. One that cannot be
+	 * applied to it does not match, so the order of the checks never changes
+	 * the result.
+	 */
 	private boolean allFieldsMatch(Temporal temporal) {
-		for (TemporalAdjuster adjuster : adjusters) {
-			Temporal check = temporal.with(adjuster);
-			if (!check.equals(temporal))
+		for (TemporalAdjuster adjuster : checks) {
+			try {
+				if (!temporal.with(adjuster).equals(temporal))
+					return false;
+			} catch (DateTimeException e) {
 				return false;
+			}
 		}
 		return true;
 	}
@@ -80,8 +169,8 @@ public class AllOfCompoundTemporalAdjuster extends CompoundTemporalAdjuster impl
 	@Override
 	public int hashCode() {
 		final int prime = 31;
-		int result = 1;
-		result = prime * result + ((adjusters == null) ? 0 : adjusters.hashCode());
+		int result = super.hashCode();
+		result = prime * result + period.hashCode();
 		return result;
 	}
 
@@ -89,17 +178,27 @@ public class AllOfCompoundTemporalAdjuster extends CompoundTemporalAdjuster impl
 	public boolean equals(Object obj) {
 		if (this == obj)
 			return true;
-		if (obj == null)
-			return false;
-		if (getClass() != obj.getClass())
+		if (!super.equals(obj))
 			return false;
 		AllOfCompoundTemporalAdjuster other = (AllOfCompoundTemporalAdjuster) obj;
-		return adjusters.equals(other.adjusters);
+		return period.equals(other.period);
 	}
 
 	@Override
 	public TemporalAmount getPeriod() {
 		return period;
 	}
+
+	List<TemporalAdjuster> checks() {
+		return checks;
+	}
+
+	EpochDayAdjuster epochDayAdjuster() {
+		return epochDayAdjuster;
+	}
+
+	EpochSecondAdjuster epochSecondAdjuster() {
+		return epochSecondAdjuster;
+	}
 	
 }
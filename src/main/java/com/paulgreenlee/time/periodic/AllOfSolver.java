@@ -0,0 +1,237 @@
+package com.paulgreenlee.time.periodic;
+
+import java.time.Period;
+import java.time.temporal.ChronoField;
+import java.time.temporal.Temporal;
+import java.time.temporal.TemporalAdjuster;
+import java.time.temporal.TemporalAmount;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <p>
+ * The adjusters of an {@link AllOfCompoundTemporalAdjuster} compiled into
+ * epoch day arithmetic. It steps through the same candidate periods as the
+ * plain search without creating Temporals or catching exceptions, and only
+ * the match is turned back into a Temporal. Whenever the arithmetic cannot
+ * decide, because a candidate is out of range or checking it would throw, the
+ * plain search is run instead. The result is therefore identical.
+ * </p>
+ * <p>
+ * When every date adjuster only depends on the position within the 400 year
+ * Gregorian cycle and the period steps through that cycle without drifting,
+ * the candidates repeat once the cycle is complete. The search stops there
+ * instead of running to the iteration limit, so an impossible rule fails after
+ * at most 400 yearly or 4800 monthly candidates.
+ * </p>
+ *
+ * @author Paul Greenlee
+ *
+ */
+final class AllOfSolver {
+
+	/** Returned by {@link #search(long, int)} when no candidate matches. */
+	static final long NOT_FOUND = EpochDays.INVALID;
+	/**
+	 * Returned by {@link #search(long, int)} when the arithmetic cannot decide,
+	 * because a candidate is out of range or checking it would throw.
+	 */
+	static final long UNDECIDED = EpochDays.INVALID + 1;
+
+	private final EpochDayAdjuster[] dateAdjusters;
+	/** The same date adjusters, in the order their results are checked. */
+	private final EpochDayAdjuster[] dateChecks;
+	private final CalendarAdjusters.TimeFieldAdjuster[] timeAdjusters;
+	private final ChronoField[] timeFields;
+	private final boolean conflictingTimes;
+	private final boolean cyclic;
+	private final long months;
+	private final long days;
+
+	private AllOfSolver(List<EpochDayAdjuster> dateAdjusters, List<EpochDayAdjuster> dateChecks,
+			Map<ChronoField, CalendarAdjusters.TimeFieldAdjuster> timeValues, boolean conflictingTimes, Period period) {
+		this.dateAdjusters = dateAdjusters.toArray(new EpochDayAdjuster[dateAdjusters.size()]);
+		this.dateChecks = dateChecks.toArray(new EpochDayAdjuster[dateChecks.size()]);
+		this.timeAdjusters = timeValues.values().toArray(new CalendarAdjusters.TimeFieldAdjuster[timeValues.size()]);
+		this.timeFields = timeValues.keySet().toArray(new ChronoField[timeValues.size()]);
+		this.conflictingTimes = conflictingTimes;
+		this.cyclic = dateAdjusters.stream().allMatch(EpochDayAdjuster::isCyclic);
+		this.months = period.toTotalMonths();
+		this.days = period.getDays();
+	}
+
+	/**
+	 * @return the compiled form, or null if the period is not a {@link Period}
+	 *         or any adjuster is not recognized
+	 */
+	static AllOfSolver compile(List<TemporalAdjuster> adjusters, TemporalAmount period) {
+		return compile(adjusters, adjusters, period);
+	}
+
+	/**
+	 * @param checks
+	 *            the same adjusters, in the order their results are checked
+	 * @return the compiled form, or null if the period is not a {@link Period}
+	 *         or any adjuster is not recognized
+	 */
+	static AllOfSolver compile(List<TemporalAdjuster> adjusters, List<TemporalAdjuster> checks, TemporalAmount period) {
+		if (!(period instanceof Period))
+			return null;
+		List<EpochDayAdjuster> dateAdjusters = new ArrayList<>();
+		Map<ChronoField, CalendarAdjusters.TimeFieldAdjuster> timeValues = new HashMap<>();
+		boolean conflictingTimes = false;
+		for (TemporalAdjuster adjuster : adjusters) {
+			if (adjuster instanceof CalendarAdjusters.TimeFieldAdjuster) {
+				CalendarAdjusters.TimeFieldAdjuster time = (CalendarAdjusters.TimeFieldAdjuster) adjuster;
+				CalendarAdjusters.TimeFieldAdjuster previous = timeValues.put(time.field, time);
+				conflictingTimes |= previous != null && previous.value != time.value;
+				continue;
+			}
+			EpochDayAdjuster dateAdjuster = EpochDayAdjuster.of(adjuster);
+			if (dateAdjuster == null)
+				return null;
+			dateAdjusters.add(dateAdjuster);
+		}
+		List<EpochDayAdjuster> dateChecks = new ArrayList<>();
+		for (TemporalAdjuster adjuster : checks) {
+			if (!(adjuster instanceof CalendarAdjusters.TimeFieldAdjuster))
+				dateChecks.add(EpochDayAdjuster.of(adjuster));
+		}
+		return new AllOfSolver(dateAdjusters, dateChecks, timeValues, conflictingTimes, (Period) period);
+	}
+
+	/**
+	 * Whether candidates for this temporal can be tested as epoch days.
+	 */
+	boolean supports(Temporal temporal) {
+		return EpochDays.supports(temporal);
+	}
+
+	/**
+	 * Whether no candidate can ever match, because two adjusters set the same
+	 * time field to different values or the temporal has no such field. The
+	 * plain search would try every candidate and then give up.
+	 */
+	boolean neverMatches(Temporal temporal) {
+		if (conflictingTimes)
+			return true;
+		for (ChronoField field : timeFields) {
+			if (!temporal.isSupported(field))
+				return true;
+		}
+		return false;
+	}
+
+	/**
+	 * The number of candidates worth testing, starting from the given one. This
+	 * is the limit unless the candidates are known to repeat sooner.
+	 */
+	int candidates(long epochDay, int limit) {
+		if (!cyclic)
+			return limit;
+		long cycle;
+		if (days == 0 && months != 0 && EpochDays.day(EpochDays.packed(epochDay)) <= 28)
+			cycle = EpochDays.MONTHS_PER_CYCLE / EpochDays.gcd(EpochDays.MONTHS_PER_CYCLE, months);
+		else if (months == 0 && days != 0)
+			cycle = EpochDays.DAYS_PER_CYCLE / EpochDays.gcd(EpochDays.DAYS_PER_CYCLE, days);
+		else
+			return limit;
+		return (int) Math.min(limit, cycle);
+	}
+
+	/**
+	 * Searches the candidates from the given one onwards, visiting them in the
+	 * same order as the plain search.
+	 *
+	 * @return the epoch day of the first match, {@link #NOT_FOUND} or
+	 *         {@link #UNDECIDED}
+	 */
+	long search(long epochDay, int limit) {
+		long candidate = epochDay;
+		int candidates = candidates(epochDay, limit);
+		for (int i = 0; i < candidates; i++) {
+			if (i > 0) {
+				candidate = EpochDays.plus(candidate, months, days);
+				if (candidate == EpochDays.INVALID)
+					return UNDECIDED;
+			}
+			long result = check(candidate);
+			if (result != NOT_FOUND)
+				return result;
+		}
+		return NOT_FOUND;
+	}
+
+	/**
+	 * Applies the date adjusters to a candidate and checks the result, the way
+	 * the plain search does with Temporals.
+	 *
+	 * @return the adjusted epoch day if it matches, {@link #NOT_FOUND} if it
+	 *         does not, or {@link #UNDECIDED} if the check would throw
+	 */
+	private long check(long epochDay) {
+		long adjusted = epochDay;
+		for (EpochDayAdjuster adjuster : dateAdjusters) {
+			adjusted = adjuster.adjustEpochDay(adjusted);
+			if (adjusted == EpochDayAdjuster.INVALID)
+				return NOT_FOUND;
+		}
+		for (EpochDayAdjuster adjuster : dateChecks) {
+			long check = adjuster.adjustEpochDay(adjusted);
+			if (check == EpochDayAdjuster.INVALID)
+				return UNDECIDED;
+			if (check != adjusted)
+				return NOT_FOUND;
+		}
+		return adjusted;
+	}
+
+	boolean hasTimeFields() {
+		return timeFields.length > 0;
+	}
+
+	/**
+	 * The epoch day form of the whole compound adjuster, which only exists
+	 * when it does not set the time of day.
+	 */
+	EpochDayAdjuster epochDayAdjuster(int limit) {
+		if (hasTimeFields())
+			return null;
+		return new EpochDayAdjuster() {
+
+			@Override
+			public long adjustEpochDay(long epochDay) {
+				long result = search(epochDay, limit);
+				return result == UNDECIDED ? INVALID : result;
+			}
+
+			@Override
+			public boolean isCyclic() {
+				return cyclic;
+			}
+
+		};
+	}
+
+	/**
+	 * The epoch second form of the whole compound adjuster, which only exists
+	 * when the time fields agree and do not include the nanosecond.
+	 */
+	EpochSecondAdjuster epochSecondAdjuster(int limit) {
+		if (conflictingTimes || Arrays.asList(timeFields).contains(ChronoField.NANO_OF_SECOND))
+			return null;
+		return epochSecond -> {
+			long result = search(Math.floorDiv(epochSecond, PrimitiveAdjusters.SECONDS_PER_DAY), limit);
+			if (result == UNDECIDED || result == NOT_FOUND)
+				return EpochSecondAdjuster.INVALID;
+			long secondOfDay = Math.floorMod(epochSecond, PrimitiveAdjusters.SECONDS_PER_DAY);
+			for (CalendarAdjusters.TimeFieldAdjuster adjuster : timeAdjusters)
+				secondOfDay = adjuster.adjustSecondOfDay(secondOfDay);
+			return result * PrimitiveAdjusters.SECONDS_PER_DAY + secondOfDay;
+		};
+	}
+
+}
@@ -0,0 +1,134 @@
+package com.paulgreenlee.time.periodic;
+
+import java.time.DateTimeException;
+import java.time.temporal.Temporal;
+import java.time.temporal.TemporalAdjuster;
+import java.time.temporal.TemporalAmount;
+import java.time.temporal.TemporalQueries;
+import java.time.temporal.TemporalUnit;
+import java.util.Objects;
+
+/**
+ * The mirror image of {@link ForwardOnlyTemporalAdjuster}: a
+ * {@link PeriodicTemporalAdjuster} that only goes back in time, finding the
+ * previous occurrence. If an adjustment results in a time after (or equal to)
+ * the Temporal that was adjusted, the original Temporal is moved back by
+ * periods until an occurrence is found that is before the original time.
+ *
+ * @author Paul Greenlee
+ *
+ */
+public class BackwardOnlyTemporalAdjuster implements PeriodicTemporalAdjuster {
+
+	private final TemporalAdjuster adjuster;
+	private final TemporalAmount period;
+	private final SearchStrategy strategy;
+	private final boolean galloping;
+
+	public BackwardOnlyTemporalAdjuster(TemporalAdjuster adjuster, TemporalAmount period) {
+		this(adjuster, period, SearchStrategy.LINEAR);
+	}
+
+	/**
+	 * @param strategy
+	 *            how to step through periods; a subclass that changes
+	 *            {@link #previousPeriod(Temporal)}, and an adjuster not known to be
+	 *            monotonic, always steps linearly
+	 */
+	public BackwardOnlyTemporalAdjuster(TemporalAdjuster adjuster, TemporalAmount period, SearchStrategy strategy) {
+		this.adjuster = Objects.requireNonNull(adjuster, "a TemporalAdjuster is required");
+		this.period = Objects.requireNonNull(period);
+		this.strategy = Objects.requireNonNull(strategy, "strategy is required");
+		this.galloping = getClass() == BackwardOnlyTemporalAdjuster.class && strategy == SearchStrategy.GALLOPING
+				&& GallopingSearch.isMonotonic(adjuster);
+	}
+
+	public static BackwardOnlyTemporalAdjuster of(PeriodicTemporalAdjuster periodic) {
+		return new BackwardOnlyTemporalAdjuster(periodic, periodic.getPeriod());
+	}
+
+	public static BackwardOnlyTemporalAdjuster of(PeriodicTemporalAdjuster periodic, SearchStrategy strategy) {
+		return new BackwardOnlyTemporalAdjuster(periodic, periodic.getPeriod(), strategy);
+	}
+
+	@Override
+	public Temporal adjustInto(Temporal temporal) {
+		return search(temporal, temporal.query(TemporalQueries.precision()));
+	}
+
+	private Temporal search(Temporal temporal, TemporalUnit precision) {
+		SearchListener listener = SearchMetrics.listener();
+		long started = listener == null ? 0 : System.nanoTime();
+		Temporal beforeAttempt = temporal;
+		Temporal attempt = beforeAttempt.with(adjuster);
+		if (galloping && isAfterOriginalDate(temporal, attempt, precision)) {
+			GallopingSearch gallop = GallopingSearch.of(temporal, adjuster, period, precision, true);
+			if (gallop != null && gallop.run(attempt, ForwardOnlyTemporalAdjuster.SAFETY_CUTOFF)) {
+				if (listener != null)
+					listener.searchCompleted(this, gallop.periods(), ForwardOnlyTemporalAdjuster.SAFETY_CUTOFF, 0,
+							System.nanoTime() - started, true);
+				return gallop.occurrence();
+			}
+		}
+		int count = 0;
+		while (isAfterOriginalDate(temporal, attempt, precision)) {
+			beforeAttempt = previousPeriod(beforeAttempt);
+			attempt = beforeAttempt.with(adjuster);
+			if (count++ >= ForwardOnlyTemporalAdjuster.SAFETY_CUTOFF) {
+				if (listener != null)
+					listener.searchCompleted(this, count, ForwardOnlyTemporalAdjuster.SAFETY_CUTOFF, 0,
+							System.nanoTime() - started, false);
+				throw new DateTimeException("Potentially inifinite loop encountered in temporal adjusters");
+			}
+		}
+		if (listener != null)
+			listener.searchCompleted(this, count, ForwardOnlyTemporalAdjuster.SAFETY_CUTOFF, 0,
+					System.nanoTime() - started, true);
+		return attempt;
+	}
+
+	private boolean isAfterOriginalDate(Temporal temporal, Temporal attempt, TemporalUnit precision) {
+		// Using the smallest unit supported, compare the two temporals.
+		return precision.between(attempt, temporal) <= 0;
+	}
+
+	public Temporal previousPeriod(Temporal temporal) {
+		return period.subtractFrom(temporal);
+	}
+
+	@Override
+	public TemporalAmount getPeriod() {
+		return period;
+	}
+
+	public SearchStrategy getStrategy() {
+		return strategy;
+	}
+
+	TemporalAdjuster adjuster() {
+		return adjuster;
+	}
+
+	@Override
+	public int hashCode() {
+		final int prime = 31;
+		int result = 1;
+		result = prime * result + adjuster.hashCode();
+		result = prime * result + period.hashCode();
+		result = prime * result + strategy.hashCode();
+		return result;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		BackwardOnlyTemporalAdjuster other = (BackwardOnlyTemporalAdjuster) obj;
+		return adjuster.equals(other.adjuster) && period.equals(other.period) && strategy == other.strategy;
+	}
+
+}
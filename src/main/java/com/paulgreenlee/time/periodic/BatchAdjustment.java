@@ -0,0 +1,122 @@
+package com.paulgreenlee.time.periodic;
+
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjuster;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * <p>
+ * Adjusts arrays of epoch days, either with one rule or with a rule chosen
+ * for each row from a list. The {@link EpochDayAdjuster} form of each rule is
+ * looked up once, so the loop over the rows only reads a long, calls the
+ * primitive form and writes a long. Rows the primitive form gives up on, and
+ * rules without one, are adjusted as {@link LocalDate}s.
+ * </p>
+ * <p>
+ * The parallel form splits the rows in halves on the common
+ * {@link ForkJoinPool} until each piece is small enough to run on its own.
+ * Every row is independent, so the result is the same either way.
+ * </p>
+ *
+ * @author Paul Greenlee
+ *
+ */
+final class BatchAdjustment extends RecursiveAction {
+
+	private static final long serialVersionUID = 1L;
+
+	/** Rows per task. Large enough that the cost of forking is lost in the noise. */
+	static final int THRESHOLD = 8192;
+
+	private final TemporalAdjuster[] rules;
+	private final EpochDayAdjuster[] forms;
+	private final int[] ruleIds;
+	private final long[] epochDaysIn;
+	private final long[] epochDaysOut;
+	private final int from;
+	private final int to;
+
+	private BatchAdjustment(TemporalAdjuster[] rules, EpochDayAdjuster[] forms, int[] ruleIds,
+			long[] epochDaysIn, long[] epochDaysOut, int from, int to) {
+		this.rules = rules;
+		this.forms = forms;
+		this.ruleIds = ruleIds;
+		this.epochDaysIn = epochDaysIn;
+		this.epochDaysOut = epochDaysOut;
+		this.from = from;
+		this.to = to;
+	}
+
+	/**
+	 * @param ruleIds
+	 *            the index of the rule for each row, or null if there is only
+	 *            one rule
+	 */
+	static void adjustAll(List<? extends TemporalAdjuster> rules, int[] ruleIds, long[] epochDaysIn,
+			long[] epochDaysOut, boolean parallel) {
+		Objects.requireNonNull(rules, "rules are required");
+		Objects.requireNonNull(epochDaysIn, "epochDaysIn is required");
+		Objects.requireNonNull(epochDaysOut, "epochDaysOut is required");
+		if (epochDaysIn.length != epochDaysOut.length)
+			throw new IllegalArgumentException("arrays differ in length: " + epochDaysIn.length + " and " + epochDaysOut.length);
+		if (ruleIds != null && ruleIds.length != epochDaysIn.length)
+			throw new IllegalArgumentException("ruleIds differs in length: " + ruleIds.length + " and " + epochDaysIn.length);
+		TemporalAdjuster[] ruleArray = rules.toArray(new TemporalAdjuster[rules.size()]);
+		EpochDayAdjuster[] forms = new EpochDayAdjuster[ruleArray.length];
+		for (int i = 0; i < ruleArray.length; i++)
+			forms[i] = EpochDayAdjuster.of(Objects.requireNonNull(ruleArray[i], "rule is required"));
+		BatchAdjustment batch = new BatchAdjustment(ruleArray, forms, ruleIds, epochDaysIn, epochDaysOut, 0, epochDaysIn.length);
+		if (parallel && epochDaysIn.length > THRESHOLD)
+			ForkJoinPool.commonPool().invoke(batch);
+		else
+			batch.adjustRange();
+	}
+
+	@Override
+	protected void compute() {
+		if (to - from <= THRESHOLD) {
+			adjustRange();
+			return;
+		}
+		int middle = (from + to) >>> 1;
+		invokeAll(new BatchAdjustment(rules, forms, ruleIds, epochDaysIn, epochDaysOut, from, middle),
+				new BatchAdjustment(rules, forms, ruleIds, epochDaysIn, epochDaysOut, middle, to));
+	}
+
+	private void adjustRange() {
+		if (ruleIds == null)
+			adjustRange(rules[0], forms[0]);
+		else
+			adjustRangeByRule();
+	}
+
+	/** One rule for every row, so the loop only ever makes the one call. */
+	private void adjustRange(TemporalAdjuster rule, EpochDayAdjuster form) {
+		if (form == null) {
+			for (int i = from; i < to; i++)
+				epochDaysOut[i] = adjust(rule, epochDaysIn[i]);
+			return;
+		}
+		for (int i = from; i < to; i++) {
+			long adjusted = form.adjustEpochDay(epochDaysIn[i]);
+			epochDaysOut[i] = adjusted != EpochDayAdjuster.INVALID ? adjusted : adjust(rule, epochDaysIn[i]);
+		}
+	}
+
+	private void adjustRangeByRule() {
+		for (int i = from; i < to; i++) {
+			int ruleId = ruleIds[i];
+			EpochDayAdjuster form = forms[ruleId];
+			long adjusted = form != null ? form.adjustEpochDay(epochDaysIn[i]) : EpochDayAdjuster.INVALID;
+			epochDaysOut[i] = adjusted != EpochDayAdjuster.INVALID ? adjusted : adjust(rules[ruleId], epochDaysIn[i]);
+		}
+	}
+
+	private static long adjust(TemporalAdjuster rule, long epochDay) {
+		return LocalDate.ofEpochDay(epochDay).with(rule).toEpochDay();
+	}
+
+}
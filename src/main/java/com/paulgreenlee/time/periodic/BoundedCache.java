@@ -0,0 +1,151 @@
+package com.paulgreenlee.time.periodic;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * <p>
+ * A concurrent cache bounded by the total weight of its values. Reads never
+ * lock. When the bound is exceeded the least recently used entries are
+ * evicted until the cache is back down to three quarters of the bound, so the
+ * cost of eviction is spread over many insertions.
+ * </p>
+ * <p>
+ * Recency is tracked with a shared counter stamped on each entry when it is
+ * read, which makes the eviction order approximate under contention.
+ * </p>
+ *
+ * @author Paul Greenlee
+ *
+ * @param <K>
+ *            the type of key
+ * @param <V>
+ *            the type of value, which may not be null
+ */
+final class BoundedCache<K, V> {
+
+	private final ConcurrentHashMap<K, Node<V>> map = new ConcurrentHashMap<>();
+	private final AtomicLong clock = new AtomicLong();
+	private final AtomicLong weight = new AtomicLong();
+	private final long maxWeight;
+	private final ToLongFunction<? super V> weigher;
+
+	BoundedCache(long maxWeight, ToLongFunction<? super V> weigher) {
+		if (maxWeight <= 0)
+			throw new IllegalArgumentException("maximum weight must be positive: " + maxWeight);
+		this.maxWeight = maxWeight;
+		this.weigher = weigher;
+	}
+
+	/**
+	 * The value for the key, loading it if it is not present. Concurrent calls
+	 * for the same key load it only once.
+	 */
+	V get(K key, Function<? super K, ? extends V> loader) {
+		Node<V> node = map.get(key);
+		if (node == null) {
+			boolean[] loaded = new boolean[1];
+			node = map.computeIfAbsent(key, k -> {
+				loaded[0] = true;
+				V value = loader.apply(k);
+				return new Node<>(value, weigher.applyAsLong(value));
+			});
+			if (loaded[0] && weight.addAndGet(node.weight) > maxWeight)
+				evict();
+		}
+		node.stamp = clock.incrementAndGet();
+		return node.value;
+	}
+
+	V getIfPresent(K key) {
+		Node<V> node = map.get(key);
+		if (node == null)
+			return null;
+		node.stamp = clock.incrementAndGet();
+		return node.value;
+	}
+
+	/**
+	 * A copy of the entries, without touching their recency.
+	 */
+	Map<K, V> snapshot() {
+		Map<K, V> entries = new HashMap<>(map.size() * 4 / 3 + 1);
+		for (Map.Entry<K, Node<V>> entry : map.entrySet())
+			entries.put(entry.getKey(), entry.getValue().value);
+		return entries;
+	}
+
+	void invalidateAll() {
+		for (K key : map.keySet())
+			remove(key);
+	}
+
+	int size() {
+		return map.size();
+	}
+
+	long weight() {
+		return weight.get();
+	}
+
+	long maxWeight() {
+		return maxWeight;
+	}
+
+	private void remove(K key) {
+		Node<V> node = map.remove(key);
+		if (node != null)
+			weight.addAndGet(-node.weight);
+	}
+
+	private synchronized void evict() {
+		if (weight.get() <= maxWeight)
+			return;
+		// Stamps keep changing while we sort, so sort on a copy of them.
+		List<Candidate<K, V>> candidates = new ArrayList<>(map.size());
+		for (Map.Entry<K, Node<V>> entry : map.entrySet())
+			candidates.add(new Candidate<>(entry.getKey(), entry.getValue()));
+		candidates.sort((a, b) -> Long.compare(a.stamp, b.stamp));
+		long target = maxWeight - maxWeight / 4;
+		for (Candidate<K, V> candidate : candidates) {
+			if (weight.get() <= target)
+				break;
+			if (map.remove(candidate.key, candidate.node))
+				weight.addAndGet(-candidate.node.weight);
+		}
+	}
+
+	private static final class Candidate<K, V> {
+
+		final K key;
+		final Node<V> node;
+		final long stamp;
+
+		Candidate(K key, Node<V> node) {
+			this.key = key;
+			this.node = node;
+			this.stamp = node.stamp;
+		}
+
+	}
+
+	private static final class Node<V> {
+
+		final V value;
+		final long weight;
+		volatile long stamp;
+
+		Node(V value, long weight) {
+			this.value = value;
+			this.weight = weight;
+		}
+
+	}
+
+}
@@ -0,0 +1,73 @@
+package com.paulgreenlee.time.periodic;
+
+import java.time.temporal.Temporal;
+import java.time.temporal.TemporalAmount;
+import java.util.Objects;
+
+/**
+ * <p>
+ * A {@link PeriodicTemporalAdjuster} that remembers its adjustments in an
+ * {@link AdjustmentCache}. Meant for rules built from opaque adjusters, such
+ * as lambdas, which the library cannot speed up itself, when the same
+ * temporals are adjusted many times.
+ * </p>
+ * <p>
+ * The cache may be shared between rules. Rules are compared with
+ * {@code equals}, so two equal rules built separately use the same entries.
+ * Lambdas are only equal to themselves, so build rules from them once and
+ * keep them.
+ * </p>
+ *
+ * @author Paul Greenlee
+ *
+ */
+public class CachedTemporalAdjuster implements PeriodicTemporalAdjuster {
+
+	private final PeriodicTemporalAdjuster rule;
+	private final AdjustmentCache cache;
+
+	public CachedTemporalAdjuster(PeriodicTemporalAdjuster rule, AdjustmentCache cache) {
+		this.rule = Objects.requireNonNull(rule, "rule is required");
+		this.cache = Objects.requireNonNull(cache, "cache is required");
+	}
+
+	@Override
+	public Temporal adjustInto(Temporal temporal) {
+		return cache.adjust(rule, temporal);
+	}
+
+	@Override
+	public TemporalAmount getPeriod() {
+		return rule.getPeriod();
+	}
+
+	@Override
+	public Temporal nextPeriod(Temporal temporal) {
+		return rule.nextPeriod(temporal);
+	}
+
+	/**
+	 * The cache, for its hit and miss counts.
+	 */
+	public AdjustmentCache getCache() {
+		return cache;
+	}
+
+	@Override
+	public int hashCode() {
+		return rule.hashCode();
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		CachedTemporalAdjuster other = (CachedTemporalAdjuster) obj;
+		return rule.equals(other.rule) && cache == other.cache;
+	}
+
+}
@@ -0,0 +1,767 @@
+package com.paulgreenlee.time.periodic;
+
+import java.time.DateTimeException;
+import java.time.DayOfWeek;
+import java.time.Month;
+import java.time.MonthDay;
+import java.time.temporal.ChronoField;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.Temporal;
+import java.time.temporal.TemporalAdjuster;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * <p>
+ * Drop-in replacements for the common {@link TemporalAdjusters} and for
+ * setting a field to a fixed value. They adjust exactly as their counterparts
+ * do, but unlike the lambdas returned by {@code TemporalAdjusters} the library
+ * can see what they do. {@link AllOfCompoundTemporalAdjuster} uses that to
+ * test candidate dates with plain arithmetic instead of repeatedly adjusting
+ * Temporals, which matters a great deal for rules that are rarely satisfied.
+ * </p>
+ * <p>
+ * {@link DayOfWeek}, {@link java.time.Month} and {@link MonthDay} are
+ * recognized as they are and need no replacement.
+ * </p>
+ * <p>
+ * All of the adjusters returned are immutable and have value based
+ * {@code equals} and {@code hashCode}.
+ * </p>
+ *
+ * @author Paul Greenlee
+ *
+ */
+public final class CalendarAdjusters {
+
+	private CalendarAdjusters() { }
+
+	/**
+	 * Sets a field to a fixed value, like {@code temporal.with(field, value)}.
+	 * Date fields and the hour, minute, second and nanosecond are understood by
+	 * the library. Any other field works, but is treated like any other opaque
+	 * adjuster.
+	 *
+	 * @throws java.time.DateTimeException
+	 *             if the value is outside the range of the field
+	 */
+	public static TemporalAdjuster field(ChronoField field, long value) {
+		Objects.requireNonNull(field, "field is required");
+		field.checkValidValue(value);
+		switch (field) {
+		case DAY_OF_WEEK:
+		case DAY_OF_MONTH:
+		case DAY_OF_YEAR:
+		case MONTH_OF_YEAR:
+		case YEAR:
+		case EPOCH_DAY:
+			return new DateFieldAdjuster(field, value);
+		case HOUR_OF_DAY:
+		case MINUTE_OF_HOUR:
+		case SECOND_OF_MINUTE:
+		case NANO_OF_SECOND:
+			return new TimeFieldAdjuster(field, value);
+		default:
+			return new FieldAdjuster(field, value);
+		}
+	}
+
+	/** Equivalent to {@link TemporalAdjusters#dayOfWeekInMonth(int, DayOfWeek)}. */
+	public static TemporalAdjuster dayOfWeekInMonth(int ordinal, DayOfWeek dayOfWeek) {
+		return new DayOfWeekInMonthAdjuster(ordinal, Objects.requireNonNull(dayOfWeek, "dayOfWeek is required"));
+	}
+
+	/** Equivalent to {@link TemporalAdjusters#firstInMonth(DayOfWeek)}. */
+	public static TemporalAdjuster firstInMonth(DayOfWeek dayOfWeek) {
+		return dayOfWeekInMonth(1, dayOfWeek);
+	}
+
+	/** Equivalent to {@link TemporalAdjusters#lastInMonth(DayOfWeek)}. */
+	public static TemporalAdjuster lastInMonth(DayOfWeek dayOfWeek) {
+		return dayOfWeekInMonth(-1, dayOfWeek);
+	}
+
+	/** Equivalent to {@link TemporalAdjusters#firstDayOfMonth()}. */
+	public static TemporalAdjuster firstDayOfMonth() {
+		return field(ChronoField.DAY_OF_MONTH, 1);
+	}
+
+	/** Equivalent to {@link TemporalAdjusters#lastDayOfMonth()}. */
+	public static TemporalAdjuster lastDayOfMonth() {
+		return LastDayOfAdjuster.MONTH;
+	}
+
+	/** Equivalent to {@link TemporalAdjusters#firstDayOfYear()}. */
+	public static TemporalAdjuster firstDayOfYear() {
+		return field(ChronoField.DAY_OF_YEAR, 1);
+	}
+
+	/** Equivalent to {@link TemporalAdjusters#lastDayOfYear()}. */
+	public static TemporalAdjuster lastDayOfYear() {
+		return LastDayOfAdjuster.YEAR;
+	}
+
+	/**
+	 * The nearest of the given days of the week, within the same Monday to
+	 * Sunday week, as {@link NearestOfCompoundTemporalAdjuster} would choose
+	 * among the {@link DayOfWeek}s themselves, but without trying each one.
+	 * Ties go to the earlier day, and nearness is counted in days.
+	 */
+	public static TemporalAdjuster nearestDayOfWeek(DayOfWeek dayOfWeek, DayOfWeek... otherDays) {
+		long members = bit(Objects.requireNonNull(dayOfWeek, "dayOfWeek is required").getValue());
+		for (DayOfWeek other : otherDays)
+			members |= bit(Objects.requireNonNull(other, "dayOfWeek is required").getValue());
+		return new DayOfWeekSetAdjuster(members);
+	}
+
+	/**
+	 * The nearest of the given days of the month, within the same month. Days
+	 * the month does not have are left out, and a month with none of the days
+	 * cannot be adjusted. Ties go to the earlier day.
+	 *
+	 * @throws java.time.DateTimeException
+	 *             if a day is not from 1 to 31
+	 */
+	public static TemporalAdjuster nearestDayOfMonth(int dayOfMonth, int... otherDays) {
+		long members = bit(ChronoField.DAY_OF_MONTH.checkValidIntValue(dayOfMonth));
+		for (int other : otherDays)
+			members |= bit(ChronoField.DAY_OF_MONTH.checkValidIntValue(other));
+		return new DayOfMonthSetAdjuster(members);
+	}
+
+	/**
+	 * The nearest of the given months, within the same year, keeping the day
+	 * of the month as {@link Month} does. Ties go to the earlier month, and
+	 * nearness is counted in months.
+	 */
+	public static TemporalAdjuster nearestMonth(Month month, Month... otherMonths) {
+		long members = bit(Objects.requireNonNull(month, "month is required").getValue());
+		for (Month other : otherMonths)
+			members |= bit(Objects.requireNonNull(other, "month is required").getValue());
+		return new MonthSetAdjuster(members);
+	}
+
+	/**
+	 * The nearest of the given days of the week in the month, such as the
+	 * first Monday and the last Friday, within the same month. The members
+	 * must come from {@link #dayOfWeekInMonth(int, DayOfWeek)},
+	 * {@link #firstInMonth(DayOfWeek)} or {@link #lastInMonth(DayOfWeek)},
+	 * with an ordinal from 1 to 5 or -1 to -5. Unlike those, a member the
+	 * month does not have, such as a fifth Monday, is left out rather than
+	 * moved into the next month. A month with none of them cannot be adjusted.
+	 * Ties go to the earlier day.
+	 *
+	 * @throws IllegalArgumentException
+	 *             if a member is not one of those adjusters, or its ordinal is
+	 *             out of range
+	 */
+	public static TemporalAdjuster nearestDayOfWeekInMonth(TemporalAdjuster dayOfWeekInMonth,
+			TemporalAdjuster... others) {
+		List<TemporalAdjuster> all = new ArrayList<>();
+		all.add(dayOfWeekInMonth);
+		all.addAll(Arrays.asList(others));
+		int[] members = new int[7];
+		for (TemporalAdjuster adjuster : all) {
+			if (!(adjuster instanceof DayOfWeekInMonthAdjuster))
+				throw new IllegalArgumentException("not a day of the week in the month: " + adjuster);
+			DayOfWeekInMonthAdjuster member = (DayOfWeekInMonthAdjuster) adjuster;
+			int ordinal = member.ordinal;
+			if (ordinal == 0 || ordinal < -5 || ordinal > 5)
+				throw new IllegalArgumentException("ordinal must be from 1 to 5 or -1 to -5: " + ordinal);
+			// Bits 0 to 4 for the first to fifth, 5 to 9 for the last to fifth from last
+			members[member.dayOfWeek - 1] |= 1 << (ordinal > 0 ? ordinal - 1 : 4 - ordinal);
+		}
+		return new DayOfWeekInMonthSetAdjuster(members);
+	}
+
+	private static long bit(int index) {
+		return 1L << index;
+	}
+
+	/**
+	 * The member nearest to an index, ties going to the lower, or -1 if there
+	 * are no members.
+	 */
+	static int nearestMember(long members, int index) {
+		if ((members & (1L << index)) != 0)
+			return index;
+		long below = members & ((1L << index) - 1);
+		long above = members & (-2L << index);
+		if (below == 0)
+			return above == 0 ? -1 : Long.numberOfTrailingZeros(above);
+		int lower = 63 - Long.numberOfLeadingZeros(below);
+		if (above == 0)
+			return lower;
+		int upper = Long.numberOfTrailingZeros(above);
+		return index - lower <= upper - index ? lower : upper;
+	}
+
+	private static String members(long members, int first, int last) {
+		StringBuilder builder = new StringBuilder();
+		for (int i = first; i <= last; i++) {
+			if ((members & (1L << i)) != 0)
+				builder.append(builder.length() == 0 ? "" : ", ").append(i);
+		}
+		return builder.toString();
+	}
+
+	/**
+	 * Sets a field to a fixed value. Used as is for fields the library has no
+	 * special knowledge of.
+	 */
+	static class FieldAdjuster implements TemporalAdjuster {
+
+		final ChronoField field;
+		final long value;
+
+		FieldAdjuster(ChronoField field, long value) {
+			this.field = field;
+			this.value = value;
+		}
+
+		@Override
+		public Temporal adjustInto(Temporal temporal) {
+			return temporal.with(field, value);
+		}
+
+		@Override
+		public int hashCode() {
+			final int prime = 31;
+			int result = 1;
+			result = prime * result + field.hashCode();
+			result = prime * result + Long.hashCode(value);
+			return result;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj)
+				return true;
+			if (obj == null)
+				return false;
+			if (getClass() != obj.getClass())
+				return false;
+			FieldAdjuster other = (FieldAdjuster) obj;
+			return field == other.field && value == other.value;
+		}
+
+		@Override
+		public String toString() {
+			return field + "=" + value;
+		}
+
+	}
+
+	/**
+	 * Sets a date field, with the same validation and clamping as
+	 * {@code LocalDate.with(field, value)}.
+	 */
+	static final class DateFieldAdjuster extends FieldAdjuster implements EpochDayAdjuster {
+
+		DateFieldAdjuster(ChronoField field, long value) {
+			super(field, value);
+		}
+
+		@Override
+		public long adjustEpochDay(long epochDay) {
+			long packed;
+			switch (field) {
+			case DAY_OF_WEEK:
+				return epochDay + (value - EpochDays.dayOfWeek(epochDay));
+			case DAY_OF_MONTH:
+				packed = EpochDays.packed(epochDay);
+				if (value > EpochDays.lengthOfMonth(EpochDays.year(packed), EpochDays.month(packed)))
+					return INVALID;
+				return EpochDays.of(EpochDays.year(packed), EpochDays.month(packed), (int) value);
+			case DAY_OF_YEAR:
+				long year = EpochDays.year(EpochDays.packed(epochDay));
+				if (value > EpochDays.lengthOfYear(year))
+					return INVALID;
+				return EpochDays.of(year, 1, 1) + value - 1;
+			case MONTH_OF_YEAR:
+				packed = EpochDays.packed(epochDay);
+				return EpochDays.withYearMonth(EpochDays.year(packed), (int) value, EpochDays.day(packed));
+			case YEAR:
+				packed = EpochDays.packed(epochDay);
+				return EpochDays.withYearMonth(value, EpochDays.month(packed), EpochDays.day(packed));
+			default:
+				return value;
+			}
+		}
+
+		@Override
+		public boolean isCyclic() {
+			return field != ChronoField.YEAR && field != ChronoField.EPOCH_DAY;
+		}
+
+	}
+
+	/**
+	 * Sets a field of the time of day. On the temporals the library works with
+	 * directly this never changes the date.
+	 */
+	static final class TimeFieldAdjuster extends FieldAdjuster {
+
+		TimeFieldAdjuster(ChronoField field, long value) {
+			super(field, value);
+		}
+
+		/**
+		 * The epoch second form, or null for the nanosecond, which epoch seconds
+		 * cannot express.
+		 */
+		EpochSecondAdjuster epochSecondAdjuster() {
+			if (field == ChronoField.NANO_OF_SECOND)
+				return null;
+			return epochSecond -> withSecondOfDay(epochSecond, adjustSecondOfDay(Math.floorMod(epochSecond, PrimitiveAdjusters.SECONDS_PER_DAY)));
+		}
+
+		/** Sets this field within a second of the day. */
+		long adjustSecondOfDay(long secondOfDay) {
+			switch (field) {
+			case HOUR_OF_DAY:
+				return secondOfDay % 3600 + value * 3600;
+			case MINUTE_OF_HOUR:
+				return secondOfDay - secondOfDay % 3600 + value * 60 + secondOfDay % 60;
+			default:
+				return secondOfDay - secondOfDay % 60 + value;
+			}
+		}
+
+		static long withSecondOfDay(long epochSecond, long secondOfDay) {
+			return epochSecond - Math.floorMod(epochSecond, PrimitiveAdjusters.SECONDS_PER_DAY) + secondOfDay;
+		}
+
+	}
+
+	/**
+	 * The epoch day form of a {@link MonthDay}, which moves to the last day of
+	 * the month when the day does not exist in that year.
+	 */
+	static final class MonthDayAdjuster implements EpochDayAdjuster {
+
+		private final int month;
+		private final int day;
+
+		MonthDayAdjuster(MonthDay monthDay) {
+			this.month = monthDay.getMonthValue();
+			this.day = monthDay.getDayOfMonth();
+		}
+
+		@Override
+		public long adjustEpochDay(long epochDay) {
+			return EpochDays.withYearMonth(EpochDays.year(EpochDays.packed(epochDay)), month, day);
+		}
+
+		@Override
+		public boolean isCyclic() {
+			return true;
+		}
+
+	}
+
+	static final class DayOfWeekInMonthAdjuster implements TemporalAdjuster, EpochDayAdjuster {
+
+		final int ordinal;
+		final int dayOfWeek;
+
+		DayOfWeekInMonthAdjuster(int ordinal, DayOfWeek dayOfWeek) {
+			this.ordinal = ordinal;
+			this.dayOfWeek = dayOfWeek.getValue();
+		}
+
+		/** The same steps as {@link TemporalAdjusters#dayOfWeekInMonth(int, DayOfWeek)}. */
+		@Override
+		public Temporal adjustInto(Temporal temporal) {
+			if (ordinal >= 0) {
+				Temporal first = temporal.with(ChronoField.DAY_OF_MONTH, 1);
+				int firstDayOfWeek = first.get(ChronoField.DAY_OF_WEEK);
+				int difference = (dayOfWeek - firstDayOfWeek + 7) % 7;
+				difference += (ordinal - 1L) * 7L;
+				return first.plus(difference, ChronoUnit.DAYS);
+			}
+			Temporal last = temporal.with(ChronoField.DAY_OF_MONTH, temporal.range(ChronoField.DAY_OF_MONTH).getMaximum());
+			return last.plus(lastDifference(last.get(ChronoField.DAY_OF_WEEK)), ChronoUnit.DAYS);
+		}
+
+		@Override
+		public long adjustEpochDay(long epochDay) {
+			long packed = EpochDays.packed(epochDay);
+			long year = EpochDays.year(packed);
+			int month = EpochDays.month(packed);
+			long result;
+			if (ordinal >= 0) {
+				long first = EpochDays.of(year, month, 1);
+				int difference = (dayOfWeek - EpochDays.dayOfWeek(first) + 7) % 7;
+				difference += (ordinal - 1L) * 7L;
+				result = first + difference;
+			} else {
+				long last = EpochDays.of(year, month, EpochDays.lengthOfMonth(year, month));
+				result = last + lastDifference(EpochDays.dayOfWeek(last));
+			}
+			return result < EpochDays.MIN || result > EpochDays.MAX ? INVALID : result;
+		}
+
+		private int lastDifference(int lastDayOfWeek) {
+			int difference = dayOfWeek - lastDayOfWeek;
+			difference = (difference == 0 ? 0 : (difference > 0 ? difference - 7 : difference));
+			difference -= (-ordinal - 1L) * 7L;
+			return difference;
+		}
+
+		@Override
+		public boolean isCyclic() {
+			return true;
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * ordinal + dayOfWeek;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj)
+				return true;
+			if (obj == null)
+				return false;
+			if (getClass() != obj.getClass())
+				return false;
+			DayOfWeekInMonthAdjuster other = (DayOfWeekInMonthAdjuster) obj;
+			return ordinal == other.ordinal && dayOfWeek == other.dayOfWeek;
+		}
+
+		@Override
+		public String toString() {
+			return "DayOfWeekInMonth[" + ordinal + " " + DayOfWeek.of(dayOfWeek) + "]";
+		}
+
+	}
+
+	/**
+	 * The days of the week in a bitmask, bit 1 for Monday to bit 7 for Sunday.
+	 */
+	static final class DayOfWeekSetAdjuster implements TemporalAdjuster, EpochDayAdjuster {
+
+		private final long members;
+
+		DayOfWeekSetAdjuster(long members) {
+			this.members = members;
+		}
+
+		/** The same step as {@link DayOfWeek#adjustInto(Temporal)}, to the nearest member. */
+		@Override
+		public Temporal adjustInto(Temporal temporal) {
+			int dayOfWeek = temporal.get(ChronoField.DAY_OF_WEEK);
+			int nearest = nearestMember(members, dayOfWeek);
+			return nearest == dayOfWeek ? temporal : temporal.plus(nearest - dayOfWeek, ChronoUnit.DAYS);
+		}
+
+		@Override
+		public long adjustEpochDay(long epochDay) {
+			int dayOfWeek = EpochDays.dayOfWeek(epochDay);
+			return epochDay + nearestMember(members, dayOfWeek) - dayOfWeek;
+		}
+
+		@Override
+		public boolean isCyclic() {
+			return true;
+		}
+
+		/** The number of days in the set. */
+		int size() {
+			return Long.bitCount(members);
+		}
+
+		boolean contains(DayOfWeek dayOfWeek) {
+			return (members & bit(dayOfWeek.getValue())) != 0;
+		}
+
+		@Override
+		public int hashCode() {
+			return Long.hashCode(members);
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj)
+				return true;
+			if (obj == null)
+				return false;
+			if (getClass() != obj.getClass())
+				return false;
+			DayOfWeekSetAdjuster other = (DayOfWeekSetAdjuster) obj;
+			return members == other.members;
+		}
+
+		@Override
+		public String toString() {
+			StringBuilder builder = new StringBuilder("NearestDayOfWeek[");
+			for (DayOfWeek dayOfWeek : DayOfWeek.values()) {
+				if ((members & bit(dayOfWeek.getValue())) != 0)
+					builder.append(builder.charAt(builder.length() - 1) == '[' ? "" : ", ").append(dayOfWeek);
+			}
+			return builder.append(']').toString();
+		}
+
+	}
+
+	/**
+	 * The days of the month in a bitmask, bit 1 for the 1st to bit 31 for the
+	 * 31st.
+	 */
+	static final class DayOfMonthSetAdjuster implements TemporalAdjuster, EpochDayAdjuster {
+
+		private final long members;
+
+		DayOfMonthSetAdjuster(long members) {
+			this.members = members;
+		}
+
+		@Override
+		public Temporal adjustInto(Temporal temporal) {
+			int dayOfMonth = temporal.get(ChronoField.DAY_OF_MONTH);
+			int lengthOfMonth = (int) temporal.range(ChronoField.DAY_OF_MONTH).getMaximum();
+			int nearest = nearestMember(members & ((2L << lengthOfMonth) - 1), dayOfMonth);
+			if (nearest < 0)
+				throw new DateTimeException("None of the days " + CalendarAdjusters.members(members, 1, 31)
+						+ " is in a month of " + lengthOfMonth + " days");
+			return nearest == dayOfMonth ? temporal : temporal.with(ChronoField.DAY_OF_MONTH, nearest);
+		}
+
+		@Override
+		public long adjustEpochDay(long epochDay) {
+			long packed = EpochDays.packed(epochDay);
+			long year = EpochDays.year(packed);
+			int month = EpochDays.month(packed);
+			int dayOfMonth = EpochDays.day(packed);
+			int nearest = nearestMember(members & ((2L << EpochDays.lengthOfMonth(year, month)) - 1), dayOfMonth);
+			return nearest < 0 ? INVALID : epochDay + nearest - dayOfMonth;
+		}
+
+		@Override
+		public boolean isCyclic() {
+			return true;
+		}
+
+		@Override
+		public int hashCode() {
+			return Long.hashCode(members);
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj)
+				return true;
+			if (obj == null)
+				return false;
+			if (getClass() != obj.getClass())
+				return false;
+			DayOfMonthSetAdjuster other = (DayOfMonthSetAdjuster) obj;
+			return members == other.members;
+		}
+
+		@Override
+		public String toString() {
+			return "NearestDayOfMonth[" + CalendarAdjusters.members(members, 1, 31) + "]";
+		}
+
+	}
+
+	/**
+	 * The months in a bitmask, bit 1 for January to bit 12 for December.
+	 */
+	static final class MonthSetAdjuster implements TemporalAdjuster, EpochDayAdjuster {
+
+		private final long members;
+
+		MonthSetAdjuster(long members) {
+			this.members = members;
+		}
+
+		/** The same step as {@link Month#adjustInto(Temporal)}, to the nearest member. */
+		@Override
+		public Temporal adjustInto(Temporal temporal) {
+			int month = temporal.get(ChronoField.MONTH_OF_YEAR);
+			int nearest = nearestMember(members, month);
+			return nearest == month ? temporal : temporal.with(ChronoField.MONTH_OF_YEAR, nearest);
+		}
+
+		@Override
+		public long adjustEpochDay(long epochDay) {
+			long packed = EpochDays.packed(epochDay);
+			int month = EpochDays.month(packed);
+			int nearest = nearestMember(members, month);
+			return nearest == month ? epochDay
+					: EpochDays.withYearMonth(EpochDays.year(packed), nearest, EpochDays.day(packed));
+		}
+
+		@Override
+		public boolean isCyclic() {
+			return true;
+		}
+
+		@Override
+		public int hashCode() {
+			return Long.hashCode(members);
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj)
+				return true;
+			if (obj == null)
+				return false;
+			if (getClass() != obj.getClass())
+				return false;
+			MonthSetAdjuster other = (MonthSetAdjuster) obj;
+			return members == other.members;
+		}
+
+		@Override
+		public String toString() {
+			StringBuilder builder = new StringBuilder("NearestMonth[");
+			for (Month month : Month.values()) {
+				if ((members & bit(month.getValue())) != 0)
+					builder.append(builder.charAt(builder.length() - 1) == '[' ? "" : ", ").append(month);
+			}
+			return builder.append(']').toString();
+		}
+
+	}
+
+	/**
+	 * Days of the week in the month, as a bitmask of ordinals for each day of
+	 * the week: bits 0 to 4 for the first to the fifth, and bits 5 to 9 for
+	 * the last to the fifth from last. Each month they are turned into a
+	 * bitmask of days of the month, and the nearest found in that.
+	 */
+	static final class DayOfWeekInMonthSetAdjuster implements TemporalAdjuster, EpochDayAdjuster {
+
+		private final int[] members;
+
+		DayOfWeekInMonthSetAdjuster(int[] members) {
+			this.members = members;
+		}
+
+		@Override
+		public Temporal adjustInto(Temporal temporal) {
+			int dayOfMonth = temporal.get(ChronoField.DAY_OF_MONTH);
+			int lengthOfMonth = (int) temporal.range(ChronoField.DAY_OF_MONTH).getMaximum();
+			int firstDayOfWeek = Math.floorMod(temporal.get(ChronoField.DAY_OF_WEEK) - dayOfMonth, 7) + 1;
+			int nearest = nearestMember(daysOfMonth(firstDayOfWeek, lengthOfMonth), dayOfMonth);
+			if (nearest < 0)
+				throw new DateTimeException("None of " + this + " is in the month");
+			return nearest == dayOfMonth ? temporal : temporal.with(ChronoField.DAY_OF_MONTH, nearest);
+		}
+
+		@Override
+		public long adjustEpochDay(long epochDay) {
+			long packed = EpochDays.packed(epochDay);
+			int dayOfMonth = EpochDays.day(packed);
+			int lengthOfMonth = EpochDays.lengthOfMonth(EpochDays.year(packed), EpochDays.month(packed));
+			int firstDayOfWeek = EpochDays.dayOfWeek(epochDay - dayOfMonth + 1);
+			int nearest = nearestMember(daysOfMonth(firstDayOfWeek, lengthOfMonth), dayOfMonth);
+			return nearest < 0 ? INVALID : epochDay + nearest - dayOfMonth;
+		}
+
+		private long daysOfMonth(int firstDayOfWeek, int lengthOfMonth) {
+			return daysOfMonth(members, firstDayOfWeek, lengthOfMonth);
+		}
+
+		/**
+		 * The ordinals, indexed by day of the week from Monday, as a bitmask of
+		 * days of a month that starts on the given day of the week.
+		 */
+		static long daysOfMonth(int[] members, int firstDayOfWeek, int lengthOfMonth) {
+			long days = 0;
+			for (int dayOfWeek = 1; dayOfWeek <= 7; dayOfWeek++) {
+				int ordinals = members[dayOfWeek - 1];
+				if (ordinals == 0)
+					continue;
+				int first = 1 + Math.floorMod(dayOfWeek - firstDayOfWeek, 7);
+				int count = (lengthOfMonth - first) / 7 + 1;
+				for (int n = 1; n <= count; n++) {
+					// The nth is also the (count - n + 1)th from last.
+					if ((ordinals & (1 << (n - 1) | 1 << (4 + count - n + 1))) != 0)
+						days |= bit(first + 7 * (n - 1));
+				}
+			}
+			return days;
+		}
+
+		@Override
+		public boolean isCyclic() {
+			return true;
+		}
+
+		@Override
+		public int hashCode() {
+			return Arrays.hashCode(members);
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj)
+				return true;
+			if (obj == null)
+				return false;
+			if (getClass() != obj.getClass())
+				return false;
+			DayOfWeekInMonthSetAdjuster other = (DayOfWeekInMonthSetAdjuster) obj;
+			return Arrays.equals(members, other.members);
+		}
+
+		@Override
+		public String toString() {
+			StringBuilder builder = new StringBuilder("NearestDayOfWeekInMonth[");
+			for (DayOfWeek dayOfWeek : DayOfWeek.values()) {
+				int ordinals = members[dayOfWeek.getValue() - 1];
+				for (int bit = 0; bit < 10; bit++) {
+					if ((ordinals & (1 << bit)) != 0)
+						builder.append(builder.charAt(builder.length() - 1) == '[' ? "" : ", ")
+								.append(bit < 5 ? bit + 1 : 4 - bit).append(' ').append(dayOfWeek);
+				}
+			}
+			return builder.append(']').toString();
+		}
+
+	}
+
+	/** The last day of the month or of the year. */
+	enum LastDayOfAdjuster implements TemporalAdjuster, EpochDayAdjuster {
+
+		MONTH(ChronoField.DAY_OF_MONTH), YEAR(ChronoField.DAY_OF_YEAR);
+
+		private final ChronoField field;
+
+		private LastDayOfAdjuster(ChronoField field) {
+			this.field = field;
+		}
+
+		@Override
+		public Temporal adjustInto(Temporal temporal) {
+			return temporal.with(field, temporal.range(field).getMaximum());
+		}
+
+		@Override
+		public long adjustEpochDay(long epochDay) {
+			long packed = EpochDays.packed(epochDay);
+			long year = EpochDays.year(packed);
+			if (this == YEAR)
+				return EpochDays.of(year, 12, 31);
+			int month = EpochDays.month(packed);
+			return EpochDays.of(year, month, EpochDays.lengthOfMonth(year, month));
+		}
+
+		@Override
+		public boolean isCyclic() {
+			return true;
+		}
+
+	}
+
+}
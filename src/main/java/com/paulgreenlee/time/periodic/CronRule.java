@@ -0,0 +1,341 @@
+package com.paulgreenlee.time.periodic;
+
+import java.time.DateTimeException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoField;
+import java.time.temporal.Temporal;
+import java.time.temporal.TemporalAmount;
+import java.util.Objects;
+
+/**
+ * <p>
+ * A rule for times of day in the style of cron, such as
+ * {@code 0 *}{@code /5 9-16 * * MON-FRI} for every five minutes during
+ * business hours on weekdays. The fields are the second, minute, hour, day of
+ * the month, month and day of the week, and the second can be left out to
+ * mean 0. Each field is {@code *}, or a comma separated list of values,
+ * ranges such as {@code 9-16} and steps such as {@code *}{@code /5} or
+ * {@code 10-40/10}. Months and days of the week can be given by their first
+ * three letters, and the day of the week counts from 0 or 7 for Sunday, as
+ * in cron. {@code ?} is the same as {@code *}.
+ * </p>
+ * <p>
+ * Unlike cron, when both the day of the month and the day of the week are
+ * given, a day must match both, as it would in an
+ * {@link AllOfCompoundTemporalAdjuster}.
+ * </p>
+ * <p>
+ * Each field is kept as a bitmask. The rule adjusts a date-time to the first
+ * whole second at or after it that matches, without stepping through the
+ * seconds, minutes or days in between: the month is checked first and a
+ * mismatch skips to the start of the next month that matches, then the day,
+ * and so on down to the second, each mismatch skipping to the next value its
+ * mask allows. The period is the shortest time there can be between two
+ * matches, so that the rule can be used with
+ * {@link PeriodicTemporalAdjusters#forwardOnlyOf(PeriodicTemporalAdjuster)},
+ * {@link Occurrences} and the compound adjusters like any other.
+ * </p>
+ * <p>
+ * A rule can only adjust temporals with a date and a time of day. A rule that
+ * could never match, such as {@code 0 0 0 30 2 *}, is rejected when it is
+ * parsed.
+ * </p>
+ *
+ * @author Paul Greenlee
+ *
+ */
+public final class CronRule implements PeriodicTemporalAdjuster {
+
+	private static final int SECONDS_PER_DAY = 86400;
+	private static final String[] MONTH_NAMES = { "JAN", "FEB", "MAR", "APR", "MAY", "JUN", "JUL", "AUG", "SEP", "OCT",
+			"NOV", "DEC" };
+	private static final String[] DAY_NAMES = { "SUN", "MON", "TUE", "WED", "THU", "FRI", "SAT" };
+
+	/** Bits 0 to 59. */
+	private final long seconds;
+	/** Bits 0 to 59. */
+	private final long minutes;
+	/** Bits 0 to 23. */
+	private final long hours;
+	/** Bits 1 to 31. */
+	private final long daysOfMonth;
+	/** Bits 1 to 12. */
+	private final long months;
+	/** Bits 1 to 7, Monday to Sunday. */
+	private final long daysOfWeek;
+	private final Duration period;
+
+	private CronRule(long seconds, long minutes, long hours, long daysOfMonth, long months, long daysOfWeek) {
+		this.seconds = seconds;
+		this.minutes = minutes;
+		this.hours = hours;
+		this.daysOfMonth = daysOfMonth;
+		this.months = months;
+		this.daysOfWeek = daysOfWeek;
+		this.period = Duration.ofSeconds(shortestGap());
+	}
+
+	/**
+	 * Parses a rule of five or six fields separated by spaces.
+	 *
+	 * @throws IllegalArgumentException
+	 *             if the rule is not valid or could never match
+	 */
+	public static CronRule parse(CharSequence text) {
+		String rule = Objects.requireNonNull(text, "text is required").toString().trim();
+		String[] fields = rule.split("\\s+");
+		if (fields.length != 5 && fields.length != 6)
+			throw invalid(rule, "expected 5 or 6 fields but found " + fields.length);
+		int first = fields.length - 5;
+		long seconds = first == 0 ? 1L : field(rule, fields[0], 0, 59, null);
+		long minutes = field(rule, fields[first], 0, 59, null);
+		long hours = field(rule, fields[first + 1], 0, 23, null);
+		long daysOfMonth = field(rule, fields[first + 2], 1, 31, null);
+		long months = field(rule, fields[first + 3], 1, 12, MONTH_NAMES);
+		long daysOfWeek = field(rule, fields[first + 4], 0, 7, DAY_NAMES);
+		// Sunday is both 0 and 7 in cron, and 7 alone in ISO.
+		if ((daysOfWeek & 1L) != 0)
+			daysOfWeek = (daysOfWeek & ~1L) | 1L << 7;
+		CronRule cron = new CronRule(seconds, minutes, hours, daysOfMonth, months, daysOfWeek);
+		if (cron.next(0) == EpochSecondAdjuster.INVALID)
+			throw invalid(rule, "it never matches");
+		return cron;
+	}
+
+	private static long field(String rule, String field, int min, int max, String[] names) {
+		long mask = 0;
+		for (String item : field.split(",", -1)) {
+			int slash = item.indexOf('/');
+			String range = slash < 0 ? item : item.substring(0, slash);
+			int step = slash < 0 ? 1 : number(rule, item.substring(slash + 1), 1, max - min + 1, null, 0);
+			int from;
+			int to;
+			if (range.equals("*") || range.equals("?")) {
+				from = min;
+				to = max;
+			} else {
+				int dash = range.indexOf('-');
+				from = number(rule, dash < 0 ? range : range.substring(0, dash), min, max, names, min);
+				to = dash >= 0 ? number(rule, range.substring(dash + 1), min, max, names, min) : slash < 0 ? from : max;
+				if (to < from)
+					throw invalid(rule, "range runs backwards: " + item);
+			}
+			for (int value = from; value <= to; value += step)
+				mask |= 1L << value;
+		}
+		return mask;
+	}
+
+	private static int number(String rule, String text, int min, int max, String[] names, int firstName) {
+		if (names != null) {
+			for (int i = 0; i < names.length; i++) {
+				if (names[i].equalsIgnoreCase(text))
+					return firstName + i;
+			}
+		}
+		if (text.isEmpty() || text.length() > 9)
+			throw invalid(rule, "not a number: '" + text + "'");
+		int value = 0;
+		for (int i = 0; i < text.length(); i++) {
+			char c = text.charAt(i);
+			if (c < '0' || c > '9')
+				throw invalid(rule, "not a number: '" + text + "'");
+			value = value * 10 + (c - '0');
+		}
+		if (value < min || value > max)
+			throw invalid(rule, "out of range: " + text);
+		return value;
+	}
+
+	private static IllegalArgumentException invalid(String rule, String reason) {
+		return new IllegalArgumentException("Invalid cron rule " + rule + ": " + reason);
+	}
+
+	/**
+	 * The first whole second at or after the temporal that matches the rule.
+	 *
+	 * @throws DateTimeException
+	 *             if the temporal has no time of day, or there is no match
+	 *             before the end of the supported range of dates
+	 */
+	@Override
+	public Temporal adjustInto(Temporal temporal) {
+		if (!temporal.isSupported(ChronoField.EPOCH_DAY) || !temporal.isSupported(ChronoField.SECOND_OF_DAY))
+			throw new DateTimeException("A cron rule needs a date and a time of day: " + temporal);
+		long epochSecond = temporal.getLong(ChronoField.EPOCH_DAY) * SECONDS_PER_DAY + temporal.getLong(ChronoField.SECOND_OF_DAY);
+		long nano = temporal.getLong(ChronoField.NANO_OF_SECOND);
+		long next = next(nano == 0 ? epochSecond : epochSecond + 1);
+		if (next == EpochSecondAdjuster.INVALID || next > EpochDays.MAX * SECONDS_PER_DAY + SECONDS_PER_DAY - 1)
+			throw new DateTimeException("No time matching " + this + " after " + temporal);
+		if (next == epochSecond && nano == 0)
+			return temporal;
+		LocalDateTime adjusted = LocalDateTime.ofEpochSecond(next, 0, ZoneOffset.UTC);
+		return temporal instanceof LocalDateTime ? adjusted : temporal.with(adjusted);
+	}
+
+	/**
+	 * The first matching second at or after the local epoch second, skipping
+	 * from the largest field that does not match. A match is always within one
+	 * 400 year cycle, since the calendar and the days of the week repeat after
+	 * that.
+	 *
+	 * @return the match, or INVALID if there is none
+	 */
+	long next(long epochSecond) {
+		long day = Math.floorDiv(epochSecond, SECONDS_PER_DAY);
+		int secondOfDay = (int) Math.floorMod(epochSecond, SECONDS_PER_DAY);
+		long lastDay = day + EpochDays.DAYS_PER_CYCLE;
+		while (day <= lastDay) {
+			long packed = EpochDays.packed(day);
+			long year = EpochDays.year(packed);
+			int month = EpochDays.month(packed);
+			int dayOfMonth = EpochDays.day(packed);
+			if ((months & (1L << month)) == 0) {
+				int nextMonth = nextBit(months, month + 1);
+				day = nextMonth >= 0 ? EpochDays.of(year, nextMonth, 1) : EpochDays.of(year + 1, nextBit(months, 1), 1);
+				secondOfDay = 0;
+				continue;
+			}
+			if ((daysOfMonth & (1L << dayOfMonth)) == 0) {
+				int nextDay = nextBit(daysOfMonth, dayOfMonth + 1);
+				day = nextDay >= 0 && nextDay <= EpochDays.lengthOfMonth(year, month) ? day + nextDay - dayOfMonth
+						: day - dayOfMonth + EpochDays.lengthOfMonth(year, month) + 1;
+				secondOfDay = 0;
+				continue;
+			}
+			if ((daysOfWeek & (1L << EpochDays.dayOfWeek(day))) == 0) {
+				day++;
+				secondOfDay = 0;
+				continue;
+			}
+			int time = nextTime(secondOfDay);
+			if (time >= 0)
+				return day * SECONDS_PER_DAY + time;
+			day++;
+			secondOfDay = 0;
+		}
+		return EpochSecondAdjuster.INVALID;
+	}
+
+	/** The first matching second of the day at or after the given one, or -1. */
+	private int nextTime(int secondOfDay) {
+		int hour = secondOfDay / 3600;
+		int minute = secondOfDay / 60 % 60;
+		int second = secondOfDay % 60;
+		if ((hours & (1L << hour)) != 0) {
+			if ((minutes & (1L << minute)) != 0) {
+				int nextSecond = nextBit(seconds, second);
+				if (nextSecond >= 0)
+					return hour * 3600 + minute * 60 + nextSecond;
+			}
+			int nextMinute = nextBit(minutes, minute + 1);
+			if (nextMinute >= 0)
+				return hour * 3600 + nextMinute * 60 + nextBit(seconds, 0);
+		}
+		int nextHour = nextBit(hours, hour + 1);
+		if (nextHour >= 0)
+			return nextHour * 3600 + nextBit(minutes, 0) * 60 + nextBit(seconds, 0);
+		return -1;
+	}
+
+	private static int nextBit(long mask, int from) {
+		long bits = from > 63 ? 0 : mask & (-1L << from);
+		return bits == 0 ? -1 : Long.numberOfTrailingZeros(bits);
+	}
+
+	/**
+	 * The shortest time between two matches, in seconds. With more than one
+	 * second in the minute it is the smallest gap between them, going round
+	 * the minute; with one second and more than one minute, the smallest gap
+	 * between the minutes, and so on up to a day.
+	 */
+	private long shortestGap() {
+		if (Long.bitCount(seconds) > 1)
+			return shortestGap(seconds, 60);
+		if (Long.bitCount(minutes) > 1)
+			return shortestGap(minutes, 60) * 60L;
+		if (Long.bitCount(hours) > 1)
+			return shortestGap(hours, 24) * 3600L;
+		return SECONDS_PER_DAY;
+	}
+
+	private static int shortestGap(long mask, int size) {
+		int first = Long.numberOfTrailingZeros(mask);
+		int previous = first;
+		int gap = size - (63 - Long.numberOfLeadingZeros(mask)) + first;
+		for (int value = nextBit(mask, first + 1); value >= 0; value = nextBit(mask, value + 1)) {
+			gap = Math.min(gap, value - previous);
+			previous = value;
+		}
+		return gap;
+	}
+
+	/**
+	 * The shortest time there can be between two matches, so that stepping
+	 * forward by it never passes one.
+	 */
+	@Override
+	public TemporalAmount getPeriod() {
+		return period;
+	}
+
+	@Override
+	public int hashCode() {
+		final int prime = 31;
+		int result = 1;
+		result = prime * result + Long.hashCode(seconds);
+		result = prime * result + Long.hashCode(minutes);
+		result = prime * result + Long.hashCode(hours);
+		result = prime * result + Long.hashCode(daysOfMonth);
+		result = prime * result + Long.hashCode(months);
+		result = prime * result + Long.hashCode(daysOfWeek);
+		return result;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		CronRule other = (CronRule) obj;
+		return seconds == other.seconds && minutes == other.minutes && hours == other.hours
+				&& daysOfMonth == other.daysOfMonth && months == other.months && daysOfWeek == other.daysOfWeek;
+	}
+
+	/**
+	 * The rule with all six fields, as lists of values and ranges, which parses
+	 * back to an equal rule.
+	 */
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder();
+		field(builder, seconds, 0, 59).append(' ');
+		field(builder, minutes, 0, 59).append(' ');
+		field(builder, hours, 0, 23).append(' ');
+		field(builder, daysOfMonth, 1, 31).append(' ');
+		field(builder, months, 1, 12).append(' ');
+		return field(builder, daysOfWeek, 1, 7).toString();
+	}
+
+	private static StringBuilder field(StringBuilder builder, long mask, int min, int max) {
+		if (Long.bitCount(mask) == max - min + 1)
+			return builder.append('*');
+		int start = builder.length();
+		for (int value = nextBit(mask, min); value >= 0; ) {
+			int end = value;
+			while (end < max && (mask & (1L << (end + 1))) != 0)
+				end++;
+			builder.append(builder.length() == start ? "" : ",").append(value);
+			if (end > value)
+				builder.append(end == value + 1 ? "," : "-").append(end);
+			value = nextBit(mask, end + 1);
+		}
+		return builder;
+	}
+
+}
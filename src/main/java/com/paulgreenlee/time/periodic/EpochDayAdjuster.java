@@ -0,0 +1,73 @@
+package com.paulgreenlee.time.periodic;
+
+import java.time.DayOfWeek;
+import java.time.Month;
+import java.time.MonthDay;
+import java.time.temporal.ChronoField;
+import java.time.temporal.TemporalAdjuster;
+
+/**
+ * <p>
+ * The date part of an adjustment expressed as arithmetic on ISO epoch days.
+ * Adjusters the library understands have this form as well as their
+ * {@link TemporalAdjuster} form, which lets search loops test candidate dates
+ * without creating Temporals or throwing exceptions.
+ * </p>
+ * <p>
+ * The periodic and compound adjusters built by {@link PeriodicTemporalAdjusters}
+ * have this form whenever all of the adjusters they are built from have it, and
+ * then use it for any temporal whose date can be replaced on its own. An
+ * adjuster of your own can take part by implementing this interface alongside
+ * {@link TemporalAdjuster}.
+ * </p>
+ * <p>
+ * {@link #adjustEpochDay(long)} must give the same date as
+ * {@code LocalDate.ofEpochDay(epochDay).with(adjuster)}, and return
+ * {@link #INVALID} where that would throw a {@code DateTimeException}.
+ * </p>
+ *
+ * @author Paul Greenlee
+ *
+ */
+public interface EpochDayAdjuster {
+
+	long INVALID = EpochDays.INVALID;
+
+	long adjustEpochDay(long epochDay);
+
+	/**
+	 * Whether moving the input by a whole 400 year Gregorian cycle always moves
+	 * the result by the same amount. True for anything defined by month, day of
+	 * month, day of week and similar fields. False for anything tied to a
+	 * particular year.
+	 */
+	default boolean isCyclic() {
+		return false;
+	}
+
+	/**
+	 * The epoch day form of a TemporalAdjuster, if the library knows it.
+	 *
+	 * @return the epoch day form, or null if the adjuster is not recognized
+	 */
+	static EpochDayAdjuster of(TemporalAdjuster adjuster) {
+		if (adjuster instanceof EpochDayAdjuster)
+			return (EpochDayAdjuster) adjuster;
+		if (adjuster instanceof DayOfWeek)
+			return new CalendarAdjusters.DateFieldAdjuster(ChronoField.DAY_OF_WEEK, ((DayOfWeek) adjuster).getValue());
+		if (adjuster instanceof Month)
+			return new CalendarAdjusters.DateFieldAdjuster(ChronoField.MONTH_OF_YEAR, ((Month) adjuster).getValue());
+		if (adjuster instanceof MonthDay)
+			return new CalendarAdjusters.MonthDayAdjuster((MonthDay) adjuster);
+		if (adjuster instanceof SimplePeriodicTemporalAdjuster)
+			return ((SimplePeriodicTemporalAdjuster) adjuster).epochDayAdjuster();
+		if (adjuster instanceof ForwardOnlyTemporalAdjuster)
+			return ((ForwardOnlyTemporalAdjuster) adjuster).epochDayAdjuster();
+		if (adjuster instanceof AllOfCompoundTemporalAdjuster)
+			return ((AllOfCompoundTemporalAdjuster) adjuster).epochDayAdjuster();
+		if (adjuster instanceof NearestOfCompoundTemporalAdjuster)
+			return ((NearestOfCompoundTemporalAdjuster) adjuster).epochDayAdjuster();
+		return null;
+	}
+
+}
@@ -0,0 +1,184 @@
+package com.paulgreenlee.time.periodic;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.Period;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoField;
+import java.time.temporal.Temporal;
+
+/**
+ * <p>
+ * ISO calendar arithmetic on epoch days, without creating {@link LocalDate}s.
+ * The algorithms are the same ones {@code LocalDate} uses, so the results are
+ * identical.
+ * </p>
+ * <p>
+ * A year, month and day are returned together as a single packed long, which
+ * is read with {@link #year(long)}, {@link #month(long)} and
+ * {@link #day(long)}.
+ * </p>
+ *
+ * @author Paul Greenlee
+ *
+ */
+final class EpochDays {
+
+	/** Returned in place of an epoch day when an adjustment is not possible. */
+	static final long INVALID = Long.MIN_VALUE;
+
+	static final long MIN = LocalDate.MIN.toEpochDay();
+	static final long MAX = LocalDate.MAX.toEpochDay();
+
+	/** The number of days in the 400 year cycle of the Gregorian calendar. */
+	static final int DAYS_PER_CYCLE = 146097;
+	static final int MONTHS_PER_CYCLE = 4800;
+
+	private static final long DAYS_0000_TO_1970 = (DAYS_PER_CYCLE * 5L) - (30L * 365L + 7L);
+
+	private EpochDays() { }
+
+	static long of(long year, int month, int day) {
+		long total = 365 * year;
+		if (year >= 0)
+			total += (year + 3) / 4 - (year + 99) / 100 + (year + 399) / 400;
+		else
+			total -= year / -4 - year / -100 + year / -400;
+		total += (367 * month - 362) / 12;
+		total += day - 1;
+		if (month > 2) {
+			total--;
+			if (!isLeapYear(year))
+				total--;
+		}
+		return total - DAYS_0000_TO_1970;
+	}
+
+	static long packed(long epochDay) {
+		long zeroDay = epochDay + DAYS_0000_TO_1970;
+		// adjust to 0000-03-01 so leap day is at end of four year cycle
+		zeroDay -= 60;
+		long adjust = 0;
+		if (zeroDay < 0) {
+			long adjustCycles = (zeroDay + 1) / DAYS_PER_CYCLE - 1;
+			adjust = adjustCycles * 400;
+			zeroDay += -adjustCycles * DAYS_PER_CYCLE;
+		}
+		long yearEst = (400 * zeroDay + 591) / DAYS_PER_CYCLE;
+		long doyEst = zeroDay - (365 * yearEst + yearEst / 4 - yearEst / 100 + yearEst / 400);
+		if (doyEst < 0) {
+			yearEst--;
+			doyEst = zeroDay - (365 * yearEst + yearEst / 4 - yearEst / 100 + yearEst / 400);
+		}
+		yearEst += adjust;
+		int marchDoy0 = (int) doyEst;
+		int marchMonth0 = (marchDoy0 * 5 + 2) / 153;
+		int month = (marchMonth0 + 2) % 12 + 1;
+		int dom = marchDoy0 - (marchMonth0 * 306 + 5) / 10 + 1;
+		yearEst += marchMonth0 / 10;
+		return (yearEst << 9) | (month << 5) | dom;
+	}
+
+	static long year(long packed) {
+		return packed >> 9;
+	}
+
+	static int month(long packed) {
+		return (int) (packed >> 5) & 15;
+	}
+
+	static int day(long packed) {
+		return (int) packed & 31;
+	}
+
+	/** The ISO day of the week, from 1 (Monday) to 7 (Sunday). */
+	static int dayOfWeek(long epochDay) {
+		return (int) Math.floorMod(epochDay + 3, 7) + 1;
+	}
+
+	static int dayOfYear(long epochDay) {
+		return (int) (epochDay - of(year(packed(epochDay)), 1, 1)) + 1;
+	}
+
+	static boolean isLeapYear(long year) {
+		return ((year & 3) == 0) && ((year % 100) != 0 || (year % 400) == 0);
+	}
+
+	static int lengthOfMonth(long year, int month) {
+		switch (month) {
+		case 2:
+			return isLeapYear(year) ? 29 : 28;
+		case 4:
+		case 6:
+		case 9:
+		case 11:
+			return 30;
+		default:
+			return 31;
+		}
+	}
+
+	static int lengthOfYear(long year) {
+		return isLeapYear(year) ? 366 : 365;
+	}
+
+	/**
+	 * The same date in another year and month, moved back to the last day of
+	 * the month if the day does not exist there.
+	 */
+	static long withYearMonth(long year, int month, int day) {
+		return of(year, month, Math.min(day, lengthOfMonth(year, month)));
+	}
+
+	/**
+	 * Adds months and then days, the way {@link Period#addTo(Temporal)} does.
+	 *
+	 * @return the new epoch day, or {@link #INVALID} if it is outside the range
+	 *         of {@link LocalDate}
+	 */
+	static long plus(long epochDay, long months, long days) {
+		long result = epochDay;
+		if (months != 0) {
+			long packed = packed(epochDay);
+			long monthCount = year(packed) * 12 + (month(packed) - 1) + months;
+			long year = Math.floorDiv(monthCount, 12);
+			if (year < LocalDate.MIN.getYear() || year > LocalDate.MAX.getYear())
+				return INVALID;
+			result = withYearMonth(year, (int) Math.floorMod(monthCount, 12) + 1, day(packed));
+		}
+		result += days;
+		return result < MIN || result > MAX ? INVALID : result;
+	}
+
+	/**
+	 * Whether the date of the temporal can be worked on as an epoch day and put
+	 * back with {@link #with(Temporal, long)}, leaving the rest of the temporal
+	 * exactly as the equivalent adjustments would. Zoned date-times only qualify
+	 * when the zone has a fixed offset, since a gap or overlap could otherwise
+	 * shift the time of day.
+	 */
+	static boolean supports(Temporal temporal) {
+		if (temporal instanceof LocalDate || temporal instanceof LocalDateTime || temporal instanceof OffsetDateTime)
+			return true;
+		return temporal instanceof ZonedDateTime && ((ZonedDateTime) temporal).getZone().getRules().isFixedOffset();
+	}
+
+	static Temporal with(Temporal temporal, long epochDay) {
+		if (temporal instanceof LocalDate)
+			return LocalDate.ofEpochDay(epochDay);
+		return temporal.with(ChronoField.EPOCH_DAY, epochDay);
+	}
+
+	static long gcd(long a, long b) {
+		a = Math.abs(a);
+		b = Math.abs(b);
+		while (b != 0) {
+			long t = a % b;
+			a = b;
+			b = t;
+		}
+		return a;
+	}
+
+}
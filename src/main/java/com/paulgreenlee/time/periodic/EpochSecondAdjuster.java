@@ -0,0 +1,56 @@
+package com.paulgreenlee.time.periodic;
+
+import java.time.temporal.TemporalAdjuster;
+
+/**
+ * <p>
+ * The date and time of day of an adjustment expressed as arithmetic on local
+ * epoch seconds, the number of seconds from 1970-01-01T00:00 to a local
+ * date-time with no offset applied. It is the counterpart of
+ * {@link EpochDayAdjuster} for rules that also set the time of day, such as an
+ * {@link AllOfCompoundTemporalAdjuster} that includes
+ * {@code CalendarAdjusters.field(ChronoField.HOUR_OF_DAY, 9)}.
+ * </p>
+ * <p>
+ * {@link #adjustEpochSecond(long)} must give the same date-time, to the
+ * second, as
+ * {@code LocalDateTime.ofEpochSecond(epochSecond, nano, ZoneOffset.UTC).with(adjuster)}
+ * for any {@code nano}, must leave the nanosecond unchanged, and must return
+ * {@link #INVALID} where that would throw a {@code DateTimeException}.
+ * </p>
+ *
+ * @author Paul Greenlee
+ *
+ */
+public interface EpochSecondAdjuster {
+
+	long INVALID = EpochDays.INVALID;
+
+	long adjustEpochSecond(long epochSecond);
+
+	/**
+	 * The epoch second form of a TemporalAdjuster, if the library knows it.
+	 * Anything with an {@link EpochDayAdjuster} form has one that keeps the
+	 * time of day, and the hour, minute and second fields from
+	 * {@link CalendarAdjusters#field(java.time.temporal.ChronoField, long)}
+	 * have one too.
+	 *
+	 * @return the epoch second form, or null if the adjuster is not recognized
+	 */
+	static EpochSecondAdjuster of(TemporalAdjuster adjuster) {
+		if (adjuster instanceof EpochSecondAdjuster)
+			return (EpochSecondAdjuster) adjuster;
+		if (adjuster instanceof CalendarAdjusters.TimeFieldAdjuster)
+			return ((CalendarAdjusters.TimeFieldAdjuster) adjuster).epochSecondAdjuster();
+		if (adjuster instanceof SimplePeriodicTemporalAdjuster)
+			return ((SimplePeriodicTemporalAdjuster) adjuster).epochSecondAdjuster();
+		if (adjuster instanceof ForwardOnlyTemporalAdjuster)
+			return ((ForwardOnlyTemporalAdjuster) adjuster).epochSecondAdjuster();
+		if (adjuster instanceof AllOfCompoundTemporalAdjuster)
+			return ((AllOfCompoundTemporalAdjuster) adjuster).epochSecondAdjuster();
+		if (adjuster instanceof NearestOfCompoundTemporalAdjuster)
+			return ((NearestOfCompoundTemporalAdjuster) adjuster).epochSecondAdjuster();
+		return PrimitiveAdjusters.atTimeOfDay(EpochDayAdjuster.of(adjuster));
+	}
+
+}
@@ -0,0 +1,142 @@
+package com.paulgreenlee.time.periodic;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * <p>
+ * Reports searches as JDK Flight Recorder events. The library still runs on
+ * Java 8, where the Flight Recorder API may not be there, so the event types
+ * are defined at run time through {@code jdk.jfr.EventFactory} and everything
+ * is called by reflection. That is slower than a compiled event class, but
+ * only while a recording is running: otherwise each search costs a check of
+ * whether the event type is enabled, and no event is made.
+ * </p>
+ *
+ * @author Paul Greenlee
+ *
+ */
+final class FlightRecorderListener implements SearchListener {
+
+	static final String SEARCH_EVENT = "com.paulgreenlee.time.periodic.Search";
+	static final String NEAR_LIMIT_EVENT = "com.paulgreenlee.time.periodic.SearchNearLimit";
+
+	private final Object searchFactory;
+	private final Object nearLimitFactory;
+	private final Object searchType;
+	private final Object nearLimitType;
+	private final Method newEvent;
+	private final Method isEnabled;
+	private final Method set;
+	private final Method commit;
+
+	private FlightRecorderListener(Object searchFactory, Object nearLimitFactory, Method getEventType, Method newEvent,
+			Method isEnabled, Method set, Method commit) throws ReflectiveOperationException {
+		this.searchFactory = searchFactory;
+		this.nearLimitFactory = nearLimitFactory;
+		this.searchType = getEventType.invoke(searchFactory);
+		this.nearLimitType = getEventType.invoke(nearLimitFactory);
+		this.newEvent = newEvent;
+		this.isEnabled = isEnabled;
+		this.set = set;
+		this.commit = commit;
+	}
+
+	/**
+	 * @return null if this JVM has no Flight Recorder
+	 */
+	static FlightRecorderListener create() {
+		try {
+			Class<?> factoryClass = Class.forName("jdk.jfr.EventFactory");
+			Class<?> eventClass = Class.forName("jdk.jfr.Event");
+			Class<?> eventTypeClass = Class.forName("jdk.jfr.EventType");
+			Method create = factoryClass.getMethod("create", List.class, List.class);
+			Object searchFactory = create.invoke(null,
+					annotations(SEARCH_EVENT, "Periodic Search", "A search through periods for an occurrence"), fields());
+			Object nearLimitFactory = create.invoke(null,
+					annotations(NEAR_LIMIT_EVENT, "Periodic Search Near Limit",
+							"A search through periods that came within a tenth of its limit, or gave up"),
+					fields());
+			return new FlightRecorderListener(searchFactory, nearLimitFactory, factoryClass.getMethod("getEventType"),
+					factoryClass.getMethod("newEvent"), eventTypeClass.getMethod("isEnabled"),
+					eventClass.getMethod("set", int.class, Object.class), eventClass.getMethod("commit"));
+		} catch (ReflectiveOperationException | LinkageError e) {
+			return null;
+		}
+	}
+
+	@Override
+	public void searchCompleted(PeriodicTemporalAdjuster rule, int iterations, int limit, int swallowedExceptions,
+			long nanos, boolean found) {
+		try {
+			emit(searchType, searchFactory, rule, iterations, limit, swallowedExceptions, nanos, found);
+			if (SearchMetrics.isNearLimit(iterations, limit))
+				emit(nearLimitType, nearLimitFactory, rule, iterations, limit, swallowedExceptions, nanos, found);
+		} catch (ReflectiveOperationException e) {
+			// Losing an event is better than failing the adjustment.
+		}
+	}
+
+	private void emit(Object type, Object factory, PeriodicTemporalAdjuster rule, int iterations, int limit,
+			int swallowedExceptions, long nanos, boolean found) throws ReflectiveOperationException {
+		// Asked of the type, so nothing is made unless a recording wants it.
+		if (!(Boolean) isEnabled.invoke(type))
+			return;
+		Object event = newEvent.invoke(factory);
+		// In the order of fields()
+		set.invoke(event, 0, rule.getClass().getName());
+		set.invoke(event, 1, rule.toString());
+		set.invoke(event, 2, iterations);
+		set.invoke(event, 3, limit);
+		set.invoke(event, 4, swallowedExceptions);
+		set.invoke(event, 5, nanos);
+		set.invoke(event, 6, found);
+		commit.invoke(event);
+	}
+
+	private static List<Object> annotations(String name, String label, String description)
+			throws ReflectiveOperationException {
+		List<Object> annotations = new ArrayList<>();
+		annotations.add(annotation("jdk.jfr.Name", name));
+		annotations.add(annotation("jdk.jfr.Label", label));
+		annotations.add(annotation("jdk.jfr.Description", description));
+		annotations.add(annotation("jdk.jfr.Category", new String[] { "Periodic Temporal" }));
+		return annotations;
+	}
+
+	private static List<Object> fields() throws ReflectiveOperationException {
+		return Arrays.asList(
+				field(String.class, "ruleClass", "Rule Class", null),
+				field(String.class, "rule", "Rule", null),
+				field(int.class, "iterations", "Iterations", null),
+				field(int.class, "limit", "Limit", null),
+				field(int.class, "swallowedExceptions", "Swallowed Exceptions", null),
+				field(long.class, "searchDuration", "Search Duration", annotation("jdk.jfr.Timespan", "NANOSECONDS")),
+				field(boolean.class, "found", "Found", null));
+	}
+
+	private static Object field(Class<?> type, String name, String label, Object annotation)
+			throws ReflectiveOperationException {
+		List<Object> annotations = new ArrayList<>();
+		annotations.add(annotation("jdk.jfr.Label", label));
+		if (annotation != null)
+			annotations.add(annotation);
+		Constructor<?> constructor = Class.forName("jdk.jfr.ValueDescriptor").getConstructor(Class.class, String.class,
+				List.class);
+		return constructor.newInstance(type, name, Collections.unmodifiableList(annotations));
+	}
+
+	@SuppressWarnings("unchecked")
+	private static Object annotation(String type, Object value) throws ReflectiveOperationException {
+		Class<? extends Annotation> annotationType = (Class<? extends Annotation>) Class.forName(type);
+		Constructor<?> constructor = Class.forName("jdk.jfr.AnnotationElement").getConstructor(Class.class,
+				Object.class);
+		return constructor.newInstance(annotationType, value);
+	}
+
+}
@@ -5,49 +5,105 @@ import java.time.temporal.Temporal;
 import java.time.temporal.TemporalAdjuster;
 import java.time.temporal.TemporalAmount;
 import java.time.temporal.TemporalQueries;
+import java.time.temporal.TemporalUnit;
 import java.util.Objects;
 
 /**
  * A {@link PeriodicTemporalAdjuster} that only goes forward in time. If an
  * adjustment results in a time before (or equal to) the Temporal that was
  * adjusted, the original Temporal is moved forward by periods until an
- * occurrence is found that is after the original time.
+ * occurrence is found that is after the original time. How it moves is set by
+ * its {@link SearchStrategy}.
  * 
  * @author Paul Greenlee
  *
  */
 public class ForwardOnlyTemporalAdjuster implements PeriodicTemporalAdjuster {
 
-	private static final int SAFETY_CUTOFF = 10000;
+	static final int SAFETY_CUTOFF = 10000;
 	private final TemporalAdjuster adjuster;
 	private final TemporalAmount period;
+	private final SearchStrategy strategy;
+	private final boolean galloping;
+	private final EpochDayAdjuster epochDayAdjuster;
+	private final EpochSecondAdjuster epochSecondAdjuster;
 
 	public ForwardOnlyTemporalAdjuster(TemporalAdjuster adjuster, TemporalAmount period) {
+		this(adjuster, period, SearchStrategy.LINEAR);
+	}
+
+	/**
+	 * @param strategy
+	 *            how to step through periods; a subclass that changes
+	 *            {@link #nextPeriod(Temporal)}, and an adjuster not known to be
+	 *            monotonic, always steps linearly
+	 */
+	public ForwardOnlyTemporalAdjuster(TemporalAdjuster adjuster, TemporalAmount period, SearchStrategy strategy) {
 		this.adjuster = Objects.requireNonNull(adjuster, "a TemporalAdjuster is required");
 		this.period = Objects.requireNonNull(period);
+		this.strategy = Objects.requireNonNull(strategy, "strategy is required");
+		// A subclass may step through periods differently, so only the plain class is compiled.
+		boolean plain = getClass() == ForwardOnlyTemporalAdjuster.class;
+		this.epochDayAdjuster = plain ? PrimitiveAdjusters.forwardOnlyDays(EpochDayAdjuster.of(adjuster), period) : null;
+		this.epochSecondAdjuster = plain ? PrimitiveAdjusters.forwardOnlySeconds(EpochSecondAdjuster.of(adjuster), period) : null;
+		this.galloping = plain && strategy == SearchStrategy.GALLOPING && GallopingSearch.isMonotonic(adjuster);
 	}
 
 	public static ForwardOnlyTemporalAdjuster of(PeriodicTemporalAdjuster periodic) {
 		return new ForwardOnlyTemporalAdjuster(periodic, periodic.getPeriod());
 	}
 
+	public static ForwardOnlyTemporalAdjuster of(PeriodicTemporalAdjuster periodic, SearchStrategy strategy) {
+		return new ForwardOnlyTemporalAdjuster(periodic, periodic.getPeriod(), strategy);
+	}
+
 	@Override
 	public Temporal adjustInto(Temporal temporal) {
+		Temporal adjusted = PrimitiveAdjusters.adjust(temporal, epochDayAdjuster, epochSecondAdjuster);
+		return adjusted != null ? adjusted : search(temporal, temporal.query(TemporalQueries.precision()));
+	}
+
+	/**
+	 * The same as {@link #adjustInto(Temporal)}, for callers that step through
+	 * many occurrences and have already looked up the precision of the
+	 * temporal.
+	 */
+	Temporal next(Temporal temporal, TemporalUnit precision) {
+		Temporal adjusted = PrimitiveAdjusters.adjust(temporal, epochDayAdjuster, epochSecondAdjuster);
+		return adjusted != null ? adjusted : search(temporal, precision);
+	}
+
+	private Temporal search(Temporal temporal, TemporalUnit precision) {
+		SearchListener listener = SearchMetrics.listener();
+		long started = listener == null ? 0 : System.nanoTime();
 		Temporal beforeAttempt = temporal;
 		Temporal attempt = beforeAttempt.with(adjuster);
+		if (galloping && isBeforeOriginalDate(temporal, attempt, precision)) {
+			GallopingSearch gallop = GallopingSearch.of(temporal, adjuster, period, precision, false);
+			if (gallop != null && gallop.run(attempt, SAFETY_CUTOFF)) {
+				if (listener != null)
+					listener.searchCompleted(this, gallop.periods(), SAFETY_CUTOFF, 0, System.nanoTime() - started, true);
+				return gallop.occurrence();
+			}
+		}
 		int count = 0;
-		while (isBeforeOriginalDate(temporal, attempt)) {
+		while (isBeforeOriginalDate(temporal, attempt, precision)) {
 			beforeAttempt = nextPeriod(beforeAttempt);
 			attempt = beforeAttempt.with(adjuster);
-			if (count++ >= SAFETY_CUTOFF)
+			if (count++ >= SAFETY_CUTOFF) {
+				if (listener != null)
+					listener.searchCompleted(this, count, SAFETY_CUTOFF, 0, System.nanoTime() - started, false);
 				throw new DateTimeException("Potentially inifinite loop encountered in temporal adjusters");
+			}
 		}
+		if (listener != null)
+			listener.searchCompleted(this, count, SAFETY_CUTOFF, 0, System.nanoTime() - started, true);
 		return attempt;
 	}
 
-	private boolean isBeforeOriginalDate(Temporal temporal, Temporal attempt) {
+	private boolean isBeforeOriginalDate(Temporal temporal, Temporal attempt, TemporalUnit precision) {
 		// Using the smallest unit supported, compare the two temporals.
-		return temporal.query(TemporalQueries.precision()).between(temporal, attempt) <= 0;
+		return precision.between(temporal, attempt) <= 0;
 	}
 
 	@Override
@@ -55,11 +111,29 @@ public class ForwardOnlyTemporalAdjuster implements PeriodicTemporalAdjuster {
 		return period;
 	}
 
+	public SearchStrategy getStrategy() {
+		return strategy;
+	}
+
+	TemporalAdjuster adjuster() {
+		return adjuster;
+	}
+
+	EpochDayAdjuster epochDayAdjuster() {
+		return epochDayAdjuster;
+	}
+
+	EpochSecondAdjuster epochSecondAdjuster() {
+		return epochSecondAdjuster;
+	}
+
 	@Override
 	public int hashCode() {
 		final int prime = 31;
-		int result = super.hashCode();
+		int result = 1;
 		result = prime * result + adjuster.hashCode();
+		result = prime * result + period.hashCode();
+		result = prime * result + strategy.hashCode();
 		return result;
 	}
 
@@ -67,12 +141,12 @@ public class ForwardOnlyTemporalAdjuster implements PeriodicTemporalAdjuster {
 	public boolean equals(Object obj) {
 		if (this == obj)
 			return true;
-		if (!super.equals(obj))
+		if (obj == null)
 			return false;
 		if (getClass() != obj.getClass())
 			return false;
 		ForwardOnlyTemporalAdjuster other = (ForwardOnlyTemporalAdjuster) obj;
-		return adjuster.equals(other.adjuster);
+		return adjuster.equals(other.adjuster) && period.equals(other.period) && strategy == other.strategy;
 	}
 
 }
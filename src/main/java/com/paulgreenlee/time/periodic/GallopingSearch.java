@@ -0,0 +1,187 @@
+package com.paulgreenlee.time.periodic;
+
+import java.time.DateTimeException;
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.Month;
+import java.time.MonthDay;
+import java.time.Period;
+import java.time.chrono.ChronoZonedDateTime;
+import java.time.chrono.IsoChronology;
+import java.time.temporal.ChronoField;
+import java.time.temporal.Temporal;
+import java.time.temporal.TemporalAdjuster;
+import java.time.temporal.TemporalAmount;
+import java.time.temporal.TemporalQueries;
+import java.time.temporal.TemporalUnit;
+
+/**
+ * <p>
+ * The {@link SearchStrategy#GALLOPING galloping} search through periods for
+ * the first adjustment strictly after (or before) a temporal. Period k is
+ * reached by adding k times the period at once, which only lands where adding
+ * it k times over would for the periods accepted by {@link #of}.
+ * </p>
+ * <p>
+ * {@link #run(Temporal, int)} answers false whenever it cannot be sure of
+ * finding what stepping one period at a time would find, and the caller then
+ * does exactly that. It can only check the periods it samples, so it is used
+ * only for adjusters {@link #isMonotonic(TemporalAdjuster) known} never to go
+ * backwards between them either.
+ * </p>
+ *
+ * @author Paul Greenlee
+ *
+ */
+final class GallopingSearch {
+
+	private final Temporal temporal;
+	private final TemporalAdjuster adjuster;
+	private final TemporalAmount period;
+	private final TemporalUnit precision;
+	private final boolean backward;
+	private Temporal occurrence;
+	private int periods;
+
+	private GallopingSearch(Temporal temporal, TemporalAdjuster adjuster, TemporalAmount period, TemporalUnit precision,
+			boolean backward) {
+		this.temporal = temporal;
+		this.adjuster = adjuster;
+		this.period = period;
+		this.precision = precision;
+		this.backward = backward;
+	}
+
+	/**
+	 * @return null if the period cannot be multiplied exactly for this
+	 *         temporal
+	 */
+	static GallopingSearch of(Temporal temporal, TemporalAdjuster adjuster, TemporalAmount period, TemporalUnit precision,
+			boolean backward) {
+		return multipliesExactly(temporal, period) ? new GallopingSearch(temporal, adjuster, period, precision, backward)
+				: null;
+	}
+
+	/**
+	 * Whether adjusting a later temporal never gives an earlier result. True
+	 * of the days of the week, months and month-days of java.time, of the
+	 * library's own field, day of the week in the month, last day of and
+	 * nearest-of-a-set adjusters, each of which stays within its week, month
+	 * or year, and of periodic adjusters made from one of those. Anything
+	 * else is opaque, and is searched one period at a time.
+	 */
+	static boolean isMonotonic(TemporalAdjuster adjuster) {
+		if (adjuster instanceof SimplePeriodicTemporalAdjuster)
+			return isMonotonic(((SimplePeriodicTemporalAdjuster) adjuster).adjuster());
+		return adjuster instanceof DayOfWeek || adjuster instanceof Month || adjuster instanceof MonthDay
+				|| adjuster instanceof CalendarAdjusters.FieldAdjuster
+				|| adjuster instanceof CalendarAdjusters.DayOfWeekInMonthAdjuster
+				|| adjuster instanceof CalendarAdjusters.LastDayOfAdjuster
+				|| adjuster instanceof CalendarAdjusters.DayOfWeekSetAdjuster
+				|| adjuster instanceof CalendarAdjusters.DayOfMonthSetAdjuster
+				|| adjuster instanceof CalendarAdjusters.MonthSetAdjuster
+				|| adjuster instanceof CalendarAdjusters.DayOfWeekInMonthSetAdjuster;
+	}
+
+	/**
+	 * Whether adding k times the period lands where adding the period k times
+	 * over does. Durations add exactly, as do days outside daylight saving.
+	 * Months and years do as long as the day of the month is never clamped,
+	 * which it cannot be from the 28th or before.
+	 */
+	static boolean multipliesExactly(Temporal temporal, TemporalAmount period) {
+		if (period instanceof Duration)
+			return !((Duration) period).isZero();
+		if (!(period instanceof Period))
+			return false;
+		Period p = (Period) period;
+		if (p.isZero())
+			return false;
+		if (temporal instanceof ChronoZonedDateTime
+				&& !((ChronoZonedDateTime<?>) temporal).getZone().getRules().isFixedOffset())
+			return false;
+		if (p.toTotalMonths() == 0)
+			return true;
+		return p.getDays() == 0 && IsoChronology.INSTANCE.equals(temporal.query(TemporalQueries.chronology()))
+				&& temporal.isSupported(ChronoField.DAY_OF_MONTH) && temporal.get(ChronoField.DAY_OF_MONTH) <= 28;
+	}
+
+	/**
+	 * @param first
+	 *            the adjustment of the temporal itself, which is known not to
+	 *            be past it
+	 * @param limit
+	 *            the most periods to go
+	 * @return false if the caller must step one period at a time instead
+	 */
+	boolean run(Temporal first, int limit) {
+		int lo = 0;
+		Temporal loAttempt = first;
+		int hi = 1;
+		Temporal hiAttempt;
+		while (true) {
+			hiAttempt = attemptAt(hi);
+			if (hiAttempt == null || !inOrder(loAttempt, hiAttempt))
+				return false;
+			if (isPast(hiAttempt))
+				break;
+			if (hi >= limit)
+				// Giving up is left to stepping, which may yet find something if the adjuster is out of order.
+				return false;
+			lo = hi;
+			loAttempt = hiAttempt;
+			hi = (int) Math.min(2L * hi, limit);
+		}
+		while (hi - lo > 1) {
+			int mid = (lo + hi) >>> 1;
+			Temporal midAttempt = attemptAt(mid);
+			if (midAttempt == null || !inOrder(loAttempt, midAttempt) || !inOrder(midAttempt, hiAttempt))
+				return false;
+			if (isPast(midAttempt)) {
+				hi = mid;
+				hiAttempt = midAttempt;
+			} else {
+				lo = mid;
+				loAttempt = midAttempt;
+			}
+		}
+		occurrence = hiAttempt;
+		periods = hi;
+		return true;
+	}
+
+	/**
+	 * The occurrence found by {@link #run(Temporal, int)}.
+	 */
+	Temporal occurrence() {
+		return occurrence;
+	}
+
+	/**
+	 * The number of periods gone to find the occurrence.
+	 */
+	int periods() {
+		return periods;
+	}
+
+	private Temporal attemptAt(int k) {
+		try {
+			TemporalAmount multiple = period instanceof Duration ? ((Duration) period).multipliedBy(k)
+					: ((Period) period).multipliedBy(k);
+			Temporal base = backward ? temporal.minus(multiple) : temporal.plus(multiple);
+			return base.with(adjuster);
+		} catch (DateTimeException | ArithmeticException e) {
+			return null;
+		}
+	}
+
+	private boolean isPast(Temporal attempt) {
+		return backward ? precision.between(attempt, temporal) > 0 : precision.between(temporal, attempt) > 0;
+	}
+
+	private boolean inOrder(Temporal earlierPeriod, Temporal laterPeriod) {
+		long between = precision.between(earlierPeriod, laterPeriod);
+		return backward ? between <= 0 : between >= 0;
+	}
+
+}
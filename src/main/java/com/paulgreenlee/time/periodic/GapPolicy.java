@@ -0,0 +1,36 @@
+package com.paulgreenlee.time.periodic;
+
+/**
+ * What to do with a local date-time that falls in a gap in a time zone, when
+ * clocks go forward and the local times skipped never happen, as when
+ * {@link Occurrences#instants} converts occurrences to instants.
+ *
+ * @author Paul Greenlee
+ *
+ */
+public enum GapPolicy {
+
+	/**
+	 * Move the local time later by the length of the gap, as
+	 * {@link java.time.ZonedDateTime#of} does. 02:30 in a gap from 02:00 to
+	 * 03:00 becomes 03:30.
+	 */
+	SHIFT,
+
+	/**
+	 * Move to the instant of the transition, the first valid local time after
+	 * the gap. 02:30 in a gap from 02:00 to 03:00 becomes 03:00.
+	 */
+	NEXT_VALID_TIME,
+
+	/**
+	 * Leave the occurrence out.
+	 */
+	SKIP,
+
+	/**
+	 * Throw a {@link java.time.DateTimeException}.
+	 */
+	REJECT
+
+}
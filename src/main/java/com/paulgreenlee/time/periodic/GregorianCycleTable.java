@@ -0,0 +1,215 @@
+package com.paulgreenlee.time.periodic;
+
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Optional;
+
+/**
+ * <p>
+ * Every occurrence of a date-only rule within one 400 year cycle of the
+ * Gregorian calendar. A rule built only from month, day of month and day of
+ * week adjustments repeats exactly every 146,097 days, so one cycle is enough
+ * to answer "what is the next occurrence" for any date with a table lookup
+ * instead of a search.
+ * </p>
+ * <p>
+ * Tables are built by running the rule itself through a whole cycle, so they
+ * always agree with {@link ForwardOnlyTemporalAdjuster}. While building, the
+ * rule is also checked at the day before each occurrence and in the middle of
+ * each gap, and a rule that gives different answers there, or whose
+ * occurrences do not repeat after one cycle, is not compiled.
+ * </p>
+ * <p>
+ * Sparse rules are stored as a sorted array of day offsets and searched
+ * with a binary search. Dense rules are stored as a bitset of about 18KB and
+ * searched by scanning for the next set bit, with the number of occurrences
+ * before each word of the bitset kept alongside it so that occurrences can be
+ * counted and numbered without scanning.
+ * </p>
+ *
+ * @author Paul Greenlee
+ *
+ */
+public final class GregorianCycleTable {
+
+	/** The first day of the cycle the table describes. Any cycle would do. */
+	private static final long ORIGIN = EpochDays.of(2000, 1, 1);
+	private static final int CYCLE = EpochDays.DAYS_PER_CYCLE;
+	private static final int WORDS = (CYCLE + 63) / 64;
+
+	private final int[] offsets;
+	private final long[] words;
+	/** For the bitset, the number of occurrences in the words before each word. */
+	private final int[] ranks;
+	private final int count;
+
+	private GregorianCycleTable(int[] offsets, int count) {
+		this.count = count;
+		if (count * Integer.BYTES < WORDS * Long.BYTES) {
+			this.offsets = Arrays.copyOf(offsets, count);
+			this.words = null;
+			this.ranks = null;
+		} else {
+			this.offsets = null;
+			this.words = new long[WORDS];
+			for (int i = 0; i < count; i++)
+				words[offsets[i] >>> 6] |= 1L << offsets[i];
+			this.ranks = new int[WORDS];
+			for (int i = 1; i < WORDS; i++)
+				ranks[i] = ranks[i - 1] + Long.bitCount(words[i - 1]);
+		}
+	}
+
+	/**
+	 * Builds the table for a rule, if the rule qualifies. A rule qualifies if
+	 * its forward-only form has a cyclic {@link EpochDayAdjuster} form, which is
+	 * the case for rules made of {@link SimplePeriodicTemporalAdjuster}s,
+	 * {@link ForwardOnlyTemporalAdjuster}s and compound adjusters with
+	 * {@link java.time.Period}s, around adjusters such as
+	 * {@link java.time.DayOfWeek}, {@link java.time.MonthDay} and those from
+	 * {@link CalendarAdjusters} that do not name a particular year, and if it
+	 * passes the checks described above.
+	 *
+	 * @return the table, or empty if the rule does not qualify
+	 */
+	public static Optional<GregorianCycleTable> compile(PeriodicTemporalAdjuster rule) {
+		ForwardOnlyTemporalAdjuster forward = rule instanceof ForwardOnlyTemporalAdjuster
+				? (ForwardOnlyTemporalAdjuster) rule : ForwardOnlyTemporalAdjuster.of(rule);
+		EpochDayAdjuster epochDayAdjuster = EpochDayAdjuster.of(forward);
+		if (epochDayAdjuster == null || !epochDayAdjuster.isCyclic())
+			return Optional.empty();
+		try {
+			return Optional.ofNullable(build(forward));
+		} catch (DateTimeException e) {
+			// The rule has no occurrences, or none the engine can find.
+			return Optional.empty();
+		}
+	}
+
+	private static GregorianCycleTable build(ForwardOnlyTemporalAdjuster forward) {
+		int[] offsets = new int[64];
+		int count = 0;
+		long previous = ORIGIN - 1;
+		long occurrence = next(forward, previous);
+		long first = occurrence;
+		while (occurrence < ORIGIN + CYCLE) {
+			if (occurrence - 1 != previous && next(forward, occurrence - 1) != occurrence)
+				return null;
+			if (occurrence - previous > 2 && next(forward, (previous + occurrence) / 2) != occurrence)
+				return null;
+			if (count == offsets.length)
+				offsets = Arrays.copyOf(offsets, count * 2);
+			offsets[count++] = (int) (occurrence - ORIGIN);
+			previous = occurrence;
+			occurrence = next(forward, occurrence);
+		}
+		if (count == 0 || occurrence != first + CYCLE)
+			return null;
+		return new GregorianCycleTable(offsets, count);
+	}
+
+	private static long next(ForwardOnlyTemporalAdjuster forward, long epochDay) {
+		return LocalDate.ofEpochDay(epochDay).with(forward).toEpochDay();
+	}
+
+	/**
+	 * The first occurrence strictly after the given epoch day.
+	 */
+	public long next(long epochDay) {
+		long offset = Math.floorMod(epochDay - ORIGIN, (long) CYCLE);
+		long cycleStart = epochDay - offset;
+		int after = (int) offset + 1;
+		if (offsets != null) {
+			int index = Arrays.binarySearch(offsets, after);
+			if (index < 0)
+				index = -index - 1;
+			return index < count ? cycleStart + offsets[index] : cycleStart + CYCLE + offsets[0];
+		}
+		int bit = nextSetBit(after);
+		return bit >= 0 ? cycleStart + bit : cycleStart + CYCLE + nextSetBit(0);
+	}
+
+	/**
+	 * The first occurrence strictly after the given date.
+	 */
+	public LocalDate next(LocalDate date) {
+		return LocalDate.ofEpochDay(next(date.toEpochDay()));
+	}
+
+	private int nextSetBit(int from) {
+		if (from >= CYCLE)
+			return -1;
+		int index = from >>> 6;
+		long word = words[index] & (-1L << from);
+		while (word == 0) {
+			if (++index == WORDS)
+				return -1;
+			word = words[index];
+		}
+		return (index << 6) + Long.numberOfTrailingZeros(word);
+	}
+
+	/**
+	 * The number of occurrences on or before the given epoch day, counted from
+	 * the start of the cycle that begins on 2000-01-01, so negative before it.
+	 * The difference between two ranks is the number of occurrences between
+	 * the two days.
+	 */
+	long rank(long epochDay) {
+		long offset = Math.floorMod(epochDay - ORIGIN, (long) CYCLE);
+		long cycles = Math.floorDiv(epochDay - ORIGIN, (long) CYCLE);
+		return cycles * count + countThrough((int) offset);
+	}
+
+	/**
+	 * The occurrence with the given rank, the inverse of {@link #rank(long)}
+	 * on occurrences.
+	 */
+	long select(long rank) {
+		long index = rank - 1;
+		long cycles = Math.floorDiv(index, (long) count);
+		int within = (int) Math.floorMod(index, (long) count);
+		return ORIGIN + cycles * CYCLE + offset(within);
+	}
+
+	/** The number of occurrences in the cycle on or before the offset. */
+	private int countThrough(int offset) {
+		if (offsets != null) {
+			int index = Arrays.binarySearch(offsets, 0, count, offset + 1);
+			return index < 0 ? -index - 1 : index;
+		}
+		int index = offset >>> 6;
+		return ranks[index] + Long.bitCount(words[index] & (-1L >>> (63 - (offset & 63))));
+	}
+
+	/** The offset of the occurrence at the index within the cycle. */
+	private int offset(int index) {
+		if (offsets != null)
+			return offsets[index];
+		int low = 0;
+		int high = WORDS - 1;
+		while (low < high) {
+			int middle = (low + high + 1) >>> 1;
+			if (ranks[middle] <= index)
+				low = middle;
+			else
+				high = middle - 1;
+		}
+		long word = words[low];
+		for (int skip = index - ranks[low]; skip > 0; skip--)
+			word &= word - 1;
+		return (low << 6) + Long.numberOfTrailingZeros(word);
+	}
+
+	/** The number of occurrences in each 400 year cycle. */
+	public int occurrencesPerCycle() {
+		return count;
+	}
+
+	/** The approximate memory used by the table. */
+	public long sizeInBytes() {
+		return 32 + (offsets != null ? 16 + offsets.length * (long) Integer.BYTES : 32 + words.length * (long) (Long.BYTES + Integer.BYTES));
+	}
+
+}
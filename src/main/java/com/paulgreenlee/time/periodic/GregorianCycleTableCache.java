@@ -0,0 +1,67 @@
+package com.paulgreenlee.time.periodic;
+
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * <p>
+ * A thread safe cache of {@link GregorianCycleTable}s, keyed by rule and
+ * bounded by the memory the tables use. Rules are compared with
+ * {@code equals}, so equal rules share one table. Rules that cannot be
+ * compiled are remembered too, so they are only tried once.
+ * </p>
+ * <p>
+ * When the bound is exceeded the least recently used tables are dropped. They
+ * are rebuilt the next time they are needed.
+ * </p>
+ *
+ * @author Paul Greenlee
+ *
+ */
+public class GregorianCycleTableCache {
+
+	private static final long DEFAULT_MAX_BYTES = 64L * 1024 * 1024;
+	private static final long NOT_COMPILED_BYTES = 16;
+
+	private static final GregorianCycleTableCache SHARED = new GregorianCycleTableCache(DEFAULT_MAX_BYTES);
+
+	private final BoundedCache<PeriodicTemporalAdjuster, Optional<GregorianCycleTable>> tables;
+
+	public GregorianCycleTableCache(long maxBytes) {
+		this.tables = new BoundedCache<>(maxBytes, table -> table.map(GregorianCycleTable::sizeInBytes).orElse(NOT_COMPILED_BYTES));
+	}
+
+	/**
+	 * The cache used by {@link PeriodicTemporalAdjusters#precomputed(PeriodicTemporalAdjuster)},
+	 * bounded at 64MB.
+	 */
+	public static GregorianCycleTableCache shared() {
+		return SHARED;
+	}
+
+	/**
+	 * The table for the rule, compiling it if necessary.
+	 *
+	 * @return the table, or empty if the rule cannot be compiled
+	 */
+	public Optional<GregorianCycleTable> get(PeriodicTemporalAdjuster rule) {
+		return tables.get(Objects.requireNonNull(rule, "rule is required"), GregorianCycleTable::compile);
+	}
+
+	public int size() {
+		return tables.size();
+	}
+
+	public long sizeInBytes() {
+		return tables.weight();
+	}
+
+	public long maxBytes() {
+		return tables.maxWeight();
+	}
+
+	public void clear() {
+		tables.invalidateAll();
+	}
+
+}
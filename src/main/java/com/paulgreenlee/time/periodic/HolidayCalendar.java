@@ -0,0 +1,528 @@
+package com.paulgreenlee.time.periodic;
+
+import java.time.DateTimeException;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.temporal.ChronoField;
+import java.time.temporal.Temporal;
+import java.time.temporal.TemporalAdjuster;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * <p>
+ * The business days in a range of dates: every day except the weekend days and
+ * a list of holidays. Examples:
+ * </p>
+ * <ul>
+ * <li>The 3rd business day of every month:
+ * <code>forwardOnlyOf(monthly(calendar.businessDayOfMonth(3)))</code></li>
+ * <li>Ten business days after the 15th of every month:
+ * <code>forwardOnlyOf(monthly(calendar.businessDaysAfter(CalendarAdjusters.field(DAY_OF_MONTH, 15), 10)))</code></li>
+ * <li>The 15th of every month, when it is a business day:
+ * <code>new AllOfCompoundTemporalAdjuster(Arrays.asList(CalendarAdjusters.field(DAY_OF_MONTH, 15), calendar.nextOrSameBusinessDay()), Period.ofMonths(1))</code></li>
+ * </ul>
+ * <p>
+ * The business days are kept as a bitset with the number of business days
+ * before each word of it, so counting the business days up to any date is a
+ * lookup and a population count. Moving a number of business days and finding
+ * the nth business day of a month count up to the starting point and then find
+ * the business day with the resulting number. Since business days are spread
+ * fairly evenly, the word it is in can be estimated and corrected by a step or
+ * two, however many days are skipped.
+ * </p>
+ * <p>
+ * The holidays can be {@link #reload(Collection) reloaded} at any time. The
+ * adjusters from a calendar look its business days up each time they are
+ * used, so rules already built from them see the new holidays straight away.
+ * A date outside the range, or an answer that would be outside it, is a
+ * {@link DateTimeException}.
+ * </p>
+ *
+ * @author Paul Greenlee
+ *
+ */
+public final class HolidayCalendar {
+
+	private static final Set<DayOfWeek> SATURDAY_AND_SUNDAY = EnumSet.of(DayOfWeek.SATURDAY, DayOfWeek.SUNDAY);
+
+	private final LocalDate from;
+	private final LocalDate to;
+	private final long weekend;
+	private volatile BusinessDays days;
+
+	/**
+	 * A calendar from {@code from} up to but not including {@code to}, with
+	 * Saturday and Sunday as the weekend.
+	 */
+	public HolidayCalendar(LocalDate from, LocalDate to, Collection<LocalDate> holidays) {
+		this(from, to, SATURDAY_AND_SUNDAY, holidays);
+	}
+
+	/**
+	 * A calendar from {@code from} up to but not including {@code to}, with
+	 * the given days of the week as the weekend. Holidays outside the range are
+	 * ignored.
+	 *
+	 * @throws IllegalArgumentException
+	 *             if {@code to} is not after {@code from}
+	 */
+	public HolidayCalendar(LocalDate from, LocalDate to, Set<DayOfWeek> weekend, Collection<LocalDate> holidays) {
+		this.from = Objects.requireNonNull(from, "from is required");
+		this.to = Objects.requireNonNull(to, "to is required");
+		long length = to.toEpochDay() - from.toEpochDay();
+		if (length <= 0 || length > Integer.MAX_VALUE - 64)
+			throw new IllegalArgumentException("to must be after from, and not too far: " + from + " to " + to);
+		long members = 0;
+		for (DayOfWeek dayOfWeek : Objects.requireNonNull(weekend, "weekend is required"))
+			members |= 1L << dayOfWeek.getValue();
+		this.weekend = members;
+		this.days = build(holidays);
+	}
+
+	/**
+	 * Replaces the holidays. Lookups already under way finish with the old
+	 * ones.
+	 */
+	public void reload(Collection<LocalDate> holidays) {
+		days = build(holidays);
+	}
+
+	private BusinessDays build(Collection<LocalDate> holidays) {
+		Objects.requireNonNull(holidays, "holidays is required");
+		long first = from.toEpochDay();
+		int length = (int) (to.toEpochDay() - first);
+		long[] words = new long[(length + 63) >>> 6];
+		for (int offset = 0; offset < length; offset++) {
+			if ((weekend & (1L << EpochDays.dayOfWeek(first + offset))) == 0)
+				words[offset >>> 6] |= 1L << offset;
+		}
+		for (LocalDate holiday : holidays) {
+			long offset = Objects.requireNonNull(holiday, "holiday is required").toEpochDay() - first;
+			if (offset >= 0 && offset < length)
+				words[(int) (offset >>> 6)] &= ~(1L << offset);
+		}
+		return new BusinessDays(first, length, words);
+	}
+
+	/** The first date in the calendar. */
+	public LocalDate getFrom() {
+		return from;
+	}
+
+	/** The date after the last date in the calendar. */
+	public LocalDate getTo() {
+		return to;
+	}
+
+	/**
+	 * @throws DateTimeException
+	 *             if the date is outside the calendar
+	 */
+	public boolean isBusinessDay(LocalDate date) {
+		BusinessDays days = this.days;
+		long epochDay = days.check(date.toEpochDay());
+		return days.isBusinessDay(epochDay);
+	}
+
+	/**
+	 * <p>
+	 * The date {@code n} business days after the date, or before it if
+	 * {@code n} is negative. One business day after a date that is not a
+	 * business day is the next business day, and one before it the previous
+	 * business day. Zero business days after a date is the date itself.
+	 * </p>
+	 *
+	 * @throws DateTimeException
+	 *             if the date or the answer is outside the calendar
+	 */
+	public LocalDate plusBusinessDays(LocalDate date, long n) {
+		return LocalDate.ofEpochDay(found(days.plus(date.toEpochDay(), n), date));
+	}
+
+	/**
+	 * The number of business days from {@code start}, inclusive, to
+	 * {@code end}, exclusive, or minus the number from {@code end} to
+	 * {@code start} if {@code end} is earlier.
+	 *
+	 * @throws DateTimeException
+	 *             if either date is outside the calendar, other than
+	 *             {@code to} itself as the exclusive end
+	 */
+	public long businessDaysBetween(LocalDate start, LocalDate end) {
+		BusinessDays days = this.days;
+		long startDay = start.toEpochDay();
+		long endDay = end.toEpochDay();
+		if (endDay < startDay)
+			return -businessDaysBetween(end, start);
+		days.check(startDay);
+		if (endDay != days.first + days.length)
+			days.check(endDay);
+		return days.rank(endDay - 1) - days.rank(startDay - 1);
+	}
+
+	/**
+	 * The {@code n}th business day of the month, counting from the end of the
+	 * month if {@code n} is negative, so that -1 is the last business day.
+	 *
+	 * @throws DateTimeException
+	 *             if the month is not wholly in the calendar or does not have
+	 *             that many business days
+	 * @throws IllegalArgumentException
+	 *             if {@code n} is zero
+	 */
+	public LocalDate businessDayOfMonth(YearMonth month, int n) {
+		if (n == 0)
+			throw new IllegalArgumentException("n cannot be zero");
+		return LocalDate.ofEpochDay(found(days.ofMonth(month.atDay(1).toEpochDay(), n), month));
+	}
+
+	private static long found(long epochDay, Object question) {
+		if (epochDay == EpochDayAdjuster.INVALID)
+			throw new DateTimeException("No business day in the calendar for " + question);
+		return epochDay;
+	}
+
+	/**
+	 * Adjusts to the date {@code n} business days later, or earlier if
+	 * {@code n} is negative, as {@link #plusBusinessDays(LocalDate, long)}
+	 * does. The time of day, if any, is kept.
+	 */
+	public TemporalAdjuster plusBusinessDays(long n) {
+		return new PlusBusinessDays(this, null, n);
+	}
+
+	/**
+	 * Adjusts with {@code anchor} and then moves {@code n} business days, as
+	 * {@link #plusBusinessDays(LocalDate, long)} does, for rules such as "five
+	 * business days after the end of the month".
+	 */
+	public TemporalAdjuster businessDaysAfter(TemporalAdjuster anchor, long n) {
+		return new PlusBusinessDays(this, Objects.requireNonNull(anchor, "anchor is required"), n);
+	}
+
+	/**
+	 * Adjusts to the {@code n}th business day of the same month, as
+	 * {@link #businessDayOfMonth(YearMonth, int)} does. The time of day, if
+	 * any, is kept.
+	 *
+	 * @throws IllegalArgumentException
+	 *             if {@code n} is zero
+	 */
+	public TemporalAdjuster businessDayOfMonth(int n) {
+		if (n == 0)
+			throw new IllegalArgumentException("n cannot be zero");
+		return new BusinessDayOfMonth(this, n);
+	}
+
+	/** Adjusts to the same date if it is a business day, or else the next one. */
+	public TemporalAdjuster nextOrSameBusinessDay() {
+		return new BusinessDayOrSame(this, true);
+	}
+
+	/** Adjusts to the same date if it is a business day, or else the previous one. */
+	public TemporalAdjuster previousOrSameBusinessDay() {
+		return new BusinessDayOrSame(this, false);
+	}
+
+	@Override
+	public String toString() {
+		return "HolidayCalendar[" + from + " to " + to + "]";
+	}
+
+	/**
+	 * One set of business days. Replaced as a whole when the holidays are
+	 * reloaded, so a lookup never sees half of each.
+	 */
+	private static final class BusinessDays {
+
+		final long first;
+		final int length;
+		private final long[] words;
+		/** The number of business days in the words before each word. */
+		private final int[] ranks;
+		private final int total;
+
+		BusinessDays(long first, int length, long[] words) {
+			this.first = first;
+			this.length = length;
+			this.words = words;
+			this.ranks = new int[words.length];
+			for (int i = 1; i < words.length; i++)
+				ranks[i] = ranks[i - 1] + Long.bitCount(words[i - 1]);
+			this.total = ranks[words.length - 1] + Long.bitCount(words[words.length - 1]);
+		}
+
+		boolean contains(long epochDay) {
+			return epochDay >= first && epochDay - first < length;
+		}
+
+		long check(long epochDay) {
+			if (!contains(epochDay))
+				throw new DateTimeException("Date outside the holiday calendar: " + LocalDate.ofEpochDay(epochDay));
+			return epochDay;
+		}
+
+		boolean isBusinessDay(long epochDay) {
+			int offset = (int) (epochDay - first);
+			return (words[offset >>> 6] & (1L << offset)) != 0;
+		}
+
+		/** The number of business days on or before the day, which is in the range or the day before it. */
+		int rank(long epochDay) {
+			int offset = (int) (epochDay - first);
+			if (offset < 0)
+				return 0;
+			int index = offset >>> 6;
+			return ranks[index] + Long.bitCount(words[index] & (-1L >>> (63 - (offset & 63))));
+		}
+
+		/** The business day with the given rank, or INVALID if there is none. */
+		long select(long rank) {
+			if (rank < 1 || rank > total)
+				return EpochDayAdjuster.INVALID;
+			int index = (int) rank - 1;
+			// Business days are spread evenly enough that the estimate is at most a word or two out.
+			int word = (int) Math.min((long) index * words.length / total, words.length - 1);
+			while (ranks[word] > index)
+				word--;
+			while (word + 1 < words.length && ranks[word + 1] <= index)
+				word++;
+			return first + (word << 6) + select(words[word], index - ranks[word]);
+		}
+
+		/** The position of the set bit with the given index in the word, a byte at a time. */
+		private static int select(long word, int index) {
+			int shift = 0;
+			for (int count = Long.bitCount(word & 0xFF); count <= index; count = Long.bitCount((word >>> shift) & 0xFF)) {
+				index -= count;
+				shift += 8;
+			}
+			long bits = word >>> shift;
+			for (; index > 0; index--)
+				bits &= bits - 1;
+			return shift + Long.numberOfTrailingZeros(bits);
+		}
+
+		long plus(long epochDay, long n) {
+			if (!contains(epochDay))
+				return EpochDayAdjuster.INVALID;
+			if (n == 0)
+				return epochDay;
+			if (n > 0)
+				return select(rank(epochDay) + n);
+			return select(rank(epochDay - 1) + n + 1);
+		}
+
+		long ofMonth(long epochDay, int n) {
+			long packed = EpochDays.packed(epochDay);
+			long monthStart = epochDay - EpochDays.day(packed) + 1;
+			long monthEnd = monthStart + EpochDays.lengthOfMonth(EpochDays.year(packed), EpochDays.month(packed)) - 1;
+			if (!contains(monthStart) || !contains(monthEnd))
+				return EpochDayAdjuster.INVALID;
+			int before = rank(monthStart - 1);
+			int through = rank(monthEnd);
+			long rank = n > 0 ? before + n : through + n + 1;
+			return rank > before && rank <= through ? select(rank) : EpochDayAdjuster.INVALID;
+		}
+
+		long nearest(long epochDay, boolean forward) {
+			if (!contains(epochDay))
+				return EpochDayAdjuster.INVALID;
+			if (isBusinessDay(epochDay))
+				return epochDay;
+			return forward ? select(rank(epochDay) + 1) : select(rank(epochDay));
+		}
+
+	}
+
+	/**
+	 * The adjusters share how a date is replaced. Each looks up the current
+	 * business days of its calendar every time, rather than keeping them.
+	 */
+	private abstract static class BusinessDayAdjuster implements TemporalAdjuster, EpochDayAdjuster {
+
+		final HolidayCalendar calendar;
+
+		BusinessDayAdjuster(HolidayCalendar calendar) {
+			this.calendar = calendar;
+		}
+
+		@Override
+		public Temporal adjustInto(Temporal temporal) {
+			long epochDay = temporal.getLong(ChronoField.EPOCH_DAY);
+			long adjusted = move(epochDay);
+			if (adjusted == INVALID)
+				throw new DateTimeException(this + " has no answer in the calendar for " + LocalDate.ofEpochDay(epochDay));
+			return adjusted == epochDay ? temporal : EpochDays.with(temporal, adjusted);
+		}
+
+		@Override
+		public long adjustEpochDay(long epochDay) {
+			return move(epochDay);
+		}
+
+		/** The business day for the date, or INVALID. */
+		abstract long move(long epochDay);
+
+	}
+
+	private static final class PlusBusinessDays extends BusinessDayAdjuster {
+
+		/** Applied first, or null. */
+		private final TemporalAdjuster anchor;
+		private final EpochDayAdjuster anchorDays;
+		private final long n;
+
+		PlusBusinessDays(HolidayCalendar calendar, TemporalAdjuster anchor, long n) {
+			super(calendar);
+			this.anchor = anchor;
+			this.anchorDays = anchor == null ? null : EpochDayAdjuster.of(anchor);
+			this.n = n;
+		}
+
+		@Override
+		public Temporal adjustInto(Temporal temporal) {
+			return super.adjustInto(anchor == null ? temporal : temporal.with(anchor));
+		}
+
+		@Override
+		public long adjustEpochDay(long epochDay) {
+			if (anchor != null) {
+				epochDay = anchorDays != null ? anchorDays.adjustEpochDay(epochDay) : anchorEpochDay(epochDay);
+				if (epochDay == INVALID)
+					return INVALID;
+			}
+			return move(epochDay);
+		}
+
+		private long anchorEpochDay(long epochDay) {
+			try {
+				return LocalDate.ofEpochDay(epochDay).with(anchor).toEpochDay();
+			} catch (DateTimeException e) {
+				return INVALID;
+			}
+		}
+
+		@Override
+		long move(long epochDay) {
+			return calendar.days.plus(epochDay, n);
+		}
+
+		@Override
+		public int hashCode() {
+			final int prime = 31;
+			int result = 1;
+			result = prime * result + calendar.hashCode();
+			result = prime * result + Objects.hashCode(anchor);
+			result = prime * result + Long.hashCode(n);
+			return result;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj)
+				return true;
+			if (obj == null)
+				return false;
+			if (getClass() != obj.getClass())
+				return false;
+			PlusBusinessDays other = (PlusBusinessDays) obj;
+			return calendar == other.calendar && Objects.equals(anchor, other.anchor) && n == other.n;
+		}
+
+		@Override
+		public String toString() {
+			return anchor == null ? "PlusBusinessDays[" + n + "]" : "BusinessDaysAfter[" + anchor + ", " + n + "]";
+		}
+
+	}
+
+	private static final class BusinessDayOfMonth extends BusinessDayAdjuster {
+
+		private final int n;
+
+		BusinessDayOfMonth(HolidayCalendar calendar, int n) {
+			super(calendar);
+			this.n = n;
+		}
+
+		@Override
+		long move(long epochDay) {
+			return calendar.days.ofMonth(epochDay, n);
+		}
+
+		@Override
+		public int hashCode() {
+			final int prime = 31;
+			int result = 1;
+			result = prime * result + calendar.hashCode();
+			result = prime * result + n;
+			return result;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj)
+				return true;
+			if (obj == null)
+				return false;
+			if (getClass() != obj.getClass())
+				return false;
+			BusinessDayOfMonth other = (BusinessDayOfMonth) obj;
+			return calendar == other.calendar && n == other.n;
+		}
+
+		@Override
+		public String toString() {
+			return "BusinessDayOfMonth[" + n + "]";
+		}
+
+	}
+
+	private static final class BusinessDayOrSame extends BusinessDayAdjuster {
+
+		private final boolean forward;
+
+		BusinessDayOrSame(HolidayCalendar calendar, boolean forward) {
+			super(calendar);
+			this.forward = forward;
+		}
+
+		@Override
+		long move(long epochDay) {
+			return calendar.days.nearest(epochDay, forward);
+		}
+
+		@Override
+		public int hashCode() {
+			final int prime = 31;
+			int result = 1;
+			result = prime * result + calendar.hashCode();
+			result = prime * result + Boolean.hashCode(forward);
+			return result;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj)
+				return true;
+			if (obj == null)
+				return false;
+			if (getClass() != obj.getClass())
+				return false;
+			BusinessDayOrSame other = (BusinessDayOrSame) obj;
+			return calendar == other.calendar && forward == other.forward;
+		}
+
+		@Override
+		public String toString() {
+			return forward ? "NextOrSameBusinessDay" : "PreviousOrSameBusinessDay";
+		}
+
+	}
+
+}
@@ -0,0 +1,320 @@
+package com.paulgreenlee.time.periodic;
+
+import java.time.DateTimeException;
+import java.time.DayOfWeek;
+import java.time.Period;
+import java.time.temporal.Temporal;
+import java.time.temporal.TemporalAdjuster;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * <p>
+ * Keeps the occurrences of many rules, each under its own key, between two
+ * points, and when a rule is replaced works out only what changed: the
+ * occurrences added and the occurrences removed. Listeners are given that
+ * {@link Delta}, so a store downstream only has to write the rows that
+ * changed.
+ * </p>
+ * <p>
+ * A rule is kept as the parts its occurrences are the union of: the rules of a
+ * {@link PeriodicTemporalAdjusters#union union}, and a weekly rule for each
+ * day of {@link PeriodicTemporalAdjusters#weeklyOnDays weeklyOnDays}. Other
+ * rules are a single part. When a rule is replaced, the parts it shares with
+ * the rule before are kept as they are and only the new parts are expanded,
+ * so adding Thursday to Monday, Wednesday and Friday expands only the
+ * Thursdays. Each occurrence is counted once for every part it belongs to,
+ * and is only added or removed when that count starts or stops being zero.
+ * </p>
+ * <p>
+ * The calendar is not thread safe. Listeners are called on the thread that
+ * made the change, after the change is made.
+ * </p>
+ *
+ * @author Paul Greenlee
+ *
+ * @param <K>
+ *            the type of key, such as a subscription id
+ * @param <T>
+ *            the type of Temporal the occurrences are held as
+ */
+public class MaterializedCalendar<K, T extends Temporal & Comparable<? super T>> {
+
+	private final T start;
+	private final T end;
+	private final Map<K, Expansion<T>> expansions = new HashMap<>();
+	private final List<Listener<K, T>> listeners = new CopyOnWriteArrayList<>();
+
+	/**
+	 * Holds the occurrences after {@code start} and before {@code end}, the
+	 * same ones {@link Occurrences#occurrences(PeriodicTemporalAdjuster, Temporal, Temporal)}
+	 * gives.
+	 *
+	 * @throws IllegalArgumentException
+	 *             if {@code end} is not after {@code start}
+	 */
+	public MaterializedCalendar(T start, T end) {
+		this.start = Objects.requireNonNull(start, "start is required");
+		this.end = Objects.requireNonNull(end, "end is required");
+		if (end.compareTo(start) <= 0)
+			throw new IllegalArgumentException("end " + end + " is not after start " + start);
+	}
+
+	public T getStart() {
+		return start;
+	}
+
+	public T getEnd() {
+		return end;
+	}
+
+	public void addListener(Listener<K, T> listener) {
+		listeners.add(Objects.requireNonNull(listener, "listener is required"));
+	}
+
+	public void removeListener(Listener<K, T> listener) {
+		listeners.remove(listener);
+	}
+
+	/**
+	 * Keeps the occurrences of the rule under the key, replacing whatever the
+	 * key had before, and tells the listeners what changed unless nothing did.
+	 *
+	 * @return the occurrences added and removed
+	 * @throws DateTimeException
+	 *             if a new part of the rule cannot be expanded, in which case
+	 *             nothing is changed
+	 */
+	public Delta<K, T> put(K key, PeriodicTemporalAdjuster rule) {
+		Objects.requireNonNull(key, "key is required");
+		Objects.requireNonNull(rule, "rule is required");
+		Expansion<T> previous = expansions.get(key);
+		Map<PeriodicTemporalAdjuster, List<T>> previousParts = previous == null
+				? Collections.emptyMap() : previous.parts;
+		Map<PeriodicTemporalAdjuster, List<T>> parts = new LinkedHashMap<>();
+		for (PeriodicTemporalAdjuster part : parts(rule)) {
+			List<T> occurrences = previousParts.get(part);
+			parts.put(part, occurrences != null ? occurrences : RangeExpansion.expand(part, start, end));
+		}
+
+		Expansion<T> expansion = previous == null ? new Expansion<>() : previous;
+		// Adding first means an occurrence that moves from one part to another is neither added nor removed.
+		List<T> added = new ArrayList<>();
+		for (Map.Entry<PeriodicTemporalAdjuster, List<T>> part : parts.entrySet()) {
+			if (!previousParts.containsKey(part.getKey()))
+				expansion.add(part.getValue(), added);
+		}
+		List<T> removed = new ArrayList<>();
+		for (Map.Entry<PeriodicTemporalAdjuster, List<T>> part : previousParts.entrySet()) {
+			if (!parts.containsKey(part.getKey()))
+				expansion.remove(part.getValue(), removed);
+		}
+		expansion.rule = rule;
+		expansion.parts = parts;
+		expansions.put(key, expansion);
+		return publish(key, added, removed);
+	}
+
+	/**
+	 * Stops keeping the occurrences under the key, and tells the listeners
+	 * they were all removed.
+	 *
+	 * @return the occurrences removed, or null if the key was not kept
+	 */
+	public Delta<K, T> remove(K key) {
+		Expansion<T> expansion = expansions.remove(key);
+		if (expansion == null)
+			return null;
+		return publish(key, Collections.emptyList(), new ArrayList<>(expansion.counts.keySet()));
+	}
+
+	/**
+	 * The rule kept under the key, or null if the key is not kept.
+	 */
+	public PeriodicTemporalAdjuster rule(K key) {
+		Expansion<T> expansion = expansions.get(key);
+		return expansion == null ? null : expansion.rule;
+	}
+
+	/**
+	 * The occurrences kept under the key, in order, or an empty set if the key
+	 * is not kept. The set cannot be changed, but follows later changes to the
+	 * key's rule.
+	 */
+	public NavigableSet<T> occurrences(K key) {
+		Expansion<T> expansion = expansions.get(key);
+		return expansion == null ? Collections.emptyNavigableSet()
+				: Collections.unmodifiableNavigableSet(expansion.counts.navigableKeySet());
+	}
+
+	public boolean contains(K key) {
+		return expansions.containsKey(key);
+	}
+
+	public int size() {
+		return expansions.size();
+	}
+
+	public boolean isEmpty() {
+		return expansions.isEmpty();
+	}
+
+	private Delta<K, T> publish(K key, List<T> added, List<T> removed) {
+		Collections.sort(added);
+		Collections.sort(removed);
+		Delta<K, T> delta = new Delta<>(key, added, removed);
+		if (!delta.isEmpty()) {
+			for (Listener<K, T> listener : listeners)
+				listener.changed(delta);
+		}
+		return delta;
+	}
+
+	/**
+	 * The parts whose occurrences together are the rule's occurrences, each
+	 * once.
+	 */
+	static Set<PeriodicTemporalAdjuster> parts(PeriodicTemporalAdjuster rule) {
+		Set<PeriodicTemporalAdjuster> parts = new LinkedHashSet<>();
+		addParts(rule, parts);
+		return parts;
+	}
+
+	private static void addParts(PeriodicTemporalAdjuster rule, Set<PeriodicTemporalAdjuster> parts) {
+		Class<?> type = rule.getClass();
+		if (type == OccurrenceSetAdjuster.Union.class) {
+			for (ForwardOnlyTemporalAdjuster member : ((OccurrenceSetAdjuster) rule).rules)
+				addParts(member, parts);
+			return;
+		}
+		if (type == ForwardOnlyTemporalAdjuster.class) {
+			// The forward-only form of a rule has the same occurrences as the rule, which is all that is expanded.
+			TemporalAdjuster inner = ((ForwardOnlyTemporalAdjuster) rule).adjuster();
+			if (inner instanceof PeriodicTemporalAdjuster
+					&& rule.equals(ForwardOnlyTemporalAdjuster.of((PeriodicTemporalAdjuster) inner))) {
+				addParts((PeriodicTemporalAdjuster) inner, parts);
+				return;
+			}
+		}
+		if (type == SimplePeriodicTemporalAdjuster.class && rule.getPeriod().equals(Period.ofDays(1))) {
+			TemporalAdjuster inner = ((SimplePeriodicTemporalAdjuster) rule).adjuster();
+			if (inner instanceof CalendarAdjusters.DayOfWeekSetAdjuster) {
+				CalendarAdjusters.DayOfWeekSetAdjuster days = (CalendarAdjusters.DayOfWeekSetAdjuster) inner;
+				for (DayOfWeek dayOfWeek : DayOfWeek.values()) {
+					if (days.contains(dayOfWeek))
+						parts.add(PeriodicTemporalAdjusters.weekly(dayOfWeek));
+				}
+				return;
+			}
+		}
+		parts.add(rule);
+	}
+
+	/**
+	 * What changed under a key: the occurrences added and removed, each in
+	 * order.
+	 */
+	public static final class Delta<K, T> {
+
+		private final K key;
+		private final List<T> added;
+		private final List<T> removed;
+
+		Delta(K key, List<T> added, List<T> removed) {
+			this.key = key;
+			this.added = Collections.unmodifiableList(added);
+			this.removed = Collections.unmodifiableList(removed);
+		}
+
+		public K getKey() {
+			return key;
+		}
+
+		public List<T> getAdded() {
+			return added;
+		}
+
+		public List<T> getRemoved() {
+			return removed;
+		}
+
+		public boolean isEmpty() {
+			return added.isEmpty() && removed.isEmpty();
+		}
+
+		@Override
+		public int hashCode() {
+			final int prime = 31;
+			int result = 1;
+			result = prime * result + key.hashCode();
+			result = prime * result + added.hashCode();
+			result = prime * result + removed.hashCode();
+			return result;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj)
+				return true;
+			if (obj == null)
+				return false;
+			if (getClass() != obj.getClass())
+				return false;
+			Delta<?, ?> other = (Delta<?, ?>) obj;
+			return key.equals(other.key) && added.equals(other.added) && removed.equals(other.removed);
+		}
+
+		@Override
+		public String toString() {
+			return key + " +" + added + " -" + removed;
+		}
+
+	}
+
+	/**
+	 * Told what changed each time a key's occurrences change.
+	 */
+	@FunctionalInterface
+	public interface Listener<K, T> {
+
+		void changed(Delta<K, T> delta);
+
+	}
+
+	private static final class Expansion<T extends Comparable<? super T>> {
+
+		PeriodicTemporalAdjuster rule;
+		/** The occurrences of each part. */
+		Map<PeriodicTemporalAdjuster, List<T>> parts;
+		/** Each occurrence, with the number of parts it belongs to. */
+		final TreeMap<T, Integer> counts = new TreeMap<>();
+
+		void add(List<T> occurrences, List<T> added) {
+			for (T occurrence : occurrences) {
+				if (counts.merge(occurrence, 1, Integer::sum) == 1)
+					added.add(occurrence);
+			}
+		}
+
+		void remove(List<T> occurrences, List<T> removed) {
+			for (T occurrence : occurrences) {
+				if (counts.merge(occurrence, -1, Integer::sum) == 0) {
+					counts.remove(occurrence);
+					removed.add(occurrence);
+				}
+			}
+		}
+
+	}
+
+}
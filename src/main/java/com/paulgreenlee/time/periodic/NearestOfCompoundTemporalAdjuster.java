@@ -3,6 +3,7 @@ package com.paulgreenlee.time.periodic;
 import java.time.DateTimeException;
 import java.time.temporal.*;
 import java.util.*;
+import java.util.stream.Collectors;
 
 /**
  * This {@link CompoundTemporalAdjuster} uses only one of the adjusters in its
@@ -15,24 +16,55 @@ import java.util.*;
  */
 public class NearestOfCompoundTemporalAdjuster extends CompoundTemporalAdjuster {
 
+	private final EpochDayAdjuster epochDayAdjuster;
+	private final EpochSecondAdjuster epochSecondAdjuster;
+
 	public NearestOfCompoundTemporalAdjuster(List<TemporalAdjuster> adjusters) {
 		super(adjusters);
+		// A subclass may choose differently, so only the plain class is compiled.
+		boolean plain = getClass() == NearestOfCompoundTemporalAdjuster.class;
+		this.epochDayAdjuster = plain ? PrimitiveAdjusters.nearestOfDays(
+				this.adjusters.stream().map(EpochDayAdjuster::of).collect(Collectors.toList())) : null;
+		this.epochSecondAdjuster = plain ? PrimitiveAdjusters.nearestOfSeconds(
+				this.adjusters.stream().map(EpochSecondAdjuster::of).collect(Collectors.toList())) : null;
 	}
 	
 	@Override
 	public Temporal adjustInto(final Temporal temporal) {
 		final Temporal beforeAttempt = Objects.requireNonNull(temporal);
+		Temporal primitive = PrimitiveAdjusters.adjust(temporal, epochDayAdjuster, epochSecondAdjuster);
+		if (primitive != null)
+			return primitive;
 		TemporalUnit precision = temporal.query(TemporalQueries.precision());
 		
-		Optional<Temporal> closest = adjusters.stream().map(beforeAttempt::with)
-				.min(Comparator.comparingLong(adjusted -> Math.abs(precision.between(adjusted, temporal))));
+		Temporal closest = null;
+		long closestDistance = Long.MAX_VALUE;
+		for (TemporalAdjuster adjuster : adjusters) {
+			Temporal adjusted = beforeAttempt.with(adjuster);
+			long distance = Math.abs(precision.between(adjusted, temporal));
+			// Nothing can be nearer than no change at all.
+			if (distance == 0)
+				return adjusted;
+			if (distance < closestDistance) {
+				closest = adjusted;
+				closestDistance = distance;
+			}
+		}
 		
-		if (!closest.isPresent())
+		if (closest == null)
 			throw new DateTimeException("Failed to adjust");
 		
-		return closest.get();
+		return closest;
 	}
 	
+	EpochDayAdjuster epochDayAdjuster() {
+		return epochDayAdjuster;
+	}
+
+	EpochSecondAdjuster epochSecondAdjuster() {
+		return epochSecondAdjuster;
+	}
+
 	@Override
 	public int hashCode() {
 		final int prime = 31;
@@ -0,0 +1,254 @@
+package com.paulgreenlee.time.periodic;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.MonthDay;
+import java.time.OffsetDateTime;
+import java.time.Period;
+import java.time.temporal.ChronoField;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.Temporal;
+import java.time.temporal.TemporalAdjuster;
+import java.time.temporal.TemporalAmount;
+import java.time.temporal.TemporalQueries;
+import java.time.temporal.TemporalUnit;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * <p>
+ * Counts and numbers the occurrences of a rule without listing them, where
+ * the rule allows it. Occurrences are numbered from 1, the first one after the
+ * start, exactly as {@link OccurrenceIterator} would return them.
+ * </p>
+ * <p>
+ * Rules whose occurrences repeat after a fixed number of days or months are
+ * answered with period arithmetic. That is the case for a day of the week
+ * every week or every few weeks, for {@link PeriodicTemporalAdjusters#weeklyOnDays},
+ * for a day of the month up to the 28th every month or few months, and for a
+ * day of the year other than the 29th of February every year or few years.
+ * Between the start of one block of periods and the next there is a known
+ * number of occurrences, so only the first occurrence and those in the last
+ * partial block are ever found by applying the rule.
+ * </p>
+ * <p>
+ * Other date rules that compile to a {@link GregorianCycleTable} are counted
+ * with the table held in the {@link GregorianCycleTableCache#shared() shared
+ * cache}, which knows how many occurrences come before any day. Anything else
+ * is counted by stepping through the occurrences one by one.
+ * </p>
+ *
+ * @author Paul Greenlee
+ *
+ */
+final class OccurrenceArithmetic {
+
+	private OccurrenceArithmetic() { }
+
+	/**
+	 * The number of occurrences after {@code start} and before {@code end}.
+	 */
+	static <T extends Temporal> long countBetween(PeriodicTemporalAdjuster periodic, T start, T end) {
+		ForwardOnlyTemporalAdjuster rule = forward(periodic);
+		Objects.requireNonNull(start, "start is required");
+		Objects.requireNonNull(end, "end is required");
+		TemporalUnit precision = start.query(TemporalQueries.precision());
+		if (!isBefore(precision, start, end))
+			return 0;
+		Blocks blocks = Blocks.of(rule, start);
+		if (blocks != null)
+			return blocks.countBetween(rule, precision, start, end);
+		Optional<GregorianCycleTable> table = table(rule, start);
+		if (table.isPresent()) {
+			long before = ((LocalDate) end).toEpochDay() - 1;
+			return table.get().rank(before) - table.get().rank(((LocalDate) start).toEpochDay());
+		}
+		long count = 0;
+		OccurrenceIterator<T> iterator = new OccurrenceIterator<>(rule, start, end, Long.MAX_VALUE);
+		while (iterator.advance() != null)
+			count++;
+		return count;
+	}
+
+	/**
+	 * The {@code n}th occurrence after {@code start}, where the first is 1.
+	 */
+	@SuppressWarnings("unchecked")
+	static <T extends Temporal> T nth(PeriodicTemporalAdjuster periodic, T start, long n) {
+		ForwardOnlyTemporalAdjuster rule = forward(periodic);
+		Objects.requireNonNull(start, "start is required");
+		if (n < 1)
+			throw new IllegalArgumentException("n must be at least 1: " + n);
+		TemporalUnit precision = start.query(TemporalQueries.precision());
+		Blocks blocks = Blocks.of(rule, start);
+		if (blocks != null)
+			return blocks.nth(rule, precision, start, n);
+		Optional<GregorianCycleTable> table = table(rule, start);
+		if (table.isPresent()) {
+			long rank = Math.addExact(table.get().rank(((LocalDate) start).toEpochDay()), n);
+			return (T) LocalDate.ofEpochDay(table.get().select(rank));
+		}
+		T occurrence = start;
+		for (long i = 0; i < n; i++)
+			occurrence = next(rule, precision, occurrence);
+		return occurrence;
+	}
+
+	/**
+	 * The number of the occurrence {@code date} after {@code start}, or -1 if
+	 * it is not one.
+	 */
+	static <T extends Temporal> long indexOf(PeriodicTemporalAdjuster periodic, T start, T date) {
+		ForwardOnlyTemporalAdjuster rule = forward(periodic);
+		Objects.requireNonNull(start, "start is required");
+		Objects.requireNonNull(date, "occurrence is required");
+		TemporalUnit precision = start.query(TemporalQueries.precision());
+		if (!isBefore(precision, start, date))
+			return -1;
+		Blocks blocks = Blocks.of(rule, start);
+		if (blocks != null) {
+			long count = blocks.countBetween(rule, precision, start, date);
+			T occurrence = blocks.nth(rule, precision, start, count + 1);
+			return precision.between(occurrence, date) == 0 ? count + 1 : -1;
+		}
+		Optional<GregorianCycleTable> table = table(rule, start);
+		if (table.isPresent()) {
+			long epochDay = ((LocalDate) date).toEpochDay();
+			long rank = table.get().rank(epochDay);
+			if (rank == table.get().rank(epochDay - 1))
+				return -1;
+			return rank - table.get().rank(((LocalDate) start).toEpochDay());
+		}
+		T occurrence = start;
+		for (long n = 1;; n++) {
+			occurrence = next(rule, precision, occurrence);
+			long between = precision.between(occurrence, date);
+			if (between == 0)
+				return n;
+			if (between < 0)
+				return -1;
+		}
+	}
+
+	private static ForwardOnlyTemporalAdjuster forward(PeriodicTemporalAdjuster periodic) {
+		Objects.requireNonNull(periodic, "rule is required");
+		return periodic instanceof ForwardOnlyTemporalAdjuster ? (ForwardOnlyTemporalAdjuster) periodic
+				: ForwardOnlyTemporalAdjuster.of(periodic);
+	}
+
+	private static Optional<GregorianCycleTable> table(ForwardOnlyTemporalAdjuster rule, Temporal start) {
+		if (start.getClass() != LocalDate.class)
+			return Optional.empty();
+		return GregorianCycleTableCache.shared().get(rule);
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <T extends Temporal> T next(ForwardOnlyTemporalAdjuster rule, TemporalUnit precision, T temporal) {
+		return (T) rule.next(temporal, precision);
+	}
+
+	private static boolean isBefore(TemporalUnit precision, Temporal temporal, Temporal other) {
+		return precision.between(temporal, other) > 0;
+	}
+
+	/**
+	 * The occurrences of a rule in blocks of a whole number of days or months,
+	 * each the same as the one before moved on by the length of a block. Only
+	 * found for local date and date-time types, and date-times with a fixed
+	 * offset, since adding days to a time in a zone can move it by other than
+	 * whole days.
+	 */
+	private static final class Blocks {
+
+		private final ChronoUnit unit;
+		private final long length;
+		private final int occurrences;
+
+		private Blocks(ChronoUnit unit, long length, int occurrences) {
+			this.unit = unit;
+			this.length = length;
+			this.occurrences = occurrences;
+		}
+
+		static Blocks of(ForwardOnlyTemporalAdjuster rule, Temporal start) {
+			Class<?> type = start.getClass();
+			if (type != LocalDate.class && type != LocalDateTime.class && type != OffsetDateTime.class)
+				return null;
+			// A subclass may step through periods differently.
+			if (rule.getClass() != ForwardOnlyTemporalAdjuster.class)
+				return null;
+			TemporalAmount amount = rule.getPeriod();
+			if (!(amount instanceof Period) || ((Period) amount).isNegative() || ((Period) amount).isZero())
+				return null;
+			Period period = (Period) amount;
+			TemporalAdjuster adjuster = rule.adjuster();
+			while (adjuster.getClass() == SimplePeriodicTemporalAdjuster.class)
+				adjuster = ((SimplePeriodicTemporalAdjuster) adjuster).adjuster();
+			int days = period.getDays();
+			long months = period.toTotalMonths();
+			int daysOfWeek = daysOfWeek(adjuster);
+			if (daysOfWeek > 0 && months == 0) {
+				// Each day of the week in turn, or the same one every few weeks.
+				if (days == 1)
+					return new Blocks(ChronoUnit.DAYS, 7, daysOfWeek);
+				if (days % 7 == 0)
+					return new Blocks(ChronoUnit.DAYS, days, 1);
+				return null;
+			}
+			if (days != 0)
+				return null;
+			if (isField(adjuster, ChronoField.DAY_OF_MONTH) && ((CalendarAdjusters.FieldAdjuster) adjuster).value <= 28)
+				return new Blocks(ChronoUnit.MONTHS, months, 1);
+			if (adjuster instanceof MonthDay && !adjuster.equals(MonthDay.of(2, 29)) && months % 12 == 0)
+				return new Blocks(ChronoUnit.MONTHS, months, 1);
+			return null;
+		}
+
+		private static int daysOfWeek(TemporalAdjuster adjuster) {
+			if (adjuster instanceof DayOfWeek || isField(adjuster, ChronoField.DAY_OF_WEEK))
+				return 1;
+			if (adjuster.getClass() == CalendarAdjusters.DayOfWeekSetAdjuster.class)
+				return ((CalendarAdjusters.DayOfWeekSetAdjuster) adjuster).size();
+			return 0;
+		}
+
+		private static boolean isField(TemporalAdjuster adjuster, ChronoField field) {
+			return adjuster.getClass() == CalendarAdjusters.DateFieldAdjuster.class
+					&& ((CalendarAdjusters.FieldAdjuster) adjuster).field == field;
+		}
+
+		@SuppressWarnings("unchecked")
+		private <T extends Temporal> T plusBlocks(T temporal, long blocks) {
+			return (T) temporal.plus(Math.multiplyExact(blocks, length), unit);
+		}
+
+		<T extends Temporal> long countBetween(ForwardOnlyTemporalAdjuster rule, TemporalUnit precision, T start, T end) {
+			T first = next(rule, precision, start);
+			if (!isBefore(precision, first, end))
+				return 0;
+			// The last block starting before the end, estimated and then corrected.
+			long blocks = unit.between(first, end) / length;
+			while (blocks > 0 && !isBefore(precision, plusBlocks(first, blocks), end))
+				blocks--;
+			while (isBefore(precision, plusBlocks(first, blocks + 1), end))
+				blocks++;
+			T block = plusBlocks(first, blocks);
+			long count = blocks * occurrences;
+			for (int i = 0; i < occurrences && isBefore(precision, block, end); i++) {
+				count++;
+				block = next(rule, precision, block);
+			}
+			return count;
+		}
+
+		<T extends Temporal> T nth(ForwardOnlyTemporalAdjuster rule, TemporalUnit precision, T start, long n) {
+			T occurrence = plusBlocks(next(rule, precision, start), (n - 1) / occurrences);
+			for (long i = (n - 1) % occurrences; i > 0; i--)
+				occurrence = next(rule, precision, occurrence);
+			return occurrence;
+		}
+
+	}
+
+}
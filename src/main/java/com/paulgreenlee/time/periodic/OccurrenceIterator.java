@@ -0,0 +1,108 @@
+package com.paulgreenlee.time.periodic;
+
+import java.time.temporal.Temporal;
+import java.time.temporal.TemporalQueries;
+import java.time.temporal.TemporalUnit;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+/**
+ * <p>
+ * Steps through the occurrences of a {@link PeriodicTemporalAdjuster} after a
+ * starting point. Each occurrence is exactly what
+ * {@link ForwardOnlyTemporalAdjuster#adjustInto(Temporal)} would return when
+ * given the previous occurrence, but the iterator keeps its cursor and the
+ * precision of the temporal between steps rather than starting every search
+ * from scratch.
+ * </p>
+ * <p>
+ * The sequence can be bounded by an end (exclusive) and by a maximum number of
+ * occurrences. Without either it is infinite, so take care when collecting it.
+ * Instances are obtained from {@link Occurrences}.
+ * </p>
+ *
+ * @author Paul Greenlee
+ *
+ * @param <T>
+ *            the type of Temporal being iterated
+ */
+public class OccurrenceIterator<T extends Temporal> implements Iterator<T> {
+
+	private final ForwardOnlyTemporalAdjuster rule;
+	/** The rule if it is a set of other rules, which keeps its cursors between steps. */
+	private final OccurrenceSetAdjuster set;
+	private final TemporalUnit precision;
+	private final T end;
+	private long remaining;
+	private T cursor;
+	private OccurrenceSetAdjuster.Cursor setCursor;
+	private T lookahead;
+
+	OccurrenceIterator(PeriodicTemporalAdjuster rule, T start, T end, long limit) {
+		Objects.requireNonNull(rule, "rule is required");
+		this.cursor = Objects.requireNonNull(start, "start is required");
+		if (limit < 0)
+			throw new IllegalArgumentException("limit cannot be negative: " + limit);
+		this.rule = rule instanceof ForwardOnlyTemporalAdjuster ? (ForwardOnlyTemporalAdjuster) rule
+				: ForwardOnlyTemporalAdjuster.of(rule);
+		this.set = OccurrenceSetAdjuster.of(rule);
+		this.precision = start.query(TemporalQueries.precision());
+		this.end = end;
+		this.remaining = limit;
+	}
+
+	@Override
+	public boolean hasNext() {
+		if (lookahead == null)
+			lookahead = advance();
+		return lookahead != null;
+	}
+
+	@Override
+	public T next() {
+		if (!hasNext())
+			throw new NoSuchElementException();
+		T next = lookahead;
+		lookahead = null;
+		return next;
+	}
+
+	/**
+	 * Moves the cursor to the next occurrence.
+	 *
+	 * @return the next occurrence, or null if the end or the limit has been
+	 *         reached
+	 */
+	@SuppressWarnings("unchecked")
+	T advance() {
+		if (remaining == 0)
+			return null;
+		T next;
+		if (set == null) {
+			next = (T) rule.next(cursor, precision);
+		} else {
+			if (setCursor == null)
+				setCursor = set.cursor(cursor, precision);
+			else
+				setCursor.next();
+			next = (T) setCursor.current();
+		}
+		if (end != null && precision.between(next, end) <= 0) {
+			remaining = 0;
+			return null;
+		}
+		remaining--;
+		cursor = next;
+		return next;
+	}
+
+	/**
+	 * The number of occurrences this iterator may still return. This is an upper
+	 * bound, since the end may be reached first.
+	 */
+	long remaining() {
+		return remaining;
+	}
+
+}
@@ -0,0 +1,435 @@
+package com.paulgreenlee.time.periodic;
+
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoField;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.Temporal;
+import java.time.temporal.TemporalAmount;
+import java.time.temporal.TemporalQueries;
+import java.time.temporal.TemporalUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.stream.Collectors;
+
+/**
+ * <p>
+ * A rule made of the occurrences of other rules: their union, their
+ * intersection, or the occurrences of one rule less those of another or those
+ * on a set of dates. Unlike the {@link CompoundTemporalAdjuster}s, which
+ * combine adjustments, these combine the sequences of occurrences that the
+ * {@link ForwardOnlyTemporalAdjuster forward-only} forms of their rules step
+ * through, so a set rule already goes forward: it adjusts to its first
+ * occurrence strictly after the temporal. Instances are obtained from
+ * {@link PeriodicTemporalAdjusters}.
+ * </p>
+ * <p>
+ * Each rule is read as the set of points its forward-only form reaches from
+ * just before any point, so the rules should not depend on where they start
+ * counting. A day of the week every other week should be a
+ * {@link RecurrenceRule} with a start, not
+ * {@link PeriodicTemporalAdjusters#everyNWeeks}.
+ * </p>
+ * <p>
+ * Nothing is listed ahead of time. Each rule is a cursor on its next
+ * occurrence: a union keeps them in a heap and takes the smallest, an
+ * intersection moves whichever is behind up to the one furthest ahead until
+ * they meet, and a difference skips the excluded occurrences, with excluded
+ * dates held as a sorted array of epoch days. Listing the occurrences with
+ * {@link Occurrences} keeps the cursors between steps, so a union of dozens of
+ * rules only moves the rules whose occurrences are used.
+ * </p>
+ *
+ * @author Paul Greenlee
+ *
+ */
+abstract class OccurrenceSetAdjuster implements PeriodicTemporalAdjuster {
+
+	protected final List<ForwardOnlyTemporalAdjuster> rules;
+
+	OccurrenceSetAdjuster(List<? extends PeriodicTemporalAdjuster> rules) {
+		Objects.requireNonNull(rules, "rules are required");
+		if (rules.isEmpty())
+			throw new IllegalArgumentException("at least one rule is required");
+		this.rules = rules.stream().map(OccurrenceSetAdjuster::forwardOnly).collect(Collectors.toList());
+	}
+
+	private static ForwardOnlyTemporalAdjuster forwardOnly(PeriodicTemporalAdjuster rule) {
+		Objects.requireNonNull(rule, "rule is required");
+		return rule instanceof ForwardOnlyTemporalAdjuster ? (ForwardOnlyTemporalAdjuster) rule
+				: ForwardOnlyTemporalAdjuster.of(rule);
+	}
+
+	@Override
+	public Temporal adjustInto(Temporal temporal) {
+		return cursor(temporal, temporal.query(TemporalQueries.precision())).current();
+	}
+
+	/**
+	 * The period of the first rule. The set already goes forward, so this is
+	 * only used to split ranges into chunks.
+	 */
+	@Override
+	public TemporalAmount getPeriod() {
+		return rules.get(0).getPeriod();
+	}
+
+	/**
+	 * A cursor on the first occurrence strictly after {@code start}.
+	 */
+	abstract Cursor cursor(Temporal start, TemporalUnit precision);
+
+	/**
+	 * The set rule behind a rule, if it is one or the forward-only form of one.
+	 */
+	static OccurrenceSetAdjuster of(PeriodicTemporalAdjuster rule) {
+		if (rule instanceof OccurrenceSetAdjuster)
+			return (OccurrenceSetAdjuster) rule;
+		if (rule.getClass() == ForwardOnlyTemporalAdjuster.class
+				&& ((ForwardOnlyTemporalAdjuster) rule).adjuster() instanceof OccurrenceSetAdjuster)
+			return (OccurrenceSetAdjuster) ((ForwardOnlyTemporalAdjuster) rule).adjuster();
+		return null;
+	}
+
+	private static Cursor cursorOf(ForwardOnlyTemporalAdjuster rule, Temporal start, TemporalUnit precision) {
+		OccurrenceSetAdjuster set = of(rule);
+		return set != null ? set.cursor(start, precision) : new RuleCursor(rule, start, precision);
+	}
+
+	static int compare(Temporal temporal, Temporal other, TemporalUnit precision) {
+		if (temporal instanceof LocalDate && other instanceof LocalDate)
+			return ((LocalDate) temporal).compareTo((LocalDate) other);
+		if (temporal instanceof LocalDateTime && other instanceof LocalDateTime)
+			return ((LocalDateTime) temporal).compareTo((LocalDateTime) other);
+		return Long.signum(precision.between(other, temporal));
+	}
+
+	DateTimeException noOccurrence(Temporal after) {
+		return new DateTimeException("Potentially infinite loop encountered looking for " + this + " after " + after);
+	}
+
+	@Override
+	public int hashCode() {
+		final int prime = 31;
+		int result = 1;
+		result = prime * result + rules.hashCode();
+		return result;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		OccurrenceSetAdjuster other = (OccurrenceSetAdjuster) obj;
+		return rules.equals(other.rules);
+	}
+
+	/**
+	 * An occurrence in a sequence, which only moves forward.
+	 */
+	interface Cursor {
+
+		Temporal current();
+
+		/** Moves to the next occurrence. */
+		void next();
+
+		/** Moves to the first occurrence on or after the target, unless already there. */
+		void seek(Temporal target);
+
+	}
+
+	/**
+	 * <p>
+	 * The occurrences of a single rule.
+	 * </p>
+	 * <p>
+	 * A date rule applied to a date-time keeps the time of day it is given, so
+	 * its occurrences depend on the time it starts from. A cursor that found its
+	 * first occurrence at the time it started from is taken to be such a rule,
+	 * and seeks from the same time of day on the day before the target, so that
+	 * it stays on the occurrences it started on. Other rules seek from just
+	 * before the target. Either way, it then steps forward to the target if it
+	 * is not there yet.
+	 * </p>
+	 */
+	private static final class RuleCursor implements Cursor {
+
+		private final ForwardOnlyTemporalAdjuster rule;
+		private final TemporalUnit precision;
+		/** Whether the occurrences are at the time of day of the start, which is kept in {@code timeOfDay}. */
+		private final boolean keepsTimeOfDay;
+		private final long timeOfDay;
+		private Temporal current;
+
+		RuleCursor(ForwardOnlyTemporalAdjuster rule, Temporal start, TemporalUnit precision) {
+			this.rule = rule;
+			this.precision = precision;
+			this.current = rule.next(start, precision);
+			this.keepsTimeOfDay = start.isSupported(ChronoField.NANO_OF_DAY)
+					&& current.getLong(ChronoField.NANO_OF_DAY) == start.getLong(ChronoField.NANO_OF_DAY);
+			this.timeOfDay = keepsTimeOfDay ? start.getLong(ChronoField.NANO_OF_DAY) : 0;
+		}
+
+		@Override
+		public Temporal current() {
+			return current;
+		}
+
+		@Override
+		public void next() {
+			current = rule.next(current, precision);
+		}
+
+		@Override
+		public void seek(Temporal target) {
+			if (compare(current, target, precision) >= 0)
+				return;
+			Temporal from = target.minus(1, precision);
+			if (keepsTimeOfDay) {
+				from = target.with(ChronoField.NANO_OF_DAY, timeOfDay);
+				if (compare(from, target, precision) >= 0)
+					from = from.minus(1, ChronoUnit.DAYS);
+			}
+			// Never before the current occurrence, which would go back.
+			current = rule.next(compare(from, current, precision) > 0 ? from : current, precision);
+			for (int steps = 0; compare(current, target, precision) < 0; steps++) {
+				if (steps >= ForwardOnlyTemporalAdjuster.SAFETY_CUTOFF)
+					throw new DateTimeException("Potentially infinite loop encountered looking for " + rule + " after " + target);
+				current = rule.next(current, precision);
+			}
+		}
+
+	}
+
+	/**
+	 * The occurrences of any of the rules.
+	 */
+	static final class Union extends OccurrenceSetAdjuster {
+
+		Union(List<? extends PeriodicTemporalAdjuster> rules) {
+			super(rules);
+		}
+
+		@Override
+		Cursor cursor(Temporal start, TemporalUnit precision) {
+			PriorityQueue<Cursor> heap = new PriorityQueue<>(rules.size(),
+					(cursor, other) -> compare(cursor.current(), other.current(), precision));
+			for (ForwardOnlyTemporalAdjuster rule : rules)
+				heap.add(cursorOf(rule, start, precision));
+			return new Cursor() {
+				@Override
+				public Temporal current() {
+					return heap.peek().current();
+				}
+
+				@Override
+				public void next() {
+					Temporal current = current();
+					// Every rule at the current occurrence moves, so it is only seen once.
+					while (compare(heap.peek().current(), current, precision) == 0) {
+						Cursor head = heap.poll();
+						head.next();
+						heap.add(head);
+					}
+				}
+
+				@Override
+				public void seek(Temporal target) {
+					while (compare(heap.peek().current(), target, precision) < 0) {
+						Cursor head = heap.poll();
+						head.seek(target);
+						heap.add(head);
+					}
+				}
+			};
+		}
+
+		@Override
+		public String toString() {
+			return "Union" + rules;
+		}
+
+	}
+
+	/**
+	 * The occurrences of all of the rules.
+	 */
+	static final class Intersection extends OccurrenceSetAdjuster {
+
+		Intersection(List<? extends PeriodicTemporalAdjuster> rules) {
+			super(rules);
+		}
+
+		@Override
+		Cursor cursor(Temporal start, TemporalUnit precision) {
+			List<Cursor> cursors = new ArrayList<>(rules.size());
+			for (ForwardOnlyTemporalAdjuster rule : rules)
+				cursors.add(cursorOf(rule, start, precision));
+			Cursor intersection = new Cursor() {
+				@Override
+				public Temporal current() {
+					return cursors.get(0).current();
+				}
+
+				@Override
+				public void next() {
+					cursors.get(0).next();
+					align();
+				}
+
+				@Override
+				public void seek(Temporal target) {
+					cursors.get(0).seek(target);
+					align();
+				}
+
+				/**
+				 * Moves each cursor behind up to the one furthest ahead, until a
+				 * whole pass leaves them all on the same occurrence.
+				 */
+				void align() {
+					Temporal furthest = current();
+					int agreeing = 0;
+					for (int i = 1, seeks = 0; agreeing < cursors.size() - 1; i = (i + 1) % cursors.size()) {
+						Cursor cursor = cursors.get(i);
+						cursor.seek(furthest);
+						int comparison = compare(cursor.current(), furthest, precision);
+						if (comparison > 0) {
+							furthest = cursor.current();
+							agreeing = 0;
+						} else if (comparison == 0) {
+							agreeing++;
+						}
+						if (seeks++ >= ForwardOnlyTemporalAdjuster.SAFETY_CUTOFF)
+							throw noOccurrence(start);
+					}
+				}
+			};
+			intersection.seek(intersection.current());
+			return intersection;
+		}
+
+		@Override
+		public String toString() {
+			return "Intersection" + rules;
+		}
+
+	}
+
+	/**
+	 * The occurrences of the first rule that are neither occurrences of the
+	 * second, if there is one, nor on one of the excluded dates.
+	 */
+	static final class Difference extends OccurrenceSetAdjuster {
+
+		/** Epoch days, sorted, with no duplicates. */
+		private final long[] excludedDays;
+
+		Difference(PeriodicTemporalAdjuster rule, PeriodicTemporalAdjuster excluded) {
+			super(Arrays.asList(rule, Objects.requireNonNull(excluded, "excluded is required")));
+			this.excludedDays = new long[0];
+		}
+
+		Difference(PeriodicTemporalAdjuster rule, Collection<LocalDate> excludedDates) {
+			super(Arrays.asList(rule));
+			this.excludedDays = Objects.requireNonNull(excludedDates, "excludedDates is required").stream()
+					.mapToLong(LocalDate::toEpochDay).sorted().distinct().toArray();
+		}
+
+		@Override
+		Cursor cursor(Temporal start, TemporalUnit precision) {
+			Cursor included = cursorOf(rules.get(0), start, precision);
+			Cursor excluded = rules.size() > 1 ? cursorOf(rules.get(1), start, precision) : null;
+			Cursor difference = new Cursor() {
+				/** The first excluded day that is not before the current occurrence. */
+				private int day;
+
+				@Override
+				public Temporal current() {
+					return included.current();
+				}
+
+				@Override
+				public void next() {
+					included.next();
+					skip();
+				}
+
+				@Override
+				public void seek(Temporal target) {
+					included.seek(target);
+					skip();
+				}
+
+				void skip() {
+					for (int skips = 0; ; skips++) {
+						if (skips >= ForwardOnlyTemporalAdjuster.SAFETY_CUTOFF)
+							throw noOccurrence(start);
+						Temporal current = included.current();
+						if (excludedDays.length > 0) {
+							long epochDay = current.getLong(ChronoField.EPOCH_DAY);
+							if (day < excludedDays.length && excludedDays[day] < epochDay) {
+								int found = Arrays.binarySearch(excludedDays, day, excludedDays.length, epochDay);
+								day = found >= 0 ? found : -found - 1;
+							}
+							if (day < excludedDays.length && excludedDays[day] == epochDay) {
+								included.seek(startOfDay(current, epochDay + 1));
+								continue;
+							}
+						}
+						if (excluded != null) {
+							excluded.seek(current);
+							if (compare(excluded.current(), current, precision) == 0) {
+								included.next();
+								continue;
+							}
+						}
+						return;
+					}
+				}
+			};
+			difference.seek(difference.current());
+			return difference;
+		}
+
+		private static Temporal startOfDay(Temporal temporal, long epochDay) {
+			Temporal day = EpochDays.with(temporal, epochDay);
+			return day.isSupported(ChronoField.NANO_OF_DAY) ? day.with(ChronoField.NANO_OF_DAY, 0) : day;
+		}
+
+		@Override
+		public int hashCode() {
+			final int prime = 31;
+			int result = super.hashCode();
+			result = prime * result + Arrays.hashCode(excludedDays);
+			return result;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!super.equals(obj))
+				return false;
+			Difference other = (Difference) obj;
+			return Arrays.equals(excludedDays, other.excludedDays);
+		}
+
+		@Override
+		public String toString() {
+			if (rules.size() > 1)
+				return "Difference[" + rules.get(0) + " except " + rules.get(1) + "]";
+			return "Difference[" + rules.get(0) + " except " + excludedDays.length + " dates]";
+		}
+
+	}
+
+}
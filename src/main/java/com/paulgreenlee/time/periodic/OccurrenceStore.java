@@ -0,0 +1,432 @@
+package com.paulgreenlee.time.periodic;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.Temporal;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.ToLongFunction;
+
+/**
+ * <p>
+ * The occurrences of many rules over a range, written to a file once and
+ * read back by mapping it into memory, so that a process can answer "when
+ * next?" for every rule as soon as it starts instead of searching for the
+ * answers again. Each rule is stored under its own key.
+ * </p>
+ * <p>
+ * A file holds the occurrences of each rule after {@code from} and before
+ * {@code to}, as {@link Occurrences#occurrences(PeriodicTemporalAdjuster, Temporal, Temporal)}
+ * lists them, either as dates or as date-times to the second. They are kept
+ * in blocks of 64: the first occurrence of each block in full, the rest as
+ * variable length differences from the one before. Finding the next
+ * occurrence is a binary search of the first occurrences, which are read in
+ * place from the mapped file, and then a scan of at most one block.
+ * </p>
+ * <p>
+ * The rules are given again when the file is opened, and are used for
+ * anything the file cannot answer: temporals outside its range, the next
+ * occurrence of a rule when that is after the range, and rules that are not
+ * in the file. They should be the same rules the file was written from, which
+ * cannot be checked. A store is safe to use from many threads.
+ * </p>
+ * <p>
+ * A file is written beside itself and moved into place, so it can be
+ * rewritten while it is being read: a store opened before keeps the file it
+ * mapped, and one opened after sees the whole new file.
+ * </p>
+ *
+ * @author Paul Greenlee
+ *
+ */
+public final class OccurrenceStore implements Closeable {
+
+	private static final int MAGIC = 0x50544f53;
+	private static final int VERSION = 1;
+	private static final byte DAYS = 0;
+	private static final byte SECONDS = 1;
+	private static final int BLOCK_SIZE = 64;
+	/** The first occurrence and the offset of the rest, for each block. */
+	private static final int BLOCK_BYTES = 12;
+	private static final long NONE = Long.MIN_VALUE;
+
+	private final FileChannel channel;
+	private final MappedByteBuffer buffer;
+	private final byte unit;
+	private final long from;
+	private final long to;
+	private final Map<String, Entry> entries;
+	private final Map<String, ForwardOnlyTemporalAdjuster> rules;
+
+	private OccurrenceStore(FileChannel channel, MappedByteBuffer buffer, Map<String, ? extends PeriodicTemporalAdjuster> rules)
+			throws IOException {
+		this.channel = channel;
+		this.buffer = buffer;
+		try {
+			if (buffer.getInt(0) != MAGIC)
+				throw new IOException("Not an occurrence store");
+			if (buffer.getInt(4) != VERSION)
+				throw new IOException("Unsupported occurrence store version " + buffer.getInt(4));
+			this.unit = buffer.get(8);
+			this.from = buffer.getLong(9);
+			this.to = buffer.getLong(17);
+			int count = buffer.getInt(25);
+			// Each entry takes at least 22 bytes of the header.
+			if (count < 0 || count > (buffer.limit() - 29) / 22)
+				throw new IOException("Occurrence store has " + count + " rules");
+			this.entries = new HashMap<>(count * 2);
+			int position = 29;
+			for (int i = 0; i < count; i++) {
+				byte[] key = new byte[buffer.getShort(position) & 0xffff];
+				for (int j = 0; j < key.length; j++)
+					key[j] = buffer.get(position + 2 + j);
+				position += 2 + key.length;
+				entries.put(new String(key, StandardCharsets.UTF_8),
+						new Entry(buffer.getInt(position), buffer.getLong(position + 4), buffer.getLong(position + 12)));
+				position += 20;
+			}
+			for (Map.Entry<String, Entry> entry : entries.entrySet())
+				check(entry.getKey(), entry.getValue(), position);
+		} catch (IndexOutOfBoundsException e) {
+			throw new IOException("Occurrence store is truncated", e);
+		}
+		this.rules = new HashMap<>(rules.size() * 2);
+		rules.forEach((key, rule) -> this.rules.put(key, forwardOnly(rule)));
+	}
+
+	/**
+	 * Checks that an entry's blocks and the differences they point to are all
+	 * in the file, after the header, so that a damaged file is refused here
+	 * rather than answering from whatever bytes it has. The differences in
+	 * the last block are read to find where they end.
+	 */
+	private void check(String key, Entry entry, int headerEnd) throws IOException {
+		long size = buffer.capacity();
+		long blockCount = ((long) entry.count + BLOCK_SIZE - 1) / BLOCK_SIZE;
+		if (entry.count < 0 || entry.blocks < headerEnd || entry.blocks > size
+				|| entry.data < entry.blocks + blockCount * BLOCK_BYTES
+				|| entry.data > size)
+			throw outside(key);
+		long offset = 0;
+		for (long block = 0; block < blockCount; block++) {
+			long blockOffset = buffer.getInt((int) (entry.blocks + block * BLOCK_BYTES + 8));
+			if (blockOffset < offset || entry.data + blockOffset > size)
+				throw outside(key);
+			offset = blockOffset;
+		}
+		if (blockCount == 0)
+			return;
+		long position = entry.data + offset;
+		for (long i = (blockCount - 1) * BLOCK_SIZE + 1; i < entry.count; i++) {
+			int bytes = 0;
+			byte b;
+			do {
+				if (position >= size || ++bytes > 10)
+					throw outside(key);
+				b = buffer.get((int) position++);
+			} while (b < 0);
+		}
+	}
+
+	private static IOException outside(String key) {
+		return new IOException("Occurrence store entry " + key + " is outside the file");
+	}
+
+	/**
+	 * Writes the dates on which each rule occurs after {@code from} and
+	 * before {@code to}.
+	 *
+	 * @throws DateTimeException
+	 *             if a rule cannot be applied to dates
+	 */
+	public static void write(Path file, Map<String, ? extends PeriodicTemporalAdjuster> rules, LocalDate from, LocalDate to)
+			throws IOException {
+		Objects.requireNonNull(from, "from is required");
+		Objects.requireNonNull(to, "to is required");
+		Map<String, long[]> occurrences = new LinkedHashMap<>();
+		for (Map.Entry<String, ? extends PeriodicTemporalAdjuster> rule : rules.entrySet()) {
+			Iterator<LocalDate> iterator = Occurrences.iterator(rule.getValue(), from, to);
+			occurrences.put(rule.getKey(), collect(iterator, LocalDate::toEpochDay));
+		}
+		write(file, DAYS, from.toEpochDay(), to.toEpochDay(), occurrences);
+	}
+
+	/**
+	 * Writes the date-times at which each rule occurs after {@code from} and
+	 * before {@code to}, which must be whole seconds.
+	 *
+	 * @throws IllegalArgumentException
+	 *             if an occurrence is not a whole second
+	 */
+	public static void write(Path file, Map<String, ? extends PeriodicTemporalAdjuster> rules, LocalDateTime from,
+			LocalDateTime to) throws IOException {
+		Objects.requireNonNull(from, "from is required");
+		Objects.requireNonNull(to, "to is required");
+		Map<String, long[]> occurrences = new LinkedHashMap<>();
+		for (Map.Entry<String, ? extends PeriodicTemporalAdjuster> rule : rules.entrySet()) {
+			Iterator<LocalDateTime> iterator = Occurrences.iterator(rule.getValue(), from, to);
+			occurrences.put(rule.getKey(), collect(iterator, occurrence -> {
+				if (occurrence.getNano() != 0)
+					throw new IllegalArgumentException("Occurrences must be whole seconds: " + occurrence);
+				return occurrence.toEpochSecond(ZoneOffset.UTC);
+			}));
+		}
+		write(file, SECONDS, from.toEpochSecond(ZoneOffset.UTC), to.toEpochSecond(ZoneOffset.UTC), occurrences);
+	}
+
+	/**
+	 * Opens a file written by {@code write}, with the rules to fall back on.
+	 *
+	 * @throws IOException
+	 *             if the file cannot be read or was not written by this class
+	 */
+	public static OccurrenceStore open(Path file, Map<String, ? extends PeriodicTemporalAdjuster> rules) throws IOException {
+		Objects.requireNonNull(rules, "rules is required");
+		FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+		try {
+			if (channel.size() > Integer.MAX_VALUE)
+				throw new IOException("Occurrence store is too large to map: " + channel.size() + " bytes");
+			return new OccurrenceStore(channel, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()), rules);
+		} catch (IOException | RuntimeException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * The first date after the given one on which the rule under the key
+	 * occurs.
+	 *
+	 * @throws IllegalArgumentException
+	 *             if the file cannot answer and there is no rule under the key
+	 * @throws DateTimeException
+	 *             if the rule has no occurrence after the date
+	 */
+	public LocalDate next(String key, LocalDate date) {
+		long found = unit == DAYS ? find(key, date.toEpochDay()) : NONE;
+		return found != NONE ? LocalDate.ofEpochDay(found) : date.with(rule(key));
+	}
+
+	/**
+	 * The first date-time after the given one at which the rule under the key
+	 * occurs.
+	 *
+	 * @throws IllegalArgumentException
+	 *             if the file cannot answer and there is no rule under the key
+	 * @throws DateTimeException
+	 *             if the rule has no occurrence after the date-time
+	 */
+	public LocalDateTime next(String key, LocalDateTime dateTime) {
+		// A stored second after the whole second of the date-time is also after its fraction.
+		long found = unit == SECONDS ? find(key, dateTime.toEpochSecond(ZoneOffset.UTC)) : NONE;
+		return found != NONE ? LocalDateTime.ofEpochSecond(found, 0, ZoneOffset.UTC) : dateTime.with(rule(key));
+	}
+
+	/**
+	 * Whether the file has occurrences for the key.
+	 */
+	public boolean contains(String key) {
+		return entries.containsKey(key);
+	}
+
+	/**
+	 * How many rules the file has occurrences for.
+	 */
+	public int size() {
+		return entries.size();
+	}
+
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+
+	/**
+	 * The first stored occurrence after the value, or {@link #NONE} if the
+	 * file cannot say what it is.
+	 */
+	private long find(String key, long value) {
+		Entry entry = entries.get(key);
+		if (entry == null || value < from || value >= to)
+			return NONE;
+		int blocks = (entry.count + BLOCK_SIZE - 1) / BLOCK_SIZE;
+		// The last block that starts at or before the value.
+		int low = 0;
+		int high = blocks - 1;
+		int block = -1;
+		while (low <= high) {
+			int middle = (low + high) >>> 1;
+			if (first(entry, middle) <= value) {
+				block = middle;
+				low = middle + 1;
+			} else {
+				high = middle - 1;
+			}
+		}
+		if (block < 0)
+			return blocks == 0 ? NONE : first(entry, 0);
+		long occurrence = first(entry, block);
+		int position = (int) (entry.data + buffer.getInt((int) (entry.blocks + (long) block * BLOCK_BYTES + 8)));
+		int inBlock = Math.min(BLOCK_SIZE, entry.count - block * BLOCK_SIZE);
+		for (int i = 1; i < inBlock; i++) {
+			long delta = 0;
+			int shift = 0;
+			byte b;
+			do {
+				b = buffer.get(position++);
+				delta |= (long) (b & 0x7f) << shift;
+				shift += 7;
+			} while (b < 0);
+			occurrence += delta;
+			if (occurrence > value)
+				return occurrence;
+		}
+		// Past the last occurrence of this block, so the next is the first of the following one.
+		return block + 1 < blocks ? first(entry, block + 1) : NONE;
+	}
+
+	private long first(Entry entry, int block) {
+		return buffer.getLong((int) (entry.blocks + (long) block * BLOCK_BYTES));
+	}
+
+	private ForwardOnlyTemporalAdjuster rule(String key) {
+		ForwardOnlyTemporalAdjuster rule = rules.get(key);
+		if (rule == null)
+			throw new IllegalArgumentException("No rule for key " + key);
+		return rule;
+	}
+
+	private static ForwardOnlyTemporalAdjuster forwardOnly(PeriodicTemporalAdjuster rule) {
+		return rule instanceof ForwardOnlyTemporalAdjuster ? (ForwardOnlyTemporalAdjuster) rule
+				: ForwardOnlyTemporalAdjuster.of(rule);
+	}
+
+	private static <T> long[] collect(Iterator<T> iterator, ToLongFunction<T> toLong) {
+		long[] values = new long[16];
+		int size = 0;
+		while (iterator.hasNext()) {
+			if (size == values.length)
+				values = Arrays.copyOf(values, size * 2);
+			values[size++] = toLong.applyAsLong(iterator.next());
+		}
+		return Arrays.copyOf(values, size);
+	}
+
+	private static void write(Path file, byte unit, long from, long to, Map<String, long[]> occurrences) throws IOException {
+		Map<String, byte[]> keys = new LinkedHashMap<>();
+		long position = 29;
+		for (String key : occurrences.keySet()) {
+			byte[] bytes = key.getBytes(StandardCharsets.UTF_8);
+			if (bytes.length > 0xffff)
+				throw new IllegalArgumentException("Key is too long: " + key);
+			keys.put(key, bytes);
+			position += 2 + bytes.length + 20;
+		}
+		Map<String, byte[]> data = new HashMap<>();
+		for (Map.Entry<String, long[]> entry : occurrences.entrySet())
+			data.put(entry.getKey(), deltas(entry.getValue()));
+		// Written beside the file and moved over it, so a reader never sees half a file.
+		Path directory = file.toAbsolutePath().getParent();
+		Path temporary = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+		try {
+			write(temporary, unit, from, to, occurrences, keys, data, position);
+			Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE);
+		} finally {
+			Files.deleteIfExists(temporary);
+		}
+	}
+
+	private static void write(Path file, byte unit, long from, long to, Map<String, long[]> occurrences,
+			Map<String, byte[]> keys, Map<String, byte[]> data, long position) throws IOException {
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeByte(unit);
+			out.writeLong(from);
+			out.writeLong(to);
+			out.writeInt(occurrences.size());
+			for (Map.Entry<String, long[]> entry : occurrences.entrySet()) {
+				byte[] key = keys.get(entry.getKey());
+				int count = entry.getValue().length;
+				long blocks = position;
+				long dataPosition = blocks + (long) (count + BLOCK_SIZE - 1) / BLOCK_SIZE * BLOCK_BYTES;
+				out.writeShort(key.length);
+				out.write(key);
+				out.writeInt(count);
+				out.writeLong(blocks);
+				out.writeLong(dataPosition);
+				position = dataPosition + data.get(entry.getKey()).length;
+			}
+			for (Map.Entry<String, long[]> entry : occurrences.entrySet()) {
+				long[] values = entry.getValue();
+				int offset = 0;
+				for (int i = 0; i < values.length; i += BLOCK_SIZE) {
+					out.writeLong(values[i]);
+					out.writeInt(offset);
+					for (int j = i + 1; j < Math.min(i + BLOCK_SIZE, values.length); j++)
+						offset += varintLength(values[j] - values[j - 1]);
+				}
+				out.write(data.get(entry.getKey()));
+			}
+		}
+	}
+
+	/**
+	 * The differences between the occurrences in each block, as variable
+	 * length integers of seven bits to a byte.
+	 */
+	private static byte[] deltas(long[] values) {
+		ByteBuffer bytes = ByteBuffer.allocate(values.length * 10);
+		for (int i = 1; i < values.length; i++) {
+			if (i % BLOCK_SIZE == 0)
+				continue;
+			long delta = values[i] - values[i - 1];
+			while ((delta & ~0x7fL) != 0) {
+				bytes.put((byte) ((delta & 0x7f) | 0x80));
+				delta >>>= 7;
+			}
+			bytes.put((byte) delta);
+		}
+		return Arrays.copyOf(bytes.array(), bytes.position());
+	}
+
+	private static int varintLength(long delta) {
+		return Math.max(1, (64 - Long.numberOfLeadingZeros(delta) + 6) / 7);
+	}
+
+	/**
+	 * Where a rule's occurrences are in the file.
+	 */
+	private static final class Entry {
+
+		final int count;
+		final long blocks;
+		final long data;
+
+		Entry(int count, long blocks, long data) {
+			this.count = count;
+			this.blocks = blocks;
+			this.data = data;
+		}
+
+	}
+
+}
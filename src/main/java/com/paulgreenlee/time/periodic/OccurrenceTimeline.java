@@ -0,0 +1,391 @@
+package com.paulgreenlee.time.periodic;
+
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.Temporal;
+import java.time.temporal.TemporalAmount;
+import java.time.temporal.TemporalQueries;
+import java.time.temporal.TemporalUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * <p>
+ * The occurrences of one rule over a window that moves forward, shared by
+ * every thread that asks the rule for its next occurrences. The occurrences
+ * are held as a sorted array of epoch days, or epoch seconds for date-times,
+ * in a snapshot that is never changed once published. Readers binary search
+ * whichever snapshot is current, without locking.
+ * </p>
+ * <p>
+ * The window runs from where the timeline was started to a horizon past it.
+ * Once a reader asks about a point past the middle of the window, a task on
+ * the executor expands the rule from the end of the window to the horizon
+ * past that point, copies the occurrences into a new array and publishes it
+ * in a new snapshot, so readers keep using the old one until then. A point
+ * more than a horizon past the end of the window does not move it, so that
+ * one question about the distant future does not leave every other reader
+ * outside the window. Only one such task runs at a time. If the array would
+ * hold more than the maximum number of occurrences, the earliest are dropped.
+ * Anything the snapshot cannot answer, before the window or past it, is found
+ * by applying the rule, as it would be without the timeline.
+ * </p>
+ * <p>
+ * The window holds the occurrences the rule steps through from where the
+ * timeline was started, and each extension carries on from the last of them,
+ * so the rule should not depend on where it starts counting. A date rule
+ * timed by its start, such as a day of the week applied to date-times, which
+ * keeps the time of day it is given, answers from the window at the time of
+ * day of the start, but at the time of day asked about when the rule is
+ * applied instead.
+ * </p>
+ * <p>
+ * Date-times are held to the second, so the rule's occurrences must be whole
+ * seconds. A timeline is safe to use from many threads.
+ * </p>
+ *
+ * @author Paul Greenlee
+ *
+ * @param <T>
+ *            the type of Temporal the occurrences are given as
+ */
+public final class OccurrenceTimeline<T extends Temporal> {
+
+	private final ForwardOnlyTemporalAdjuster rule;
+	private final TemporalAmount horizon;
+	private final int maxOccurrences;
+	private final Executor executor;
+	private final ToLongFunction<T> toLong;
+	private final LongFunction<T> fromLong;
+	private final TemporalUnit precision;
+	private final AtomicBoolean extending = new AtomicBoolean();
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private volatile Snapshot snapshot;
+
+	private OccurrenceTimeline(PeriodicTemporalAdjuster rule, T from, TemporalAmount horizon, int maxOccurrences,
+			Executor executor, ToLongFunction<T> toLong, LongFunction<T> fromLong) {
+		Objects.requireNonNull(rule, "rule is required");
+		Objects.requireNonNull(from, "from is required");
+		this.rule = rule instanceof ForwardOnlyTemporalAdjuster ? (ForwardOnlyTemporalAdjuster) rule
+				: ForwardOnlyTemporalAdjuster.of(rule);
+		this.horizon = Objects.requireNonNull(horizon, "horizon is required");
+		if (maxOccurrences < 1)
+			throw new IllegalArgumentException("maxOccurrences must be at least 1: " + maxOccurrences);
+		this.maxOccurrences = maxOccurrences;
+		this.executor = Objects.requireNonNull(executor, "executor is required");
+		this.toLong = toLong;
+		this.fromLong = fromLong;
+		this.precision = from.query(TemporalQueries.precision());
+		long start = toLong.applyAsLong(from);
+		if (horizonEnd(start) <= start)
+			throw new IllegalArgumentException("horizon must be positive: " + horizon);
+		this.snapshot = extend(null, start);
+	}
+
+	/**
+	 * A timeline of the dates on which the rule occurs, starting after
+	 * {@code from}, extended on the common {@link ForkJoinPool}.
+	 *
+	 * @see #ofDates(PeriodicTemporalAdjuster, LocalDate, TemporalAmount, int, Executor)
+	 */
+	public static OccurrenceTimeline<LocalDate> ofDates(PeriodicTemporalAdjuster rule, LocalDate from,
+			TemporalAmount horizon, int maxOccurrences) {
+		return ofDates(rule, from, horizon, maxOccurrences, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * A timeline of the dates on which the rule occurs, starting after
+	 * {@code from}.
+	 *
+	 * @param horizon
+	 *            how far past the latest point asked about the occurrences
+	 *            are held, such as a year
+	 * @param maxOccurrences
+	 *            the most occurrences held, at 8 bytes each
+	 * @param executor
+	 *            where the window is extended
+	 * @throws DateTimeException
+	 *             if the horizon cannot be added to a date
+	 * @throws IllegalArgumentException
+	 *             if the horizon is not positive or the maximum is less than 1
+	 */
+	public static OccurrenceTimeline<LocalDate> ofDates(PeriodicTemporalAdjuster rule, LocalDate from,
+			TemporalAmount horizon, int maxOccurrences, Executor executor) {
+		return new OccurrenceTimeline<>(rule, from, horizon, maxOccurrences, executor, LocalDate::toEpochDay,
+				LocalDate::ofEpochDay);
+	}
+
+	/**
+	 * A timeline of the date-times at which the rule occurs, starting after
+	 * {@code from}, extended on the common {@link ForkJoinPool}.
+	 *
+	 * @see #ofDateTimes(PeriodicTemporalAdjuster, LocalDateTime, TemporalAmount, int, Executor)
+	 */
+	public static OccurrenceTimeline<LocalDateTime> ofDateTimes(PeriodicTemporalAdjuster rule, LocalDateTime from,
+			TemporalAmount horizon, int maxOccurrences) {
+		return ofDateTimes(rule, from, horizon, maxOccurrences, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * A timeline of the date-times at which the rule occurs, starting after
+	 * {@code from}. The occurrences must be whole seconds.
+	 *
+	 * @param horizon
+	 *            how far past the latest point asked about the occurrences
+	 *            are held, such as a month
+	 * @param maxOccurrences
+	 *            the most occurrences held, at 8 bytes each
+	 * @param executor
+	 *            where the window is extended
+	 * @throws IllegalArgumentException
+	 *             if the horizon is not positive, the maximum is less than 1,
+	 *             or an occurrence is not a whole second
+	 */
+	public static OccurrenceTimeline<LocalDateTime> ofDateTimes(PeriodicTemporalAdjuster rule, LocalDateTime from,
+			TemporalAmount horizon, int maxOccurrences, Executor executor) {
+		return new OccurrenceTimeline<>(rule, from, horizon, maxOccurrences, executor,
+				dateTime -> dateTime.toEpochSecond(ZoneOffset.UTC),
+				epochSecond -> LocalDateTime.ofEpochSecond(epochSecond, 0, ZoneOffset.UTC));
+	}
+
+	/**
+	 * The first occurrence after the temporal.
+	 *
+	 * @throws DateTimeException
+	 *             if it is past the window and the rule has no occurrence
+	 *             after the temporal
+	 */
+	public T next(T after) {
+		Snapshot current = snapshot;
+		long value = toLong.applyAsLong(Objects.requireNonNull(after, "after is required"));
+		int index = current.indexAfter(value);
+		requestExtension(current, value);
+		if (index >= 0 && index < current.occurrences.length) {
+			hits.increment();
+			return fromLong.apply(current.occurrences[index]);
+		}
+		misses.increment();
+		return live(after);
+	}
+
+	/**
+	 * The first {@code count} occurrences after the temporal, in order. Those
+	 * past the window are found by applying the rule.
+	 *
+	 * @throws DateTimeException
+	 *             if the rule has fewer occurrences than asked for
+	 */
+	public List<T> next(T after, int count) {
+		if (count < 0)
+			throw new IllegalArgumentException("count must not be negative: " + count);
+		Snapshot current = snapshot;
+		long value = toLong.applyAsLong(Objects.requireNonNull(after, "after is required"));
+		int index = current.indexAfter(value);
+		requestExtension(current, value);
+		List<T> occurrences = new ArrayList<>(count);
+		if (index >= 0) {
+			for (; index < current.occurrences.length && occurrences.size() < count; index++)
+				occurrences.add(fromLong.apply(current.occurrences[index]));
+		}
+		if (occurrences.size() < count) {
+			misses.increment();
+			T last = occurrences.isEmpty() ? after : occurrences.get(occurrences.size() - 1);
+			while (occurrences.size() < count) {
+				last = live(last);
+				occurrences.add(last);
+			}
+		} else {
+			hits.increment();
+		}
+		return occurrences;
+	}
+
+	/**
+	 * The start of the window: every occurrence after it and before
+	 * {@link #windowEnd()} is held.
+	 */
+	public T windowStart() {
+		return fromLong.apply(snapshot.from);
+	}
+
+	/**
+	 * The end of the window, which no occurrence held is at or after.
+	 */
+	public T windowEnd() {
+		return fromLong.apply(snapshot.to);
+	}
+
+	/**
+	 * The number of occurrences held.
+	 */
+	public int size() {
+		return snapshot.occurrences.length;
+	}
+
+	public int maxOccurrences() {
+		return maxOccurrences;
+	}
+
+	/**
+	 * The number of calls answered from the window alone.
+	 */
+	public long hitCount() {
+		return hits.sum();
+	}
+
+	/**
+	 * The number of calls that applied the rule for some or all of their
+	 * answer.
+	 */
+	public long missCount() {
+		return misses.sum();
+	}
+
+	private T live(T after) {
+		@SuppressWarnings("unchecked")
+		T next = (T) rule.next(after, precision);
+		return next;
+	}
+
+	/**
+	 * Hands the executor a task to move the window forward, unless the value
+	 * is before the middle of the window, more than a horizon past its end,
+	 * or a task is already running.
+	 */
+	private void requestExtension(Snapshot current, long value) {
+		if (value < current.extendAfter || value >= current.extendBefore || !extending.compareAndSet(false, true))
+			return;
+		try {
+			executor.execute(() -> {
+				try {
+					snapshot = extend(snapshot, value);
+				} finally {
+					extending.set(false);
+				}
+			});
+		} catch (RejectedExecutionException e) {
+			extending.set(false);
+		}
+	}
+
+	/**
+	 * A snapshot holding the occurrences of the current one and those after
+	 * them up to the horizon past the value, or starting after the value if
+	 * there is no current one.
+	 */
+	private Snapshot extend(Snapshot current, long value) {
+		long to = horizonEnd(value);
+		boolean append = current != null;
+		long from = append ? current.from : value;
+		long[] held = append ? current.occurrences : new long[0];
+		// From the last occurrence held, so the rule carries on rather than starting again.
+		long expandFrom = !append ? value : held.length > 0 ? held[held.length - 1] : current.from;
+		if (append && to <= current.to)
+			return current;
+
+		long[] occurrences = Arrays.copyOf(held, Math.max(16, held.length + 16));
+		int size = held.length;
+		long extendAfter;
+		long extendBefore;
+		try {
+			T last = fromLong.apply(expandFrom);
+			while (true) {
+				T next = live(last);
+				long occurrence = occurrence(next);
+				if (occurrence >= to)
+					break;
+				if (size == occurrences.length)
+					occurrences = Arrays.copyOf(occurrences, size + (size >>> 1));
+				occurrences[size++] = occurrence;
+				last = next;
+				// Beyond the limit the earliest would only be dropped again.
+				if (size - held.length >= maxOccurrences) {
+					to = occurrence + 1;
+					break;
+				}
+			}
+			extendAfter = value + (to - value) / 2;
+			extendBefore = horizonEnd(to);
+		} catch (DateTimeException e) {
+			if (current == null)
+				throw e;
+			// The rule has no more occurrences the search can find, so the window stops at the last one.
+			to = size > 0 ? occurrences[size - 1] + 1 : from + 1;
+			extendAfter = Long.MAX_VALUE;
+			extendBefore = Long.MAX_VALUE;
+		} catch (RuntimeException e) {
+			if (current == null)
+				throw e;
+			// Published with no further extension, so readers fall back to the rule rather than retrying.
+			return new Snapshot(current.from, current.to, Long.MAX_VALUE, Long.MAX_VALUE, current.occurrences);
+		}
+		if (size > maxOccurrences) {
+			int dropped = size - maxOccurrences;
+			from = occurrences[dropped - 1];
+			return new Snapshot(from, to, extendAfter, extendBefore, Arrays.copyOfRange(occurrences, dropped, size));
+		}
+		return new Snapshot(from, to, extendAfter, extendBefore, Arrays.copyOf(occurrences, size));
+	}
+
+	private long occurrence(T occurrence) {
+		if (occurrence instanceof LocalDateTime && ((LocalDateTime) occurrence).getNano() != 0)
+			throw new IllegalArgumentException("Occurrences must be whole seconds: " + occurrence);
+		return toLong.applyAsLong(occurrence);
+	}
+
+	private long horizonEnd(long value) {
+		@SuppressWarnings("unchecked")
+		T end = (T) fromLong.apply(value).plus(horizon);
+		return toLong.applyAsLong(end);
+	}
+
+	/**
+	 * Every occurrence after {@code from} and before {@code to}, never
+	 * changed once published.
+	 */
+	private static final class Snapshot {
+
+		final long from;
+		final long to;
+		/** Asking about a point at or after this moves the window forward. */
+		final long extendAfter;
+		/** Points at or after this are too far ahead to move the window to. */
+		final long extendBefore;
+		final long[] occurrences;
+
+		Snapshot(long from, long to, long extendAfter, long extendBefore, long[] occurrences) {
+			this.from = from;
+			this.to = to;
+			this.extendAfter = extendAfter;
+			this.extendBefore = extendBefore;
+			this.occurrences = occurrences;
+		}
+
+		/**
+		 * The index of the first occurrence after the value, the length if it
+		 * is past the window, or -1 if the value is before the window.
+		 */
+		int indexAfter(long value) {
+			if (value < from)
+				return -1;
+			if (value >= to)
+				return occurrences.length;
+			int index = Arrays.binarySearch(occurrences, value);
+			return index >= 0 ? index + 1 : -index - 1;
+		}
+
+	}
+
+}
@@ -0,0 +1,285 @@
+package com.paulgreenlee.time.periodic;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.Temporal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * <p>
+ * Utility methods for listing the occurrences of a
+ * {@link PeriodicTemporalAdjuster}. Occurrences are always strictly after the
+ * start, exactly as if {@link ForwardOnlyTemporalAdjuster} were applied to the
+ * start and then to each occurrence in turn. Examples:
+ * </p>
+ * <ul>
+ * <li>The next ten Valentine's Days:
+ * <code>occurrences(annually(MonthDay.of(2, 14)), today, 10)</code></li>
+ * <li>Every Monday this year:
+ * <code>occurrences(weekly(DayOfWeek.MONDAY), startOfYear.minusDays(1), startOfNextYear)</code></li>
+ * </ul>
+ * <p>
+ * Everything returned is lazy, except for {@link #occurrencesBetween}
+ * and {@link #parallelOccurrencesBetween}. Nothing is computed until the
+ * iterator or stream is consumed.
+ * </p>
+ * <p>
+ * Rules in local date-times can be listed as instants in a time zone with
+ * {@link #instants} and {@link #instantsBetween}, or a list already made can be
+ * converted with {@link #toInstants} for each zone it is needed in. The zone's
+ * offset transitions are looked up in a table built once, so converting each
+ * occurrence is mostly arithmetic.
+ * </p>
+ *
+ * @author Paul Greenlee
+ *
+ */
+public class Occurrences {
+
+	private static final int CHARACTERISTICS = Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL
+			| Spliterator.IMMUTABLE;
+
+	private Occurrences() { }
+
+	/**
+	 * Every occurrence of the rule after {@code start}. The iterator never runs
+	 * out.
+	 */
+	public static <T extends Temporal> OccurrenceIterator<T> iterator(PeriodicTemporalAdjuster rule, T start) {
+		return new OccurrenceIterator<>(rule, start, null, Long.MAX_VALUE);
+	}
+
+	/**
+	 * The occurrences of the rule after {@code start} and before {@code end}.
+	 */
+	public static <T extends Temporal> OccurrenceIterator<T> iterator(PeriodicTemporalAdjuster rule, T start, T end) {
+		return new OccurrenceIterator<>(rule, start, Objects.requireNonNull(end, "end is required"), Long.MAX_VALUE);
+	}
+
+	/**
+	 * The first {@code limit} occurrences of the rule after {@code start}.
+	 */
+	public static <T extends Temporal> OccurrenceIterator<T> iterator(PeriodicTemporalAdjuster rule, T start, long limit) {
+		return new OccurrenceIterator<>(rule, start, null, limit);
+	}
+
+	/**
+	 * Every occurrence of the rule after {@code start}. The stream is infinite.
+	 */
+	public static <T extends Temporal> Stream<T> occurrences(PeriodicTemporalAdjuster rule, T start) {
+		return stream(iterator(rule, start));
+	}
+
+	/**
+	 * The occurrences of the rule after {@code start} and before {@code end}.
+	 */
+	public static <T extends Temporal> Stream<T> occurrences(PeriodicTemporalAdjuster rule, T start, T end) {
+		return stream(iterator(rule, start, end));
+	}
+
+	/**
+	 * The first {@code limit} occurrences of the rule after {@code start}.
+	 */
+	public static <T extends Temporal> Stream<T> occurrences(PeriodicTemporalAdjuster rule, T start, long limit) {
+		return stream(iterator(rule, start, limit));
+	}
+
+	/**
+	 * <p>
+	 * The occurrences of the rule after {@code start} and before {@code end},
+	 * found in parallel. The range is split into chunks a whole number of
+	 * periods long, which are expanded on the common
+	 * {@link java.util.concurrent.ForkJoinPool} and joined in order. The list is
+	 * always exactly what {@link #occurrences(PeriodicTemporalAdjuster, Temporal, Temporal)}
+	 * would give, even for rules that count from their start, such as every
+	 * other week.
+	 * </p>
+	 * <p>
+	 * Worth it for long ranges of rules that are slow to apply. Ranges of only
+	 * a few dozen periods are expanded on the calling thread.
+	 * </p>
+	 *
+	 * @return an unmodifiable list of the occurrences, in order
+	 */
+	public static <T extends Temporal> List<T> occurrencesBetween(PeriodicTemporalAdjuster rule, T start, T end) {
+		return RangeExpansion.expand(rule, start, end);
+	}
+
+	/**
+	 * The occurrences of the rule after {@code start} and before {@code end},
+	 * found as {@link #occurrencesBetween} does, as a parallel stream. Unlike
+	 * the other streams, this one is computed before it is returned, so it is
+	 * sized and splits evenly for whatever comes after it.
+	 */
+	public static <T extends Temporal> Stream<T> parallelOccurrencesBetween(PeriodicTemporalAdjuster rule, T start, T end) {
+		return occurrencesBetween(rule, start, end).parallelStream();
+	}
+
+	/**
+	 * <p>
+	 * The number of occurrences of the rule after {@code start} and before
+	 * {@code end}, the same as counting
+	 * {@link #occurrences(PeriodicTemporalAdjuster, Temporal, Temporal)}.
+	 * </p>
+	 * <p>
+	 * A day of the week every week or every few weeks, several days of the week
+	 * as {@link PeriodicTemporalAdjusters#weeklyOnDays} gives them, a day of the
+	 * month up to the 28th every month, and a day of the year other than the
+	 * 29th of February every year are counted with period arithmetic, whatever
+	 * the length of the range. So are other date rules that compile to a
+	 * {@link GregorianCycleTable}, with the table from the
+	 * {@link GregorianCycleTableCache#shared() shared cache}. Other rules are
+	 * counted one occurrence at a time.
+	 * </p>
+	 */
+	public static <T extends Temporal> long countBetween(PeriodicTemporalAdjuster rule, T start, T end) {
+		return OccurrenceArithmetic.countBetween(rule, start, end);
+	}
+
+	/**
+	 * The {@code n}th occurrence of the rule after {@code start}, where the
+	 * first occurrence is 1. Found without listing the occurrences before it for
+	 * the rules {@link #countBetween} counts with arithmetic.
+	 *
+	 * @throws IllegalArgumentException
+	 *             if {@code n} is less than 1
+	 */
+	public static <T extends Temporal> T nth(PeriodicTemporalAdjuster rule, T start, long n) {
+		return OccurrenceArithmetic.nth(rule, start, n);
+	}
+
+	/**
+	 * The number of the occurrence {@code occurrence} after {@code start}, as
+	 * {@link #nth} counts them, so that
+	 * {@code nth(rule, start, indexOf(rule, start, occurrence))} is the
+	 * occurrence again.
+	 *
+	 * @return the number, from 1, or -1 if {@code occurrence} is not an
+	 *         occurrence of the rule after {@code start}
+	 */
+	public static <T extends Temporal> long indexOf(PeriodicTemporalAdjuster rule, T start, T occurrence) {
+		return OccurrenceArithmetic.indexOf(rule, start, occurrence);
+	}
+
+	/**
+	 * The occurrences of the rule after {@code start} and before {@code end},
+	 * as instants in the zone. Local times in a gap are moved later by the
+	 * length of the gap, and those in an overlap take the earlier offset, as
+	 * {@link java.time.ZonedDateTime#of} does.
+	 */
+	public static Stream<Instant> instants(PeriodicTemporalAdjuster rule, LocalDateTime start, LocalDateTime end, ZoneId zone) {
+		return instants(rule, start, end, zone, GapPolicy.SHIFT, OverlapPolicy.EARLIER);
+	}
+
+	/**
+	 * The occurrences of the rule after {@code start} and before {@code end},
+	 * as instants in the zone, with local times in gaps and overlaps dealt with
+	 * as the policies say. The instants come in the order of the occurrences,
+	 * which is not always the order of the instants: a time shifted out of a
+	 * gap can pass the occurrences just after it.
+	 */
+	public static Stream<Instant> instants(PeriodicTemporalAdjuster rule, LocalDateTime start, LocalDateTime end, ZoneId zone,
+			GapPolicy gap, OverlapPolicy overlap) {
+		ZoneOffsetTable table = ZoneOffsetTable.of(Objects.requireNonNull(zone, "zone is required"));
+		Objects.requireNonNull(gap, "gap is required");
+		Objects.requireNonNull(overlap, "overlap is required");
+		OccurrenceIterator<LocalDateTime> iterator = iterator(rule, start, end);
+		Spliterator<Instant> spliterator = new Spliterators.AbstractSpliterator<Instant>(Long.MAX_VALUE,
+				Spliterator.ORDERED | Spliterator.NONNULL | Spliterator.IMMUTABLE) {
+			private final Instant[] converted = new Instant[2];
+			private int count;
+			private int index;
+
+			@Override
+			public boolean tryAdvance(Consumer<? super Instant> action) {
+				while (index == count) {
+					LocalDateTime next = iterator.advance();
+					if (next == null)
+						return false;
+					count = table.toInstants(next, gap, overlap, converted);
+					index = 0;
+				}
+				action.accept(converted[index++]);
+				return true;
+			}
+		};
+		return StreamSupport.stream(spliterator, false);
+	}
+
+	/**
+	 * The occurrences of the rule after {@code start} and before {@code end},
+	 * found as {@link #occurrencesBetween} does, as instants in the zone as
+	 * {@link #instants(PeriodicTemporalAdjuster, LocalDateTime, LocalDateTime, ZoneId)}
+	 * gives them.
+	 *
+	 * @return an unmodifiable list of the instants
+	 */
+	public static List<Instant> instantsBetween(PeriodicTemporalAdjuster rule, LocalDateTime start, LocalDateTime end, ZoneId zone) {
+		return instantsBetween(rule, start, end, zone, GapPolicy.SHIFT, OverlapPolicy.EARLIER);
+	}
+
+	/**
+	 * The occurrences of the rule after {@code start} and before {@code end},
+	 * found as {@link #occurrencesBetween} does, as instants in the zone with
+	 * local times in gaps and overlaps dealt with as the policies say.
+	 *
+	 * @return an unmodifiable list of the instants, in the order of the
+	 *         occurrences
+	 */
+	public static List<Instant> instantsBetween(PeriodicTemporalAdjuster rule, LocalDateTime start, LocalDateTime end, ZoneId zone,
+			GapPolicy gap, OverlapPolicy overlap) {
+		Objects.requireNonNull(zone, "zone is required");
+		return toInstants(occurrencesBetween(rule, start, end), zone, gap, overlap);
+	}
+
+	/**
+	 * <p>
+	 * Converts occurrences in local date-times to instants in the zone, with
+	 * local times in gaps and overlaps dealt with as the policies say. Listing
+	 * the occurrences once and converting them for each zone is cheaper than
+	 * listing them again in every zone.
+	 * </p>
+	 *
+	 * @return an unmodifiable list of the instants, in the order of the
+	 *         occurrences
+	 * @throws java.time.DateTimeException
+	 *             if a policy rejects one of the occurrences
+	 */
+	public static List<Instant> toInstants(List<LocalDateTime> occurrences, ZoneId zone, GapPolicy gap, OverlapPolicy overlap) {
+		ZoneOffsetTable table = ZoneOffsetTable.of(Objects.requireNonNull(zone, "zone is required"));
+		Objects.requireNonNull(gap, "gap is required");
+		Objects.requireNonNull(overlap, "overlap is required");
+		List<Instant> instants = new ArrayList<>(occurrences.size());
+		Instant[] converted = new Instant[2];
+		for (LocalDateTime occurrence : occurrences) {
+			int count = table.toInstants(occurrence, gap, overlap, converted);
+			for (int i = 0; i < count; i++)
+				instants.add(converted[i]);
+		}
+		return Collections.unmodifiableList(instants);
+	}
+
+	private static <T extends Temporal> Stream<T> stream(OccurrenceIterator<T> iterator) {
+		Spliterator<T> spliterator = new Spliterators.AbstractSpliterator<T>(iterator.remaining(), CHARACTERISTICS) {
+			@Override
+			public boolean tryAdvance(Consumer<? super T> action) {
+				T next = iterator.advance();
+				if (next == null)
+					return false;
+				action.accept(next);
+				return true;
+			}
+		};
+		return StreamSupport.stream(spliterator, false);
+	}
+
+}
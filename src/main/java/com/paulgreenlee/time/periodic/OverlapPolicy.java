@@ -0,0 +1,34 @@
+package com.paulgreenlee.time.periodic;
+
+/**
+ * What to do with a local date-time that falls in an overlap in a time zone,
+ * when clocks go back and the local times repeated happen twice, as when
+ * {@link Occurrences#instants} converts occurrences to instants.
+ *
+ * @author Paul Greenlee
+ *
+ */
+public enum OverlapPolicy {
+
+	/**
+	 * The first time, at the offset before the transition, as
+	 * {@link java.time.ZonedDateTime#of} does.
+	 */
+	EARLIER,
+
+	/**
+	 * The second time, at the offset after the transition.
+	 */
+	LATER,
+
+	/**
+	 * Both times, the earlier first.
+	 */
+	BOTH,
+
+	/**
+	 * Throw a {@link java.time.DateTimeException}.
+	 */
+	REJECT
+
+}
@@ -0,0 +1,277 @@
+package com.paulgreenlee.time.periodic;
+
+import java.lang.reflect.Method;
+import java.time.Clock;
+import java.time.DateTimeException;
+import java.time.Duration;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p>
+ * Runs tasks at the occurrences of {@link PeriodicTemporalAdjuster}s, in the
+ * time zone given for each. Pending runs are kept in a hierarchical timing
+ * wheel rather than a delay queue, so registering or firing a task costs the
+ * same however many are registered, and millions can be. Only the next run of
+ * each task is known; the one after it is found with
+ * {@link ForwardOnlyTemporalAdjuster} when the task fires, by applying the rule
+ * to the time it fired for.
+ * </p>
+ * <p>
+ * Tasks are registered without taking a lock: they are queued and picked up
+ * by the next {@link #runDue()}. The wheel is only locked to add, remove and
+ * take out timers; finding a task's next run and handing it to the executor
+ * are done after the lock is released, so a slow rule or an executor that
+ * runs tasks itself does not hold up registering or cancelling. A cancelled
+ * task is taken out of the wheel at once. Due tasks are handed to an {@link Executor},
+ * which by default runs each on a virtual thread where the JVM has them (Java
+ * 21 and later) and on the common {@link ForkJoinPool} otherwise. An
+ * occurrence missed because the clock jumped, or because the scheduler was
+ * not run for a while, still fires, late.
+ * </p>
+ * <p>
+ * Time comes from a {@link Clock}, so a scheduler can be tested with a clock
+ * that is moved by hand and {@link #runDue()} called directly instead of
+ * {@link #start() starting} the thread that normally calls it once a tick.
+ * </p>
+ *
+ * @author Paul Greenlee
+ *
+ */
+public class PeriodicScheduler implements AutoCloseable {
+
+	private static final Duration DEFAULT_TICK = Duration.ofMillis(10);
+
+	private final Clock clock;
+	private final Executor executor;
+	private final boolean ownsExecutor;
+	private final long tickMillis;
+	private final TimingWheel wheel;
+	private final ConcurrentLinkedQueue<ScheduledRecurrence> registered = new ConcurrentLinkedQueue<>();
+	private final AtomicLong active = new AtomicLong();
+	/** Held while due tasks are advanced and handed to the executor, which is done outside the lock on the wheel. */
+	private final Object dispatching = new Object();
+	private volatile boolean closed;
+	private Thread ticker;
+
+	/**
+	 * A scheduler on the system clock, with a tick of 10 milliseconds, running
+	 * tasks on virtual threads where the JVM has them.
+	 */
+	public PeriodicScheduler() {
+		this(Clock.systemUTC(), null, DEFAULT_TICK);
+	}
+
+	public PeriodicScheduler(Clock clock, Executor executor) {
+		this(clock, Objects.requireNonNull(executor, "executor is required"), DEFAULT_TICK);
+	}
+
+	/**
+	 * @param tick
+	 *            how often the scheduler looks for due tasks when started, and
+	 *            so how late a task may run; at least a millisecond
+	 */
+	public PeriodicScheduler(Clock clock, Executor executor, Duration tick) {
+		this.clock = Objects.requireNonNull(clock, "clock is required");
+		this.tickMillis = Objects.requireNonNull(tick, "tick is required").toMillis();
+		if (tickMillis < 1)
+			throw new IllegalArgumentException("tick must be at least a millisecond: " + tick);
+		this.ownsExecutor = executor == null;
+		this.executor = executor != null ? executor : defaultExecutor();
+		this.wheel = new TimingWheel(Math.floorDiv(clock.millis(), tickMillis));
+	}
+
+	/**
+	 * Runs the task at every occurrence of the rule after now, in the given
+	 * zone. The first occurrence is found by applying the rule to the current
+	 * time in the zone, so a rule that does not set the time of day keeps the
+	 * time of day it was registered at.
+	 *
+	 * @throws DateTimeException
+	 *             if the rule has no occurrence after now
+	 * @throws IllegalStateException
+	 *             if the scheduler has been closed
+	 */
+	public ScheduledRecurrence schedule(PeriodicTemporalAdjuster rule, ZoneId zone, Runnable task) {
+		Objects.requireNonNull(rule, "rule is required");
+		Objects.requireNonNull(zone, "zone is required");
+		Objects.requireNonNull(task, "task is required");
+		if (closed)
+			throw new IllegalStateException("scheduler is closed");
+		ForwardOnlyTemporalAdjuster forwardOnly = rule instanceof ForwardOnlyTemporalAdjuster
+				? (ForwardOnlyTemporalAdjuster) rule : ForwardOnlyTemporalAdjuster.of(rule);
+		ZonedDateTime first = (ZonedDateTime) forwardOnly.adjustInto(ZonedDateTime.now(clock.withZone(zone)));
+		ScheduledRecurrence recurrence = new ScheduledRecurrence(this, forwardOnly, zone, task, first);
+		active.incrementAndGet();
+		registered.add(recurrence);
+		return recurrence;
+	}
+
+	/**
+	 * Hands every task that is due by the clock to the executor. Called once a
+	 * tick by the scheduler's own thread once it is started, and may be called
+	 * directly, for example by a test that moves the clock itself.
+	 */
+	public void runDue() {
+		long target = Math.floorDiv(clock.millis(), tickMillis);
+		List<ScheduledRecurrence> due = new ArrayList<>();
+		List<ScheduledRecurrence> advanced = new ArrayList<>();
+		boolean more = true;
+		while (more) {
+			// Only the wheel is touched under the lock; searches and tasks run outside it, one due tick at a time.
+			synchronized (wheel) {
+				if (closed)
+					return;
+				for (ScheduledRecurrence recurrence : advanced)
+					add(recurrence);
+				ScheduledRecurrence recurrence;
+				while ((recurrence = registered.poll()) != null)
+					add(recurrence);
+				more = wheel.advanceToNextDue(target, timer -> due.add(((ScheduledRecurrence.Timer) timer).recurrence));
+			}
+			advanced.clear();
+			synchronized (dispatching) {
+				if (closed)
+					return;
+				for (ScheduledRecurrence recurrence : due)
+					fire(recurrence, advanced);
+			}
+			due.clear();
+		}
+	}
+
+	private void fire(ScheduledRecurrence recurrence, List<ScheduledRecurrence> advanced) {
+		if (recurrence.isDone())
+			return;
+		Runnable task = recurrence.task();
+		// The next run is found before this one starts, so it does not depend on what the task does.
+		if (recurrence.advance())
+			advanced.add(recurrence);
+		try {
+			executor.execute(task);
+		} catch (RuntimeException e) {
+			Thread thread = Thread.currentThread();
+			thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+		}
+	}
+
+	/**
+	 * Puts the recurrence in the wheel at its next run, unless it has ended
+	 * meanwhile. Called holding the lock on the wheel.
+	 */
+	private void add(ScheduledRecurrence recurrence) {
+		if (recurrence.isDone())
+			return;
+		long fireMillis = recurrence.nextFire().toInstant().toEpochMilli();
+		ScheduledRecurrence.Timer timer = recurrence.timer();
+		// Rounded up, so a task never runs before its time.
+		timer.deadline = Math.floorDiv(fireMillis + tickMillis - 1, tickMillis);
+		wheel.add(timer);
+	}
+
+	void cancelled(ScheduledRecurrence recurrence) {
+		// Cancelled before it is added or while it is running, it is not in the wheel and will not be added.
+		synchronized (wheel) {
+			wheel.remove(recurrence.timer());
+		}
+		ended();
+	}
+
+	void ended() {
+		active.decrementAndGet();
+	}
+
+	/**
+	 * The number of recurrences that have not been cancelled and have not run
+	 * out of occurrences.
+	 */
+	public long size() {
+		return active.get();
+	}
+
+	/**
+	 * Starts a daemon thread that calls {@link #runDue()} once a tick.
+	 *
+	 * @throws IllegalStateException
+	 *             if the scheduler has been closed
+	 */
+	public synchronized void start() {
+		if (closed)
+			throw new IllegalStateException("scheduler is closed");
+		if (ticker != null)
+			return;
+		ticker = new Thread(this::tick, "periodic-scheduler");
+		ticker.setDaemon(true);
+		ticker.start();
+	}
+
+	private void tick() {
+		while (!closed) {
+			runDue();
+			long millis = clock.millis();
+			long untilNextTick = tickMillis - Math.floorMod(millis, tickMillis);
+			try {
+				Thread.sleep(untilNextTick);
+			} catch (InterruptedException e) {
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Stops the scheduler. No task is handed to the executor after this
+	 * returns, and the default executor is shut down. An executor passed in
+	 * is left running.
+	 */
+	@Override
+	public void close() {
+		Thread stopping;
+		synchronized (this) {
+			closed = true;
+			stopping = ticker;
+		}
+		synchronized (wheel) {
+			registered.clear();
+		}
+		// Waits for a run in progress to finish handing out tasks.
+		synchronized (dispatching) {
+			closed = true;
+		}
+		if (stopping != null) {
+			stopping.interrupt();
+			if (stopping != Thread.currentThread()) {
+				try {
+					stopping.join();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+		}
+		if (ownsExecutor && executor instanceof ExecutorService)
+			((ExecutorService) executor).shutdown();
+	}
+
+	/**
+	 * A new virtual thread per task where the JVM has virtual threads,
+	 * otherwise the common pool. Looked up by reflection so the library still
+	 * runs on Java 8.
+	 */
+	private static Executor defaultExecutor() {
+		try {
+			Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+			return (Executor) factory.invoke(null);
+		} catch (ReflectiveOperationException e) {
+			return ForkJoinPool.commonPool();
+		}
+	}
+
+}
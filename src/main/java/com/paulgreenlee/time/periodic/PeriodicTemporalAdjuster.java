@@ -3,6 +3,7 @@ package com.paulgreenlee.time.periodic;
 import java.time.temporal.Temporal;
 import java.time.temporal.TemporalAdjuster;
 import java.time.temporal.TemporalAmount;
+import java.util.Collections;
 
 /**
  * A PeriodicTemporalAdjuster adds the concept of a period to a
@@ -20,5 +21,37 @@ public interface PeriodicTemporalAdjuster extends TemporalAdjuster {
 	default Temporal nextPeriod(Temporal temporal) {
 		return getPeriod().addTo(temporal);
 	}
+
+	/**
+	 * <p>
+	 * Adjusts a whole array of dates, given as epoch days. Each result is the
+	 * same as {@code LocalDate.ofEpochDay(epochDaysIn[i]).with(this).toEpochDay()},
+	 * but rules with an {@link EpochDayAdjuster} form run in a tight loop over
+	 * the arrays without creating any objects. The two arrays may be the same
+	 * array.
+	 * </p>
+	 * <p>
+	 * To find the next occurrence after each date, call this on the
+	 * {@link PeriodicTemporalAdjusters#forwardOnlyOf(PeriodicTemporalAdjuster)
+	 * forward-only} form of the rule.
+	 * </p>
+	 *
+	 * @throws IllegalArgumentException
+	 *             if the arrays differ in length
+	 * @throws java.time.DateTimeException
+	 *             if a date cannot be adjusted, in which case some of the
+	 *             results may already have been written
+	 */
+	default void adjustAll(long[] epochDaysIn, long[] epochDaysOut) {
+		BatchAdjustment.adjustAll(Collections.singletonList(this), null, epochDaysIn, epochDaysOut, false);
+	}
+
+	/**
+	 * The same as {@link #adjustAll(long[], long[])}, with large arrays split
+	 * across the common {@link java.util.concurrent.ForkJoinPool}.
+	 */
+	default void adjustAllParallel(long[] epochDaysIn, long[] epochDaysOut) {
+		BatchAdjustment.adjustAll(Collections.singletonList(this), null, epochDaysIn, epochDaysOut, true);
+	}
 	
 }
@@ -1,11 +1,14 @@
 package com.paulgreenlee.time.periodic;
 
 import java.time.DayOfWeek;
+import java.time.LocalDate;
 import java.time.Period;
 import java.time.temporal.TemporalAdjuster;
+import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.LinkedList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Objects;
 
 /**
  * <p>A collection of utility methods for creating {@link PeriodicTemporalAdjuster}s.</p>
@@ -28,6 +31,73 @@ public class PeriodicTemporalAdjusters {
 	public static PeriodicTemporalAdjuster forwardOnlyOf(PeriodicTemporalAdjuster adjuster) {
 		return new ForwardOnlyTemporalAdjuster(adjuster, adjuster.getPeriod());
 	}
+	/**
+	 * <p>Turn any {@link PeriodicTemporalAdjuster} into a {@link ForwardOnlyTemporalAdjuster} that steps through
+	 * periods as the strategy says. {@link SearchStrategy#GALLOPING} finds occurrences many periods away quickly,
+	 * for rules made from adjusters the library knows never to go backwards; other rules are searched linearly.</p>
+	 */
+	public static PeriodicTemporalAdjuster forwardOnlyOf(PeriodicTemporalAdjuster adjuster, SearchStrategy strategy) {
+		return new ForwardOnlyTemporalAdjuster(adjuster, adjuster.getPeriod(), strategy);
+	}
+	/**
+	 * Turn any {@link PeriodicTemporalAdjuster} into a {@link BackwardOnlyTemporalAdjuster}, which finds the
+	 * previous occurrence.
+	 */
+	public static PeriodicTemporalAdjuster backwardOnlyOf(PeriodicTemporalAdjuster adjuster) {
+		return new BackwardOnlyTemporalAdjuster(adjuster, adjuster.getPeriod());
+	}
+	public static PeriodicTemporalAdjuster backwardOnlyOf(PeriodicTemporalAdjuster adjuster, SearchStrategy strategy) {
+		return new BackwardOnlyTemporalAdjuster(adjuster, adjuster.getPeriod(), strategy);
+	}
+	/**
+	 * <p>Turn a date-only {@link PeriodicTemporalAdjuster} into a forward-only adjuster that looks occurrences up
+	 * in a precomputed {@link GregorianCycleTable} instead of searching for them. Tables are held in the
+	 * {@link GregorianCycleTableCache#shared() shared cache}.</p>
+	 * <p>Rules that cannot be precomputed behave exactly like {@link #forwardOnlyOf(PeriodicTemporalAdjuster)}.</p>
+	 */
+	public static PeriodicTemporalAdjuster precomputed(PeriodicTemporalAdjuster adjuster) {
+		return precomputed(adjuster, GregorianCycleTableCache.shared());
+	}
+	public static PeriodicTemporalAdjuster precomputed(PeriodicTemporalAdjuster adjuster, GregorianCycleTableCache cache) {
+		return new PrecomputedTemporalAdjuster(adjuster, cache);
+	}
+	/**
+	 * <p>Remember the adjustments made by a rule, up to {@code maxEntries} of them, dropping the least recently
+	 * used first. Worth it for rules built from slow opaque adjusters that see the same temporals again and again.
+	 * Hit and miss counts are available from {@link CachedTemporalAdjuster#getCache()}.</p>
+	 */
+	public static CachedTemporalAdjuster cached(PeriodicTemporalAdjuster adjuster, long maxEntries) {
+		return cached(adjuster, new AdjustmentCache(maxEntries));
+	}
+	public static CachedTemporalAdjuster cached(PeriodicTemporalAdjuster adjuster, AdjustmentCache cache) {
+		return new CachedTemporalAdjuster(adjuster, cache);
+	}
+	/**
+	 * <p>The same rule in its canonical form, as described in {@link RuleInterner#canonical(PeriodicTemporalAdjuster)},
+	 * so that rules built in different ways but meaning the same are equal.</p>
+	 */
+	public static PeriodicTemporalAdjuster canonical(PeriodicTemporalAdjuster adjuster) {
+		return RuleInterner.canonical(adjuster);
+	}
+	/**
+	 * <p>The one shared instance of the rule, in its canonical form, from the {@link RuleInterner#shared() shared
+	 * interner}. Worth it when many schedules are built from a few distinct rules.</p>
+	 */
+	public static PeriodicTemporalAdjuster interned(PeriodicTemporalAdjuster adjuster) {
+		return RuleInterner.shared().intern(adjuster);
+	}
+	/**
+	 * <p>Check a rule once, as described in {@link RuleAnalyzer}, rather than finding out on every adjustment that it
+	 * cannot be met. Each {@link AllOfCompoundTemporalAdjuster} in it is checked for adjusters that can never all be
+	 * met, such as January 1 that is also the second Monday of the month, and for a period shorter than the largest
+	 * field its adjusters constrain. The result adjusts the same way, with the adjusters of each all-of rule checked
+	 * against candidates in the order that turns most of them down soonest. Worth it for rules built from input.</p>
+	 *
+	 * @throws IllegalArgumentException if the rule can never be met or its period is too short
+	 */
+	public static PeriodicTemporalAdjuster compile(PeriodicTemporalAdjuster adjuster) {
+		return RuleAnalyzer.compile(Objects.requireNonNull(adjuster, "adjuster is required"));
+	}
 	public static PeriodicTemporalAdjuster annually(TemporalAdjuster adjusters) {
 		return new SimplePeriodicTemporalAdjuster(adjusters, Period.ofYears(1));
 	}
@@ -40,11 +110,79 @@ public class PeriodicTemporalAdjusters {
 	public static PeriodicTemporalAdjuster everyNWeeks(TemporalAdjuster adjuster, int numberOfWeeks) {
 		return new SimplePeriodicTemporalAdjuster(adjuster, Period.ofWeeks(numberOfWeeks));
 	}
+	/**
+	 * <p>Times of day given in the style of cron, such as {@code 0 *}{@code /5 9-16 * * MON-FRI} for every five
+	 * minutes during business hours on weekdays. See {@link CronRule} for the format.</p>
+	 *
+	 * @throws IllegalArgumentException if the rule is not valid or could never match
+	 */
+	public static PeriodicTemporalAdjuster cron(String rule) {
+		return CronRule.parse(rule);
+	}
 
+	/**
+	 * <p>Adjusts to the nearest of the given days of the week, using {@link CalendarAdjusters#nearestDayOfWeek}.
+	 * With more than one day the period is a day rather than a week, so that the
+	 * {@link #forwardOnlyOf(PeriodicTemporalAdjuster) forward-only} form goes through each of the days in turn.
+	 * Stepping a whole week from a Monday would pass over the Wednesday and Friday to the next Monday.</p>
+	 */
 	public static PeriodicTemporalAdjuster weeklyOnDays(DayOfWeek dayOfWeek, DayOfWeek...otherDays) {
-		List<TemporalAdjuster> allDays = new LinkedList<>();
-		allDays.add(dayOfWeek);
-		Arrays.stream(otherDays).forEach(allDays::add);
-		return weekly(new NearestOfCompoundTemporalAdjuster(allDays));
+		CalendarAdjusters.DayOfWeekSetAdjuster days = (CalendarAdjusters.DayOfWeekSetAdjuster) CalendarAdjusters
+				.nearestDayOfWeek(dayOfWeek, otherDays);
+		return days.size() == 1 ? weekly(dayOfWeek) : new SimplePeriodicTemporalAdjuster(days, Period.ofDays(1));
+	}
+	/**
+	 * <p>Every occurrence of any of the rules, each once, such as every Monday, Wednesday and Friday plus the first
+	 * of the month. Unlike {@link NearestOfCompoundTemporalAdjuster} the result goes forward by itself: it adjusts
+	 * to the first occurrence strictly after the temporal. The rules should not depend on where they start
+	 * counting.</p>
+	 */
+	public static PeriodicTemporalAdjuster union(PeriodicTemporalAdjuster rule, PeriodicTemporalAdjuster...otherRules) {
+		return new OccurrenceSetAdjuster.Union(rules(rule, otherRules));
+	}
+	/**
+	 * <p>Every occurrence that all of the rules share, such as the Fridays that are the 13th. Rules far apart are
+	 * moved up to each other rather than stepped through. Rules that share no occurrence for a long time throw a
+	 * {@link java.time.DateTimeException} when adjusting, as {@link ForwardOnlyTemporalAdjuster} does.</p>
+	 */
+	public static PeriodicTemporalAdjuster intersection(PeriodicTemporalAdjuster rule, PeriodicTemporalAdjuster...otherRules) {
+		return new OccurrenceSetAdjuster.Intersection(rules(rule, otherRules));
+	}
+	/**
+	 * Every occurrence of the rule that is not an occurrence of {@code excluded}.
+	 */
+	public static PeriodicTemporalAdjuster except(PeriodicTemporalAdjuster rule, PeriodicTemporalAdjuster excluded) {
+		return new OccurrenceSetAdjuster.Difference(rule, excluded);
+	}
+	/**
+	 * Every occurrence of the rule that is not on one of the dates, like the exception dates of iCalendar, such as
+	 * holidays.
+	 */
+	public static PeriodicTemporalAdjuster except(PeriodicTemporalAdjuster rule, Collection<LocalDate> excludedDates) {
+		return new OccurrenceSetAdjuster.Difference(rule, excludedDates);
+	}
+
+	private static List<PeriodicTemporalAdjuster> rules(PeriodicTemporalAdjuster rule, PeriodicTemporalAdjuster...otherRules) {
+		List<PeriodicTemporalAdjuster> rules = new ArrayList<>();
+		rules.add(rule);
+		rules.addAll(Arrays.asList(otherRules));
+		return rules;
+	}
+	/**
+	 * <p>Adjusts an array of dates, given as epoch days, each with its own rule. {@code ruleIds[i]} is the index in
+	 * {@code rules} of the rule for {@code epochDaysIn[i]}, and the result is written to {@code epochDaysOut[i]}.
+	 * Otherwise this is the same as {@link PeriodicTemporalAdjuster#adjustAll(long[], long[])}.</p>
+	 * 
+	 * @throws IllegalArgumentException if the arrays differ in length
+	 */
+	public static void adjustAll(List<? extends TemporalAdjuster> rules, int[] ruleIds, long[] epochDaysIn, long[] epochDaysOut) {
+		BatchAdjustment.adjustAll(rules, Objects.requireNonNull(ruleIds, "ruleIds is required"), epochDaysIn, epochDaysOut, false);
+	}
+	/**
+	 * The same as {@link #adjustAll(List, int[], long[], long[])}, with large arrays split across the common
+	 * {@link java.util.concurrent.ForkJoinPool}.
+	 */
+	public static void adjustAllParallel(List<? extends TemporalAdjuster> rules, int[] ruleIds, long[] epochDaysIn, long[] epochDaysOut) {
+		BatchAdjustment.adjustAll(rules, Objects.requireNonNull(ruleIds, "ruleIds is required"), epochDaysIn, epochDaysOut, true);
 	}
 }
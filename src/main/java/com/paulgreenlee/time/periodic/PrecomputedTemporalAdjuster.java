@@ -0,0 +1,82 @@
+package com.paulgreenlee.time.periodic;
+
+import java.lang.ref.WeakReference;
+import java.time.temporal.ChronoField;
+import java.time.temporal.Temporal;
+import java.time.temporal.TemporalAmount;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * <p>
+ * A {@link ForwardOnlyTemporalAdjuster} that looks occurrences up in a
+ * {@link GregorianCycleTable} instead of searching for them. The table comes
+ * from a {@link GregorianCycleTableCache}, so it may be dropped and rebuilt
+ * as memory requires. Rules that cannot be compiled, and temporals whose date
+ * cannot be replaced on its own (such as zoned date-times in zones with
+ * daylight saving), are handled by the forward-only rule as usual.
+ * </p>
+ * <p>
+ * The table is remembered through a weak reference, so the cache lookup is
+ * skipped while the cache still holds the table, and the table can still be
+ * collected once the cache drops it.
+ * </p>
+ *
+ * @author Paul Greenlee
+ *
+ */
+public class PrecomputedTemporalAdjuster implements PeriodicTemporalAdjuster {
+
+	private final ForwardOnlyTemporalAdjuster rule;
+	private final GregorianCycleTableCache cache;
+	private volatile WeakReference<Optional<GregorianCycleTable>> table = new WeakReference<>(null);
+
+	public PrecomputedTemporalAdjuster(PeriodicTemporalAdjuster rule, GregorianCycleTableCache cache) {
+		Objects.requireNonNull(rule, "rule is required");
+		this.rule = rule instanceof ForwardOnlyTemporalAdjuster ? (ForwardOnlyTemporalAdjuster) rule
+				: ForwardOnlyTemporalAdjuster.of(rule);
+		this.cache = Objects.requireNonNull(cache, "cache is required");
+	}
+
+	@Override
+	public Temporal adjustInto(Temporal temporal) {
+		if (EpochDays.supports(temporal)) {
+			Optional<GregorianCycleTable> table = table();
+			if (table.isPresent())
+				return EpochDays.with(temporal, table.get().next(temporal.getLong(ChronoField.EPOCH_DAY)));
+		}
+		return rule.adjustInto(temporal);
+	}
+
+	private Optional<GregorianCycleTable> table() {
+		Optional<GregorianCycleTable> current = table.get();
+		if (current == null) {
+			current = cache.get(rule);
+			table = new WeakReference<>(current);
+		}
+		return current;
+	}
+
+	@Override
+	public TemporalAmount getPeriod() {
+		return rule.getPeriod();
+	}
+
+	@Override
+	public int hashCode() {
+		return rule.hashCode();
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		PrecomputedTemporalAdjuster other = (PrecomputedTemporalAdjuster) obj;
+		return rule.equals(other.rule) && cache == other.cache;
+	}
+
+}
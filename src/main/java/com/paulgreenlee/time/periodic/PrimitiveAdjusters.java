@@ -0,0 +1,214 @@
+package com.paulgreenlee.time.periodic;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.Period;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoField;
+import java.time.temporal.Temporal;
+import java.time.temporal.TemporalAmount;
+import java.util.List;
+import java.util.function.LongUnaryOperator;
+
+/**
+ * <p>
+ * The {@link EpochDayAdjuster} and {@link EpochSecondAdjuster} forms of the
+ * library's periodic and compound adjusters, and the glue that lets those
+ * adjusters use them. The same loops serve both forms: a value is counted in
+ * ticks, where a day is one tick for epoch days and 86,400 ticks for epoch
+ * seconds.
+ * </p>
+ * <p>
+ * Every loop gives up with {@link EpochDays#INVALID} wherever the Temporal
+ * version would throw, or might overflow when measuring the distance between
+ * two temporals. The caller then runs the Temporal version, so the result, or
+ * the exception, is always exactly what it would have been.
+ * </p>
+ *
+ * @author Paul Greenlee
+ *
+ */
+final class PrimitiveAdjusters {
+
+	static final int SECONDS_PER_DAY = 86400;
+
+	private static final long INVALID = EpochDays.INVALID;
+
+	/**
+	 * Comfortably less than the 292 years that fit in a long of nanoseconds,
+	 * which is how far apart two date-times can be before comparing them
+	 * overflows.
+	 */
+	private static final long FAR_DAYS = 100 * 1000;
+
+	private PrimitiveAdjusters() { }
+
+	/**
+	 * Adjusts the temporal using whichever primitive form suits it.
+	 *
+	 * @return the adjusted temporal, or null if the Temporal version has to be
+	 *         used instead
+	 */
+	static Temporal adjust(Temporal temporal, EpochDayAdjuster days, EpochSecondAdjuster seconds) {
+		if ((days == null && seconds == null) || !EpochDays.supports(temporal))
+			return null;
+		if (days != null) {
+			long adjusted = days.adjustEpochDay(temporal.getLong(ChronoField.EPOCH_DAY));
+			return adjusted == INVALID ? null : EpochDays.with(temporal, adjusted);
+		}
+		if (temporal instanceof LocalDate)
+			return null;
+		long epochSecond = temporal.getLong(ChronoField.EPOCH_DAY) * SECONDS_PER_DAY + temporal.getLong(ChronoField.SECOND_OF_DAY);
+		long adjusted = seconds.adjustEpochSecond(epochSecond);
+		if (adjusted == INVALID)
+			return null;
+		return temporal.with(LocalDateTime.ofEpochSecond(adjusted, temporal.get(ChronoField.NANO_OF_SECOND), ZoneOffset.UTC));
+	}
+
+	/**
+	 * The epoch second form of a date-only adjuster, which keeps the time of
+	 * day.
+	 */
+	static EpochSecondAdjuster atTimeOfDay(EpochDayAdjuster adjuster) {
+		if (adjuster == null)
+			return null;
+		return epochSecond -> {
+			long adjusted = adjuster.adjustEpochDay(Math.floorDiv(epochSecond, SECONDS_PER_DAY));
+			return adjusted == INVALID ? INVALID : adjusted * SECONDS_PER_DAY + Math.floorMod(epochSecond, SECONDS_PER_DAY);
+		};
+	}
+
+	/**
+	 * The epoch day form of {@link ForwardOnlyTemporalAdjuster}.
+	 *
+	 * @return the form, or null if the adjuster has none or the period is not a
+	 *         {@link Period}
+	 */
+	static EpochDayAdjuster forwardOnlyDays(EpochDayAdjuster adjuster, TemporalAmount period) {
+		if (adjuster == null || !(period instanceof Period))
+			return null;
+		long months = ((Period) period).toTotalMonths();
+		long days = ((Period) period).getDays();
+		LongUnaryOperator operator = adjuster::adjustEpochDay;
+		boolean cyclic = adjuster.isCyclic();
+		return new EpochDayAdjuster() {
+
+			@Override
+			public long adjustEpochDay(long epochDay) {
+				return forwardOnly(operator, months, days, 1, epochDay);
+			}
+
+			@Override
+			public boolean isCyclic() {
+				return cyclic;
+			}
+
+		};
+	}
+
+	/**
+	 * The epoch second form of {@link ForwardOnlyTemporalAdjuster}.
+	 *
+	 * @return the form, or null if the adjuster has none or the period is not a
+	 *         {@link Period}
+	 */
+	static EpochSecondAdjuster forwardOnlySeconds(EpochSecondAdjuster adjuster, TemporalAmount period) {
+		if (adjuster == null || !(period instanceof Period))
+			return null;
+		long months = ((Period) period).toTotalMonths();
+		long days = ((Period) period).getDays();
+		LongUnaryOperator operator = adjuster::adjustEpochSecond;
+		return epochSecond -> forwardOnly(operator, months, days, SECONDS_PER_DAY, epochSecond);
+	}
+
+	/**
+	 * The epoch day form of {@link NearestOfCompoundTemporalAdjuster}.
+	 *
+	 * @return the form, or null if any adjuster has none
+	 */
+	static EpochDayAdjuster nearestOfDays(List<EpochDayAdjuster> adjusters) {
+		if (adjusters.contains(null))
+			return null;
+		LongUnaryOperator[] operators = adjusters.stream().map(adjuster -> (LongUnaryOperator) adjuster::adjustEpochDay)
+				.toArray(LongUnaryOperator[]::new);
+		boolean cyclic = adjusters.stream().allMatch(EpochDayAdjuster::isCyclic);
+		return new EpochDayAdjuster() {
+
+			@Override
+			public long adjustEpochDay(long epochDay) {
+				return nearestOf(operators, 1, epochDay);
+			}
+
+			@Override
+			public boolean isCyclic() {
+				return cyclic;
+			}
+
+		};
+	}
+
+	/**
+	 * The epoch second form of {@link NearestOfCompoundTemporalAdjuster}.
+	 *
+	 * @return the form, or null if any adjuster has none
+	 */
+	static EpochSecondAdjuster nearestOfSeconds(List<EpochSecondAdjuster> adjusters) {
+		if (adjusters.contains(null))
+			return null;
+		LongUnaryOperator[] operators = adjusters.stream().map(adjuster -> (LongUnaryOperator) adjuster::adjustEpochSecond)
+				.toArray(LongUnaryOperator[]::new);
+		return epochSecond -> nearestOf(operators, SECONDS_PER_DAY, epochSecond);
+	}
+
+	/**
+	 * {@link ForwardOnlyTemporalAdjuster#adjustInto(Temporal)} in ticks.
+	 */
+	private static long forwardOnly(LongUnaryOperator adjuster, long months, long days, int ticksPerDay, long tick) {
+		long beforeAttempt = tick;
+		long attempt = adjuster.applyAsLong(beforeAttempt);
+		int count = 0;
+		while (true) {
+			if (attempt == INVALID || Math.abs(attempt - tick) > FAR_DAYS * ticksPerDay)
+				return INVALID;
+			if (attempt > tick)
+				return attempt;
+			beforeAttempt = plus(beforeAttempt, months, days, ticksPerDay);
+			if (beforeAttempt == INVALID)
+				return INVALID;
+			attempt = adjuster.applyAsLong(beforeAttempt);
+			if (count++ >= ForwardOnlyTemporalAdjuster.SAFETY_CUTOFF)
+				return INVALID;
+		}
+	}
+
+	/**
+	 * {@link NearestOfCompoundTemporalAdjuster#adjustInto(Temporal)} in ticks.
+	 * Ties go to the first adjuster, and an exact match ends the search, as
+	 * they do there.
+	 */
+	private static long nearestOf(LongUnaryOperator[] adjusters, int ticksPerDay, long tick) {
+		long closest = INVALID;
+		long closestDistance = Long.MAX_VALUE;
+		for (LongUnaryOperator adjuster : adjusters) {
+			long adjusted = adjuster.applyAsLong(tick);
+			if (adjusted == INVALID)
+				return INVALID;
+			long distance = Math.abs(adjusted - tick);
+			if (distance == 0)
+				return adjusted;
+			if (distance > FAR_DAYS * ticksPerDay)
+				return INVALID;
+			if (distance < closestDistance) {
+				closest = adjusted;
+				closestDistance = distance;
+			}
+		}
+		return closest;
+	}
+
+	private static long plus(long tick, long months, long days, int ticksPerDay) {
+		long epochDay = EpochDays.plus(Math.floorDiv(tick, ticksPerDay), months, days);
+		return epochDay == INVALID ? INVALID : epochDay * ticksPerDay + Math.floorMod(tick, ticksPerDay);
+	}
+
+}
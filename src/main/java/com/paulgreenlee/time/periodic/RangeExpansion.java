@@ -0,0 +1,193 @@
+package com.paulgreenlee.time.periodic;
+
+import java.time.DateTimeException;
+import java.time.temporal.Temporal;
+import java.time.temporal.TemporalQueries;
+import java.time.temporal.TemporalUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * <p>
+ * Lists the occurrences of a rule between two points in parallel. The range
+ * is cut into chunks a whole number of periods long, and each chunk is
+ * expanded on the common {@link ForkJoinPool} as if it were the start of its
+ * own sequence.
+ * </p>
+ * <p>
+ * That is not always the same as the sequence from the real start: a rule such
+ * as every other week depends on where it starts counting. So the chunks are
+ * stitched together in order, and each one is only accepted if applying the
+ * rule to the last occurrence accepted so far gives the first occurrence of the
+ * chunk. Since every later occurrence follows from the one before, the rest of
+ * the chunk is then correct too. A chunk that fails the check is expanded
+ * again from the last accepted occurrence. The result is always exactly the
+ * sequential expansion, and for rules that do not depend on their start,
+ * which is most of them, it costs one extra adjustment per chunk.
+ * </p>
+ *
+ * @author Paul Greenlee
+ *
+ * @param <T>
+ *            the type of Temporal being expanded
+ */
+final class RangeExpansion<T extends Temporal> extends RecursiveAction {
+
+	private static final long serialVersionUID = 1L;
+
+	/** Chunks per thread, so threads that finish early can take more. */
+	private static final int CHUNKS_PER_THREAD = 4;
+	/** Ranges shorter than this many periods per chunk are not worth splitting. */
+	private static final int MIN_PERIODS_PER_CHUNK = 16;
+
+	private final ForwardOnlyTemporalAdjuster rule;
+	private final TemporalUnit precision;
+	private final List<T> boundaries;
+	/** For each chunk, either its occurrences or the exception thrown finding them. */
+	private final Object[] results;
+	private final int from;
+	private final int to;
+
+	private RangeExpansion(ForwardOnlyTemporalAdjuster rule, TemporalUnit precision, List<T> boundaries,
+			Object[] results, int from, int to) {
+		this.rule = rule;
+		this.precision = precision;
+		this.boundaries = boundaries;
+		this.results = results;
+		this.from = from;
+		this.to = to;
+	}
+
+	/**
+	 * The occurrences after {@code start} and before {@code end}, the same as
+	 * {@link Occurrences#occurrences(PeriodicTemporalAdjuster, Temporal, Temporal)}
+	 * would give.
+	 */
+	static <T extends Temporal> List<T> expand(PeriodicTemporalAdjuster periodic, T start, T end) {
+		Objects.requireNonNull(periodic, "rule is required");
+		Objects.requireNonNull(start, "start is required");
+		Objects.requireNonNull(end, "end is required");
+		ForwardOnlyTemporalAdjuster rule = periodic instanceof ForwardOnlyTemporalAdjuster
+				? (ForwardOnlyTemporalAdjuster) periodic : ForwardOnlyTemporalAdjuster.of(periodic);
+		TemporalUnit precision = start.query(TemporalQueries.precision());
+		List<T> occurrences = new ArrayList<>();
+		List<T> boundaries = boundaries(rule, precision, start, end);
+		if (boundaries.size() <= 2) {
+			expand(rule, precision, start, end, occurrences);
+			return Collections.unmodifiableList(occurrences);
+		}
+
+		Object[] results = new Object[boundaries.size() - 1];
+		ForkJoinPool.commonPool().invoke(new RangeExpansion<>(rule, precision, boundaries, results, 0, results.length));
+
+		T last = start;
+		T next = null;
+		for (int i = 0; i < results.length; i++) {
+			T chunkEnd = boundaries.get(i + 1);
+			if (next == null)
+				next = next(rule, precision, last);
+			if (!isBefore(precision, next, chunkEnd))
+				continue;
+			List<T> chunk = chunk(results[i]);
+			if (chunk != null && !chunk.isEmpty() && chunk.get(0).equals(next)) {
+				occurrences.addAll(chunk);
+			} else {
+				occurrences.add(next);
+				expand(rule, precision, next, chunkEnd, occurrences);
+			}
+			last = occurrences.get(occurrences.size() - 1);
+			next = null;
+		}
+		return Collections.unmodifiableList(occurrences);
+	}
+
+	/**
+	 * The start, then every few periods up to the end, then the end. Just the
+	 * start and the end if the range is too short to split or the period does
+	 * not move forward.
+	 */
+	private static <T extends Temporal> List<T> boundaries(ForwardOnlyTemporalAdjuster rule, TemporalUnit precision, T start, T end) {
+		List<T> points = new ArrayList<>();
+		T point = start;
+		try {
+			while (isBefore(precision, point, end)) {
+				points.add(point);
+				T following = nextPeriod(rule, point);
+				if (!isBefore(precision, point, following))
+					return startAndEnd(start, end);
+				point = following;
+			}
+		} catch (DateTimeException | ArithmeticException e) {
+			// The period cannot be added to this kind of temporal, or runs out of range.
+			return startAndEnd(start, end);
+		}
+		int chunks = ForkJoinPool.getCommonPoolParallelism() * CHUNKS_PER_THREAD;
+		int periodsPerChunk = Math.max(MIN_PERIODS_PER_CHUNK, (points.size() + chunks - 1) / chunks);
+		List<T> boundaries = new ArrayList<>();
+		for (int i = 0; i < points.size(); i += periodsPerChunk)
+			boundaries.add(points.get(i));
+		boundaries.add(end);
+		return boundaries;
+	}
+
+	private static <T extends Temporal> List<T> startAndEnd(T start, T end) {
+		List<T> boundaries = new ArrayList<>();
+		boundaries.add(start);
+		boundaries.add(end);
+		return boundaries;
+	}
+
+	@Override
+	protected void compute() {
+		if (to - from > 1) {
+			int middle = (from + to) >>> 1;
+			invokeAll(new RangeExpansion<>(rule, precision, boundaries, results, from, middle),
+					new RangeExpansion<>(rule, precision, boundaries, results, middle, to));
+			return;
+		}
+		List<T> chunk = new ArrayList<>();
+		try {
+			expand(rule, precision, boundaries.get(from), boundaries.get(from + 1), chunk);
+			results[from] = chunk;
+		} catch (RuntimeException e) {
+			// Only matters if the sequential expansion gets here too, and then it throws for itself.
+			results[from] = e;
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <T extends Temporal> List<T> chunk(Object result) {
+		return result instanceof List ? (List<T>) result : null;
+	}
+
+	/**
+	 * Adds the occurrences after {@code from} and before {@code to}.
+	 */
+	private static <T extends Temporal> void expand(ForwardOnlyTemporalAdjuster rule, TemporalUnit precision,
+			T from, T to, List<T> into) {
+		T next = next(rule, precision, from);
+		while (isBefore(precision, next, to)) {
+			into.add(next);
+			next = next(rule, precision, next);
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <T extends Temporal> T next(ForwardOnlyTemporalAdjuster rule, TemporalUnit precision, T temporal) {
+		return (T) rule.next(temporal, precision);
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <T extends Temporal> T nextPeriod(ForwardOnlyTemporalAdjuster rule, T temporal) {
+		return (T) rule.nextPeriod(temporal);
+	}
+
+	private static boolean isBefore(TemporalUnit precision, Temporal temporal, Temporal other) {
+		return precision.between(temporal, other) > 0;
+	}
+
+}
@@ -0,0 +1,626 @@
+package com.paulgreenlee.time.periodic;
+
+import java.time.DateTimeException;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.MonthDay;
+import java.time.Period;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoField;
+import java.time.temporal.Temporal;
+import java.time.temporal.TemporalQueries;
+import java.time.temporal.TemporalUnit;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+/**
+ * <p>
+ * A recurrence rule in the iCalendar format of RFC 5545, such as
+ * {@code FREQ=MONTHLY;BYDAY=MO,TU,WE,TH,FR;BYSETPOS=-1} for the last weekday
+ * of every month, compiled to a {@link PeriodicTemporalAdjuster}.
+ * </p>
+ * <p>
+ * The rule parts understood are {@code FREQ} (daily, weekly, monthly or
+ * yearly), {@code INTERVAL}, {@code COUNT}, {@code UNTIL}, {@code BYMONTH},
+ * {@code BYMONTHDAY}, {@code BYDAY}, {@code BYSETPOS} and {@code WKST}. Parts
+ * that set the time of day, and {@code BYYEARDAY} and {@code BYWEEKNO}, are
+ * rejected, as are numbered days of the week within the year and set
+ * positions for daily and weekly rules. Occurrences keep the time of day of
+ * the start, which takes the place of {@code DTSTART}.
+ * </p>
+ * <p>
+ * Rules that say which days they fall on compile once, when they are parsed,
+ * and the adjuster is shared by every start. Rules that take their days from
+ * the start, such as a plain {@code FREQ=MONTHLY}, or count an interval from
+ * it, compile for each start. The simplest rules compile to what
+ * {@link PeriodicTemporalAdjusters} would give, for example
+ * {@code weekly(DayOfWeek.MONDAY)} for {@code FREQ=WEEKLY;BYDAY=MO}. The rest
+ * compile to a single adjuster to the first day of the rule on or after a
+ * date, stepped a day at a time.
+ * </p>
+ * <p>
+ * Parsing is a single pass over the text. Use a {@link RecurrenceRuleCache} to
+ * parse each distinct rule only once.
+ * </p>
+ *
+ * @author Paul Greenlee
+ *
+ */
+public final class RecurrenceRule {
+
+	public enum Frequency {
+		DAILY, WEEKLY, MONTHLY, YEARLY
+	}
+
+	private static final String[] DAY_CODES = { "MO", "TU", "WE", "TH", "FR", "SA", "SU" };
+	private static final Period ONE_DAY = Period.ofDays(1);
+	/** Bits 1 to 12. */
+	private static final long ALL_MONTHS = 0x1ffe;
+
+	private final Frequency frequency;
+	private final int interval;
+	private final long count;
+	private final LocalDateTime until;
+	private final boolean untilIsDate;
+	private final boolean untilIsUtc;
+	/** Bits 1 to 12. */
+	private final long byMonth;
+	/** Bits 1 to 31 for days from the start of the month, 33 to 63 for days from the end. */
+	private final long byMonthDay;
+	/** Bits 1 to 7, Monday to Sunday, for every such day. */
+	private final long byDay;
+	/** Ordinals in the month for each day of the week, as {@link CalendarAdjusters#nearestDayOfWeekInMonth} has them. */
+	private final int[] byDayOrdinals;
+	private final int[] bySetPos;
+	private final int weekStart;
+	private final PeriodicTemporalAdjuster compiled;
+
+	private RecurrenceRule(Parser parser) {
+		this.frequency = parser.frequency;
+		this.interval = parser.interval;
+		this.count = parser.count;
+		this.until = parser.until;
+		this.untilIsDate = parser.untilIsDate;
+		this.untilIsUtc = parser.untilIsUtc;
+		this.byMonth = parser.byMonth;
+		this.byMonthDay = parser.byMonthDay;
+		this.byDay = parser.byDay;
+		this.byDayOrdinals = parser.byDayOrdinals;
+		this.bySetPos = parser.bySetPos;
+		this.weekStart = parser.weekStart;
+		this.compiled = takesDaysFromStart() || interval > 1 ? null : compile(null);
+	}
+
+	/**
+	 * Parses a rule, with or without the {@code RRULE:} in front of it.
+	 *
+	 * @throws IllegalArgumentException
+	 *             if the rule is not valid, uses parts that are not
+	 *             understood, or can never occur, such as
+	 *             {@code FREQ=YEARLY;BYMONTH=2;BYMONTHDAY=30}
+	 */
+	public static RecurrenceRule parse(CharSequence text) {
+		return new RecurrenceRule(new Parser(Objects.requireNonNull(text, "text is required").toString()).parse());
+	}
+
+	public Frequency getFrequency() {
+		return frequency;
+	}
+
+	public int getInterval() {
+		return interval;
+	}
+
+	/**
+	 * The adjuster for a rule that starts at the given temporal, to be used
+	 * like any other rule, with
+	 * {@link PeriodicTemporalAdjusters#forwardOnlyOf(PeriodicTemporalAdjuster)}
+	 * or {@link Occurrences}. {@code COUNT} and {@code UNTIL} are not part of
+	 * it; {@link #occurrences(Temporal)} applies them.
+	 *
+	 * @throws DateTimeException
+	 *             if the start has no date, or the rule never occurs from
+	 *             it, as {@code FREQ=MONTHLY;BYMONTH=2} does from the 30th
+	 */
+	public PeriodicTemporalAdjuster toAdjuster(Temporal start) {
+		LocalDate date = startDate(start);
+		return compiled != null ? compiled : compile(date);
+	}
+
+	/**
+	 * Every occurrence of the rule, beginning with the start itself if it is
+	 * one, and ending as {@code COUNT} or {@code UNTIL} say. A rule with
+	 * neither gives an infinite stream. An {@code UNTIL} in UTC is compared
+	 * with the instant of a start that has one, and with the local date-time
+	 * otherwise.
+	 */
+	public <T extends Temporal> Stream<T> occurrences(T start) {
+		PeriodicTemporalAdjuster adjuster = toAdjuster(start);
+		T end = until == null ? null : end(start);
+		Stream<T> following = end == null ? Occurrences.occurrences(adjuster, start)
+				: Occurrences.occurrences(adjuster, start, end);
+		boolean first = isOccurrence(adjuster, start)
+				&& (end == null || start.until(end, start.query(TemporalQueries.precision())) > 0);
+		Stream<T> all = first ? Stream.concat(Stream.of(start), following) : following;
+		return count > 0 ? all.limit(count) : all;
+	}
+
+	private static boolean isOccurrence(PeriodicTemporalAdjuster adjuster, Temporal start) {
+		try {
+			return start.with(adjuster).equals(start);
+		} catch (DateTimeException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * The first temporal after {@code UNTIL}.
+	 */
+	@SuppressWarnings("unchecked")
+	private <T extends Temporal> T end(T start) {
+		TemporalUnit precision = start.query(TemporalQueries.precision());
+		if (!start.isSupported(ChronoField.NANO_OF_DAY))
+			return (T) start.with(until.toLocalDate()).plus(1, precision);
+		if (untilIsDate)
+			return (T) start.with(until.toLocalDate().plusDays(1)).with(LocalTime.MIDNIGHT);
+		if (untilIsUtc && start.isSupported(ChronoField.INSTANT_SECONDS))
+			return (T) start.with(ChronoField.INSTANT_SECONDS, until.toEpochSecond(ZoneOffset.UTC))
+					.with(ChronoField.NANO_OF_SECOND, 0).plus(1, precision);
+		return (T) start.with(until.toLocalDate()).with(until.toLocalTime()).plus(1, precision);
+	}
+
+	private static LocalDate startDate(Temporal start) {
+		LocalDate date = Objects.requireNonNull(start, "start is required").query(TemporalQueries.localDate());
+		if (date == null)
+			throw new DateTimeException("A recurrence needs a start with a date: " + start);
+		return date;
+	}
+
+	/**
+	 * Whether the rule says nothing about the day, which then comes from the
+	 * start.
+	 */
+	private boolean takesDaysFromStart() {
+		return byMonthDay == 0 && byDay == 0 && byDayOrdinals == null && frequency != Frequency.DAILY;
+	}
+
+	private PeriodicTemporalAdjuster compile(LocalDate start) {
+		long months = byMonth;
+		long monthDays = byMonthDay;
+		long days = byDay;
+		if (start != null && takesDaysFromStart()) {
+			if (frequency == Frequency.WEEKLY) {
+				days = 1L << start.getDayOfWeek().getValue();
+			} else {
+				monthDays = 1L << start.getDayOfMonth();
+				if (frequency == Frequency.YEARLY && months == 0)
+					months = 1L << start.getMonthValue();
+			}
+		}
+		if (interval == 1 && bySetPos.length == 0) {
+			PeriodicTemporalAdjuster simple = simplest(months, monthDays, days);
+			if (simple != null)
+				return simple;
+		}
+		long[] masks = masks(monthDays, days, byDayOrdinals);
+		long anchor = start == null ? 0 : RecurrenceSetAdjuster.period(frequency, weekStart, start.toEpochDay());
+		int effectiveWeekStart = frequency == Frequency.WEEKLY && interval > 1 ? weekStart : 1;
+		RecurrenceSetAdjuster set = new RecurrenceSetAdjuster(frequency, interval, anchor, effectiveWeekStart,
+				months == 0 ? ALL_MONTHS : months, masks, bySetPos, toString());
+		// Months can have the days and still none be an occurrence, when the set positions ask for more days than
+		// there are, or the interval only lands on days that are not allowed. Finding out once here saves every
+		// adjustment a search that is bound to fail.
+		if (set.adjustEpochDay(start == null ? 0 : start.toEpochDay()) == EpochDayAdjuster.INVALID) {
+			if (start == null)
+				throw new IllegalArgumentException("Invalid recurrence rule " + this + ": it has no occurrences");
+			throw new DateTimeException("The recurrence " + this + " has no occurrences from " + start);
+		}
+		return new SimplePeriodicTemporalAdjuster(set, ONE_DAY);
+	}
+
+	/**
+	 * What {@link PeriodicTemporalAdjusters} would give for the rule, if it is
+	 * that simple.
+	 */
+	private PeriodicTemporalAdjuster simplest(long months, long monthDays, long days) {
+		boolean onlyDays = months == 0 && monthDays == 0 && byDayOrdinals == null && days != 0;
+		if (onlyDays && frequency == Frequency.WEEKLY) {
+			DayOfWeek[] members = daysOfWeek(days);
+			return members.length == 1 ? PeriodicTemporalAdjusters.weekly(members[0])
+					: PeriodicTemporalAdjusters.weeklyOnDays(members[0], Arrays.copyOfRange(members, 1, members.length));
+		}
+		if (days != 0 || byDayOrdinals != null || Long.bitCount(monthDays) != 1 || monthDays >>> 29 != 0)
+			return null;
+		int day = Long.numberOfTrailingZeros(monthDays);
+		if (frequency == Frequency.MONTHLY && months == 0)
+			return PeriodicTemporalAdjusters.monthly(CalendarAdjusters.field(ChronoField.DAY_OF_MONTH, day));
+		if (frequency == Frequency.YEARLY && Long.bitCount(months) == 1) {
+			int month = Long.numberOfTrailingZeros(months);
+			return PeriodicTemporalAdjusters.annually(MonthDay.of(month, day));
+		}
+		return null;
+	}
+
+	/**
+	 * The days of the month allowed, for each shape of month.
+	 */
+	private static long[] masks(long monthDays, long days, int[] byDayOrdinals) {
+		long[] masks = new long[28];
+		for (int firstDayOfWeek = 1; firstDayOfWeek <= 7; firstDayOfWeek++) {
+			for (int length = 28; length <= 31; length++) {
+				long all = ((1L << length) - 1) << 1;
+				long mask = all;
+				if (monthDays != 0) {
+					long fromEnd = 0;
+					for (int n = 1; n <= length; n++) {
+						if ((monthDays & (1L << (32 + n))) != 0)
+							fromEnd |= 1L << (length + 1 - n);
+					}
+					mask &= monthDays | fromEnd;
+				}
+				if (days != 0 || byDayOrdinals != null) {
+					long weekdays = byDayOrdinals == null ? 0
+							: CalendarAdjusters.DayOfWeekInMonthSetAdjuster.daysOfMonth(byDayOrdinals, firstDayOfWeek, length);
+					for (int dayOfWeek = 1; dayOfWeek <= 7; dayOfWeek++) {
+						if ((days & (1L << dayOfWeek)) == 0)
+							continue;
+						for (int day = 1 + Math.floorMod(dayOfWeek - firstDayOfWeek, 7); day <= length; day += 7)
+							weekdays |= 1L << day;
+					}
+					mask &= weekdays;
+				}
+				masks[RecurrenceSetAdjuster.shape(firstDayOfWeek, length)] = mask & all;
+			}
+		}
+		return masks;
+	}
+
+	private static DayOfWeek[] daysOfWeek(long days) {
+		DayOfWeek[] members = new DayOfWeek[Long.bitCount(days)];
+		int i = 0;
+		for (DayOfWeek dayOfWeek : DayOfWeek.values()) {
+			if ((days & (1L << dayOfWeek.getValue())) != 0)
+				members[i++] = dayOfWeek;
+		}
+		return members;
+	}
+
+	@Override
+	public int hashCode() {
+		final int prime = 31;
+		int result = 1;
+		result = prime * result + frequency.hashCode();
+		result = prime * result + interval;
+		result = prime * result + Long.hashCode(count);
+		result = prime * result + Objects.hashCode(until);
+		result = prime * result + Long.hashCode(byMonth);
+		result = prime * result + Long.hashCode(byMonthDay);
+		result = prime * result + Long.hashCode(byDay);
+		result = prime * result + Arrays.hashCode(byDayOrdinals);
+		result = prime * result + Arrays.hashCode(bySetPos);
+		result = prime * result + weekStart;
+		return result;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		RecurrenceRule other = (RecurrenceRule) obj;
+		return frequency == other.frequency && interval == other.interval && count == other.count
+				&& Objects.equals(until, other.until) && untilIsDate == other.untilIsDate
+				&& untilIsUtc == other.untilIsUtc && byMonth == other.byMonth && byMonthDay == other.byMonthDay
+				&& byDay == other.byDay && Arrays.equals(byDayOrdinals, other.byDayOrdinals)
+				&& Arrays.equals(bySetPos, other.bySetPos) && weekStart == other.weekStart;
+	}
+
+	/**
+	 * The rule in a standard form, with its parts in the same order whatever
+	 * order they were parsed in.
+	 */
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder("FREQ=").append(frequency);
+		if (interval > 1)
+			builder.append(";INTERVAL=").append(interval);
+		if (count > 0)
+			builder.append(";COUNT=").append(count);
+		if (until != null) {
+			builder.append(";UNTIL=").append(String.format("%04d%02d%02d", until.getYear(), until.getMonthValue(),
+					until.getDayOfMonth()));
+			if (!untilIsDate)
+				builder.append(String.format("T%02d%02d%02d", until.getHour(), until.getMinute(), until.getSecond()))
+						.append(untilIsUtc ? "Z" : "");
+		}
+		if (byMonth != 0)
+			appendBits(builder.append(";BYMONTH="), byMonth, 1, 12, 1);
+		if (byMonthDay != 0) {
+			builder.append(";BYMONTHDAY=");
+			appendBits(builder, byMonthDay, 1, 31, 1);
+			appendBits(builder, byMonthDay, 33, 63, -1);
+		}
+		if (byDay != 0 || byDayOrdinals != null) {
+			builder.append(";BYDAY=");
+			for (int dayOfWeek = 1; dayOfWeek <= 7; dayOfWeek++) {
+				int ordinals = byDayOrdinals == null ? 0 : byDayOrdinals[dayOfWeek - 1];
+				for (int bit = 0; bit < 10; bit++) {
+					if ((ordinals & (1 << bit)) != 0)
+						separate(builder).append(bit < 5 ? bit + 1 : 4 - bit).append(DAY_CODES[dayOfWeek - 1]);
+				}
+				if ((byDay & (1L << dayOfWeek)) != 0)
+					separate(builder).append(DAY_CODES[dayOfWeek - 1]);
+			}
+		}
+		if (bySetPos.length > 0) {
+			builder.append(";BYSETPOS=");
+			for (int position : bySetPos)
+				separate(builder).append(position);
+		}
+		if (weekStart != 1)
+			builder.append(";WKST=").append(DAY_CODES[weekStart - 1]);
+		return builder.toString();
+	}
+
+	private static void appendBits(StringBuilder builder, long bits, int from, int to, int sign) {
+		for (int bit = from; bit <= to; bit++) {
+			if ((bits & (1L << bit)) != 0)
+				separate(builder).append(sign * (bit - from + 1));
+		}
+	}
+
+	private static StringBuilder separate(StringBuilder builder) {
+		char last = builder.charAt(builder.length() - 1);
+		return last == '=' ? builder : builder.append(',');
+	}
+
+	/**
+	 * A single pass over the text of a rule.
+	 */
+	private static final class Parser {
+
+		private final String text;
+		private int index;
+		private Frequency frequency;
+		private int interval = 1;
+		private long count;
+		private LocalDateTime until;
+		private boolean untilIsDate;
+		private boolean untilIsUtc;
+		private long byMonth;
+		private long byMonthDay;
+		private long byDay;
+		private int[] byDayOrdinals;
+		private int[] bySetPos = new int[0];
+		private int weekStart = 1;
+		private int seen;
+
+		Parser(String text) {
+			this.text = text;
+		}
+
+		Parser parse() {
+			if (text.regionMatches(true, 0, "RRULE:", 0, 6))
+				index = 6;
+			while (index < text.length()) {
+				int equals = text.indexOf('=', index);
+				if (equals < 0)
+					throw invalid("a rule part has no value");
+				int end = text.indexOf(';', equals);
+				if (end < 0)
+					end = text.length();
+				part(equals, end);
+				index = end + 1;
+			}
+			if (frequency == null)
+				throw invalid("FREQ is required");
+			if (count > 0 && until != null)
+				throw invalid("COUNT and UNTIL cannot both be given");
+			if (byDayOrdinals != null) {
+				if (frequency == Frequency.DAILY || frequency == Frequency.WEEKLY)
+					throw invalid("numbered days of the week need a MONTHLY or YEARLY frequency");
+				if (frequency == Frequency.YEARLY && byMonth == 0)
+					throw unsupported("numbered days of the week within the year");
+			}
+			if (byMonthDay != 0 && frequency == Frequency.WEEKLY)
+				throw invalid("BYMONTHDAY cannot be used with a WEEKLY frequency");
+			if (bySetPos.length > 0) {
+				if (frequency == Frequency.DAILY || frequency == Frequency.WEEKLY)
+					throw unsupported("BYSETPOS with a " + frequency + " frequency");
+				if (byMonth == 0 && byMonthDay == 0 && byDay == 0 && byDayOrdinals == null)
+					throw invalid("BYSETPOS needs another BYxxx rule part");
+			}
+			if ((byMonthDay != 0 || byDay != 0 || byDayOrdinals != null) && !RecurrenceSetAdjuster
+					.anyDays(byMonth == 0 ? ALL_MONTHS : byMonth, masks(byMonthDay, byDay, byDayOrdinals)))
+				throw invalid("no month has a day that meets BYMONTH, BYMONTHDAY and BYDAY");
+			return this;
+		}
+
+		private void part(int equals, int end) {
+			int start = index;
+			int name = partName(start, equals);
+			if ((seen & (1 << name)) != 0)
+				throw invalid(text.substring(start, equals) + " is given more than once");
+			seen |= 1 << name;
+			int from = equals + 1;
+			switch (name) {
+			case 0:
+				frequency = frequency(from, end);
+				break;
+			case 1:
+				interval = number(from, end, 1, Integer.MAX_VALUE, "INTERVAL");
+				break;
+			case 2:
+				count = number(from, end, 1, Integer.MAX_VALUE, "COUNT");
+				break;
+			case 3:
+				until(from, end);
+				break;
+			case 4:
+				for (int value = from; value < end; value = next(value, end))
+					byMonth |= 1L << number(value, valueEnd(value, end), 1, 12, "BYMONTH");
+				break;
+			case 5:
+				for (int value = from; value < end; value = next(value, end)) {
+					int day = number(value, valueEnd(value, end), -31, 31, "BYMONTHDAY");
+					if (day == 0)
+						throw invalid("BYMONTHDAY cannot be 0");
+					byMonthDay |= 1L << (day > 0 ? day : 32 - day);
+				}
+				break;
+			case 6:
+				for (int value = from; value < end; value = next(value, end))
+					day(value, valueEnd(value, end));
+				break;
+			case 7:
+				int size = 0;
+				int[] positions = new int[8];
+				for (int value = from; value < end; value = next(value, end)) {
+					int position = number(value, valueEnd(value, end), -366, 366, "BYSETPOS");
+					if (position == 0)
+						throw invalid("BYSETPOS cannot be 0");
+					if (size == positions.length)
+						positions = Arrays.copyOf(positions, size * 2);
+					positions[size++] = position;
+				}
+				bySetPos = Arrays.stream(positions, 0, size).sorted().distinct().toArray();
+				break;
+			default:
+				weekStart = dayOfWeek(from, end);
+			}
+		}
+
+		private int partName(int start, int end) {
+			String[] names = { "FREQ", "INTERVAL", "COUNT", "UNTIL", "BYMONTH", "BYMONTHDAY", "BYDAY", "BYSETPOS", "WKST" };
+			for (int i = 0; i < names.length; i++) {
+				if (end - start == names[i].length() && text.regionMatches(true, start, names[i], 0, end - start))
+					return i;
+			}
+			String name = text.substring(start, end);
+			switch (name.toUpperCase()) {
+			case "BYSECOND":
+			case "BYMINUTE":
+			case "BYHOUR":
+			case "BYYEARDAY":
+			case "BYWEEKNO":
+				throw unsupported(name);
+			default:
+				throw invalid("unknown rule part " + name);
+			}
+		}
+
+		private Frequency frequency(int from, int end) {
+			for (Frequency frequency : Frequency.values()) {
+				if (matches(from, end, frequency.name()))
+					return frequency;
+			}
+			if (matches(from, end, "HOURLY") || matches(from, end, "MINUTELY") || matches(from, end, "SECONDLY"))
+				throw unsupported("FREQ=" + text.substring(from, end));
+			throw invalid("unknown frequency " + text.substring(from, end));
+		}
+
+		private void until(int from, int end) {
+			int length = end - from;
+			boolean utc = length == 16 && Character.toUpperCase(text.charAt(end - 1)) == 'Z';
+			if (length != 8 && length != 15 && !utc)
+				throw invalid("UNTIL must be a date or a date-time");
+			try {
+				LocalDate date = LocalDate.of(digits(from, 4), digits(from + 4, 2), digits(from + 6, 2));
+				if (length == 8) {
+					until = date.atStartOfDay();
+					untilIsDate = true;
+				} else {
+					if (Character.toUpperCase(text.charAt(from + 8)) != 'T')
+						throw invalid("UNTIL must be a date or a date-time");
+					until = date.atTime(digits(from + 9, 2), digits(from + 11, 2), digits(from + 13, 2));
+					untilIsUtc = utc;
+				}
+			} catch (DateTimeException e) {
+				throw invalid("UNTIL is not a valid date: " + text.substring(from, end));
+			}
+		}
+
+		private void day(int from, int end) {
+			if (end - from < 2)
+				throw invalid("unknown day of the week " + text.substring(from, end));
+			int dayOfWeek = dayOfWeek(end - 2, end);
+			if (end - from == 2) {
+				byDay |= 1L << dayOfWeek;
+				return;
+			}
+			int ordinal = number(from, end - 2, -53, 53, "BYDAY");
+			if (ordinal == 0)
+				throw invalid("BYDAY cannot be numbered 0");
+			if (ordinal > 5 || ordinal < -5)
+				throw unsupported("BYDAY numbered beyond the fifth in the month");
+			if (byDayOrdinals == null)
+				byDayOrdinals = new int[7];
+			byDayOrdinals[dayOfWeek - 1] |= 1 << (ordinal > 0 ? ordinal - 1 : 4 - ordinal);
+		}
+
+		private int dayOfWeek(int from, int end) {
+			for (int i = 0; i < DAY_CODES.length; i++) {
+				if (matches(from, end, DAY_CODES[i]))
+					return i + 1;
+			}
+			throw invalid("unknown day of the week " + text.substring(from, end));
+		}
+
+		private boolean matches(int from, int end, String value) {
+			return end - from == value.length() && text.regionMatches(true, from, value, 0, end - from);
+		}
+
+		private int number(int from, int end, int min, int max, String part) {
+			int i = from;
+			boolean negative = false;
+			if (i < end && (text.charAt(i) == '+' || text.charAt(i) == '-'))
+				negative = text.charAt(i++) == '-';
+			if (i == end || end - i > 10)
+				throw invalid(part + " is not a number: " + text.substring(from, end));
+			long value = 0;
+			for (; i < end; i++) {
+				char c = text.charAt(i);
+				if (c < '0' || c > '9')
+					throw invalid(part + " is not a number: " + text.substring(from, end));
+				value = value * 10 + (c - '0');
+			}
+			if (negative)
+				value = -value;
+			if (value < min || value > max)
+				throw invalid(part + " is out of range: " + text.substring(from, end));
+			return (int) value;
+		}
+
+		private int digits(int from, int length) {
+			return number(from, from + length, 0, Integer.MAX_VALUE, "UNTIL");
+		}
+
+		private int valueEnd(int from, int end) {
+			int comma = text.indexOf(',', from);
+			return comma < 0 || comma > end ? end : comma;
+		}
+
+		private int next(int from, int end) {
+			int valueEnd = valueEnd(from, end);
+			if (valueEnd == from)
+				throw invalid("a value is empty");
+			return valueEnd + 1;
+		}
+
+		private IllegalArgumentException invalid(String reason) {
+			return new IllegalArgumentException("Invalid recurrence rule " + text + ": " + reason);
+		}
+
+		private IllegalArgumentException unsupported(String what) {
+			return new IllegalArgumentException("Unsupported in recurrence rule " + text + ": " + what);
+		}
+
+	}
+
+}
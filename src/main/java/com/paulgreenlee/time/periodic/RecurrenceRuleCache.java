@@ -0,0 +1,61 @@
+package com.paulgreenlee.time.periodic;
+
+import java.util.Objects;
+
+/**
+ * <p>
+ * A thread safe cache of parsed {@link RecurrenceRule}s, keyed by their text,
+ * so that a rule stored many times over, as recurring events usually are, is
+ * parsed and compiled only once. Rules that cannot be parsed are not kept.
+ * </p>
+ * <p>
+ * When the bound is exceeded the least recently used rules are dropped. They
+ * are parsed again the next time they are needed.
+ * </p>
+ *
+ * @author Paul Greenlee
+ *
+ */
+public class RecurrenceRuleCache {
+
+	private static final long DEFAULT_MAX_ENTRIES = 100_000;
+
+	private static final RecurrenceRuleCache SHARED = new RecurrenceRuleCache(DEFAULT_MAX_ENTRIES);
+
+	private final BoundedCache<String, RecurrenceRule> rules;
+
+	public RecurrenceRuleCache(long maxEntries) {
+		this.rules = new BoundedCache<>(maxEntries, rule -> 1);
+	}
+
+	/**
+	 * A cache shared by the whole application, bounded at 100,000 rules.
+	 */
+	public static RecurrenceRuleCache shared() {
+		return SHARED;
+	}
+
+	/**
+	 * The rule for the text, parsing it if necessary.
+	 *
+	 * @throws IllegalArgumentException
+	 *             if the rule is not valid or uses parts that are not
+	 *             understood
+	 */
+	public RecurrenceRule get(String text) {
+		return rules.get(Objects.requireNonNull(text, "text is required"), RecurrenceRule::parse);
+	}
+
+	public int size() {
+		return rules.size();
+	}
+
+	public long maxEntries() {
+		return rules.maxWeight();
+	}
+
+	public void clear() {
+		rules.invalidateAll();
+	}
+
+}
@@ -0,0 +1,325 @@
+package com.paulgreenlee.time.periodic;
+
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.temporal.ChronoField;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.Temporal;
+import java.time.temporal.TemporalAdjuster;
+import java.util.Arrays;
+
+/**
+ * <p>
+ * The days of a {@link RecurrenceRule}: adjusts to the first of them on or
+ * after the date, which the {@link ForwardOnlyTemporalAdjuster} around it
+ * turns into the first after. The time of day is left alone.
+ * </p>
+ * <p>
+ * Everything the rule says about a single month is compiled to a bitmask of
+ * its days for each of the 28 shapes a month can have, its first day of the
+ * week and its length. Finding a day is then a matter of looking the mask up
+ * month by month, taking out the periods the interval skips and picking the
+ * positions asked for, with nothing built along the way but the result.
+ * Months with no day in a period the interval keeps are jumped over rather
+ * than looked at, so a large interval costs no more than a small one.
+ * </p>
+ *
+ * @author Paul Greenlee
+ *
+ */
+final class RecurrenceSetAdjuster implements TemporalAdjuster, EpochDayAdjuster {
+
+	private final RecurrenceRule.Frequency frequency;
+	private final int interval;
+	/** The index of the first period, from which the interval is counted. */
+	private final long anchor;
+	private final int weekStart;
+	/** Bits 1 to 12 for the months allowed. */
+	private final long months;
+	/** Days of the month allowed, indexed by first day of the week and length of the month. */
+	private final long[] masks;
+	private final int[] setPositions;
+	private final String description;
+	private final long searchLimit;
+
+	RecurrenceSetAdjuster(RecurrenceRule.Frequency frequency, int interval, long anchor, int weekStart, long months,
+			long[] masks, int[] setPositions, String description) {
+		this.frequency = frequency;
+		this.interval = interval;
+		this.anchor = interval == 1 ? 0 : anchor;
+		this.weekStart = weekStart;
+		this.months = months;
+		this.masks = masks;
+		this.setPositions = setPositions;
+		this.description = description;
+		this.searchLimit = searchLimit(frequency);
+	}
+
+	/**
+	 * The most months to look at before giving up. Only months with a day in
+	 * a period the interval keeps are looked at, and whatever the interval,
+	 * which days those are repeats within a 400 year cycle of them for
+	 * monthly and yearly rules. A weekly rule can take up to 9 cycles, two
+	 * months for each of the 20,871 weeks of a cycle, and a daily one up to
+	 * 31, every month for an interval of 31 days.
+	 */
+	static long searchLimit(RecurrenceRule.Frequency frequency) {
+		switch (frequency) {
+		case DAILY:
+			return 31L * EpochDays.MONTHS_PER_CYCLE;
+		case WEEKLY:
+			return 9L * EpochDays.MONTHS_PER_CYCLE;
+		default:
+			return EpochDays.MONTHS_PER_CYCLE;
+		}
+	}
+
+	/**
+	 * The index of the period of the frequency that contains the epoch day.
+	 */
+	static long period(RecurrenceRule.Frequency frequency, int weekStart, long epochDay) {
+		switch (frequency) {
+		case DAILY:
+			return epochDay;
+		case WEEKLY:
+			// 1970-01-01 was a Thursday.
+			return Math.floorDiv(epochDay + 3 - (weekStart - 1), 7);
+		case MONTHLY:
+			long packed = EpochDays.packed(epochDay);
+			return EpochDays.year(packed) * 12 + EpochDays.month(packed) - 1;
+		default:
+			return EpochDays.year(EpochDays.packed(epochDay));
+		}
+	}
+
+	/**
+	 * The index into the masks of a month.
+	 */
+	static int shape(int firstDayOfWeek, int lengthOfMonth) {
+		return (firstDayOfWeek - 1) * 4 + lengthOfMonth - 28;
+	}
+
+	@Override
+	public Temporal adjustInto(Temporal temporal) {
+		long epochDay = temporal.getLong(ChronoField.EPOCH_DAY);
+		long adjusted = adjustEpochDay(epochDay);
+		if (adjusted == INVALID)
+			throw new DateTimeException("No occurrence of " + description + " on or after " + temporal);
+		return adjusted == epochDay ? temporal : temporal.plus(adjusted - epochDay, ChronoUnit.DAYS);
+	}
+
+	@Override
+	public long adjustEpochDay(long epochDay) {
+		long packed = EpochDays.packed(epochDay);
+		long year = EpochDays.year(packed);
+		int month = EpochDays.month(packed);
+		int day = EpochDays.day(packed);
+		boolean positionsInYear = frequency == RecurrenceRule.Frequency.YEARLY && setPositions.length > 0;
+		// The days of the year are worked out together, so once for each year rather than each month.
+		long[] daysOfYear = null;
+		long daysOfYearYear = 0;
+		for (long count = 0; count <= searchLimit; count++) {
+			long days;
+			if (positionsInYear) {
+				if (daysOfYear == null || daysOfYearYear != year) {
+					daysOfYear = daysOfYear(year);
+					daysOfYearYear = year;
+				}
+				days = daysOfYear[month - 1];
+			} else {
+				days = days(year, month);
+			}
+			days &= -1L << day;
+			if (days != 0)
+				return EpochDays.of(year, month, Long.numberOfTrailingZeros(days));
+			day = 1;
+			long next = nextMonth(year * 12 + month - 1);
+			year = Math.floorDiv(next, 12);
+			month = (int) Math.floorMod(next, 12) + 1;
+			if (year > LocalDate.MAX.getYear())
+				return INVALID;
+		}
+		return INVALID;
+	}
+
+	/**
+	 * The first month after the given one, both counted as
+	 * {@code year * 12 + month - 1}, that has a day in a period the interval
+	 * keeps.
+	 */
+	private long nextMonth(long month) {
+		long next = month + 1;
+		if (interval == 1)
+			return next;
+		switch (frequency) {
+		case DAILY:
+			long first = EpochDays.of(Math.floorDiv(next, 12), (int) Math.floorMod(next, 12) + 1, 1);
+			return monthOf(first + Math.floorMod(anchor - first, (long) interval));
+		case WEEKLY:
+			first = EpochDays.of(Math.floorDiv(next, 12), (int) Math.floorMod(next, 12) + 1, 1);
+			long week = period(frequency, weekStart, first);
+			long kept = week + Math.floorMod(anchor - week, (long) interval);
+			// The inverse of period(): the first day of the week.
+			return kept == week ? next : monthOf(kept * 7 - 3 + (weekStart - 1));
+		case MONTHLY:
+			return next + Math.floorMod(anchor - next, (long) interval);
+		default:
+			long year = Math.floorDiv(next, 12);
+			long keptYear = year + Math.floorMod(anchor - year, (long) interval);
+			return keptYear == year ? next : keptYear * 12;
+		}
+	}
+
+	/**
+	 * The month of an epoch day, counted as {@code year * 12 + month - 1}, or
+	 * a month after the last there is if the day is after the last date.
+	 */
+	private static long monthOf(long epochDay) {
+		if (epochDay > EpochDays.MAX)
+			return (LocalDate.MAX.getYear() + 1L) * 12;
+		long packed = EpochDays.packed(epochDay);
+		return EpochDays.year(packed) * 12 + EpochDays.month(packed) - 1;
+	}
+
+	/**
+	 * The days of the month in the recurrence set, as bits 1 to 31, when the
+	 * set positions, if any, count through the month.
+	 */
+	private long days(long year, int month) {
+		long days = candidates(year, month);
+		if (days != 0 && frequency == RecurrenceRule.Frequency.MONTHLY && setPositions.length > 0)
+			days = select(days, Long.bitCount(days), setPositions, 0);
+		return days;
+	}
+
+	/**
+	 * Whether any allowed month, in any of the shapes it can have, has a day
+	 * in the masks.
+	 */
+	static boolean anyDays(long months, long[] masks) {
+		for (int month = 1; month <= 12; month++) {
+			if ((months & (1L << month)) == 0)
+				continue;
+			// 2000 was a leap year and 2001 was not.
+			for (int firstDayOfWeek = 1; firstDayOfWeek <= 7; firstDayOfWeek++) {
+				for (int length = EpochDays.lengthOfMonth(2001, month); length <= EpochDays.lengthOfMonth(2000, month); length++) {
+					if (masks[shape(firstDayOfWeek, length)] != 0)
+						return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * The days of the month allowed by everything but the set positions.
+	 */
+	private long candidates(long year, int month) {
+		if ((months & (1L << month)) == 0)
+			return 0;
+		long first = EpochDays.of(year, month, 1);
+		int length = EpochDays.lengthOfMonth(year, month);
+		long days = masks[shape(EpochDays.dayOfWeek(first), length)];
+		if (days == 0 || interval == 1)
+			return days;
+		long on = 0;
+		switch (frequency) {
+		case DAILY:
+			for (long day = 1 + Math.floorMod(anchor - first, (long) interval); day <= length; day += interval)
+				on |= 1L << day;
+			return days & on;
+		case WEEKLY:
+			long week = period(frequency, weekStart, first);
+			for (int day = 1; day <= length; week++) {
+				int next = day + 7 - Math.floorMod(EpochDays.dayOfWeek(first + day - 1) - weekStart, 7);
+				if (Math.floorMod(week - anchor, interval) == 0)
+					on |= (-1L << day) & ~(-1L << Math.min(next, length + 1));
+				day = next;
+			}
+			return days & on;
+		case MONTHLY:
+			return Math.floorMod(year * 12 + month - 1 - anchor, interval) == 0 ? days : 0;
+		default:
+			return Math.floorMod(year - anchor, interval) == 0 ? days : 0;
+		}
+	}
+
+	/**
+	 * The days of each month of the year in the recurrence set, when the set
+	 * positions count through the whole year.
+	 */
+	private long[] daysOfYear(long year) {
+		long[] days = new long[12];
+		int total = 0;
+		for (int month = 1; month <= 12; month++) {
+			days[month - 1] = candidates(year, month);
+			total += Long.bitCount(days[month - 1]);
+		}
+		int before = 0;
+		for (int month = 1; month <= 12; month++) {
+			long candidates = days[month - 1];
+			if (candidates != 0)
+				days[month - 1] = select(candidates, total, setPositions, before);
+			before += Long.bitCount(candidates);
+		}
+		return days;
+	}
+
+	/**
+	 * The days at the set positions, out of {@code total} days of the period
+	 * of which {@code before} come before these.
+	 */
+	private static long select(long days, int total, int[] setPositions, int before) {
+		long selected = 0;
+		int count = Long.bitCount(days);
+		for (int position : setPositions) {
+			int index = (position > 0 ? position - 1 : total + position) - before;
+			if (index < 0 || index >= count)
+				continue;
+			long remaining = days;
+			for (int i = 0; i < index; i++)
+				remaining &= remaining - 1;
+			selected |= Long.lowestOneBit(remaining);
+		}
+		return selected;
+	}
+
+	@Override
+	public boolean isCyclic() {
+		return interval == 1;
+	}
+
+	@Override
+	public int hashCode() {
+		final int prime = 31;
+		int result = 1;
+		result = prime * result + frequency.hashCode();
+		result = prime * result + interval;
+		result = prime * result + Long.hashCode(anchor);
+		result = prime * result + weekStart;
+		result = prime * result + Long.hashCode(months);
+		result = prime * result + Arrays.hashCode(masks);
+		result = prime * result + Arrays.hashCode(setPositions);
+		return result;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		RecurrenceSetAdjuster other = (RecurrenceSetAdjuster) obj;
+		return frequency == other.frequency && interval == other.interval && anchor == other.anchor
+				&& weekStart == other.weekStart && months == other.months && Arrays.equals(masks, other.masks)
+				&& Arrays.equals(setPositions, other.setPositions);
+	}
+
+	@Override
+	public String toString() {
+		return "RecurrenceSet[" + description + "]";
+	}
+
+}
@@ -0,0 +1,216 @@
+package com.paulgreenlee.time.periodic;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.Month;
+import java.time.MonthDay;
+import java.time.Period;
+import java.time.temporal.ChronoField;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjuster;
+import java.time.temporal.TemporalAmount;
+import java.time.temporal.TemporalUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <p>
+ * Checks a rule once, when it is built, for mistakes that would otherwise
+ * only show up as a search running to its limit every time the rule is used,
+ * and arranges an {@link AllOfCompoundTemporalAdjuster} to reject candidates
+ * sooner. For each all-of rule, at any depth:
+ * </p>
+ * <ul>
+ * <li>Two adjusters that set the same time field to different values can
+ * never both be met.</li>
+ * <li>The period must be at least the range of the largest field the
+ * adjusters constrain, a year for a {@link Month} or a week for a
+ * {@link DayOfWeek}. With a shorter one most attempts land in the same year
+ * or week as the one before, where the adjusters give the same date again, and
+ * a rule that is rarely met runs out of attempts before it is found.</li>
+ * <li>When every date adjuster is one the library knows, which depend on
+ * nothing but the month, the day of the month, the day of the week and
+ * whether the year is a leap year, 28 years are searched for a date all of
+ * them leave alone. Every combination of those comes up in the 28 years from
+ * 2000, so without such a date, as for the 1st of January that is also the
+ * second Monday of the month, no search can ever succeed.</li>
+ * <li>The adjusters are checked against each candidate starting with the one
+ * that fewest dates meet, measured over 28 years, so most candidates are
+ * turned down by the first check. They are still applied in the order given,
+ * which the result depends on.</li>
+ * </ul>
+ *
+ * @author Paul Greenlee
+ *
+ */
+final class RuleAnalyzer {
+
+	/** 2000-01-01, from which the dates are sampled. */
+	private static final long SAMPLE_START = 10957;
+	/** 28 years, in which every kind of year starts on every day of the week. */
+	private static final int SAMPLE_DAYS = 10227;
+
+	private RuleAnalyzer() { }
+
+	/**
+	 * The rule with every all-of rule in it checked and arranged.
+	 *
+	 * @throws IllegalArgumentException
+	 *             if an all-of rule can never be met, or its period is
+	 *             shorter than what it constrains
+	 */
+	static PeriodicTemporalAdjuster compile(PeriodicTemporalAdjuster rule) {
+		return (PeriodicTemporalAdjuster) compile((TemporalAdjuster) rule);
+	}
+
+	private static TemporalAdjuster compile(TemporalAdjuster adjuster) {
+		Class<?> type = adjuster.getClass();
+		if (type == ForwardOnlyTemporalAdjuster.class) {
+			ForwardOnlyTemporalAdjuster forward = (ForwardOnlyTemporalAdjuster) adjuster;
+			TemporalAdjuster inner = compile(forward.adjuster());
+			return inner == forward.adjuster() ? forward
+					: new ForwardOnlyTemporalAdjuster(inner, forward.getPeriod(), forward.getStrategy());
+		}
+		if (type == BackwardOnlyTemporalAdjuster.class) {
+			BackwardOnlyTemporalAdjuster backward = (BackwardOnlyTemporalAdjuster) adjuster;
+			TemporalAdjuster inner = compile(backward.adjuster());
+			return inner == backward.adjuster() ? backward
+					: new BackwardOnlyTemporalAdjuster(inner, backward.getPeriod(), backward.getStrategy());
+		}
+		if (type == SimplePeriodicTemporalAdjuster.class) {
+			SimplePeriodicTemporalAdjuster simple = (SimplePeriodicTemporalAdjuster) adjuster;
+			TemporalAdjuster inner = compile(simple.adjuster());
+			return inner == simple.adjuster() ? simple : new SimplePeriodicTemporalAdjuster(inner, simple.getPeriod());
+		}
+		if (type == AllOfCompoundTemporalAdjuster.class)
+			return analyze((AllOfCompoundTemporalAdjuster) adjuster);
+		return adjuster;
+	}
+
+	private static AllOfCompoundTemporalAdjuster analyze(AllOfCompoundTemporalAdjuster allOf) {
+		List<TemporalAdjuster> members = new ArrayList<>(allOf.adjusters.size());
+		boolean changed = false;
+		for (TemporalAdjuster member : allOf.adjusters) {
+			TemporalAdjuster compiled = compile(member);
+			changed |= compiled != member;
+			members.add(compiled);
+		}
+		checkTimes(allOf, members);
+		checkPeriod(allOf, members);
+
+		// Only adjusters whose epoch day form is cheap and cyclic are sampled; the rest are checked last.
+		Map<TemporalAdjuster, EpochDayAdjuster> dateForms = new HashMap<>();
+		for (TemporalAdjuster member : members) {
+			EpochDayAdjuster dateForm = rangeUnit(member) == null ? null : EpochDayAdjuster.of(member);
+			if (dateForm != null && dateForm.isCyclic())
+				dateForms.put(member, dateForm);
+		}
+		List<TemporalAdjuster> sampled = new ArrayList<>(dateForms.keySet());
+		int[] counts = new int[sampled.size() + 1];
+		sample(sampled.stream().map(dateForms::get).toArray(EpochDayAdjuster[]::new), counts);
+		Map<TemporalAdjuster, Integer> matches = new HashMap<>();
+		for (int i = 0; i < sampled.size(); i++)
+			matches.put(sampled.get(i), counts[i]);
+		List<TemporalAdjuster> checks = new ArrayList<>(members);
+		checks.sort(Comparator.comparingInt(member -> matches.getOrDefault(member, Integer.MAX_VALUE)));
+
+		boolean allDates = members.stream().allMatch(member -> dateForms.containsKey(member)
+				|| member instanceof CalendarAdjusters.TimeFieldAdjuster);
+		if (allDates && !sampled.isEmpty() && counts[sampled.size()] == 0)
+			throw invalid(allOf, "no date meets all of them");
+
+		if (!changed && checks.equals(allOf.checks()))
+			return allOf;
+		return new AllOfCompoundTemporalAdjuster(members, allOf.getPeriod(), checks);
+	}
+
+	private static void checkTimes(AllOfCompoundTemporalAdjuster allOf, List<TemporalAdjuster> members) {
+		Map<ChronoField, Long> times = new HashMap<>();
+		for (TemporalAdjuster member : members) {
+			if (!(member instanceof CalendarAdjusters.TimeFieldAdjuster))
+				continue;
+			CalendarAdjusters.TimeFieldAdjuster time = (CalendarAdjusters.TimeFieldAdjuster) member;
+			Long previous = times.put(time.field, time.value);
+			if (previous != null && previous != time.value)
+				throw invalid(allOf, time.field + " is set to both " + previous + " and " + time.value);
+		}
+	}
+
+	private static void checkPeriod(AllOfCompoundTemporalAdjuster allOf, List<TemporalAdjuster> members) {
+		TemporalUnit largest = null;
+		for (TemporalAdjuster member : members) {
+			TemporalUnit unit = rangeUnit(member);
+			if (unit != null && unit != ChronoUnit.FOREVER && (largest == null || unit.getDuration().compareTo(largest.getDuration()) > 0))
+				largest = unit;
+		}
+		if (largest != null && !atLeast(allOf.getPeriod(), largest))
+			throw invalid(allOf, "the period " + allOf.getPeriod() + " is shorter than the " + largest
+					+ " its adjusters constrain, so most attempts give the same date as the one before");
+	}
+
+	/**
+	 * The unit the period must be at least, which is the one within which the
+	 * adjuster moves a date, or null if the adjuster is not one the library
+	 * knows.
+	 */
+	static TemporalUnit rangeUnit(TemporalAdjuster adjuster) {
+		if (adjuster instanceof DayOfWeek)
+			return ChronoUnit.WEEKS;
+		if (adjuster instanceof Month || adjuster instanceof MonthDay || adjuster == CalendarAdjusters.LastDayOfAdjuster.YEAR)
+			return ChronoUnit.YEARS;
+		if (adjuster instanceof CalendarAdjusters.DayOfWeekInMonthAdjuster || adjuster == CalendarAdjusters.LastDayOfAdjuster.MONTH)
+			return ChronoUnit.MONTHS;
+		// The nearest of several moves forward as soon as a later member is nearer, so any period gets past it.
+		if (adjuster instanceof CalendarAdjusters.DayOfWeekSetAdjuster || adjuster instanceof CalendarAdjusters.MonthSetAdjuster
+				|| adjuster instanceof CalendarAdjusters.DayOfWeekInMonthSetAdjuster
+				|| adjuster instanceof CalendarAdjusters.DayOfMonthSetAdjuster)
+			return ChronoUnit.DAYS;
+		if (adjuster instanceof CalendarAdjusters.FieldAdjuster)
+			return ((CalendarAdjusters.FieldAdjuster) adjuster).field.getRangeUnit();
+		return null;
+	}
+
+	/**
+	 * Whether stepping by the period always leaves the current unit.
+	 */
+	private static boolean atLeast(TemporalAmount period, TemporalUnit unit) {
+		if (period instanceof Period) {
+			long months = ((Period) period).toTotalMonths();
+			int days = ((Period) period).getDays();
+			if (unit == ChronoUnit.YEARS)
+				return months >= 12;
+			if (unit == ChronoUnit.MONTHS)
+				return months >= 1;
+			return months >= 1 || days * ChronoUnit.DAYS.getDuration().getSeconds() >= unit.getDuration().getSeconds();
+		}
+		if (period instanceof Duration)
+			return ((Duration) period).compareTo(unit.getDuration()) >= 0;
+		return true;
+	}
+
+	/**
+	 * Counts the sampled dates each adjuster leaves alone, and last the dates
+	 * all of them leave alone.
+	 */
+	private static void sample(EpochDayAdjuster[] adjusters, int[] counts) {
+		for (long epochDay = SAMPLE_START; epochDay < SAMPLE_START + SAMPLE_DAYS; epochDay++) {
+			boolean meetsAll = true;
+			for (int i = 0; i < adjusters.length; i++) {
+				if (adjusters[i].adjustEpochDay(epochDay) == epochDay)
+					counts[i]++;
+				else
+					meetsAll = false;
+			}
+			if (meetsAll)
+				counts[adjusters.length]++;
+		}
+	}
+
+	private static IllegalArgumentException invalid(AllOfCompoundTemporalAdjuster allOf, String reason) {
+		return new IllegalArgumentException("Invalid rule " + allOf.adjusters + " every " + allOf.getPeriod() + ": " + reason);
+	}
+
+}
@@ -0,0 +1,192 @@
+package com.paulgreenlee.time.periodic;
+
+import java.time.DayOfWeek;
+import java.time.Month;
+import java.time.MonthDay;
+import java.time.temporal.TemporalAdjuster;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.UnaryOperator;
+
+/**
+ * <p>
+ * Shares one instance of each rule among everything that uses it. A rule is
+ * first put in its {@link #canonical(PeriodicTemporalAdjuster) canonical form},
+ * and then it and every adjuster in it are interned, so that equal rules, and
+ * equal parts of different rules, are the same objects. Where millions of
+ * schedules are built from a handful of distinct rules, the heap holds that
+ * handful.
+ * </p>
+ * <p>
+ * Rules are held weakly: one that nothing else refers to any more is
+ * collected as usual. Rules are compared with {@code equals}, so adjusters of
+ * your own are only shared if they implement it, and they must be immutable.
+ * </p>
+ *
+ * @author Paul Greenlee
+ *
+ */
+public class RuleInterner {
+
+	private static final RuleInterner SHARED = new RuleInterner();
+
+	private final WeakInterner<TemporalAdjuster> interner = new WeakInterner<>();
+
+	/**
+	 * The interner used by {@link PeriodicTemporalAdjusters#interned(PeriodicTemporalAdjuster)}.
+	 */
+	public static RuleInterner shared() {
+		return SHARED;
+	}
+
+	/**
+	 * The one instance of the canonical form of the rule.
+	 */
+	public PeriodicTemporalAdjuster intern(PeriodicTemporalAdjuster rule) {
+		return (PeriodicTemporalAdjuster) canonical(Objects.requireNonNull(rule, "rule is required"), true, interner::intern);
+	}
+
+	/**
+	 * How many distinct adjusters are held, rules and their parts alike.
+	 */
+	public int size() {
+		return interner.size();
+	}
+
+	/**
+	 * <p>
+	 * A rule that adjusts exactly as the given one does, with the same period,
+	 * built the same way as every other such rule, so that they are equal:
+	 * </p>
+	 * <ul>
+	 * <li>A {@link SimplePeriodicTemporalAdjuster} inside another adjuster is
+	 * replaced by what it wraps, as its period is never used there.</li>
+	 * <li>A {@link ForwardOnlyTemporalAdjuster} around another with the same
+	 * period is replaced by the one inside, and likewise for
+	 * {@link BackwardOnlyTemporalAdjuster}.</li>
+	 * <li>A {@link NearestOfCompoundTemporalAdjuster} inside another is
+	 * replaced by its members, repeated members are dropped, and one with a
+	 * single member is replaced by that member.</li>
+	 * <li>A member of an {@link AllOfCompoundTemporalAdjuster} repeated
+	 * straight after itself is dropped if it is a {@link DayOfWeek},
+	 * {@link Month}, {@link MonthDay} or field from {@link CalendarAdjusters},
+	 * which give the same result when applied again. Others, such as the fifth
+	 * Friday of the month, can move on. The order its results are checked in
+	 * is kept.</li>
+	 * </ul>
+	 * <p>
+	 * The order of members is kept. It decides ties between members of a
+	 * nearest-of and the order the members of an all-of are applied in, so
+	 * sorting them could change the result. Subclasses and adjusters from
+	 * elsewhere are kept as they are.
+	 * </p>
+	 */
+	public static PeriodicTemporalAdjuster canonical(PeriodicTemporalAdjuster rule) {
+		return (PeriodicTemporalAdjuster) canonical(Objects.requireNonNull(rule, "rule is required"), true, UnaryOperator.identity());
+	}
+
+	/**
+	 * @param periodic
+	 *            whether the period of the adjuster is used, which it is only
+	 *            at the top of a rule
+	 * @param share
+	 *            applied to each adjuster in the result
+	 */
+	private static TemporalAdjuster canonical(TemporalAdjuster adjuster, boolean periodic, UnaryOperator<TemporalAdjuster> share) {
+		Class<?> type = adjuster.getClass();
+		if (type == SimplePeriodicTemporalAdjuster.class) {
+			SimplePeriodicTemporalAdjuster simple = (SimplePeriodicTemporalAdjuster) adjuster;
+			TemporalAdjuster inner = canonical(simple.adjuster(), false, share);
+			if (!periodic)
+				return inner;
+			return share.apply(inner == simple.adjuster() ? simple : new SimplePeriodicTemporalAdjuster(inner, simple.getPeriod()));
+		}
+		if (type == ForwardOnlyTemporalAdjuster.class) {
+			ForwardOnlyTemporalAdjuster forward = (ForwardOnlyTemporalAdjuster) adjuster;
+			TemporalAdjuster inner = canonical(forward.adjuster(), false, share);
+			if (inner.getClass() == ForwardOnlyTemporalAdjuster.class
+					&& ((ForwardOnlyTemporalAdjuster) inner).getPeriod().equals(forward.getPeriod()))
+				return inner;
+			return share.apply(inner == forward.adjuster() ? forward
+					: new ForwardOnlyTemporalAdjuster(inner, forward.getPeriod(), forward.getStrategy()));
+		}
+		if (type == BackwardOnlyTemporalAdjuster.class) {
+			BackwardOnlyTemporalAdjuster backward = (BackwardOnlyTemporalAdjuster) adjuster;
+			TemporalAdjuster inner = canonical(backward.adjuster(), false, share);
+			if (inner.getClass() == BackwardOnlyTemporalAdjuster.class
+					&& ((BackwardOnlyTemporalAdjuster) inner).getPeriod().equals(backward.getPeriod()))
+				return inner;
+			return share.apply(inner == backward.adjuster() ? backward
+					: new BackwardOnlyTemporalAdjuster(inner, backward.getPeriod(), backward.getStrategy()));
+		}
+		if (type == AllOfCompoundTemporalAdjuster.class) {
+			AllOfCompoundTemporalAdjuster allOf = (AllOfCompoundTemporalAdjuster) adjuster;
+			Map<TemporalAdjuster, TemporalAdjuster> canonicals = new IdentityHashMap<>();
+			List<TemporalAdjuster> members = new ArrayList<>(allOf.adjusters.size());
+			for (TemporalAdjuster member : allOf.adjusters) {
+				TemporalAdjuster canonical = canonicals.computeIfAbsent(member, m -> canonical(m, false, share));
+				// Some adjusters, such as the fifth Friday of the month, roll on when applied again.
+				if (members.isEmpty() || !isIdempotent(canonical) || !members.get(members.size() - 1).equals(canonical))
+					members.add(canonical);
+			}
+			if (same(members, allOf.adjusters))
+				return share.apply(allOf);
+			// Checking a result is the same each time, so the order compile() chose is kept without repeats.
+			Set<TemporalAdjuster> checks = new LinkedHashSet<>();
+			for (TemporalAdjuster check : allOf.checks())
+				checks.add(canonicals.computeIfAbsent(check, c -> canonical(c, false, share)));
+			return share.apply(new AllOfCompoundTemporalAdjuster(members, allOf.getPeriod(), new ArrayList<>(checks)));
+		}
+		if (type == NearestOfCompoundTemporalAdjuster.class) {
+			NearestOfCompoundTemporalAdjuster nearestOf = (NearestOfCompoundTemporalAdjuster) adjuster;
+			Set<TemporalAdjuster> members = new LinkedHashSet<>();
+			addNearestOfMembers(nearestOf, members, share);
+			if (members.size() == 1)
+				return members.iterator().next();
+			List<TemporalAdjuster> list = new ArrayList<>(members);
+			return share.apply(same(list, nearestOf.adjusters) ? nearestOf : new NearestOfCompoundTemporalAdjuster(list));
+		}
+		return share.apply(adjuster);
+	}
+
+	/**
+	 * Whether applying the adjuster to its own result changes nothing, so that
+	 * it can be dropped when repeated.
+	 */
+	private static boolean isIdempotent(TemporalAdjuster adjuster) {
+		return adjuster instanceof DayOfWeek || adjuster instanceof Month || adjuster instanceof MonthDay
+				|| adjuster instanceof CalendarAdjusters.FieldAdjuster;
+	}
+
+	private static boolean same(List<TemporalAdjuster> members, List<TemporalAdjuster> original) {
+		if (members.size() != original.size())
+			return false;
+		for (int i = 0; i < members.size(); i++) {
+			if (members.get(i) != original.get(i))
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * The members in the order they are tried, which a nested nearest-of
+	 * would try in the same place. Only the first of equal members can ever be
+	 * chosen.
+	 */
+	private static void addNearestOfMembers(NearestOfCompoundTemporalAdjuster nearestOf, Set<TemporalAdjuster> members,
+			UnaryOperator<TemporalAdjuster> share) {
+		for (TemporalAdjuster member : nearestOf.adjusters) {
+			TemporalAdjuster canonical = canonical(member, false, share);
+			if (canonical.getClass() == NearestOfCompoundTemporalAdjuster.class)
+				members.addAll(((NearestOfCompoundTemporalAdjuster) canonical).adjusters);
+			else
+				members.add(canonical);
+		}
+	}
+
+}
@@ -0,0 +1,348 @@
+package com.paulgreenlee.time.periodic;
+
+import java.time.DateTimeException;
+import java.time.temporal.Temporal;
+import java.time.temporal.TemporalQueries;
+import java.time.temporal.TemporalUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * <p>
+ * Keeps the next occurrence of many rules, each under its own key, so the
+ * rules that fire next can be found without looking at all of them. The
+ * occurrences are held in a binary heap, with each key's position in the heap
+ * tracked so that a rule can be replaced or removed in O(log n). Loading many
+ * rules at once with {@link #putAll(Map, Temporal)} builds the heap in O(n)
+ * once their first occurrences are known, and finds those in parallel.
+ * </p>
+ * <p>
+ * When an occurrence is polled, its rule is put back at its following
+ * occurrence, exactly as {@link ForwardOnlyTemporalAdjuster} would find it.
+ * A rule that has no following occurrence (the search throws a
+ * {@link DateTimeException}) is removed after its last one. Occurrences at the
+ * same time are polled in the order their rules were scheduled.
+ * </p>
+ * <p>
+ * The index is not thread safe.
+ * </p>
+ *
+ * @author Paul Greenlee
+ *
+ * @param <K>
+ *            the type of key, such as a subscription id
+ * @param <T>
+ *            the type of Temporal the occurrences are held as
+ */
+public class ScheduleIndex<K, T extends Temporal & Comparable<? super T>> {
+
+	private static final int INITIAL_CAPACITY = 16;
+
+	private final Map<K, Node<K, T>> nodes = new HashMap<>();
+	private Node<K, T>[] heap = newHeap(INITIAL_CAPACITY);
+	private int size;
+	private long sequence;
+
+	/**
+	 * Schedules the rule under the key at its first occurrence after
+	 * {@code after}, replacing whatever the key had before.
+	 *
+	 * @throws DateTimeException
+	 *             if the rule has no occurrence after {@code after}
+	 */
+	public void put(K key, PeriodicTemporalAdjuster rule, T after) {
+		Objects.requireNonNull(key, "key is required");
+		Node<K, T> node = new Node<>(key, forwardOnly(rule), Objects.requireNonNull(after, "after is required"));
+		node.occurrence = node.next(after);
+		node.sequence = sequence++;
+		Node<K, T> previous = nodes.put(key, node);
+		if (previous != null) {
+			node.index = previous.index;
+			heap[node.index] = node;
+			fix(node.index);
+		} else {
+			offer(node);
+		}
+	}
+
+	/**
+	 * Schedules every rule at its first occurrence after {@code after}, as
+	 * {@link #put(Object, PeriodicTemporalAdjuster, Temporal)} would, but
+	 * rebuilds the heap once instead of inserting each rule. The first
+	 * occurrences are found in parallel.
+	 *
+	 * @throws DateTimeException
+	 *             if any of the rules has no occurrence after {@code after},
+	 *             in which case none of them are scheduled
+	 */
+	public void putAll(Map<K, ? extends PeriodicTemporalAdjuster> rules, T after) {
+		Objects.requireNonNull(rules, "rules are required");
+		Objects.requireNonNull(after, "after is required");
+		List<Node<K, T>> loaded = rules.entrySet().parallelStream().map(entry -> {
+			Node<K, T> node = new Node<>(Objects.requireNonNull(entry.getKey(), "key is required"), forwardOnly(entry.getValue()), after);
+			node.occurrence = node.next(after);
+			return node;
+		}).collect(Collectors.toList());
+
+		ensureCapacity(size + loaded.size());
+		for (Node<K, T> node : loaded) {
+			node.sequence = sequence++;
+			Node<K, T> previous = nodes.put(node.key, node);
+			if (previous != null) {
+				node.index = previous.index;
+			} else {
+				node.index = size++;
+			}
+			heap[node.index] = node;
+		}
+		for (int i = (size >>> 1) - 1; i >= 0; i--)
+			siftDown(i);
+	}
+
+	/**
+	 * Stops scheduling the key.
+	 *
+	 * @return true if the key was scheduled
+	 */
+	public boolean remove(K key) {
+		Node<K, T> node = nodes.remove(key);
+		if (node == null)
+			return false;
+		removeAt(node.index);
+		return true;
+	}
+
+	/**
+	 * The next occurrence scheduled for the key, or null if it is not
+	 * scheduled.
+	 */
+	public T nextOccurrence(K key) {
+		Node<K, T> node = nodes.get(key);
+		return node == null ? null : node.occurrence;
+	}
+
+	public boolean contains(K key) {
+		return nodes.containsKey(key);
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * The earliest scheduled occurrence, or null if nothing is scheduled.
+	 * Nothing is changed.
+	 */
+	public Entry<K, T> peek() {
+		return size == 0 ? null : new Entry<>(heap[0].key, heap[0].occurrence);
+	}
+
+	/**
+	 * Takes the earliest scheduled occurrence and reschedules its rule at the
+	 * following occurrence.
+	 *
+	 * @return the occurrence taken, or null if nothing is scheduled
+	 */
+	public Entry<K, T> poll() {
+		if (size == 0)
+			return null;
+		Node<K, T> node = heap[0];
+		Entry<K, T> entry = new Entry<>(node.key, node.occurrence);
+		advance(node);
+		return entry;
+	}
+
+	/**
+	 * Takes every occurrence at or before {@code now}, in order, rescheduling
+	 * each rule as it goes. A rule more than one occurrence behind appears
+	 * once for each occurrence.
+	 */
+	public List<Entry<K, T>> pollDue(T now) {
+		Objects.requireNonNull(now, "now is required");
+		List<Entry<K, T>> due = new ArrayList<>();
+		while (size > 0 && heap[0].occurrence.compareTo(now) <= 0) {
+			Node<K, T> node = heap[0];
+			due.add(new Entry<>(node.key, node.occurrence));
+			advance(node);
+		}
+		return due;
+	}
+
+	public void clear() {
+		nodes.clear();
+		Arrays.fill(heap, 0, size, null);
+		size = 0;
+	}
+
+	private void advance(Node<K, T> node) {
+		try {
+			node.occurrence = node.next(node.occurrence);
+		} catch (DateTimeException e) {
+			nodes.remove(node.key);
+			removeAt(0);
+			return;
+		}
+		node.sequence = sequence++;
+		siftDown(0);
+	}
+
+	private void offer(Node<K, T> node) {
+		ensureCapacity(size + 1);
+		node.index = size;
+		heap[size++] = node;
+		siftUp(node.index);
+	}
+
+	private void removeAt(int index) {
+		Node<K, T> last = heap[--size];
+		heap[size] = null;
+		if (index == size)
+			return;
+		last.index = index;
+		heap[index] = last;
+		fix(index);
+	}
+
+	/** Moves the node at the index up or down to where it belongs. */
+	private void fix(int index) {
+		if (index > 0 && less(heap[index], heap[(index - 1) >>> 1]))
+			siftUp(index);
+		else
+			siftDown(index);
+	}
+
+	private void siftUp(int index) {
+		Node<K, T> node = heap[index];
+		while (index > 0) {
+			int parent = (index - 1) >>> 1;
+			if (!less(node, heap[parent]))
+				break;
+			move(heap[parent], index);
+			index = parent;
+		}
+		move(node, index);
+	}
+
+	private void siftDown(int index) {
+		Node<K, T> node = heap[index];
+		int half = size >>> 1;
+		while (index < half) {
+			int child = 2 * index + 1;
+			int right = child + 1;
+			if (right < size && less(heap[right], heap[child]))
+				child = right;
+			if (!less(heap[child], node))
+				break;
+			move(heap[child], index);
+			index = child;
+		}
+		move(node, index);
+	}
+
+	private void move(Node<K, T> node, int index) {
+		heap[index] = node;
+		node.index = index;
+	}
+
+	private static <K, T extends Temporal & Comparable<? super T>> boolean less(Node<K, T> a, Node<K, T> b) {
+		int comparison = a.occurrence.compareTo(b.occurrence);
+		return comparison < 0 || (comparison == 0 && a.sequence < b.sequence);
+	}
+
+	private void ensureCapacity(int capacity) {
+		if (capacity > heap.length)
+			heap = Arrays.copyOf(heap, Math.max(capacity, heap.length + (heap.length >>> 1)));
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <K, T extends Temporal & Comparable<? super T>> Node<K, T>[] newHeap(int capacity) {
+		return (Node<K, T>[]) new Node<?, ?>[capacity];
+	}
+
+	private static ForwardOnlyTemporalAdjuster forwardOnly(PeriodicTemporalAdjuster rule) {
+		Objects.requireNonNull(rule, "rule is required");
+		return rule instanceof ForwardOnlyTemporalAdjuster ? (ForwardOnlyTemporalAdjuster) rule
+				: ForwardOnlyTemporalAdjuster.of(rule);
+	}
+
+	/**
+	 * An occurrence of the rule scheduled under a key.
+	 */
+	public static final class Entry<K, T> {
+
+		private final K key;
+		private final T occurrence;
+
+		Entry(K key, T occurrence) {
+			this.key = key;
+			this.occurrence = occurrence;
+		}
+
+		public K getKey() {
+			return key;
+		}
+
+		public T getOccurrence() {
+			return occurrence;
+		}
+
+		@Override
+		public int hashCode() {
+			final int prime = 31;
+			int result = 1;
+			result = prime * result + key.hashCode();
+			result = prime * result + occurrence.hashCode();
+			return result;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj)
+				return true;
+			if (obj == null)
+				return false;
+			if (getClass() != obj.getClass())
+				return false;
+			Entry<?, ?> other = (Entry<?, ?>) obj;
+			return key.equals(other.key) && occurrence.equals(other.occurrence);
+		}
+
+		@Override
+		public String toString() {
+			return key + "@" + occurrence;
+		}
+
+	}
+
+	private static final class Node<K, T extends Temporal> {
+
+		final K key;
+		final ForwardOnlyTemporalAdjuster rule;
+		final TemporalUnit precision;
+		T occurrence;
+		long sequence;
+		int index;
+
+		Node(K key, ForwardOnlyTemporalAdjuster rule, T start) {
+			this.key = key;
+			this.rule = rule;
+			this.precision = start.query(TemporalQueries.precision());
+		}
+
+		@SuppressWarnings("unchecked")
+		T next(T temporal) {
+			return (T) rule.next(temporal, precision);
+		}
+
+	}
+
+}
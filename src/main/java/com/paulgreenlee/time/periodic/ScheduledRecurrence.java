@@ -0,0 +1,129 @@
+package com.paulgreenlee.time.periodic;
+
+import java.time.DateTimeException;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+/**
+ * <p>
+ * A task registered with a {@link PeriodicScheduler} to run at each
+ * occurrence of a rule. Only the next occurrence is ever known: the one after
+ * it is found with {@link ForwardOnlyTemporalAdjuster} when the task fires.
+ * </p>
+ * <p>
+ * A recurrence ends when it is cancelled, or once the rule has no further
+ * occurrence.
+ * </p>
+ *
+ * @author Paul Greenlee
+ *
+ */
+public final class ScheduledRecurrence {
+
+	private static final int ACTIVE = 0;
+	private static final int CANCELLED = 1;
+	private static final int FINISHED = 2;
+	private static final AtomicIntegerFieldUpdater<ScheduledRecurrence> STATE =
+			AtomicIntegerFieldUpdater.newUpdater(ScheduledRecurrence.class, "state");
+
+	private final Timer timer = new Timer(this);
+	private final PeriodicScheduler scheduler;
+	private final ForwardOnlyTemporalAdjuster rule;
+	private final ZoneId zone;
+	private final Runnable task;
+	private volatile ZonedDateTime nextFire;
+	private volatile int state;
+
+	ScheduledRecurrence(PeriodicScheduler scheduler, ForwardOnlyTemporalAdjuster rule, ZoneId zone, Runnable task,
+			ZonedDateTime nextFire) {
+		this.scheduler = scheduler;
+		this.rule = rule;
+		this.zone = zone;
+		this.task = task;
+		this.nextFire = nextFire;
+	}
+
+	/**
+	 * When the task will next run, or null once the recurrence has ended.
+	 */
+	public ZonedDateTime getNextFire() {
+		return state == ACTIVE ? nextFire : null;
+	}
+
+	public ZoneId getZone() {
+		return zone;
+	}
+
+	public PeriodicTemporalAdjuster getRule() {
+		return rule;
+	}
+
+	/**
+	 * Stops the task from running again, and takes it out of the scheduler
+	 * so neither it nor the rule is held on to until its next run. A run that
+	 * has already been handed to the executor is not interrupted.
+	 *
+	 * @return true if the recurrence was still active
+	 */
+	public boolean cancel() {
+		if (!STATE.compareAndSet(this, ACTIVE, CANCELLED))
+			return false;
+		scheduler.cancelled(this);
+		return true;
+	}
+
+	public boolean isCancelled() {
+		return state == CANCELLED;
+	}
+
+	/**
+	 * Whether the recurrence has ended, either by being cancelled or by
+	 * running out of occurrences.
+	 */
+	public boolean isDone() {
+		return state != ACTIVE;
+	}
+
+	Timer timer() {
+		return timer;
+	}
+
+	Runnable task() {
+		return task;
+	}
+
+	ZonedDateTime nextFire() {
+		return nextFire;
+	}
+
+	/**
+	 * Moves on to the following occurrence.
+	 *
+	 * @return false if there is none, in which case the recurrence has ended
+	 */
+	boolean advance() {
+		try {
+			nextFire = (ZonedDateTime) rule.adjustInto(nextFire);
+			return true;
+		} catch (DateTimeException e) {
+			if (STATE.compareAndSet(this, ACTIVE, FINISHED))
+				scheduler.ended();
+			return false;
+		}
+	}
+
+	/**
+	 * The recurrence's place in the scheduler's timing wheel.
+	 */
+	static final class Timer extends TimingWheel.Timer {
+
+		final ScheduledRecurrence recurrence;
+
+		Timer(ScheduledRecurrence recurrence) {
+			this.recurrence = recurrence;
+		}
+
+	}
+
+}
@@ -0,0 +1,40 @@
+package com.paulgreenlee.time.periodic;
+
+/**
+ * <p>
+ * Told about every search that steps through periods looking for an
+ * occurrence: the loops in {@link ForwardOnlyTemporalAdjuster} and
+ * {@link AllOfCompoundTemporalAdjuster} that give up after a fixed number of
+ * periods. Adjustments answered by arithmetic, without stepping, are not
+ * searches and are not reported, except when they give up too.
+ * </p>
+ * <p>
+ * Listeners are registered with {@link SearchMetrics}. They are called on the
+ * thread that searched, so they should be quick and must be thread safe.
+ * </p>
+ *
+ * @author Paul Greenlee
+ *
+ */
+@FunctionalInterface
+public interface SearchListener {
+
+	/**
+	 * @param rule
+	 *            the rule that searched
+	 * @param iterations
+	 *            the number of periods stepped through
+	 * @param limit
+	 *            the number of periods after which the search gives up
+	 * @param swallowedExceptions
+	 *            the number of attempts that threw a DateTimeException and
+	 *            were skipped
+	 * @param nanos
+	 *            how long the search took
+	 * @param found
+	 *            false if the search gave up
+	 */
+	void searchCompleted(PeriodicTemporalAdjuster rule, int iterations, int limit, int swallowedExceptions, long nanos,
+			boolean found);
+
+}
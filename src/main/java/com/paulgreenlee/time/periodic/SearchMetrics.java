@@ -0,0 +1,94 @@
+package com.paulgreenlee.time.periodic;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * <p>
+ * Where {@link SearchListener}s are registered. Nothing is measured until one
+ * is: without listeners, a search only reads a single volatile field to find
+ * that out.
+ * </p>
+ * <p>
+ * {@link SearchStatistics} keeps per-rule histograms of the searches it is
+ * told about, and {@link #enableFlightRecorder()} reports every search as a
+ * JDK Flight Recorder event, which only costs anything while a recording is
+ * running.
+ * </p>
+ *
+ * @author Paul Greenlee
+ *
+ */
+public final class SearchMetrics {
+
+	private static final List<SearchListener> LISTENERS = new ArrayList<>();
+	private static volatile SearchListener listener;
+	private static FlightRecorderListener flightRecorder;
+
+	private SearchMetrics() { }
+
+	public static synchronized void addListener(SearchListener added) {
+		LISTENERS.add(Objects.requireNonNull(added, "listener is required"));
+		update();
+	}
+
+	public static synchronized void removeListener(SearchListener removed) {
+		LISTENERS.remove(removed);
+		update();
+	}
+
+	/**
+	 * Reports searches as JDK Flight Recorder events named
+	 * {@code com.paulgreenlee.time.periodic.Search}, and those that came within
+	 * a tenth of their limit or reached it as
+	 * {@code com.paulgreenlee.time.periodic.SearchNearLimit}.
+	 *
+	 * @return false if this JVM has no Flight Recorder
+	 */
+	public static synchronized boolean enableFlightRecorder() {
+		if (flightRecorder == null) {
+			flightRecorder = FlightRecorderListener.create();
+			if (flightRecorder == null)
+				return false;
+			addListener(flightRecorder);
+		}
+		return true;
+	}
+
+	public static synchronized void disableFlightRecorder() {
+		if (flightRecorder != null) {
+			removeListener(flightRecorder);
+			flightRecorder = null;
+		}
+	}
+
+	/**
+	 * Whether a search came close enough to its limit to be worth a warning.
+	 */
+	static boolean isNearLimit(int iterations, int limit) {
+		return iterations >= limit - limit / 10;
+	}
+
+	/**
+	 * The listener to tell about searches, or null if there are none.
+	 */
+	static SearchListener listener() {
+		return listener;
+	}
+
+	private static void update() {
+		if (LISTENERS.isEmpty()) {
+			listener = null;
+		} else if (LISTENERS.size() == 1) {
+			listener = LISTENERS.get(0);
+		} else {
+			SearchListener[] all = LISTENERS.toArray(new SearchListener[LISTENERS.size()]);
+			listener = (rule, iterations, limit, swallowedExceptions, nanos, found) -> {
+				for (SearchListener each : all)
+					each.searchCompleted(rule, iterations, limit, swallowedExceptions, nanos, found);
+			};
+		}
+	}
+
+}
@@ -0,0 +1,162 @@
+package com.paulgreenlee.time.periodic;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <p>
+ * A {@link SearchListener} that keeps counts for each rule: how many searches
+ * there were, a histogram of how many periods they stepped through, how many
+ * adjustments threw and were skipped, how long they took, and how many came
+ * within a tenth of their limit or gave up. A rule whose searches creep up
+ * the histogram is one that will soon start to fail.
+ * </p>
+ * <p>
+ * Register it with {@link SearchMetrics#addListener(SearchListener)}. Rules
+ * are told apart by {@link Object#equals(Object)}, so equal rules share their
+ * counts. Counts are kept for a bounded number of rules, so an application
+ * that builds rules on the fly does not fill the heap with them.
+ * </p>
+ *
+ * @author Paul Greenlee
+ *
+ */
+public class SearchStatistics implements SearchListener {
+
+	private static final long DEFAULT_MAX_RULES = 10_000;
+
+	private final BoundedCache<PeriodicTemporalAdjuster, RuleStatistics> rules;
+
+	/**
+	 * Statistics for up to 10,000 rules.
+	 */
+	public SearchStatistics() {
+		this(DEFAULT_MAX_RULES);
+	}
+
+	/**
+	 * @param maxRules
+	 *            the number of rules to keep counts for; when there are more,
+	 *            the counts of the rules that searched least recently are
+	 *            dropped
+	 */
+	public SearchStatistics(long maxRules) {
+		this.rules = new BoundedCache<>(maxRules, statistics -> 1);
+	}
+
+	@Override
+	public void searchCompleted(PeriodicTemporalAdjuster rule, int iterations, int limit, int swallowedExceptions,
+			long nanos, boolean found) {
+		rules.get(rule, r -> new RuleStatistics()).record(iterations, limit, swallowedExceptions, nanos, found);
+	}
+
+	/**
+	 * The counts for a rule, or null if it has not searched or its counts
+	 * have been dropped.
+	 */
+	public RuleStatistics get(PeriodicTemporalAdjuster rule) {
+		return rules.getIfPresent(rule);
+	}
+
+	/**
+	 * The counts for every rule still held. The map is a copy, but the counts
+	 * in it go on being updated.
+	 */
+	public Map<PeriodicTemporalAdjuster, RuleStatistics> getAll() {
+		return Collections.unmodifiableMap(rules.snapshot());
+	}
+
+	public void clear() {
+		rules.invalidateAll();
+	}
+
+	/**
+	 * The counts kept for one rule.
+	 */
+	public static final class RuleStatistics {
+
+		/**
+		 * Bucket 0 counts searches that found an occurrence in the first
+		 * period, and bucket n those that stepped through 2<sup>n-1</sup> to
+		 * 2<sup>n</sup>-1 periods.
+		 */
+		static final int BUCKETS = 32;
+
+		private final LongAdder[] histogram = new LongAdder[BUCKETS];
+		private final LongAdder searches = new LongAdder();
+		private final LongAdder failures = new LongAdder();
+		private final LongAdder nearLimit = new LongAdder();
+		private final LongAdder swallowedExceptions = new LongAdder();
+		private final LongAdder totalNanos = new LongAdder();
+		private final LongAccumulator maxIterations = new LongAccumulator(Math::max, 0);
+
+		RuleStatistics() {
+			for (int i = 0; i < BUCKETS; i++)
+				histogram[i] = new LongAdder();
+		}
+
+		void record(int iterations, int limit, int swallowed, long nanos, boolean found) {
+			histogram[bucket(iterations)].increment();
+			searches.increment();
+			if (!found)
+				failures.increment();
+			if (SearchMetrics.isNearLimit(iterations, limit))
+				nearLimit.increment();
+			if (swallowed > 0)
+				swallowedExceptions.add(swallowed);
+			totalNanos.add(nanos);
+			maxIterations.accumulate(iterations);
+		}
+
+		static int bucket(int iterations) {
+			return 32 - Integer.numberOfLeadingZeros(Math.max(iterations, 0));
+		}
+
+		public long getSearches() {
+			return searches.sum();
+		}
+
+		/**
+		 * The number of searches that gave up.
+		 */
+		public long getFailures() {
+			return failures.sum();
+		}
+
+		/**
+		 * The number of searches that came within a tenth of their limit,
+		 * including those that gave up.
+		 */
+		public long getNearLimit() {
+			return nearLimit.sum();
+		}
+
+		public long getSwallowedExceptions() {
+			return swallowedExceptions.sum();
+		}
+
+		public long getTotalNanos() {
+			return totalNanos.sum();
+		}
+
+		public long getMaxIterations() {
+			return maxIterations.get();
+		}
+
+		/**
+		 * Searches by the number of periods they stepped through, element n
+		 * counting those that stepped through 2<sup>n-1</sup> to
+		 * 2<sup>n</sup>-1, and element 0 those that stepped through none.
+		 */
+		public long[] getIterationHistogram() {
+			long[] counts = new long[BUCKETS];
+			for (int i = 0; i < BUCKETS; i++)
+				counts[i] = histogram[i].sum();
+			return counts;
+		}
+
+	}
+
+}
@@ -0,0 +1,46 @@
+package com.paulgreenlee.time.periodic;
+
+import java.time.DayOfWeek;
+import java.time.Month;
+import java.time.MonthDay;
+
+/**
+ * How {@link ForwardOnlyTemporalAdjuster} and
+ * {@link BackwardOnlyTemporalAdjuster} step through periods when the
+ * adjustment of the original temporal is not already on the right side of it.
+ *
+ * @author Paul Greenlee
+ *
+ */
+public enum SearchStrategy {
+
+	/**
+	 * One period at a time. Correct for any adjuster, but it takes time in
+	 * proportion to how many periods away the occurrence is.
+	 */
+	LINEAR,
+
+	/**
+	 * <p>
+	 * Jumps 1, 2, 4, 8... periods until it passes the original temporal, then
+	 * halves back to the first period that does. An occurrence n periods away
+	 * is found in about 2 log<sub>2</sub>n adjustments, for example when the
+	 * first day of the year is looked for with a period of a day.
+	 * </p>
+	 * <p>
+	 * Jumping assumes that adjusting a later period never gives an earlier
+	 * result. Only adjusters the library knows to keep to that gallop: the
+	 * {@link DayOfWeek}s, {@link Month}s and {@link MonthDay}s of java.time,
+	 * the {@link CalendarAdjusters}, and periodic adjusters made from one of
+	 * them. Any other adjuster is opaque, and is searched {@link #LINEAR
+	 * linearly} whatever strategy is asked for. Every adjustment made is
+	 * still checked, and if any is out of order, or throws, the search starts
+	 * again one period at a time. So does a search that reaches the limit,
+	 * and one whose periods do not add up exactly when multiplied, such as a
+	 * month added to the 31st, or days added in a time zone with daylight
+	 * saving.
+	 * </p>
+	 */
+	GALLOPING
+
+}
@@ -18,10 +18,16 @@ public class SimplePeriodicTemporalAdjuster implements PeriodicTemporalAdjuster
 
 	private final TemporalAdjuster adjuster;
 	private final TemporalAmount period;
+	private final EpochDayAdjuster epochDayAdjuster;
+	private final EpochSecondAdjuster epochSecondAdjuster;
 	
 	public SimplePeriodicTemporalAdjuster(TemporalAdjuster adjuster, TemporalAmount period) {
 		this.adjuster = Objects.requireNonNull(adjuster, "adjuster is required");
 		this.period = Objects.requireNonNull(period, "period is required");
+		// A subclass may adjust differently, so only the plain class shares the forms of its adjuster.
+		boolean plain = getClass() == SimplePeriodicTemporalAdjuster.class;
+		this.epochDayAdjuster = plain ? EpochDayAdjuster.of(adjuster) : null;
+		this.epochSecondAdjuster = plain ? EpochSecondAdjuster.of(adjuster) : null;
 	}
 	
 	@Override
@@ -34,4 +40,37 @@ public class SimplePeriodicTemporalAdjuster implements PeriodicTemporalAdjuster
 		return period;
 	}
 
+	TemporalAdjuster adjuster() {
+		return adjuster;
+	}
+
+	EpochDayAdjuster epochDayAdjuster() {
+		return epochDayAdjuster;
+	}
+
+	EpochSecondAdjuster epochSecondAdjuster() {
+		return epochSecondAdjuster;
+	}
+
+	@Override
+	public int hashCode() {
+		final int prime = 31;
+		int result = 1;
+		result = prime * result + adjuster.hashCode();
+		result = prime * result + period.hashCode();
+		return result;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		SimplePeriodicTemporalAdjuster other = (SimplePeriodicTemporalAdjuster) obj;
+		return adjuster.equals(other.adjuster) && period.equals(other.period);
+	}
+
 }
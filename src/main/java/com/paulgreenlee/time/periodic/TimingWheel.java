@@ -0,0 +1,236 @@
+package com.paulgreenlee.time.periodic;
+
+import java.util.function.Consumer;
+
+/**
+ * <p>
+ * A hierarchical timing wheel: timers are kept in a small number of rings of
+ * slots, the first holding one tick per slot and each of the others holding
+ * a whole turn of the ring below it per slot. Adding a timer is O(1). As time
+ * passes, a slot in an outer ring is emptied into the rings below it just as
+ * they reach it, so each timer moves at most once per ring before it expires.
+ * Timers too far away for the outermost ring wait in an overflow list, which
+ * is sorted into the rings each time the outermost ring turns.
+ * </p>
+ * <p>
+ * Timers are linked both ways through fields of their own, so holding
+ * millions of them costs nothing beyond the timers themselves, and a timer
+ * can be removed in O(1) wherever it is waiting. Stretches of time with no timers
+ * due are skipped a whole slot of the lowest occupied ring at a time, so the
+ * wheel can be advanced by months in one call.
+ * </p>
+ * <p>
+ * A wheel is not thread safe.
+ * </p>
+ *
+ * @author Paul Greenlee
+ *
+ */
+final class TimingWheel {
+
+	/**
+	 * Something to be handed back by {@link TimingWheel#advance} once its
+	 * deadline, in ticks, has passed.
+	 */
+	static class Timer {
+
+		long deadline;
+		Timer previous;
+		Timer next;
+		/** The level of the slot the timer is in, {@code LEVELS} for the overflow list, or -1 if it is in none. */
+		int level = -1;
+		int index;
+
+	}
+
+	private static final int LEVELS = 5;
+	private static final int FIRST_LEVEL_BITS = 8;
+	private static final int LEVEL_BITS = 6;
+
+	private final Timer[][] slots = new Timer[LEVELS][];
+	/** The number of timers in each level, with the overflow list last. */
+	private final int[] counts = new int[LEVELS + 1];
+	private Timer overflow;
+	/** The next tick to be processed. */
+	private long now;
+
+	TimingWheel(long now) {
+		this.now = now;
+		for (int level = 0; level < LEVELS; level++)
+			slots[level] = new Timer[1 << bits(level)];
+	}
+
+	/**
+	 * The next tick to be processed. Every timer with an earlier deadline has
+	 * already been handed back.
+	 */
+	long now() {
+		return now;
+	}
+
+	int size() {
+		int size = 0;
+		for (int count : counts)
+			size += count;
+		return size;
+	}
+
+	/**
+	 * Adds a timer. A timer whose deadline has already passed is handed back
+	 * on the next tick processed.
+	 */
+	void add(Timer timer) {
+		long deadline = Math.max(timer.deadline, now);
+		for (int level = 0; level < LEVELS; level++) {
+			// The lowest level whose current turn the deadline falls in.
+			int turn = shift(level + 1);
+			if ((deadline >> turn) == (now >> turn)) {
+				int index = (int) (deadline >> shift(level)) & mask(level);
+				slots[level][index] = link(timer, slots[level][index], level, index);
+				return;
+			}
+		}
+		overflow = link(timer, overflow, LEVELS, 0);
+	}
+
+	private Timer link(Timer timer, Timer head, int level, int index) {
+		timer.previous = null;
+		timer.next = head;
+		if (head != null)
+			head.previous = timer;
+		timer.level = level;
+		timer.index = index;
+		counts[level]++;
+		return timer;
+	}
+
+	/**
+	 * Takes a timer out of the wheel, so it is not handed back and is no
+	 * longer referred to by the wheel.
+	 *
+	 * @return false if the timer was not in the wheel
+	 */
+	boolean remove(Timer timer) {
+		int level = timer.level;
+		if (level < 0)
+			return false;
+		if (timer.previous != null)
+			timer.previous.next = timer.next;
+		else if (level == LEVELS)
+			overflow = timer.next;
+		else
+			slots[level][timer.index] = timer.next;
+		if (timer.next != null)
+			timer.next.previous = timer.previous;
+		counts[level]--;
+		unlink(timer);
+		return true;
+	}
+
+	private static void unlink(Timer timer) {
+		timer.previous = null;
+		timer.next = null;
+		timer.level = -1;
+	}
+
+	/**
+	 * Processes every tick up to and including {@code target}, handing back
+	 * each timer as its deadline passes, in order of deadline. The consumer
+	 * may add timers, including ones due at once.
+	 */
+	void advance(long target, Consumer<? super Timer> expired) {
+		advance(target, expired, false);
+	}
+
+	/**
+	 * Processes ticks up to {@code target} until one has timers due, and
+	 * hands back those. Any timers added after this returns, even ones
+	 * already due, are handed back by the next call.
+	 *
+	 * @return false if no timer fell due by {@code target}
+	 */
+	boolean advanceToNextDue(long target, Consumer<? super Timer> expired) {
+		return advance(target, expired, true);
+	}
+
+	private boolean advance(long target, Consumer<? super Timer> expired, boolean stopWhenDue) {
+		while (now <= target) {
+			int lowest = lowestOccupiedLevel();
+			if (lowest < 0) {
+				now = target + 1;
+				return false;
+			}
+			if (lowest > 0) {
+				// Nothing can fall due before the lowest occupied level next empties into the ones below.
+				long unit = 1L << shift(lowest);
+				long boundary = Math.floorDiv(now + unit - 1, unit) * unit;
+				if (boundary > target) {
+					now = target + 1;
+					return false;
+				}
+				now = boundary;
+			}
+			long tick = now;
+			for (int level = LEVELS; level > 0; level--)
+				if ((tick & ((1L << shift(level)) - 1)) == 0)
+					cascade(level, tick);
+			int index = (int) tick & mask(0);
+			Timer due = slots[0][index];
+			slots[0][index] = null;
+			now = tick + 1;
+			if (due == null)
+				continue;
+			while (due != null) {
+				Timer next = due.next;
+				counts[0]--;
+				unlink(due);
+				expired.accept(due);
+				due = next;
+			}
+			if (stopWhenDue)
+				return true;
+		}
+		return false;
+	}
+
+	/** Empties the current slot of a level into the levels below it. */
+	private void cascade(int level, long tick) {
+		Timer timer;
+		if (level == LEVELS) {
+			timer = overflow;
+			overflow = null;
+		} else {
+			int index = (int) (tick >> shift(level)) & mask(level);
+			timer = slots[level][index];
+			slots[level][index] = null;
+		}
+		while (timer != null) {
+			Timer next = timer.next;
+			counts[level]--;
+			unlink(timer);
+			add(timer);
+			timer = next;
+		}
+	}
+
+	private int lowestOccupiedLevel() {
+		for (int level = 0; level <= LEVELS; level++)
+			if (counts[level] > 0)
+				return level;
+		return -1;
+	}
+
+	private static int bits(int level) {
+		return level == 0 ? FIRST_LEVEL_BITS : LEVEL_BITS;
+	}
+
+	private static int mask(int level) {
+		return (1 << bits(level)) - 1;
+	}
+
+	/** The number of ticks in one slot of the level, as a power of two. */
+	private static int shift(int level) {
+		return level == 0 ? 0 : FIRST_LEVEL_BITS + (level - 1) * LEVEL_BITS;
+	}
+
+}
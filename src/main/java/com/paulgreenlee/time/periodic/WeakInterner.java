@@ -0,0 +1,94 @@
+package com.paulgreenlee.time.periodic;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * <p>
+ * A concurrent interner that holds its values weakly: {@link #intern(Object)}
+ * returns the one instance of each value, by {@code equals}, for as long as
+ * anything else still refers to it. Once nothing does, the value is collected
+ * and its entry is dropped the next time the interner is used.
+ * </p>
+ * <p>
+ * Values must be immutable, with an {@code equals} and {@code hashCode} that
+ * never change.
+ * </p>
+ *
+ * @author Paul Greenlee
+ *
+ * @param <T>
+ *            the type of value
+ */
+final class WeakInterner<T> {
+
+	private final ConcurrentHashMap<Entry<T>, Entry<T>> map = new ConcurrentHashMap<>();
+	private final ReferenceQueue<T> queue = new ReferenceQueue<>();
+
+	/**
+	 * The instance equal to the value that was interned first and is still
+	 * reachable, or the value itself if there is none.
+	 */
+	T intern(T value) {
+		Objects.requireNonNull(value, "value is required");
+		expunge();
+		Entry<T> entry = new Entry<>(value, queue);
+		while (true) {
+			Entry<T> existing = map.putIfAbsent(entry, entry);
+			if (existing == null)
+				return value;
+			T found = existing.get();
+			if (found != null)
+				return found;
+			// Collected between the lookup and now.
+			map.remove(existing, existing);
+		}
+	}
+
+	int size() {
+		expunge();
+		return map.size();
+	}
+
+	private void expunge() {
+		for (Reference<? extends T> collected; (collected = queue.poll()) != null;)
+			map.remove(collected);
+	}
+
+	/**
+	 * Equal to another entry while both values are reachable and equal, and
+	 * only to itself once its value has been collected.
+	 */
+	private static final class Entry<T> extends WeakReference<T> {
+
+		private final int hash;
+
+		Entry(T value, ReferenceQueue<T> queue) {
+			super(value, queue);
+			this.hash = value.hashCode();
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj)
+				return true;
+			if (!(obj instanceof Entry))
+				return false;
+			Entry<?> other = (Entry<?>) obj;
+			if (hash != other.hash)
+				return false;
+			Object value = get();
+			return value != null && value.equals(other.get());
+		}
+
+	}
+
+}
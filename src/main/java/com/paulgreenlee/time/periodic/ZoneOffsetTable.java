@@ -0,0 +1,160 @@
+package com.paulgreenlee.time.periodic;
+
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * <p>
+ * The offset transitions of a time zone from 1800 to 2200, held in arrays, so
+ * that a local date-time is turned into an instant with a binary search and
+ * some arithmetic instead of a lookup in the {@link ZoneRules}. Local times
+ * outside those years are looked up in the rules as usual.
+ * </p>
+ * <p>
+ * Tables are built once for each zone and shared. A zone whose rules are
+ * replaced while the application runs keeps the transitions it had when its
+ * table was built.
+ * </p>
+ *
+ * @author Paul Greenlee
+ *
+ */
+final class ZoneOffsetTable {
+
+	private static final long SECONDS_PER_DAY = 86400;
+	private static final long FIRST_SECOND = LocalDate.of(1800, 1, 1).toEpochDay() * SECONDS_PER_DAY;
+	private static final long LAST_SECOND = LocalDate.of(2200, 1, 1).toEpochDay() * SECONDS_PER_DAY;
+
+	private static final ConcurrentMap<ZoneId, ZoneOffsetTable> TABLES = new ConcurrentHashMap<>();
+
+	private final ZoneRules rules;
+	/** The local second at which the gap or overlap of each transition starts. */
+	private final long[] windowStarts;
+	private final long[] transitions;
+	private final int[] offsetsBefore;
+	private final int[] offsetsAfter;
+	private final int firstOffset;
+
+	private ZoneOffsetTable(ZoneRules rules) {
+		this.rules = rules;
+		List<ZoneOffsetTransition> found = new ArrayList<>();
+		ZoneOffsetTransition transition = rules.nextTransition(Instant.ofEpochSecond(FIRST_SECOND));
+		while (transition != null && transition.toEpochSecond() < LAST_SECOND) {
+			found.add(transition);
+			transition = rules.nextTransition(transition.getInstant());
+		}
+		int size = found.size();
+		windowStarts = new long[size];
+		transitions = new long[size];
+		offsetsBefore = new int[size];
+		offsetsAfter = new int[size];
+		for (int i = 0; i < size; i++) {
+			transition = found.get(i);
+			transitions[i] = transition.toEpochSecond();
+			offsetsBefore[i] = transition.getOffsetBefore().getTotalSeconds();
+			offsetsAfter[i] = transition.getOffsetAfter().getTotalSeconds();
+			windowStarts[i] = transitions[i] + Math.min(offsetsBefore[i], offsetsAfter[i]);
+		}
+		firstOffset = rules.getOffset(Instant.ofEpochSecond(FIRST_SECOND)).getTotalSeconds();
+	}
+
+	/**
+	 * The table for the zone. Fixed offsets are not kept, as they have nothing
+	 * to look up.
+	 */
+	static ZoneOffsetTable of(ZoneId zone) {
+		ZoneRules rules = zone.getRules();
+		if (rules.isFixedOffset())
+			return new ZoneOffsetTable(rules);
+		return TABLES.computeIfAbsent(zone, z -> new ZoneOffsetTable(rules));
+	}
+
+	/**
+	 * Turns a local date-time into instants as the policies say, writing them
+	 * to {@code out} in order.
+	 *
+	 * @param out
+	 *            room for at least two instants
+	 * @return how many instants were written: none if a gap is skipped, two if
+	 *         both times in an overlap are wanted, otherwise one
+	 * @throws DateTimeException
+	 *             if a policy rejects the local date-time
+	 */
+	int toInstants(LocalDateTime local, GapPolicy gap, OverlapPolicy overlap, Instant[] out) {
+		long localSecond = local.toEpochSecond(ZoneOffset.UTC);
+		if (localSecond < FIRST_SECOND + SECONDS_PER_DAY || localSecond >= LAST_SECOND - SECONDS_PER_DAY)
+			return fromRules(local, gap, overlap, out);
+		int index = Arrays.binarySearch(windowStarts, localSecond);
+		if (index < 0)
+			index = -index - 2;
+		if (index < 0) {
+			out[0] = Instant.ofEpochSecond(localSecond - firstOffset, local.getNano());
+			return 1;
+		}
+		int before = offsetsBefore[index];
+		int after = offsetsAfter[index];
+		if (localSecond >= transitions[index] + Math.max(before, after)) {
+			out[0] = Instant.ofEpochSecond(localSecond - after, local.getNano());
+			return 1;
+		}
+		return resolve(local, localSecond, before, after, transitions[index], gap, overlap, out);
+	}
+
+	private int fromRules(LocalDateTime local, GapPolicy gap, OverlapPolicy overlap, Instant[] out) {
+		ZoneOffsetTransition transition = rules.getTransition(local);
+		if (transition == null) {
+			out[0] = local.toInstant(rules.getOffset(local));
+			return 1;
+		}
+		return resolve(local, local.toEpochSecond(ZoneOffset.UTC), transition.getOffsetBefore().getTotalSeconds(),
+				transition.getOffsetAfter().getTotalSeconds(), transition.toEpochSecond(), gap, overlap, out);
+	}
+
+	/**
+	 * A local time in the gap or overlap of a transition.
+	 */
+	private static int resolve(LocalDateTime local, long localSecond, int before, int after, long transition,
+			GapPolicy gap, OverlapPolicy overlap, Instant[] out) {
+		int nano = local.getNano();
+		if (after > before) {
+			switch (gap) {
+			case SHIFT:
+				out[0] = Instant.ofEpochSecond(localSecond - before, nano);
+				return 1;
+			case NEXT_VALID_TIME:
+				out[0] = Instant.ofEpochSecond(transition);
+				return 1;
+			case SKIP:
+				return 0;
+			default:
+				throw new DateTimeException("Local date-time " + local + " is in a gap");
+			}
+		}
+		switch (overlap) {
+		case EARLIER:
+			out[0] = Instant.ofEpochSecond(localSecond - before, nano);
+			return 1;
+		case LATER:
+			out[0] = Instant.ofEpochSecond(localSecond - after, nano);
+			return 1;
+		case BOTH:
+			out[0] = Instant.ofEpochSecond(localSecond - before, nano);
+			out[1] = Instant.ofEpochSecond(localSecond - after, nano);
+			return 2;
+		default:
+			throw new DateTimeException("Local date-time " + local + " is in an overlap");
+		}
+	}
+
+}
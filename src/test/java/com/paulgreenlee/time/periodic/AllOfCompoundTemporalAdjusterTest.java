@@ -7,6 +7,8 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 import java.time.*;
 import java.time.temporal.*;
 import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import org.junit.jupiter.api.Test;
@@ -85,5 +87,75 @@ public class AllOfCompoundTemporalAdjusterTest {
 		AllOfCompoundTemporalAdjuster fifthSunday = new AllOfCompoundTemporalAdjuster(Arrays.asList(TemporalAdjusters.firstDayOfMonth(), TemporalAdjusters.lastDayOfMonth()), Period.ofMonths(1));
 		assertThrows(DateTimeException.class, () -> LocalDate.now().with(fifthSunday));
 	}
+
+	public static Stream<Arguments> recognizedRules() {
+		return Stream.of(
+				Arguments.of(Arrays.asList(Month.NOVEMBER, CalendarAdjusters.dayOfWeekInMonth(4, DayOfWeek.THURSDAY)), Period.ofYears(1), "Thanksgiving"),
+				Arguments.of(Arrays.asList(CalendarAdjusters.field(ChronoField.DAY_OF_MONTH, 13), DayOfWeek.FRIDAY), Period.ofMonths(1), "Friday the 13th"),
+				Arguments.of(Arrays.asList(CalendarAdjusters.dayOfWeekInMonth(5, DayOfWeek.SUNDAY), CalendarAdjusters.field(ChronoField.DAY_OF_MONTH, 31)), Period.ofMonths(1), "Fifth Sunday on the 31st"),
+				Arguments.of(Arrays.asList(CalendarAdjusters.field(ChronoField.MONTH_OF_YEAR, 2), CalendarAdjusters.field(ChronoField.DAY_OF_MONTH, 29), DayOfWeek.MONDAY), Period.ofYears(1), "Leap day on a Monday"),
+				Arguments.of(Arrays.asList(MonthDay.of(2, 29), DayOfWeek.MONDAY), Period.ofYears(1), "MonthDay leap day on a Monday"),
+				Arguments.of(Arrays.asList(CalendarAdjusters.field(ChronoField.DAY_OF_MONTH, 31), Month.FEBRUARY), Period.ofMonths(1), "Check that throws"),
+				Arguments.of(Arrays.asList(Month.JANUARY, CalendarAdjusters.field(ChronoField.DAY_OF_MONTH, 1), CalendarAdjusters.dayOfWeekInMonth(2, DayOfWeek.MONDAY)), Period.ofYears(1), "Impossible"),
+				Arguments.of(Arrays.asList(CalendarAdjusters.lastDayOfMonth(), DayOfWeek.SUNDAY, CalendarAdjusters.field(ChronoField.HOUR_OF_DAY, 9)), Period.ofMonths(2), "Last day of every other month on a Sunday at 9"),
+				Arguments.of(Arrays.asList(DayOfWeek.TUESDAY, CalendarAdjusters.field(ChronoField.DAY_OF_MONTH, 1)), Period.ofWeeks(1), "Weekly Tuesday the 1st"),
+				Arguments.of(Arrays.asList(CalendarAdjusters.field(ChronoField.YEAR, 2024), MonthDay.of(7, 4)), Period.ofYears(1), "Fixed year")
+			);
+	}
+
+	@ParameterizedTest(name="{index}: {2}")
+	@MethodSource(value = {"recognizedRules"})
+	public void recognizedAdjustersShouldMatchPlainSearch(List<TemporalAdjuster> adjusters, Period period, String testDesc) {
+		AllOfCompoundTemporalAdjuster recognized = new AllOfCompoundTemporalAdjuster(adjusters, period);
+		AllOfCompoundTemporalAdjuster opaque = new AllOfCompoundTemporalAdjuster(
+				adjusters.stream().map(AllOfCompoundTemporalAdjusterTest::opaque).collect(Collectors.toList()), period);
+
+		for (LocalDate date = LocalDate.of(2015, 1, 1); date.getYear() < 2021; date = date.plusDays(53)) {
+			for (Temporal start : Arrays.<Temporal>asList(date, date.atTime(13, 45), date.atTime(13, 45).atZone(ZoneOffset.ofHours(-5)),
+					date.atTime(13, 45).atOffset(ZoneOffset.UTC), date.atTime(13, 45).atZone(ZoneId.of("Europe/Paris")))) {
+				assertThat(start.toString(), adjustOrException(start, recognized), equalTo(adjustOrException(start, opaque)));
+			}
+		}
+	}
+
+	@Test
+	public void shouldFindLeapDayMonday() {
+		AllOfCompoundTemporalAdjuster leapDayMonday = new AllOfCompoundTemporalAdjuster(
+				Arrays.asList(CalendarAdjusters.field(ChronoField.MONTH_OF_YEAR, 2), CalendarAdjusters.field(ChronoField.DAY_OF_MONTH, 29), DayOfWeek.MONDAY),
+				Period.ofYears(1));
+		assertThat(LocalDate.of(2018, 3, 1).with(leapDayMonday), equalTo(LocalDate.of(2044, 2, 29)));
+	}
+
+	@Test
+	public void shouldRejectConflictingTimes() {
+		AllOfCompoundTemporalAdjuster conflicting = new AllOfCompoundTemporalAdjuster(
+				Arrays.asList(CalendarAdjusters.field(ChronoField.HOUR_OF_DAY, 9), CalendarAdjusters.field(ChronoField.HOUR_OF_DAY, 10)),
+				Period.ofDays(1));
+		assertThrows(DateTimeException.class, () -> LocalDateTime.of(2018, 1, 1, 0, 0).with(conflicting));
+	}
+
+	@Test
+	public void shouldTreatAThrowingCheckAsAMismatchWhateverTheOrder() {
+		TemporalAdjuster thirtyFirst = CalendarAdjusters.field(ChronoField.DAY_OF_MONTH, 31);
+		// January moves to February, where the 31st cannot be checked.
+		TemporalAdjuster februaryForJanuary = t -> t.get(ChronoField.MONTH_OF_YEAR) == 1 ? t.with(ChronoField.MONTH_OF_YEAR, 2) : t;
+		List<TemporalAdjuster> adjusters = Arrays.asList(thirtyFirst, februaryForJanuary);
+		LocalDate from = LocalDate.of(2021, 1, 5);
+		assertThat(from.with(new AllOfCompoundTemporalAdjuster(adjusters, Period.ofMonths(1))), equalTo(LocalDate.of(2021, 3, 31)));
+		assertThat(from.with(new AllOfCompoundTemporalAdjuster(adjusters, Period.ofMonths(1),
+				Arrays.asList(februaryForJanuary, thirtyFirst))), equalTo(LocalDate.of(2021, 3, 31)));
+	}
+
+	private static TemporalAdjuster opaque(TemporalAdjuster adjuster) {
+		return t -> t.with(adjuster);
+	}
+
+	private static Object adjustOrException(Temporal start, TemporalAdjuster adjuster) {
+		try {
+			return start.with(adjuster);
+		} catch (DateTimeException e) {
+			return e.getClass();
+		}
+	}
 	
 }
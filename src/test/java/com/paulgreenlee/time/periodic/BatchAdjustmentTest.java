@@ -0,0 +1,90 @@
+package com.paulgreenlee.time.periodic;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.DateTimeException;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.MonthDay;
+import java.time.temporal.ChronoField;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+public class BatchAdjustmentTest {
+
+	private static final long FIRST = LocalDate.of(1900, 1, 1).toEpochDay();
+	private static final long LAST = LocalDate.of(2100, 1, 1).toEpochDay();
+
+	public static Stream<Arguments> rules() {
+		return Stream.of(
+				Arguments.of(PeriodicTemporalAdjusters.forwardOnlyOf(PeriodicTemporalAdjusters.annually(MonthDay.of(2, 29))), 10, "Leap day"),
+				Arguments.of(PeriodicTemporalAdjusters.forwardOnlyOf(PeriodicTemporalAdjusters.weeklyOnDays(DayOfWeek.MONDAY, DayOfWeek.FRIDAY)), 10, "Weekly on days"),
+				Arguments.of(PeriodicTemporalAdjusters.forwardOnlyOf(PeriodicTemporalAdjusters.monthly(t -> t.with(ChronoField.DAY_OF_MONTH, 15))), 10, "Opaque"),
+				Arguments.of(PeriodicTemporalAdjusters.forwardOnlyOf(PeriodicTemporalAdjusters.weekly(DayOfWeek.TUESDAY)), BatchAdjustment.THRESHOLD * 5 + 3, "Split across tasks")
+			);
+	}
+
+	@ParameterizedTest(name="{index}: {2}")
+	@MethodSource(value = {"rules"})
+	public void shouldMatchAdjustingEachDate(PeriodicTemporalAdjuster rule, int rows, String testDesc) {
+		long[] in = randomEpochDays(rows, 3);
+		long[] expected = Arrays.stream(in).map(epochDay -> LocalDate.ofEpochDay(epochDay).with(rule).toEpochDay()).toArray();
+
+		long[] out = new long[rows];
+		rule.adjustAll(in, out);
+		assertThat(out, equalTo(expected));
+
+		long[] parallelOut = new long[rows];
+		rule.adjustAllParallel(in, parallelOut);
+		assertThat(parallelOut, equalTo(expected));
+	}
+
+	@Test
+	public void shouldAdjustEachRowWithItsOwnRule() {
+		List<PeriodicTemporalAdjuster> rules = Arrays.asList(
+				PeriodicTemporalAdjusters.forwardOnlyOf(PeriodicTemporalAdjusters.annually(MonthDay.of(12, 25))),
+				PeriodicTemporalAdjusters.forwardOnlyOf(PeriodicTemporalAdjusters.monthly(t -> t.with(ChronoField.DAY_OF_MONTH, 1))),
+				PeriodicTemporalAdjusters.forwardOnlyOf(PeriodicTemporalAdjusters.weekly(DayOfWeek.SUNDAY)));
+		int rows = BatchAdjustment.THRESHOLD * 3;
+		long[] in = randomEpochDays(rows, 5);
+		int[] ruleIds = new Random(11).ints(rows, 0, rules.size()).toArray();
+
+		long[] expected = new long[rows];
+		for (int i = 0; i < rows; i++)
+			expected[i] = LocalDate.ofEpochDay(in[i]).with(rules.get(ruleIds[i])).toEpochDay();
+
+		long[] out = new long[rows];
+		PeriodicTemporalAdjusters.adjustAll(rules, ruleIds, in, out);
+		assertThat(out, equalTo(expected));
+
+		PeriodicTemporalAdjusters.adjustAllParallel(rules, ruleIds, in, in);
+		assertThat(in, equalTo(expected));
+	}
+
+	@Test
+	public void shouldThrowWhenADateCannotBeAdjusted() {
+		PeriodicTemporalAdjuster rule = PeriodicTemporalAdjusters.annually(CalendarAdjusters.field(ChronoField.DAY_OF_YEAR, 366));
+		long[] in = { LocalDate.of(2020, 1, 1).toEpochDay(), LocalDate.of(2021, 1, 1).toEpochDay() };
+		assertThrows(DateTimeException.class, () -> rule.adjustAll(in, new long[2]));
+	}
+
+	@Test
+	public void shouldRejectArraysOfDifferentLengths() {
+		PeriodicTemporalAdjuster rule = PeriodicTemporalAdjusters.weekly(DayOfWeek.MONDAY);
+		assertThrows(IllegalArgumentException.class, () -> rule.adjustAll(new long[3], new long[2]));
+	}
+
+	private static long[] randomEpochDays(int rows, long seed) {
+		return new Random(seed).longs(rows, FIRST, LAST).toArray();
+	}
+
+}
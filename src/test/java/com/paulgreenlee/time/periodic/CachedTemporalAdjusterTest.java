@@ -0,0 +1,150 @@
+package com.paulgreenlee.time.periodic;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.DateTimeException;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.MonthDay;
+import java.time.Period;
+import java.time.temporal.ChronoField;
+import java.time.temporal.TemporalAdjuster;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+public class CachedTemporalAdjusterTest {
+
+	private static final LocalDate START = LocalDate.of(2018, 6, 20);
+
+	@Test
+	public void shouldAdjustOnceForEachTemporal() {
+		AtomicInteger calls = new AtomicInteger();
+		CachedTemporalAdjuster rule = PeriodicTemporalAdjusters.cached(PeriodicTemporalAdjusters.monthly(t -> {
+			calls.incrementAndGet();
+			return t.with(ChronoField.DAY_OF_MONTH, 15);
+		}), 100);
+
+		for (int i = 0; i < 3; i++) {
+			assertThat(START.with(rule), equalTo(LocalDate.of(2018, 6, 15)));
+			assertThat(START.plusDays(1).with(rule), equalTo(LocalDate.of(2018, 6, 15)));
+		}
+		assertThat(calls.get(), equalTo(2));
+		assertThat(rule.getCache().missCount(), equalTo(2L));
+		assertThat(rule.getCache().hitCount(), equalTo(4L));
+		assertThat(rule.getCache().hitRate(), closeTo(4.0 / 6, 1e-9));
+		assertThat(rule.getPeriod(), equalTo(Period.ofMonths(1)));
+	}
+
+	@Test
+	public void shouldStayWithinMaxEntries() {
+		CachedTemporalAdjuster rule = PeriodicTemporalAdjusters.cached(PeriodicTemporalAdjusters.weekly(DayOfWeek.MONDAY), 50);
+		for (int i = 0; i < 1000; i++)
+			START.plusDays(i).with(rule);
+		assertThat(rule.getCache().size(), lessThanOrEqualTo(50));
+		assertThat(rule.getCache().missCount(), equalTo(1000L));
+
+		rule.getCache().clear();
+		assertThat(rule.getCache().size(), equalTo(0));
+	}
+
+	@Test
+	public void shouldKeepRecentlyUsedEntries() {
+		CachedTemporalAdjuster rule = PeriodicTemporalAdjusters.cached(PeriodicTemporalAdjusters.weekly(DayOfWeek.MONDAY), 50);
+		for (int i = 0; i < 1000; i++) {
+			START.with(rule);
+			START.plusDays(i + 1).with(rule);
+		}
+		assertThat(rule.getCache().missCount(), equalTo(1001L));
+	}
+
+	@Test
+	public void shouldNotCacheExceptions() {
+		CachedTemporalAdjuster rule = PeriodicTemporalAdjusters.cached(
+				PeriodicTemporalAdjusters.annually(CalendarAdjusters.field(ChronoField.DAY_OF_YEAR, 366)), 10);
+		LocalDate start = LocalDate.of(2019, 1, 1);
+		assertThrows(DateTimeException.class, () -> start.with(rule));
+		assertThrows(DateTimeException.class, () -> start.with(rule));
+		assertThat(rule.getCache().missCount(), equalTo(2L));
+		assertThat(rule.getCache().size(), equalTo(0));
+	}
+
+	@Test
+	public void equalRulesShouldShareEntries() {
+		AdjustmentCache cache = new AdjustmentCache(100);
+		START.with(PeriodicTemporalAdjusters.cached(PeriodicTemporalAdjusters.forwardOnlyOf(
+				PeriodicTemporalAdjusters.weeklyOnDays(DayOfWeek.MONDAY, DayOfWeek.FRIDAY)), cache));
+		START.with(PeriodicTemporalAdjusters.cached(PeriodicTemporalAdjusters.forwardOnlyOf(
+				PeriodicTemporalAdjusters.weeklyOnDays(DayOfWeek.MONDAY, DayOfWeek.FRIDAY)), cache));
+		START.with(PeriodicTemporalAdjusters.cached(PeriodicTemporalAdjusters.forwardOnlyOf(
+				PeriodicTemporalAdjusters.everyNWeeks(new NearestOfCompoundTemporalAdjuster(Arrays.asList(DayOfWeek.MONDAY, DayOfWeek.FRIDAY)), 2)), cache));
+		assertThat(cache.hitCount(), equalTo(1L));
+		assertThat(cache.missCount(), equalTo(2L));
+	}
+
+	@Test
+	public void shouldBeSafeToShareBetweenThreads() throws Exception {
+		CachedTemporalAdjuster rule = PeriodicTemporalAdjusters.cached(PeriodicTemporalAdjusters.forwardOnlyOf(
+				PeriodicTemporalAdjusters.monthly(t -> t.with(ChronoField.DAY_OF_MONTH, 1))), 64);
+		PeriodicTemporalAdjuster uncached = PeriodicTemporalAdjusters.forwardOnlyOf(
+				PeriodicTemporalAdjusters.monthly(t -> t.with(ChronoField.DAY_OF_MONTH, 1)));
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<Boolean>> results = new ArrayList<>();
+			for (int thread = 0; thread < 4; thread++) {
+				int seed = thread;
+				results.add(executor.submit(() -> {
+					for (int i = 0; i < 5000; i++) {
+						LocalDate date = START.plusDays((i * 7 + seed) % 200);
+						if (!date.with(rule).equals(date.with(uncached)))
+							return false;
+					}
+					return true;
+				}));
+			}
+			for (Future<Boolean> result : results)
+				assertThat(result.get(), is(true));
+		} finally {
+			executor.shutdown();
+		}
+		assertThat(rule.getCache().hitCount() + rule.getCache().missCount(), equalTo(20000L));
+	}
+
+	public static Stream<Arguments> equalRules() {
+		TemporalAdjuster lambda = t -> t.with(ChronoField.DAY_OF_MONTH, 1);
+		return Stream.of(
+				Arguments.of(PeriodicTemporalAdjusters.weekly(DayOfWeek.MONDAY), PeriodicTemporalAdjusters.weekly(DayOfWeek.MONDAY),
+						PeriodicTemporalAdjusters.everyNWeeks(DayOfWeek.MONDAY, 2), "Simple"),
+				Arguments.of(PeriodicTemporalAdjusters.monthly(lambda), PeriodicTemporalAdjusters.monthly(lambda),
+						PeriodicTemporalAdjusters.annually(lambda), "Simple with the same lambda"),
+				Arguments.of(PeriodicTemporalAdjusters.forwardOnlyOf(PeriodicTemporalAdjusters.annually(MonthDay.of(2, 29))),
+						PeriodicTemporalAdjusters.forwardOnlyOf(PeriodicTemporalAdjusters.annually(MonthDay.of(2, 29))),
+						PeriodicTemporalAdjusters.forwardOnlyOf(PeriodicTemporalAdjusters.annually(MonthDay.of(3, 1))), "Forward only"),
+				Arguments.of(new AllOfCompoundTemporalAdjuster(Arrays.asList(MonthDay.of(2, 29), DayOfWeek.MONDAY), Period.ofYears(1)),
+						new AllOfCompoundTemporalAdjuster(Arrays.asList(MonthDay.of(2, 29), DayOfWeek.MONDAY), Period.ofYears(1)),
+						new AllOfCompoundTemporalAdjuster(Arrays.asList(MonthDay.of(2, 29), DayOfWeek.MONDAY), Period.ofYears(4)), "All of, by period")
+			);
+	}
+
+	@ParameterizedTest(name="{index}: {3}")
+	@MethodSource(value = {"equalRules"})
+	public void shouldCompareRulesByValue(PeriodicTemporalAdjuster rule, PeriodicTemporalAdjuster equal,
+			PeriodicTemporalAdjuster different, String testDesc) {
+		assertThat(rule, equalTo(equal));
+		assertThat(rule.hashCode(), equalTo(equal.hashCode()));
+		assertThat(rule, not(equalTo(different)));
+	}
+
+}
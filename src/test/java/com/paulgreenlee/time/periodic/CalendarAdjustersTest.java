@@ -0,0 +1,186 @@
+package com.paulgreenlee.time.periodic;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.DateTimeException;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.Month;
+import java.time.MonthDay;
+import java.time.temporal.ChronoField;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjuster;
+import java.time.temporal.TemporalAdjusters;
+import java.util.Arrays;
+import java.util.function.ToLongBiFunction;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+public class CalendarAdjustersTest {
+
+	private static final LocalDate FIRST = LocalDate.of(1999, 12, 1);
+	private static final LocalDate LAST = LocalDate.of(2001, 3, 31);
+
+	public static Stream<Arguments> equivalentAdjusters() {
+		return Stream.of(
+				Arguments.of(CalendarAdjusters.dayOfWeekInMonth(2, DayOfWeek.TUESDAY), TemporalAdjusters.dayOfWeekInMonth(2, DayOfWeek.TUESDAY), "second Tuesday"),
+				Arguments.of(CalendarAdjusters.dayOfWeekInMonth(5, DayOfWeek.SUNDAY), TemporalAdjusters.dayOfWeekInMonth(5, DayOfWeek.SUNDAY), "fifth Sunday"),
+				Arguments.of(CalendarAdjusters.dayOfWeekInMonth(0, DayOfWeek.FRIDAY), TemporalAdjusters.dayOfWeekInMonth(0, DayOfWeek.FRIDAY), "zeroth Friday"),
+				Arguments.of(CalendarAdjusters.dayOfWeekInMonth(-2, DayOfWeek.MONDAY), TemporalAdjusters.dayOfWeekInMonth(-2, DayOfWeek.MONDAY), "second last Monday"),
+				Arguments.of(CalendarAdjusters.firstInMonth(DayOfWeek.WEDNESDAY), TemporalAdjusters.firstInMonth(DayOfWeek.WEDNESDAY), "first Wednesday"),
+				Arguments.of(CalendarAdjusters.lastInMonth(DayOfWeek.SATURDAY), TemporalAdjusters.lastInMonth(DayOfWeek.SATURDAY), "last Saturday"),
+				Arguments.of(CalendarAdjusters.firstDayOfMonth(), TemporalAdjusters.firstDayOfMonth(), "first day of month"),
+				Arguments.of(CalendarAdjusters.lastDayOfMonth(), TemporalAdjusters.lastDayOfMonth(), "last day of month"),
+				Arguments.of(CalendarAdjusters.firstDayOfYear(), TemporalAdjusters.firstDayOfYear(), "first day of year"),
+				Arguments.of(CalendarAdjusters.lastDayOfYear(), TemporalAdjusters.lastDayOfYear(), "last day of year"),
+				Arguments.of(CalendarAdjusters.field(ChronoField.DAY_OF_MONTH, 31), field(ChronoField.DAY_OF_MONTH, 31), "31st"),
+				Arguments.of(CalendarAdjusters.field(ChronoField.DAY_OF_YEAR, 366), field(ChronoField.DAY_OF_YEAR, 366), "366th day"),
+				Arguments.of(CalendarAdjusters.field(ChronoField.MONTH_OF_YEAR, 2), field(ChronoField.MONTH_OF_YEAR, 2), "February"),
+				Arguments.of(CalendarAdjusters.field(ChronoField.YEAR, 2004), field(ChronoField.YEAR, 2004), "2004"),
+				Arguments.of(CalendarAdjusters.field(ChronoField.DAY_OF_WEEK, 4), DayOfWeek.THURSDAY, "Thursday"),
+				Arguments.of(EpochDayAdjuster.of(Month.FEBRUARY), Month.FEBRUARY, "Month"),
+				Arguments.of(EpochDayAdjuster.of(DayOfWeek.SUNDAY), DayOfWeek.SUNDAY, "DayOfWeek"),
+				Arguments.of(CalendarAdjusters.nearestDayOfWeek(DayOfWeek.FRIDAY, DayOfWeek.MONDAY, DayOfWeek.WEDNESDAY),
+						new NearestOfCompoundTemporalAdjuster(Arrays.asList(DayOfWeek.MONDAY, DayOfWeek.WEDNESDAY, DayOfWeek.FRIDAY)), "nearest of Monday, Wednesday, Friday"),
+				Arguments.of(CalendarAdjusters.nearestDayOfWeek(DayOfWeek.SUNDAY, DayOfWeek.TUESDAY),
+						new NearestOfCompoundTemporalAdjuster(Arrays.asList(DayOfWeek.TUESDAY, DayOfWeek.SUNDAY)), "nearest of Tuesday, Sunday"),
+				Arguments.of(CalendarAdjusters.nearestDayOfWeek(DayOfWeek.SATURDAY), DayOfWeek.SATURDAY, "nearest of Saturday"),
+				Arguments.of(CalendarAdjusters.nearestDayOfMonth(31, 1, 15, 30), nearest(CalendarAdjustersTest::days, false,
+						field(ChronoField.DAY_OF_MONTH, 1), field(ChronoField.DAY_OF_MONTH, 15), field(ChronoField.DAY_OF_MONTH, 30), field(ChronoField.DAY_OF_MONTH, 31)), "nearest of 1st, 15th, 30th, 31st"),
+				Arguments.of(CalendarAdjusters.nearestDayOfMonth(30, 29), nearest(CalendarAdjustersTest::days, false,
+						field(ChronoField.DAY_OF_MONTH, 29), field(ChronoField.DAY_OF_MONTH, 30)), "nearest of 29th, 30th"),
+				Arguments.of(CalendarAdjusters.nearestDayOfMonth(31), field(ChronoField.DAY_OF_MONTH, 31), "nearest of 31st"),
+				Arguments.of(CalendarAdjusters.nearestMonth(Month.DECEMBER, Month.FEBRUARY, Month.JUNE), nearest(CalendarAdjustersTest::months, false,
+						Month.FEBRUARY, Month.JUNE, Month.DECEMBER), "nearest of February, June, December"),
+				Arguments.of(CalendarAdjusters.nearestMonth(Month.MARCH), Month.MARCH, "nearest of March"),
+				Arguments.of(CalendarAdjusters.nearestDayOfWeekInMonth(CalendarAdjusters.firstInMonth(DayOfWeek.MONDAY),
+						CalendarAdjusters.lastInMonth(DayOfWeek.FRIDAY), CalendarAdjusters.dayOfWeekInMonth(3, DayOfWeek.WEDNESDAY)),
+						nearest(CalendarAdjustersTest::days, true, TemporalAdjusters.firstInMonth(DayOfWeek.MONDAY),
+								TemporalAdjusters.lastInMonth(DayOfWeek.FRIDAY), TemporalAdjusters.dayOfWeekInMonth(3, DayOfWeek.WEDNESDAY)), "nearest of first Monday, third Wednesday, last Friday"),
+				Arguments.of(CalendarAdjusters.nearestDayOfWeekInMonth(CalendarAdjusters.dayOfWeekInMonth(5, DayOfWeek.THURSDAY),
+						CalendarAdjusters.dayOfWeekInMonth(-5, DayOfWeek.SUNDAY)),
+						nearest(CalendarAdjustersTest::days, true, TemporalAdjusters.dayOfWeekInMonth(5, DayOfWeek.THURSDAY),
+								TemporalAdjusters.dayOfWeekInMonth(-5, DayOfWeek.SUNDAY)), "nearest of fifth Thursday, fifth last Sunday")
+			);
+	}
+
+	/**
+	 * The nearest of the members by the distance given, ties going to the
+	 * earlier, leaving out members that throw or, if asked, leave the month.
+	 */
+	private static TemporalAdjuster nearest(ToLongBiFunction<LocalDate, LocalDate> distance, boolean sameMonth, TemporalAdjuster... members) {
+		return t -> {
+			LocalDate date = (LocalDate) t;
+			LocalDate nearest = null;
+			for (TemporalAdjuster member : members) {
+				LocalDate candidate = adjustOrNull(date, member);
+				if (candidate == null || sameMonth && candidate.getMonth() != date.getMonth())
+					continue;
+				if (nearest == null || distance.applyAsLong(date, candidate) < distance.applyAsLong(date, nearest)
+						|| distance.applyAsLong(date, candidate) == distance.applyAsLong(date, nearest) && candidate.isBefore(nearest))
+					nearest = candidate;
+			}
+			if (nearest == null)
+				throw new DateTimeException("No member");
+			return nearest;
+		};
+	}
+
+	private static long days(LocalDate date, LocalDate candidate) {
+		return Math.abs(ChronoUnit.DAYS.between(date, candidate));
+	}
+
+	private static long months(LocalDate date, LocalDate candidate) {
+		return Math.abs(candidate.getMonthValue() - date.getMonthValue());
+	}
+
+	private static TemporalAdjuster field(ChronoField field, long value) {
+		return t -> t.with(field, value);
+	}
+
+	@ParameterizedTest(name="{index}: {2}")
+	@MethodSource(value = {"equivalentAdjusters"})
+	public void shouldAdjustLikeTheJdk(Object adjuster, TemporalAdjuster expected, String testDesc) {
+		for (LocalDate date = FIRST; !date.isAfter(LAST); date = date.plusDays(1)) {
+			LocalDate jdk = adjustOrNull(date, expected);
+			if (adjuster instanceof TemporalAdjuster)
+				assertThat(date.toString(), adjustOrNull(date, (TemporalAdjuster) adjuster), equalTo(jdk));
+			if (adjuster instanceof EpochDayAdjuster) {
+				long epochDay = ((EpochDayAdjuster) adjuster).adjustEpochDay(date.toEpochDay());
+				assertThat(date.toString(), epochDay, equalTo(jdk == null ? EpochDayAdjuster.INVALID : jdk.toEpochDay()));
+			}
+		}
+	}
+
+	@Test
+	public void monthDayShouldMatchInLeapAndOtherYears() {
+		EpochDayAdjuster adjuster = EpochDayAdjuster.of(MonthDay.of(2, 29));
+		for (LocalDate date = FIRST; !date.isAfter(LAST); date = date.plusDays(1))
+			assertThat(adjuster.adjustEpochDay(date.toEpochDay()), equalTo(date.with(MonthDay.of(2, 29)).toEpochDay()));
+	}
+
+	@Test
+	public void epochDaysShouldMatchLocalDate() {
+		for (long epochDay = -800_000; epochDay < 800_000; epochDay += 97) {
+			LocalDate date = LocalDate.ofEpochDay(epochDay);
+			long packed = EpochDays.packed(epochDay);
+			assertThat(EpochDays.year(packed), equalTo((long) date.getYear()));
+			assertThat(EpochDays.month(packed), equalTo(date.getMonthValue()));
+			assertThat(EpochDays.day(packed), equalTo(date.getDayOfMonth()));
+			assertThat(EpochDays.dayOfWeek(epochDay), equalTo(date.getDayOfWeek().getValue()));
+			assertThat(EpochDays.of(date.getYear(), date.getMonthValue(), date.getDayOfMonth()), equalTo(epochDay));
+			assertThat(EpochDays.plus(epochDay, 13, 5), equalTo(date.plusMonths(13).plusDays(5).toEpochDay()));
+		}
+	}
+
+	@Test
+	public void shouldHaveValueEquality() {
+		assertThat(CalendarAdjusters.lastInMonth(DayOfWeek.MONDAY), equalTo(CalendarAdjusters.dayOfWeekInMonth(-1, DayOfWeek.MONDAY)));
+		assertThat(CalendarAdjusters.field(ChronoField.DAY_OF_MONTH, 1), equalTo(CalendarAdjusters.firstDayOfMonth()));
+		assertThat(CalendarAdjusters.field(ChronoField.DAY_OF_MONTH, 1).hashCode(), equalTo(CalendarAdjusters.firstDayOfMonth().hashCode()));
+		assertThat(CalendarAdjusters.field(ChronoField.DAY_OF_MONTH, 2), not(equalTo(CalendarAdjusters.firstDayOfMonth())));
+		assertThat(CalendarAdjusters.nearestDayOfWeek(DayOfWeek.FRIDAY, DayOfWeek.MONDAY, DayOfWeek.FRIDAY),
+				equalTo(CalendarAdjusters.nearestDayOfWeek(DayOfWeek.MONDAY, DayOfWeek.FRIDAY)));
+		assertThat(CalendarAdjusters.nearestDayOfMonth(1, 15).hashCode(), equalTo(CalendarAdjusters.nearestDayOfMonth(15, 1).hashCode()));
+		assertThat(CalendarAdjusters.nearestDayOfWeekInMonth(CalendarAdjusters.lastInMonth(DayOfWeek.MONDAY)),
+				equalTo(CalendarAdjusters.nearestDayOfWeekInMonth(CalendarAdjusters.dayOfWeekInMonth(-1, DayOfWeek.MONDAY))));
+		assertThat(CalendarAdjusters.nearestMonth(Month.MAY), not(equalTo(CalendarAdjusters.nearestMonth(Month.JUNE))));
+		assertThat(CalendarAdjusters.nearestDayOfWeekInMonth(CalendarAdjusters.firstInMonth(DayOfWeek.MONDAY),
+				CalendarAdjusters.dayOfWeekInMonth(-2, DayOfWeek.FRIDAY)).toString(), equalTo("NearestDayOfWeekInMonth[1 MONDAY, -2 FRIDAY]"));
+	}
+
+	@Test
+	public void shouldRejectValuesOutsideTheField() {
+		assertThrows(DateTimeException.class, () -> CalendarAdjusters.field(ChronoField.DAY_OF_MONTH, 32));
+		assertThrows(DateTimeException.class, () -> CalendarAdjusters.nearestDayOfMonth(1, 0));
+		assertThrows(IllegalArgumentException.class, () -> CalendarAdjusters.nearestDayOfWeekInMonth(CalendarAdjusters.dayOfWeekInMonth(0, DayOfWeek.MONDAY)));
+		assertThrows(IllegalArgumentException.class, () -> CalendarAdjusters.nearestDayOfWeekInMonth(CalendarAdjusters.dayOfWeekInMonth(6, DayOfWeek.MONDAY)));
+		assertThrows(IllegalArgumentException.class, () -> CalendarAdjusters.nearestDayOfWeekInMonth(DayOfWeek.MONDAY));
+	}
+
+	@Test
+	public void nearestMemberShouldPreferExactThenNearerThenLower() {
+		long members = 1L << 3 | 1L << 7 | 1L << 20;
+		assertThat(CalendarAdjusters.nearestMember(members, 7), equalTo(7));
+		assertThat(CalendarAdjusters.nearestMember(members, 5), equalTo(3));
+		assertThat(CalendarAdjusters.nearestMember(members, 6), equalTo(7));
+		assertThat(CalendarAdjusters.nearestMember(members, 1), equalTo(3));
+		assertThat(CalendarAdjusters.nearestMember(members, 31), equalTo(20));
+		assertThat(CalendarAdjusters.nearestMember(0, 4), equalTo(-1));
+	}
+
+	private static LocalDate adjustOrNull(LocalDate date, TemporalAdjuster adjuster) {
+		try {
+			return date.with(adjuster);
+		} catch (DateTimeException e) {
+			return null;
+		}
+	}
+
+}
@@ -0,0 +1,132 @@
+package com.paulgreenlee.time.periodic;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.DateTimeException;
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.Period;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+public class CronRuleTest {
+
+	/** Whether the time of day is among the given values. */
+	private interface TimeMatcher {
+		boolean matches(int second, int minute, int hour);
+	}
+
+	/** Whether the date is among the given values, with Sunday as 0. */
+	private interface DayMatcher {
+		boolean matches(int dayOfMonth, int month, int dayOfWeek);
+	}
+
+	public static Stream<Arguments> rules() {
+		return Stream.of(
+				Arguments.of("0 */5 9-16 * * MON-FRI", (TimeMatcher) (s, m, h) -> s == 0 && m % 5 == 0 && h >= 9 && h <= 16,
+						(DayMatcher) (d, mo, w) -> w >= 1 && w <= 5, "Every five minutes in business hours"),
+				Arguments.of("30 0 12 1,15 * *", (TimeMatcher) (s, m, h) -> s == 30 && m == 0 && h == 12,
+						(DayMatcher) (d, mo, w) -> d == 1 || d == 15, "Twice a month"),
+				Arguments.of("*/20 59 23 31 * *", (TimeMatcher) (s, m, h) -> s % 20 == 0 && m == 59 && h == 23,
+						(DayMatcher) (d, mo, w) -> d == 31, "Late on the 31st"),
+				Arguments.of("0 0 0 29 FEB 1", (TimeMatcher) (s, m, h) -> s == 0 && m == 0 && h == 0,
+						(DayMatcher) (d, mo, w) -> d == 29 && mo == 2 && w == 1, "Leap days on a Monday"),
+				Arguments.of("15 10-40/10 */6 * JAN,jul-SEP 0,6", (TimeMatcher) (s, m, h) -> s == 15 && m >= 10 && m <= 40 && m % 10 == 0
+						&& h % 6 == 0, (DayMatcher) (d, mo, w) -> (mo == 1 || (mo >= 7 && mo <= 9)) && (w == 0 || w == 6),
+						"Weekends in some months"),
+				Arguments.of("7 13 * * *", (TimeMatcher) (s, m, h) -> s == 0 && m == 7 && h == 13,
+						(DayMatcher) (d, mo, w) -> true, "Five fields")
+			);
+	}
+
+	private static LocalDateTime bruteForce(TimeMatcher time, DayMatcher day, LocalDateTime start) {
+		LocalDateTime first = start.getNano() == 0 ? start : start.withNano(0).plusSeconds(1);
+		for (LocalDate date = first.toLocalDate(); ; date = date.plusDays(1)) {
+			if (!day.matches(date.getDayOfMonth(), date.getMonthValue(), date.getDayOfWeek().getValue() % 7))
+				continue;
+			int from = date.equals(first.toLocalDate()) ? first.toLocalTime().toSecondOfDay() : 0;
+			for (int second = from; second < 86400; second++) {
+				if (time.matches(second % 60, second / 60 % 60, second / 3600))
+					return date.atTime(LocalTime.ofSecondOfDay(second));
+			}
+		}
+	}
+
+	@ParameterizedTest(name="{index}: {3}")
+	@MethodSource(value = {"rules"})
+	public void shouldFindTheFirstMatch(String rule, TimeMatcher time, DayMatcher day, String testDesc) {
+		CronRule cron = CronRule.parse(rule);
+		Random random = new Random(13);
+		for (int i = 0; i < 60; i++) {
+			LocalDateTime start = LocalDateTime.of(2000, 1, 1, 0, 0).plusSeconds((long) random.nextInt(Integer.MAX_VALUE) * 3 / 2)
+					.withNano(i % 4 == 0 ? 500 : 0);
+			LocalDateTime expected = bruteForce(time, day, start);
+			assertThat(start.toString(), start.with(cron), equalTo(expected));
+			assertThat(expected.with(cron), sameInstance(expected));
+		}
+	}
+
+	@ParameterizedTest(name="{index}: {3}")
+	@MethodSource(value = {"rules"})
+	public void shouldStepThroughEveryMatch(String rule, TimeMatcher time, DayMatcher day, String testDesc) {
+		CronRule cron = CronRule.parse(rule);
+		LocalDateTime start = LocalDateTime.of(2019, 12, 30, 23, 0);
+		List<LocalDateTime> occurrences = Occurrences.occurrences(cron, start, 50).collect(Collectors.toList());
+		LocalDateTime previous = start;
+		for (LocalDateTime occurrence : occurrences) {
+			assertThat(occurrence, equalTo(bruteForce(time, day, previous.plusSeconds(1))));
+			previous = occurrence;
+		}
+		assertThat(CronRule.parse(cron.toString()), equalTo(cron));
+	}
+
+	@Test
+	public void shouldWorkWithTheOtherAdjusters() {
+		PeriodicTemporalAdjuster businessHours = PeriodicTemporalAdjusters.cron("0 */5 9-16 * * MON-FRI");
+		LocalDateTime friday = LocalDateTime.of(2018, 10, 5, 16, 55);
+		assertThat(Occurrences.occurrences(businessHours, friday, 2).toArray(), arrayContaining(
+				LocalDateTime.of(2018, 10, 8, 9, 0), LocalDateTime.of(2018, 10, 8, 9, 5)));
+		assertThat(Occurrences.occurrences(businessHours, friday, friday.plusWeeks(1)).count(), equalTo(479L));
+		assertThat(Occurrences.occurrencesBetween(businessHours, friday, friday.plusWeeks(1)).size(), equalTo(479));
+		assertThat(businessHours.getPeriod(), equalTo(Duration.ofMinutes(5)));
+
+		PeriodicTemporalAdjuster fridayMornings = PeriodicTemporalAdjusters.forwardOnlyOf(new AllOfCompoundTemporalAdjuster(
+				Arrays.asList(CronRule.parse("0 30 9 * * *"), DayOfWeek.FRIDAY), Period.ofWeeks(1)));
+		assertThat(LocalDateTime.of(2018, 10, 3, 10, 0).with(fridayMornings), equalTo(LocalDateTime.of(2018, 10, 5, 9, 30)));
+
+		ZonedDateTime beforeGap = ZonedDateTime.of(2018, 3, 25, 0, 30, 0, 0, ZoneId.of("Europe/London"));
+		assertThat(beforeGap.with(CronRule.parse("0 30 1 * * *")), equalTo(ZonedDateTime.of(2018, 3, 25, 2, 30, 0, 0, ZoneId.of("Europe/London"))));
+	}
+
+	@Test
+	public void shouldRejectInvalidRules() {
+		for (String rule : new String[] { "", "* * * *", "* * * * * * *", "60 * * * * *", "* * 24 * * *", "* * * 0 * *",
+				"* * * * 13 *", "* * * * * 8", "* * * * FOO *", "5-1 * * * * *", "*/0 * * * * *", "1,,2 * * * * *",
+				"0 0 0 30 2 *", "0 0 0 31 APR,JUN *" })
+			assertThrows(IllegalArgumentException.class, () -> CronRule.parse(rule), rule);
+		assertThat(CronRule.parse("0 0 12 * * 7"), equalTo(CronRule.parse("0 0 12 ? * SUN")));
+		assertThat(CronRule.parse("0 0 12 * * 0-6"), equalTo(CronRule.parse("0 0 12 * * *")));
+	}
+
+	@Test
+	public void shouldNeedATimeOfDay() {
+		assertThrows(DateTimeException.class, () -> LocalDate.of(2018, 1, 1).with(CronRule.parse("0 0 12 * * *")));
+		assertThrows(DateTimeException.class, () -> LocalDateTime.MAX.minusMinutes(1).with(CronRule.parse("0 0 12 * * *")));
+	}
+
+}
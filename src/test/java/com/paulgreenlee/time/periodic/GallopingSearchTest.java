@@ -0,0 +1,210 @@
+package com.paulgreenlee.time.periodic;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.DateTimeException;
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.Month;
+import java.time.Period;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoField;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.Temporal;
+import java.time.temporal.TemporalAdjuster;
+import java.time.temporal.TemporalAmount;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+public class GallopingSearchTest {
+
+	private static final ZoneId NEW_YORK = ZoneId.of("America/New_York");
+
+	/** Mondays, on a schedule that lags ten years behind the date it is given. */
+	private static final TemporalAdjuster TEN_YEARS_BEHIND = temporal -> temporal.minus(Period.ofYears(10)).with(DayOfWeek.MONDAY);
+
+	/** Mondays, on a schedule that runs ten years ahead of the date it is given. */
+	private static final TemporalAdjuster TEN_YEARS_AHEAD = temporal -> temporal.plus(Period.ofYears(10)).with(DayOfWeek.MONDAY);
+
+	public static Stream<Arguments> distantRules() {
+		return Stream.of(
+				Arguments.of(TEN_YEARS_BEHIND, TEN_YEARS_AHEAD, Period.ofWeeks(1), LocalDate.of(2018, 3, 7), "Weekly dates"),
+				Arguments.of(TEN_YEARS_BEHIND, TEN_YEARS_AHEAD, Period.ofDays(3), LocalDate.of(2018, 3, 7), "Every three days"),
+				Arguments.of(TEN_YEARS_BEHIND, TEN_YEARS_AHEAD, Period.ofMonths(1), LocalDate.of(2018, 3, 7), "Monthly from early in the month"),
+				Arguments.of(TEN_YEARS_BEHIND, TEN_YEARS_AHEAD, Period.ofMonths(1), LocalDate.of(2018, 3, 31), "Monthly from the 31st, which steps"),
+				Arguments.of(TEN_YEARS_BEHIND, TEN_YEARS_AHEAD, Duration.ofHours(25), LocalDateTime.of(2018, 3, 7, 12, 0), "Every 25 hours"),
+				Arguments.of(TEN_YEARS_BEHIND, TEN_YEARS_AHEAD, Duration.ofHours(25), ZonedDateTime.of(2018, 3, 7, 12, 0, 0, 0, NEW_YORK), "Every 25 hours in New York"),
+				Arguments.of(TEN_YEARS_BEHIND, TEN_YEARS_AHEAD, Period.ofDays(1), ZonedDateTime.of(2018, 3, 7, 2, 30, 0, 0, NEW_YORK), "Daily across daylight saving, which steps"),
+				Arguments.of(TEN_YEARS_BEHIND, TEN_YEARS_AHEAD, Period.ofDays(1), ZonedDateTime.of(2018, 3, 7, 2, 30, 0, 0, ZoneOffset.UTC), "Daily in UTC"),
+				Arguments.of(CalendarAdjusters.firstDayOfYear(), CalendarAdjusters.lastDayOfYear(), Duration.ofHours(25), LocalDateTime.of(2018, 3, 7, 12, 0), "Yearly days every 25 hours"),
+				Arguments.of(CalendarAdjusters.firstDayOfYear(), CalendarAdjusters.lastDayOfYear(), Duration.ofHours(25), ZonedDateTime.of(2018, 3, 7, 12, 0, 0, 0, NEW_YORK), "Yearly days every 25 hours in New York"),
+				Arguments.of(PeriodicTemporalAdjusters.annually(Month.JANUARY), PeriodicTemporalAdjusters.annually(Month.DECEMBER), Period.ofDays(1), ZonedDateTime.of(2018, 3, 7, 12, 0, 0, 0, ZoneOffset.UTC), "Yearly months daily in UTC")
+			);
+	}
+
+	@ParameterizedTest(name="{index}: {4}")
+	@MethodSource(value = {"distantRules"})
+	public void shouldFindWhatLinearSearchFinds(TemporalAdjuster behind, TemporalAdjuster ahead, TemporalAmount period,
+			Temporal start, String testDesc) {
+		ForwardOnlyTemporalAdjuster linearForward = new ForwardOnlyTemporalAdjuster(behind, period);
+		ForwardOnlyTemporalAdjuster gallopingForward = new ForwardOnlyTemporalAdjuster(behind, period, SearchStrategy.GALLOPING);
+		BackwardOnlyTemporalAdjuster linearBackward = new BackwardOnlyTemporalAdjuster(ahead, period);
+		BackwardOnlyTemporalAdjuster gallopingBackward = new BackwardOnlyTemporalAdjuster(ahead, period, SearchStrategy.GALLOPING);
+		Random random = new Random(7);
+		for (int i = 0; i < 100; i++) {
+			Temporal temporal = start.plus(random.nextInt(2000), ChronoUnit.DAYS);
+			Temporal next = temporal.with(gallopingForward);
+			assertThat(next, equalTo(temporal.with(linearForward)));
+			assertThat(ChronoUnit.DAYS.between(temporal, next), greaterThanOrEqualTo(0L));
+			Temporal previous = temporal.with(gallopingBackward);
+			assertThat(previous, equalTo(temporal.with(linearBackward)));
+			assertThat(ChronoUnit.DAYS.between(previous, temporal), greaterThanOrEqualTo(0L));
+		}
+	}
+
+	@Test
+	public void shouldMakeFewAdjustmentsForDistantOccurrences() {
+		AtomicInteger linearCount = new AtomicInteger();
+		AtomicInteger gallopingCount = new AtomicInteger();
+		LocalDate start = LocalDate.of(2018, 3, 7);
+		LocalDate linear = start.with(new ForwardOnlyTemporalAdjuster(counting(TEN_YEARS_BEHIND, linearCount), Period.ofWeeks(1)));
+		GallopingSearch gallop = GallopingSearch.of(start, counting(TEN_YEARS_BEHIND, gallopingCount), Period.ofWeeks(1),
+				ChronoUnit.DAYS, false);
+		assertThat(gallop.run(start.with(TEN_YEARS_BEHIND), ForwardOnlyTemporalAdjuster.SAFETY_CUTOFF), is(true));
+		assertThat(gallop.occurrence(), equalTo(linear));
+		assertThat(linearCount.get(), greaterThan(500));
+		assertThat(gallopingCount.get(), lessThan(25));
+	}
+
+	@Test
+	public void shouldGallopOnlyWithMonotonicAdjusters() {
+		AtomicInteger count = new AtomicInteger();
+		LocalDate start = LocalDate.of(2018, 3, 7);
+		LocalDate linear = start.with(new ForwardOnlyTemporalAdjuster(TEN_YEARS_BEHIND, Period.ofWeeks(1)));
+		assertThat(start.with(new ForwardOnlyTemporalAdjuster(counting(TEN_YEARS_BEHIND, count), Period.ofWeeks(1),
+				SearchStrategy.GALLOPING)), equalTo(linear));
+		assertThat(count.get(), greaterThan(500));
+
+		assertThat(GallopingSearch.isMonotonic(DayOfWeek.MONDAY), is(true));
+		assertThat(GallopingSearch.isMonotonic(CalendarAdjusters.field(ChronoField.DAY_OF_MONTH, 13)), is(true));
+		assertThat(GallopingSearch.isMonotonic(CalendarAdjusters.nearestMonth(Month.MARCH, Month.JUNE)), is(true));
+		assertThat(GallopingSearch.isMonotonic(PeriodicTemporalAdjusters.monthly(CalendarAdjusters.lastInMonth(DayOfWeek.FRIDAY))),
+				is(true));
+		assertThat(GallopingSearch.isMonotonic(PeriodicTemporalAdjusters.weekly(TEN_YEARS_BEHIND)), is(false));
+		assertThat(GallopingSearch.isMonotonic(PeriodicTemporalAdjusters.intersection(PeriodicTemporalAdjusters.weekly(DayOfWeek.FRIDAY),
+				PeriodicTemporalAdjusters.monthly(CalendarAdjusters.field(ChronoField.DAY_OF_MONTH, 13)))), is(false));
+	}
+
+	@Test
+	public void shouldNotStepPastAnAdjusterThatGoesBackBetweenSamples() {
+		LocalDate start = LocalDate.of(2018, 3, 7);
+		// On time three weeks on and from five weeks on; behind in the weeks between, where galloping does not look.
+		TemporalAdjuster backInWeekFour = temporal -> {
+			long weeks = ChronoUnit.WEEKS.between(start, temporal);
+			return weeks == 3 || weeks >= 5 ? temporal : temporal.minus(Period.ofWeeks(10));
+		};
+		GallopingSearch gallop = GallopingSearch.of(start, backInWeekFour, Period.ofWeeks(1), ChronoUnit.DAYS, false);
+		assertThat(gallop.run(start.with(backInWeekFour), ForwardOnlyTemporalAdjuster.SAFETY_CUTOFF), is(true));
+		assertThat(gallop.occurrence(), equalTo(start.plusWeeks(5)));
+		// The adjuster is opaque, so asking for galloping gets the occurrence stepping finds.
+		assertThat(start.with(new ForwardOnlyTemporalAdjuster(backInWeekFour, Period.ofWeeks(1), SearchStrategy.GALLOPING)),
+				equalTo(start.plusWeeks(3)));
+	}
+
+	@Test
+	public void shouldFindNearbyOccurrences() {
+		PeriodicTemporalAdjuster fridays = PeriodicTemporalAdjusters.weekly(DayOfWeek.FRIDAY);
+		LocalDate wednesday = LocalDate.of(2018, 3, 7);
+		assertThat(wednesday.with(PeriodicTemporalAdjusters.forwardOnlyOf(fridays, SearchStrategy.GALLOPING)), equalTo(LocalDate.of(2018, 3, 9)));
+		assertThat(wednesday.with(PeriodicTemporalAdjusters.backwardOnlyOf(fridays, SearchStrategy.GALLOPING)), equalTo(LocalDate.of(2018, 3, 2)));
+		assertThat(wednesday.with(PeriodicTemporalAdjusters.backwardOnlyOf(fridays)), equalTo(LocalDate.of(2018, 3, 2)));
+		LocalDate friday = LocalDate.of(2018, 3, 9);
+		assertThat(friday.with(PeriodicTemporalAdjusters.forwardOnlyOf(fridays, SearchStrategy.GALLOPING)), equalTo(LocalDate.of(2018, 3, 16)));
+		assertThat(friday.with(PeriodicTemporalAdjusters.backwardOnlyOf(fridays, SearchStrategy.GALLOPING)), equalTo(LocalDate.of(2018, 3, 2)));
+	}
+
+	public static Stream<Arguments> limits() {
+		return Stream.of(
+				Arguments.of(9999, true, "Found at the limit"),
+				Arguments.of(10000, false, "Just past the limit")
+			);
+	}
+
+	@ParameterizedTest(name="{index}: {2}")
+	@MethodSource(value = {"limits"})
+	public void shouldGiveUpWhereLinearSearchGivesUp(int weeksBehind, boolean found, String testDesc) {
+		TemporalAdjuster behind = temporal -> temporal.minus(Period.ofWeeks(weeksBehind));
+		TemporalAdjuster ahead = temporal -> temporal.plus(Period.ofWeeks(weeksBehind));
+		LocalDate start = LocalDate.of(2018, 3, 7);
+		ForwardOnlyTemporalAdjuster forward = new ForwardOnlyTemporalAdjuster(behind, Period.ofWeeks(1), SearchStrategy.GALLOPING);
+		BackwardOnlyTemporalAdjuster backward = new BackwardOnlyTemporalAdjuster(ahead, Period.ofWeeks(1), SearchStrategy.GALLOPING);
+		if (found) {
+			assertThat(start.with(forward), equalTo(start.plusWeeks(1)));
+			assertThat(start.with(backward), equalTo(start.minusWeeks(1)));
+		} else {
+			assertThrows(DateTimeException.class, () -> start.with(forward));
+			assertThrows(DateTimeException.class, () -> start.with(backward));
+		}
+	}
+
+	@Test
+	public void shouldFallBackWhenAdjustmentsGoBackwards() {
+		// Only 2021 is on time, and the years after it go back a century.
+		TemporalAdjuster onlyIn2021 = temporal -> {
+			int year = ((LocalDate) temporal).getYear();
+			return year == 2021 ? temporal : ((LocalDate) temporal).minusYears(year < 2021 ? 10 : 100);
+		};
+		LocalDate start = LocalDate.of(2018, 6, 1);
+		assertThat(start.with(new ForwardOnlyTemporalAdjuster(onlyIn2021, Period.ofYears(1), SearchStrategy.GALLOPING)),
+				equalTo(LocalDate.of(2021, 6, 1)));
+	}
+
+	public static Stream<Arguments> multiples() {
+		return Stream.of(
+				Arguments.of(LocalDate.of(2018, 1, 28), Period.ofMonths(1), true, "Months from the 28th"),
+				Arguments.of(LocalDate.of(2018, 1, 29), Period.ofMonths(1), false, "Months from the 29th"),
+				Arguments.of(LocalDate.of(2016, 2, 29), Period.ofYears(1), false, "Years from a leap day"),
+				Arguments.of(LocalDate.of(2018, 1, 5), Period.ofMonths(1).plusDays(1), false, "Months and days"),
+				Arguments.of(LocalDate.of(2018, 1, 31), Period.ofWeeks(2), true, "Weeks"),
+				Arguments.of(LocalDate.of(2018, 1, 31), Period.ZERO, false, "Nothing"),
+				Arguments.of(ZonedDateTime.of(2018, 1, 5, 0, 0, 0, 0, NEW_YORK), Period.ofDays(1), false, "Days with daylight saving"),
+				Arguments.of(ZonedDateTime.of(2018, 1, 5, 0, 0, 0, 0, NEW_YORK), Duration.ofDays(1), true, "A duration with daylight saving"),
+				Arguments.of(ZonedDateTime.of(2018, 1, 5, 0, 0, 0, 0, ZoneOffset.ofHours(2)), Period.ofDays(1), true, "Days at a fixed offset")
+			);
+	}
+
+	@ParameterizedTest(name="{index}: {3}")
+	@MethodSource(value = {"multiples"})
+	public void shouldOnlyMultiplyExactPeriods(Temporal temporal, TemporalAmount period, boolean exact, String testDesc) {
+		assertThat(GallopingSearch.multipliesExactly(temporal, period), is(exact));
+	}
+
+	@Test
+	public void shouldTellStrategiesApart() {
+		PeriodicTemporalAdjuster fridays = PeriodicTemporalAdjusters.weekly(DayOfWeek.FRIDAY);
+		assertThat(ForwardOnlyTemporalAdjuster.of(fridays, SearchStrategy.LINEAR), equalTo(ForwardOnlyTemporalAdjuster.of(fridays)));
+		assertThat(ForwardOnlyTemporalAdjuster.of(fridays, SearchStrategy.GALLOPING), not(equalTo(ForwardOnlyTemporalAdjuster.of(fridays))));
+		assertThat(BackwardOnlyTemporalAdjuster.of(fridays, SearchStrategy.GALLOPING),
+				equalTo(BackwardOnlyTemporalAdjuster.of(fridays, SearchStrategy.GALLOPING)));
+	}
+
+	private static TemporalAdjuster counting(TemporalAdjuster adjuster, AtomicInteger count) {
+		return temporal -> {
+			count.incrementAndGet();
+			return adjuster.adjustInto(temporal);
+		};
+	}
+
+}
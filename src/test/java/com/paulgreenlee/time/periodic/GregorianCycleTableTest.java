@@ -0,0 +1,113 @@
+package com.paulgreenlee.time.periodic;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.Month;
+import java.time.MonthDay;
+import java.time.Period;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoField;
+import java.time.temporal.Temporal;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+public class GregorianCycleTableTest {
+
+	public static Stream<Arguments> dateOnlyRules() {
+		return Stream.of(
+				Arguments.of(PeriodicTemporalAdjusters.annually(MonthDay.of(2, 14)), "Valentine's Day"),
+				Arguments.of(PeriodicTemporalAdjusters.annually(MonthDay.of(2, 29)), "Leap day, or the 28th"),
+				Arguments.of(PeriodicTemporalAdjusters.monthly(CalendarAdjusters.lastInMonth(DayOfWeek.FRIDAY)), "Last Friday"),
+				Arguments.of(PeriodicTemporalAdjusters.weekly(DayOfWeek.TUESDAY), "Tuesdays"),
+				Arguments.of(new AllOfCompoundTemporalAdjuster(
+						Arrays.asList(Month.NOVEMBER, CalendarAdjusters.dayOfWeekInMonth(4, DayOfWeek.THURSDAY)), Period.ofYears(1)), "Thanksgiving"),
+				Arguments.of(new AllOfCompoundTemporalAdjuster(
+						Arrays.asList(CalendarAdjusters.field(ChronoField.DAY_OF_MONTH, 13), DayOfWeek.FRIDAY), Period.ofMonths(1)), "Friday the 13th")
+			);
+	}
+
+	@ParameterizedTest(name="{index}: {1}")
+	@MethodSource(value = {"dateOnlyRules"})
+	public void tableShouldMatchForwardOnly(PeriodicTemporalAdjuster rule, String testDesc) {
+		GregorianCycleTable table = GregorianCycleTable.compile(rule).get();
+		PeriodicTemporalAdjuster forwardOnly = PeriodicTemporalAdjusters.forwardOnlyOf(rule);
+
+		Random random = new Random(7);
+		long first = LocalDate.of(1582, 10, 15).toEpochDay();
+		long last = LocalDate.of(2600, 1, 1).toEpochDay();
+		for (int i = 0; i < 2000; i++) {
+			LocalDate date = LocalDate.ofEpochDay(first + (long) (random.nextDouble() * (last - first)));
+			assertThat(date.toString(), table.next(date), equalTo(date.with(forwardOnly)));
+		}
+	}
+
+	@Test
+	public void shouldCountOccurrencesPerCycle() {
+		assertThat(GregorianCycleTable.compile(PeriodicTemporalAdjusters.annually(MonthDay.of(7, 4))).get().occurrencesPerCycle(), equalTo(400));
+		assertThat(GregorianCycleTable.compile(PeriodicTemporalAdjusters.weekly(DayOfWeek.MONDAY)).get().occurrencesPerCycle(), equalTo(20871));
+	}
+
+	@Test
+	public void shouldNotCompileOpaqueRules() {
+		PeriodicTemporalAdjuster rule = PeriodicTemporalAdjusters.monthly(t -> t.with(ChronoField.DAY_OF_MONTH, 1));
+		assertThat(GregorianCycleTable.compile(rule).isPresent(), is(false));
+	}
+
+	@Test
+	public void shouldNotCompileRulesTiedToAYear() {
+		PeriodicTemporalAdjuster rule = new AllOfCompoundTemporalAdjuster(
+				Arrays.asList(CalendarAdjusters.field(ChronoField.YEAR, 2030), MonthDay.of(1, 1)), Period.ofYears(1));
+		assertThat(GregorianCycleTable.compile(rule).isPresent(), is(false));
+	}
+
+	@Test
+	public void shouldNotCompileRulesThatDependOnTheStartDate() {
+		// Weeks are counted from whatever date the rule is applied to
+		assertThat(GregorianCycleTable.compile(PeriodicTemporalAdjusters.everyNWeeks(DayOfWeek.THURSDAY, 2)).isPresent(), is(false));
+		assertThat(GregorianCycleTable.compile(PeriodicTemporalAdjusters.everyNWeeks(DayOfWeek.THURSDAY, 3)).isPresent(), is(false));
+	}
+
+	@Test
+	public void precomputedShouldMatchForwardOnlyForEveryKindOfTemporal() {
+		PeriodicTemporalAdjuster rule = PeriodicTemporalAdjusters.monthly(CalendarAdjusters.dayOfWeekInMonth(2, DayOfWeek.TUESDAY));
+		PeriodicTemporalAdjuster precomputed = PeriodicTemporalAdjusters.precomputed(rule, new GregorianCycleTableCache(1024 * 1024));
+		PeriodicTemporalAdjuster forwardOnly = PeriodicTemporalAdjusters.forwardOnlyOf(rule);
+
+		for (LocalDate date = LocalDate.of(2018, 1, 1); date.getYear() < 2020; date = date.plusDays(5)) {
+			LocalDateTime dateTime = date.atTime(1, 30);
+			for (Temporal start : Arrays.<Temporal>asList(date, dateTime, dateTime.atOffset(ZoneOffset.ofHours(2)),
+					dateTime.atZone(ZoneOffset.UTC), dateTime.atZone(ZoneId.of("Europe/London"))))
+				assertThat(start.toString(), start.with(precomputed), equalTo(start.with(forwardOnly)));
+		}
+	}
+
+	@Test
+	public void cacheShouldStayWithinItsBound() {
+		GregorianCycleTableCache cache = new GregorianCycleTableCache(40 * 1024);
+		for (DayOfWeek day : DayOfWeek.values()) {
+			assertThat(cache.get(PeriodicTemporalAdjusters.weekly(day)).isPresent(), is(true));
+			assertThat(cache.sizeInBytes(), lessThanOrEqualTo(cache.maxBytes()));
+		}
+		assertThat(cache.size(), lessThan(DayOfWeek.values().length));
+	}
+
+	@Test
+	public void cacheShouldShareTablesForTheSameRule() {
+		GregorianCycleTableCache cache = new GregorianCycleTableCache(1024 * 1024);
+		PeriodicTemporalAdjuster rule = PeriodicTemporalAdjusters.annually(MonthDay.of(12, 25));
+		assertThat(cache.get(rule).get(), sameInstance(cache.get(rule).get()));
+		assertThat(cache.size(), equalTo(1));
+	}
+
+}
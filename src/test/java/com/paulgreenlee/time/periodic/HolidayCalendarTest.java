@@ -0,0 +1,157 @@
+package com.paulgreenlee.time.periodic;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.DateTimeException;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.Month;
+import java.time.Period;
+import java.time.YearMonth;
+import java.time.temporal.ChronoField;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+public class HolidayCalendarTest {
+
+	private static final LocalDate FROM = LocalDate.of(2015, 1, 1);
+	private static final LocalDate TO = LocalDate.of(2035, 1, 1);
+
+	private static List<LocalDate> holidays(long seed) {
+		Random random = new Random(seed);
+		List<LocalDate> holidays = new ArrayList<>();
+		for (int i = 0; i < 400; i++)
+			holidays.add(FROM.plusDays(random.nextInt(7305)));
+		// Before the calendar, so ignored.
+		holidays.add(FROM.minusDays(3));
+		return holidays;
+	}
+
+	private static boolean isBusinessDay(LocalDate date, Set<DayOfWeek> weekend, Set<LocalDate> holidays) {
+		return !weekend.contains(date.getDayOfWeek()) && !holidays.contains(date);
+	}
+
+	private static LocalDate plusBusinessDays(LocalDate date, long n, Set<DayOfWeek> weekend, Set<LocalDate> holidays) {
+		int step = n < 0 ? -1 : 1;
+		for (long i = 0; i != n; i += step) {
+			date = date.plusDays(step);
+			while (!isBusinessDay(date, weekend, holidays))
+				date = date.plusDays(step);
+		}
+		return date;
+	}
+
+	private static LocalDate businessDayOfMonth(YearMonth month, int n, Set<DayOfWeek> weekend, Set<LocalDate> holidays) {
+		List<LocalDate> days = new ArrayList<>();
+		for (LocalDate date = month.atDay(1); !date.isAfter(month.atEndOfMonth()); date = date.plusDays(1)) {
+			if (isBusinessDay(date, weekend, holidays))
+				days.add(date);
+		}
+		int index = n > 0 ? n - 1 : days.size() + n;
+		return index >= 0 && index < days.size() ? days.get(index) : null;
+	}
+
+	private static void assertAgreesWithCounting(HolidayCalendar calendar, Set<DayOfWeek> weekend, Set<LocalDate> holidays) {
+		Random random = new Random(23);
+		for (int i = 0; i < 3000; i++) {
+			LocalDate date = FROM.plusDays(50 + random.nextInt(7200));
+			long n = random.nextInt(61) - 30;
+			assertThat(date + " " + n, calendar.plusBusinessDays(date, n), equalTo(plusBusinessDays(date, n, weekend, holidays)));
+			assertThat(date.toString(), calendar.isBusinessDay(date), equalTo(isBusinessDay(date, weekend, holidays)));
+			LocalDate other = date.plusDays(random.nextInt(41) - 20);
+			long between = 0;
+			for (LocalDate day = date; day.isBefore(other); day = day.plusDays(1))
+				between += isBusinessDay(day, weekend, holidays) ? 1 : 0;
+			for (LocalDate day = other; day.isBefore(date); day = day.plusDays(1))
+				between -= isBusinessDay(day, weekend, holidays) ? 1 : 0;
+			assertThat(date + " to " + other, calendar.businessDaysBetween(date, other), equalTo(between));
+		}
+		for (YearMonth month = YearMonth.from(FROM); month.isBefore(YearMonth.from(TO)); month = month.plusMonths(1)) {
+			for (int n : new int[] { 1, 3, 10, -1, -2 }) {
+				LocalDate expected = businessDayOfMonth(month, n, weekend, holidays);
+				assertThat(month + " " + n, calendar.businessDayOfMonth(month, n), equalTo(expected));
+			}
+		}
+	}
+
+	@Test
+	public void shouldAgreeWithCountingDayByDay() {
+		List<LocalDate> holidays = holidays(1);
+		HolidayCalendar calendar = new HolidayCalendar(FROM, TO, holidays);
+		assertAgreesWithCounting(calendar, EnumSet.of(DayOfWeek.SATURDAY, DayOfWeek.SUNDAY), new HashSet<>(holidays));
+	}
+
+	@Test
+	public void shouldUseOtherWeekends() {
+		Set<DayOfWeek> weekend = EnumSet.of(DayOfWeek.FRIDAY, DayOfWeek.SATURDAY);
+		List<LocalDate> holidays = holidays(2);
+		HolidayCalendar calendar = new HolidayCalendar(FROM, TO, weekend, holidays);
+		assertAgreesWithCounting(calendar, weekend, new HashSet<>(holidays));
+	}
+
+	@Test
+	public void shouldComposeIntoRules() {
+		HolidayCalendar calendar = new HolidayCalendar(FROM, TO, Arrays.asList(LocalDate.of(2018, 10, 1), LocalDate.of(2018, 11, 22)));
+		PeriodicTemporalAdjuster third = PeriodicTemporalAdjusters.forwardOnlyOf(
+				PeriodicTemporalAdjusters.monthly(calendar.businessDayOfMonth(3)));
+		assertThat(Occurrences.occurrences(third, LocalDate.of(2018, 9, 5), 3).toArray(), arrayContaining(
+				LocalDate.of(2018, 10, 4), LocalDate.of(2018, 11, 5), LocalDate.of(2018, 12, 5)));
+
+		PeriodicTemporalAdjuster dueAfterFifteenth = PeriodicTemporalAdjusters.forwardOnlyOf(PeriodicTemporalAdjusters.monthly(
+				calendar.businessDaysAfter(CalendarAdjusters.field(ChronoField.DAY_OF_MONTH, 15), 5)));
+		assertThat(Occurrences.occurrences(dueAfterFifteenth, LocalDate.of(2018, 10, 1), 2).toArray(), arrayContaining(
+				LocalDate.of(2018, 10, 22), LocalDate.of(2018, 11, 23)));
+		PeriodicTemporalAdjuster opaqueAnchor = PeriodicTemporalAdjusters.forwardOnlyOf(PeriodicTemporalAdjusters.monthly(
+				calendar.businessDaysAfter(t -> t.with(ChronoField.DAY_OF_MONTH, 15), 5)));
+		assertThat(Occurrences.occurrences(opaqueAnchor, LocalDate.of(2018, 10, 1), 2).toArray(), arrayContaining(
+				LocalDate.of(2018, 10, 22), LocalDate.of(2018, 11, 23)));
+
+		PeriodicTemporalAdjuster thanksgivingIfOpen = PeriodicTemporalAdjusters.forwardOnlyOf(new AllOfCompoundTemporalAdjuster(
+				Arrays.asList(Month.NOVEMBER, CalendarAdjusters.dayOfWeekInMonth(4, DayOfWeek.THURSDAY), calendar.nextOrSameBusinessDay()),
+				Period.ofYears(1)));
+		assertThat(LocalDate.of(2018, 1, 1).with(thanksgivingIfOpen), equalTo(LocalDate.of(2019, 11, 28)));
+		assertThat(LocalDate.of(2018, 11, 22).with(calendar.previousOrSameBusinessDay()), equalTo(LocalDate.of(2018, 11, 21)));
+
+		LocalDateTime time = LocalDateTime.of(2018, 9, 28, 17, 30);
+		assertThat(time.with(calendar.plusBusinessDays(1)), equalTo(LocalDateTime.of(2018, 10, 2, 17, 30)));
+	}
+
+	@Test
+	public void shouldSeeReloadedHolidaysInRulesAlreadyBuilt() {
+		HolidayCalendar calendar = new HolidayCalendar(FROM, TO, Collections.emptyList());
+		PeriodicTemporalAdjuster first = PeriodicTemporalAdjusters.forwardOnlyOf(
+				PeriodicTemporalAdjusters.monthly(calendar.businessDayOfMonth(1)));
+		LocalDate start = LocalDate.of(2018, 12, 15);
+		assertThat(start.with(first), equalTo(LocalDate.of(2019, 1, 1)));
+		calendar.reload(Arrays.asList(LocalDate.of(2019, 1, 1)));
+		assertThat(start.with(first), equalTo(LocalDate.of(2019, 1, 2)));
+		assertThat(calendar.plusBusinessDays(LocalDate.of(2018, 12, 31), 1), equalTo(LocalDate.of(2019, 1, 2)));
+	}
+
+	@Test
+	public void shouldRejectDatesOutsideTheCalendar() {
+		HolidayCalendar calendar = new HolidayCalendar(FROM, TO, Collections.emptyList());
+		assertThrows(DateTimeException.class, () -> calendar.isBusinessDay(TO));
+		assertThrows(DateTimeException.class, () -> calendar.plusBusinessDays(FROM.minusDays(1), 1));
+		assertThrows(DateTimeException.class, () -> calendar.plusBusinessDays(FROM, -1));
+		assertThrows(DateTimeException.class, () -> calendar.plusBusinessDays(TO.minusDays(1), 1));
+		assertThrows(DateTimeException.class, () -> calendar.businessDayOfMonth(YearMonth.from(TO), 1));
+		assertThrows(DateTimeException.class, () -> calendar.businessDayOfMonth(YearMonth.of(2018, 2), 21));
+		assertThrows(DateTimeException.class, () -> TO.with(calendar.nextOrSameBusinessDay()));
+		assertThat(calendar.businessDaysBetween(TO.minusDays(7), TO), equalTo(5L));
+		assertThrows(IllegalArgumentException.class, () -> calendar.businessDayOfMonth(0));
+		assertThrows(IllegalArgumentException.class, () -> new HolidayCalendar(TO, FROM, Collections.emptyList()));
+	}
+
+}
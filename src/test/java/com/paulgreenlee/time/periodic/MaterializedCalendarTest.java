@@ -0,0 +1,158 @@
+package com.paulgreenlee.time.periodic;
+
+import static com.paulgreenlee.time.periodic.PeriodicTemporalAdjusters.*;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.DateTimeException;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.Period;
+import java.time.temporal.ChronoField;
+import java.time.temporal.Temporal;
+import java.time.temporal.TemporalAmount;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+public class MaterializedCalendarTest {
+
+	private static final LocalDate START = LocalDate.of(2017, 12, 20);
+	private static final LocalDate END = LocalDate.of(2021, 3, 1);
+
+	private static final PeriodicTemporalAdjuster MON_WED_FRI = weeklyOnDays(DayOfWeek.MONDAY, DayOfWeek.WEDNESDAY, DayOfWeek.FRIDAY);
+	private static final PeriodicTemporalAdjuster FIRST = monthly(CalendarAdjusters.field(ChronoField.DAY_OF_MONTH, 1));
+	private static final PeriodicTemporalAdjuster THIRTEENTH = monthly(CalendarAdjusters.field(ChronoField.DAY_OF_MONTH, 13));
+
+	private static TreeSet<LocalDate> dates(PeriodicTemporalAdjuster rule) {
+		return new TreeSet<>(Occurrences.occurrencesBetween(rule, START, END));
+	}
+
+	private static List<LocalDate> without(TreeSet<LocalDate> dates, TreeSet<LocalDate> others) {
+		TreeSet<LocalDate> difference = new TreeSet<>(dates);
+		difference.removeAll(others);
+		return new ArrayList<>(difference);
+	}
+
+	public static Stream<Arguments> changes() {
+		return Stream.of(
+				Arguments.of(MON_WED_FRI, weeklyOnDays(DayOfWeek.MONDAY, DayOfWeek.WEDNESDAY, DayOfWeek.THURSDAY, DayOfWeek.FRIDAY),
+						"Adding Thursday"),
+				Arguments.of(MON_WED_FRI, weeklyOnDays(DayOfWeek.MONDAY, DayOfWeek.FRIDAY), "Removing Wednesday"),
+				Arguments.of(monthly(CalendarAdjusters.field(ChronoField.DAY_OF_MONTH, 15)),
+						monthly(CalendarAdjusters.field(ChronoField.DAY_OF_MONTH, 16)), "Moving a monthly day"),
+				Arguments.of(union(MON_WED_FRI, FIRST), union(MON_WED_FRI, THIRTEENTH), "Replacing part of a union"),
+				Arguments.of(weekly(DayOfWeek.FRIDAY), union(weekly(DayOfWeek.FRIDAY), THIRTEENTH), "Adding an overlapping rule"),
+				Arguments.of(union(MON_WED_FRI, weekly(DayOfWeek.MONDAY)), weekly(DayOfWeek.FRIDAY), "Removing an overlapping rule"),
+				Arguments.of(forwardOnlyOf(MON_WED_FRI), MON_WED_FRI, "The same occurrences"),
+				Arguments.of(everyNWeeks(DayOfWeek.TUESDAY, 2), MON_WED_FRI, "Nothing in common")
+			);
+	}
+
+	@ParameterizedTest(name="{index}: {2}")
+	@MethodSource(value = {"changes"})
+	public void shouldPublishOnlyTheChanges(PeriodicTemporalAdjuster before, PeriodicTemporalAdjuster after, String testDesc) {
+		MaterializedCalendar<String, LocalDate> calendar = new MaterializedCalendar<>(START, END);
+		List<MaterializedCalendar.Delta<String, LocalDate>> published = new ArrayList<>();
+		calendar.put("other", FIRST);
+		MaterializedCalendar.Delta<String, LocalDate> first = calendar.put("rule", before);
+		assertThat(first.getAdded(), contains(dates(before).toArray()));
+		assertThat(first.getRemoved(), empty());
+		calendar.addListener(published::add);
+
+		MaterializedCalendar.Delta<String, LocalDate> delta = calendar.put("rule", after);
+		assertThat(delta.getKey(), equalTo("rule"));
+		assertThat(delta.getAdded(), equalTo(without(dates(after), dates(before))));
+		assertThat(delta.getRemoved(), equalTo(without(dates(before), dates(after))));
+		assertThat(published, equalTo(delta.isEmpty() ? Collections.emptyList() : Collections.singletonList(delta)));
+		assertThat(calendar.occurrences("rule"), contains(dates(after).toArray()));
+		assertThat(calendar.occurrences("other"), contains(dates(FIRST).toArray()));
+		assertThat(calendar.rule("rule"), sameInstance(after));
+	}
+
+	@Test
+	public void shouldHoldTheOccurrencesOfEachPart() {
+		LocalDateTime start = START.atTime(9, 30);
+		LocalDateTime end = END.atTime(9, 30);
+		MaterializedCalendar<Integer, LocalDateTime> calendar = new MaterializedCalendar<>(start, end);
+		List<PeriodicTemporalAdjuster> rules = new ArrayList<>();
+		rules.add(union(weeklyOnDays(DayOfWeek.TUESDAY, DayOfWeek.SATURDAY), FIRST, weekly(DayOfWeek.SATURDAY)));
+		rules.add(weeklyOnDays(DayOfWeek.SUNDAY, DayOfWeek.MONDAY, DayOfWeek.SATURDAY));
+		rules.add(CronRule.parse("0 0,30 9-11 * * MON-FRI"));
+		for (int i = 0; i < rules.size(); i++) {
+			calendar.put(i, rules.get(i));
+			assertThat(calendar.occurrences(i), contains(Occurrences.occurrencesBetween(rules.get(i), start, end).toArray()));
+		}
+		assertThat(calendar.size(), equalTo(rules.size()));
+		assertThat(MaterializedCalendar.parts(rules.get(0)), contains(weekly(DayOfWeek.TUESDAY), weekly(DayOfWeek.SATURDAY), FIRST));
+	}
+
+	@Test
+	public void shouldOnlyExpandTheNewParts() {
+		AtomicInteger adjustments = new AtomicInteger();
+		PeriodicTemporalAdjuster counted = new PeriodicTemporalAdjuster() {
+			@Override
+			public Temporal adjustInto(Temporal temporal) {
+				adjustments.incrementAndGet();
+				return temporal.with(DayOfWeek.TUESDAY);
+			}
+
+			@Override
+			public TemporalAmount getPeriod() {
+				return Period.ofWeeks(1);
+			}
+		};
+		MaterializedCalendar<String, LocalDate> calendar = new MaterializedCalendar<>(START, END);
+		calendar.put("rule", union(counted, FIRST));
+		int expanded = adjustments.get();
+		assertThat(expanded, greaterThan(0));
+		MaterializedCalendar.Delta<String, LocalDate> delta = calendar.put("rule", union(counted, THIRTEENTH));
+		assertThat(adjustments.get(), equalTo(expanded));
+		// The 13ths that are Tuesdays were already there.
+		assertThat(delta.getAdded(), equalTo(without(dates(THIRTEENTH), dates(counted))));
+		assertThat(delta.getAdded(), not(hasItem(LocalDate.of(2018, 3, 13))));
+	}
+
+	@Test
+	public void shouldRemoveEveryOccurrence() {
+		MaterializedCalendar<String, LocalDate> calendar = new MaterializedCalendar<>(START, END);
+		List<MaterializedCalendar.Delta<String, LocalDate>> published = new ArrayList<>();
+		calendar.addListener(published::add);
+		calendar.put("rule", MON_WED_FRI);
+		MaterializedCalendar.Delta<String, LocalDate> delta = calendar.remove("rule");
+		assertThat(delta.getAdded(), empty());
+		assertThat(delta.getRemoved(), contains(dates(MON_WED_FRI).toArray()));
+		assertThat(published, hasSize(2));
+		assertThat(calendar.contains("rule"), equalTo(false));
+		assertThat(calendar.occurrences("rule"), empty());
+		assertThat(calendar.remove("rule"), nullValue());
+		assertThat(calendar.isEmpty(), equalTo(true));
+	}
+
+	@Test
+	public void shouldChangeNothingWhenARuleFails() {
+		MaterializedCalendar<String, LocalDate> calendar = new MaterializedCalendar<>(START, END);
+		calendar.put("rule", MON_WED_FRI);
+		PeriodicTemporalAdjuster never = weekly(t -> { throw new DateTimeException("never"); });
+		assertThrows(DateTimeException.class, () -> calendar.put("rule", union(MON_WED_FRI, never)));
+		assertThat(calendar.rule("rule"), sameInstance(MON_WED_FRI));
+		assertThat(calendar.occurrences("rule"), contains(dates(MON_WED_FRI).toArray()));
+	}
+
+	@Test
+	public void shouldRejectAnEmptyHorizon() {
+		assertThrows(IllegalArgumentException.class, () -> new MaterializedCalendar<String, LocalDate>(START, START));
+		assertThrows(NullPointerException.class, () -> new MaterializedCalendar<String, LocalDate>(START, null));
+	}
+
+}
@@ -3,10 +3,12 @@ package com.paulgreenlee.time.periodic;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.*;
 
+import java.time.DateTimeException;
 import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.time.temporal.ChronoField;
 import java.time.temporal.Temporal;
 import java.time.temporal.TemporalAdjuster;
 import java.time.temporal.TemporalAdjusters;
@@ -58,4 +60,22 @@ public class NearestOfCompoundTemporalAdjusterTest {
 		LocalDateTime actual = start.with(adjuster);
 		assertThat(actual, equalTo(LocalDateTime.of(SUNDAY, LocalTime.of(15, 30))));
 	}
+
+	@Test
+	public void shouldStopAtAnExactMatch() {
+		TemporalAdjuster failing = (Temporal temporal) -> {
+			throw new DateTimeException("not needed");
+		};
+		NearestOfCompoundTemporalAdjuster adjuster = new NearestOfCompoundTemporalAdjuster(Arrays.asList(DayOfWeek.SUNDAY, failing));
+		assertThat(SUNDAY.with(adjuster), equalTo(SUNDAY));
+	}
+
+	@Test
+	public void shouldStopAtAnExactMatchInEpochDays() {
+		// The 31st does not exist in June, but the 24th is already right.
+		NearestOfCompoundTemporalAdjuster adjuster = new NearestOfCompoundTemporalAdjuster(Arrays.asList(
+				CalendarAdjusters.field(ChronoField.DAY_OF_MONTH, 24), CalendarAdjusters.field(ChronoField.DAY_OF_MONTH, 31)));
+		assertThat(adjuster.epochDayAdjuster().adjustEpochDay(SUNDAY.toEpochDay()), equalTo(SUNDAY.toEpochDay()));
+		assertThat(SUNDAY.with(adjuster), equalTo(SUNDAY));
+	}
 }
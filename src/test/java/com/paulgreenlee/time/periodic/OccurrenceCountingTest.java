@@ -0,0 +1,144 @@
+package com.paulgreenlee.time.periodic;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.Month;
+import java.time.MonthDay;
+import java.time.OffsetDateTime;
+import java.time.Period;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoField;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.Temporal;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+public class OccurrenceCountingTest {
+
+	private static final LocalDate FROM = LocalDate.of(1990, 1, 1);
+
+	private static Function<LocalDate, Temporal> dates() {
+		return date -> date;
+	}
+
+	private static Function<LocalDate, Temporal> dateTimes(LocalTime time) {
+		return date -> date.atTime(time);
+	}
+
+	public static Stream<Arguments> rules() {
+		return Stream.of(
+				Arguments.of(PeriodicTemporalAdjusters.weekly(DayOfWeek.MONDAY), dates(), "Weekly"),
+				Arguments.of(PeriodicTemporalAdjusters.everyNWeeks(DayOfWeek.FRIDAY, 3), dates(), "Every three weeks"),
+				Arguments.of(PeriodicTemporalAdjusters.weeklyOnDays(DayOfWeek.MONDAY, DayOfWeek.WEDNESDAY, DayOfWeek.FRIDAY),
+						dates(), "Weekly on days"),
+				Arguments.of(PeriodicTemporalAdjusters.monthly(CalendarAdjusters.field(ChronoField.DAY_OF_MONTH, 15)), dates(), "Monthly"),
+				Arguments.of(new SimplePeriodicTemporalAdjuster(CalendarAdjusters.field(ChronoField.DAY_OF_MONTH, 28), Period.ofMonths(5)),
+						dates(), "Every five months"),
+				Arguments.of(PeriodicTemporalAdjusters.annually(MonthDay.of(2, 28)), dates(), "Annually"),
+				Arguments.of(PeriodicTemporalAdjusters.forwardOnlyOf(PeriodicTemporalAdjusters.weekly(DayOfWeek.SUNDAY),
+						SearchStrategy.GALLOPING), dates(), "Galloping weekly"),
+				Arguments.of(PeriodicTemporalAdjusters.annually(MonthDay.of(2, 29)), dates(), "Leap days, from a table"),
+				Arguments.of(PeriodicTemporalAdjusters.monthly(CalendarAdjusters.lastDayOfMonth()), dates(), "Last day of the month, from a table"),
+				Arguments.of(new AllOfCompoundTemporalAdjuster(Arrays.asList(Month.NOVEMBER,
+						CalendarAdjusters.dayOfWeekInMonth(4, DayOfWeek.THURSDAY)), Period.ofYears(1)), dates(), "Thanksgiving, from a table"),
+				Arguments.of(new SimplePeriodicTemporalAdjuster(new NearestOfCompoundTemporalAdjuster(Arrays.asList(
+						DayOfWeek.TUESDAY, CalendarAdjusters.field(ChronoField.DAY_OF_MONTH, 1))), Period.ofDays(1)), dates(),
+						"Dense, from a bitset table"),
+				Arguments.of(new SimplePeriodicTemporalAdjuster(t -> t.with(ChronoField.DAY_OF_MONTH, 10), Period.ofMonths(1)),
+						dates(), "Opaque, enumerated"),
+				Arguments.of(PeriodicTemporalAdjusters.weekly(DayOfWeek.MONDAY), dateTimes(LocalTime.of(9, 30)), "Weekly date-times"),
+				Arguments.of(PeriodicTemporalAdjusters.weeklyOnDays(DayOfWeek.TUESDAY, DayOfWeek.SATURDAY),
+						(Function<LocalDate, Temporal>) date -> date.atTime(12, 0).atOffset(ZoneOffset.ofHours(-5)), "Weekly on days, offset date-times"),
+				Arguments.of(PeriodicTemporalAdjusters.monthly(CalendarAdjusters.field(ChronoField.DAY_OF_MONTH, 3)),
+						(Function<LocalDate, Temporal>) date -> date.atStartOfDay(ZoneOffset.UTC.normalized()), "Monthly in a zone, enumerated"),
+				Arguments.of(new SimplePeriodicTemporalAdjuster(t -> t.with(ChronoField.MINUTE_OF_HOUR, 0), Duration.ofHours(7)),
+						dateTimes(LocalTime.NOON), "Every seven hours, enumerated")
+			);
+	}
+
+	@ParameterizedTest(name="{index}: {2}")
+	@MethodSource(value = {"rules"})
+	public void shouldCountAsListingDoes(PeriodicTemporalAdjuster rule, Function<LocalDate, Temporal> at, String testDesc) {
+		Random random = new Random(3);
+		for (int i = 0; i < 200; i++) {
+			LocalDate startDate = FROM.plusDays(random.nextInt(365 * 30));
+			Temporal start = at.apply(startDate);
+			Temporal end = at.apply(startDate.plusDays(random.nextInt(i % 10 == 0 ? 365 * 5 : 60)));
+			if (i % 3 == 0)
+				end = end.plus(random.nextInt(24), ChronoUnit.HOURS.isSupportedBy(end) ? ChronoUnit.HOURS : ChronoUnit.DAYS);
+			long expected = Occurrences.occurrences(rule, start, end).count();
+			assertThat(start + " to " + end, Occurrences.countBetween(rule, start, end), equalTo(expected));
+		}
+		Temporal start = at.apply(FROM);
+		assertThat(Occurrences.countBetween(rule, start, start), equalTo(0L));
+		assertThat(Occurrences.countBetween(rule, start, start.minus(1, ChronoUnit.DAYS)), equalTo(0L));
+	}
+
+	@ParameterizedTest(name="{index}: {2}")
+	@MethodSource(value = {"rules"})
+	public void shouldNumberAsListingDoes(PeriodicTemporalAdjuster rule, Function<LocalDate, Temporal> at, String testDesc) {
+		Random random = new Random(11);
+		for (int i = 0; i < 20; i++) {
+			Temporal start = at.apply(FROM.plusDays(random.nextInt(365 * 30)));
+			List<Temporal> occurrences = Occurrences.occurrences(rule, start, 150).collect(Collectors.toList());
+			for (int n = 1; n <= occurrences.size(); n++) {
+				Temporal occurrence = occurrences.get(n - 1);
+				assertThat(start + " #" + n, Occurrences.nth(rule, start, n), equalTo(occurrence));
+				assertThat(start + " " + occurrence, Occurrences.indexOf(rule, start, occurrence), equalTo((long) n));
+				Temporal before = occurrence.minus(1, ChronoUnit.DAYS);
+				if (n == 1 || !before.equals(occurrences.get(n - 2)))
+					assertThat(start + " " + before, Occurrences.indexOf(rule, start, before), equalTo(-1L));
+			}
+			assertThat(Occurrences.indexOf(rule, start, start), equalTo(-1L));
+		}
+	}
+
+	@Test
+	public void shouldFindOccurrencesFarAway() {
+		LocalDate start = LocalDate.of(2018, 10, 1);
+		PeriodicTemporalAdjuster weekly = PeriodicTemporalAdjusters.weekly(DayOfWeek.MONDAY);
+		assertThat(Occurrences.nth(weekly, start, 10000), equalTo(LocalDate.of(2018, 10, 8).plusWeeks(9999)));
+		assertThat(Occurrences.indexOf(weekly, start, LocalDate.of(2018, 10, 8).plusWeeks(9999)), equalTo(10000L));
+		assertThat(Occurrences.countBetween(weekly, start, start.plusYears(1000)), equalTo(52177L));
+
+		PeriodicTemporalAdjuster thanksgiving = PeriodicTemporalAdjusters.forwardOnlyOf(new AllOfCompoundTemporalAdjuster(
+				Arrays.asList(Month.NOVEMBER, CalendarAdjusters.dayOfWeekInMonth(4, DayOfWeek.THURSDAY)), Period.ofYears(1)));
+		assertThat(Occurrences.nth(thanksgiving, start, 10000), equalTo(LocalDate.of(12017, 11, 23)));
+		assertThat(Occurrences.countBetween(thanksgiving, start.minusYears(5000), start.plusYears(5000)), equalTo(10000L));
+		assertThat(Occurrences.indexOf(thanksgiving, start, LocalDate.of(12017, 11, 23)), equalTo(10000L));
+	}
+
+	@Test
+	public void shouldCountAcrossEveryOffset() {
+		OffsetDateTime start = OffsetDateTime.of(2018, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+		PeriodicTemporalAdjuster monthly = PeriodicTemporalAdjusters.monthly(CalendarAdjusters.field(ChronoField.DAY_OF_MONTH, 1));
+		assertThat(Occurrences.countBetween(monthly, start, start.plusYears(1).withOffsetSameInstant(ZoneOffset.ofHours(2))),
+				equalTo(11L));
+		assertThat(Occurrences.countBetween(monthly, start, start.plusYears(1).withOffsetSameLocal(ZoneOffset.ofHours(-2))),
+				equalTo(12L));
+	}
+
+	@Test
+	public void shouldRejectNumbersBelowOne() {
+		PeriodicTemporalAdjuster weekly = PeriodicTemporalAdjusters.weekly(DayOfWeek.MONDAY);
+		assertThrows(IllegalArgumentException.class, () -> Occurrences.nth(weekly, FROM, 0));
+		assertThrows(IllegalArgumentException.class, () -> Occurrences.nth(weekly, FROM, -1));
+		assertThrows(NullPointerException.class, () -> Occurrences.countBetween(weekly, FROM, null));
+	}
+
+}
@@ -0,0 +1,178 @@
+package com.paulgreenlee.time.periodic;
+
+import static com.paulgreenlee.time.periodic.PeriodicTemporalAdjusters.*;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.DateTimeException;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.ChronoField;
+import java.time.temporal.Temporal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+public class OccurrenceSetAdjusterTest {
+
+	private static final LocalDate START = LocalDate.of(2017, 12, 20);
+	private static final LocalDate END = LocalDate.of(2021, 3, 1);
+
+	private static final PeriodicTemporalAdjuster MON_WED_FRI = weeklyOnDays(DayOfWeek.MONDAY, DayOfWeek.WEDNESDAY, DayOfWeek.FRIDAY);
+	private static final PeriodicTemporalAdjuster FIRST = monthly(CalendarAdjusters.field(ChronoField.DAY_OF_MONTH, 1));
+	private static final PeriodicTemporalAdjuster THIRTEENTH = monthly(CalendarAdjusters.field(ChronoField.DAY_OF_MONTH, 13));
+	private static final PeriodicTemporalAdjuster FRIDAY = weekly(DayOfWeek.FRIDAY);
+	private static final PeriodicTemporalAdjuster WEEKDAYS = weeklyOnDays(DayOfWeek.MONDAY, DayOfWeek.TUESDAY,
+			DayOfWeek.WEDNESDAY, DayOfWeek.THURSDAY, DayOfWeek.FRIDAY);
+	private static final List<LocalDate> HOLIDAYS = holidays();
+
+	private static List<LocalDate> holidays() {
+		Random random = new Random(5);
+		List<LocalDate> holidays = new ArrayList<>();
+		for (int i = 0; i < 120; i++)
+			holidays.add(START.plusDays(random.nextInt(1200)));
+		// Several in a row, and the same date twice.
+		for (int i = 0; i < 10; i++)
+			holidays.add(LocalDate.of(2019, 7, 1).plusDays(i));
+		holidays.add(LocalDate.of(2019, 7, 1));
+		return holidays;
+	}
+
+	private static TreeSet<LocalDate> dates(PeriodicTemporalAdjuster rule) {
+		return Occurrences.occurrences(rule, START, END).collect(Collectors.toCollection(TreeSet::new));
+	}
+
+	private static TreeSet<LocalDate> both(TreeSet<LocalDate> dates, TreeSet<LocalDate> others) {
+		TreeSet<LocalDate> union = new TreeSet<>(dates);
+		union.addAll(others);
+		return union;
+	}
+
+	private static TreeSet<LocalDate> common(TreeSet<LocalDate> dates, TreeSet<LocalDate> others) {
+		TreeSet<LocalDate> intersection = new TreeSet<>(dates);
+		intersection.retainAll(others);
+		return intersection;
+	}
+
+	private static TreeSet<LocalDate> without(TreeSet<LocalDate> dates, Set<LocalDate> others) {
+		TreeSet<LocalDate> difference = new TreeSet<>(dates);
+		difference.removeAll(others);
+		return difference;
+	}
+
+	public static Stream<Arguments> sets() {
+		List<PeriodicTemporalAdjuster> daysOfMonth = new ArrayList<>();
+		TreeSet<LocalDate> oddDays = new TreeSet<>();
+		for (int day = 1; day <= 27; day += 2) {
+			PeriodicTemporalAdjuster rule = monthly(CalendarAdjusters.field(ChronoField.DAY_OF_MONTH, day));
+			daysOfMonth.add(rule);
+			oddDays.addAll(dates(rule));
+		}
+		PeriodicTemporalAdjuster manyDays = union(daysOfMonth.get(0), daysOfMonth.subList(1, daysOfMonth.size())
+				.toArray(new PeriodicTemporalAdjuster[0]));
+		return Stream.of(
+				Arguments.of(union(MON_WED_FRI, FIRST), both(dates(MON_WED_FRI), dates(FIRST)), "Mon/Wed/Fri and the 1st"),
+				Arguments.of(manyDays, oddDays, "Fourteen days of the month"),
+				Arguments.of(intersection(FRIDAY, THIRTEENTH), common(dates(FRIDAY), dates(THIRTEENTH)), "Friday the 13th"),
+				Arguments.of(intersection(WEEKDAYS, manyDays, MON_WED_FRI),
+						common(common(dates(WEEKDAYS), oddDays), dates(MON_WED_FRI)), "Three rules"),
+				Arguments.of(except(WEEKDAYS, FIRST), without(dates(WEEKDAYS), dates(FIRST)), "Weekdays but the 1st"),
+				Arguments.of(except(union(MON_WED_FRI, FIRST), HOLIDAYS), without(both(dates(MON_WED_FRI), dates(FIRST)),
+						new TreeSet<>(HOLIDAYS)), "Mon/Wed/Fri and the 1st except holidays"),
+				Arguments.of(except(except(WEEKDAYS, HOLIDAYS), intersection(FRIDAY, THIRTEENTH)), without(without(dates(WEEKDAYS),
+						new TreeSet<>(HOLIDAYS)), common(dates(FRIDAY), dates(THIRTEENTH))), "Nested"),
+				Arguments.of(except(FIRST, Collections.emptyList()), dates(FIRST), "Nothing excluded")
+			);
+	}
+
+	@ParameterizedTest(name="{index}: {2}")
+	@MethodSource(value = {"sets"})
+	public void shouldListTheSet(PeriodicTemporalAdjuster set, TreeSet<LocalDate> expected, String testDesc) {
+		assertThat(Occurrences.occurrences(set, START, END).collect(Collectors.toList()), contains(expected.toArray()));
+		assertThat(Occurrences.occurrencesBetween(set, START, END), contains(expected.toArray()));
+		assertThat(Occurrences.occurrences(forwardOnlyOf(set), START, END).collect(Collectors.toList()), contains(expected.toArray()));
+	}
+
+	@ParameterizedTest(name="{index}: {2}")
+	@MethodSource(value = {"sets"})
+	public void shouldAdjustToTheNextOccurrence(PeriodicTemporalAdjuster set, TreeSet<LocalDate> expected, String testDesc) {
+		for (LocalDate date = START; date.isBefore(expected.last()); date = date.plusDays(3)) {
+			assertThat(date.toString(), date.with(set), equalTo(expected.higher(date)));
+			assertThat(date.toString(), date.with(forwardOnlyOf(set)), equalTo(expected.higher(date)));
+		}
+	}
+
+	@ParameterizedTest(name="{index}: {2}")
+	@MethodSource(value = {"sets"})
+	public void shouldKeepTheTimeOfDayOfDateRules(PeriodicTemporalAdjuster set, TreeSet<LocalDate> expected, String testDesc) {
+		LocalTime noon = LocalTime.NOON;
+		List<LocalDateTime> atNoon = expected.stream().map(date -> date.atTime(noon)).collect(Collectors.toList());
+		LocalDateTime start = START.atTime(noon);
+		LocalDateTime end = END.atTime(noon);
+		assertThat(Occurrences.occurrences(set, start, end).collect(Collectors.toList()), contains(atNoon.toArray()));
+		assertThat(Occurrences.occurrencesBetween(set, start, end), contains(atNoon.toArray()));
+		for (LocalDate date = START; date.isBefore(expected.last()); date = date.plusDays(3)) {
+			LocalDateTime time = date.atTime(noon);
+			assertThat(time.toString(), time.with(set), equalTo(expected.higher(date).atTime(noon)));
+		}
+	}
+
+	@Test
+	public void shouldCombineDateRulesOnDateTimes() {
+		LocalDateTime start = LocalDateTime.of(2021, 10, 1, 12, 0);
+		assertThat(start.with(except(weekly(DayOfWeek.TUESDAY), Arrays.asList(LocalDate.of(2021, 10, 5)))),
+				equalTo(LocalDateTime.of(2021, 10, 12, 12, 0)));
+		PeriodicTemporalAdjuster thirteenth = intersection(THIRTEENTH, weeklyOnDays(DayOfWeek.WEDNESDAY, DayOfWeek.FRIDAY));
+		assertThat(LocalDate.of(2021, 8, 16).with(thirteenth), equalTo(LocalDate.of(2021, 10, 13)));
+		assertThat(LocalDateTime.of(2021, 8, 16, 12, 0).with(thirteenth), equalTo(LocalDateTime.of(2021, 10, 13, 12, 0)));
+		assertThrows(DateTimeException.class, () -> start.with(except(MON_WED_FRI, MON_WED_FRI)));
+	}
+
+	@Test
+	public void shouldCombineTimesOfDay() {
+		PeriodicTemporalAdjuster everyHalfHour = CronRule.parse("0 0,30 9-11 * * MON-FRI");
+		PeriodicTemporalAdjuster quarterPast = CronRule.parse("0 15 10 * * *");
+		List<LocalDate> holidays = Arrays.asList(LocalDate.of(2018, 10, 9), LocalDate.of(2018, 10, 10));
+		PeriodicTemporalAdjuster rule = except(union(everyHalfHour, quarterPast), holidays);
+		List<Temporal> occurrences = Occurrences.occurrences(rule, LocalDateTime.of(2018, 10, 8, 11, 15), 6)
+				.collect(Collectors.toList());
+		assertThat(occurrences, contains(LocalDateTime.of(2018, 10, 8, 11, 30), LocalDateTime.of(2018, 10, 11, 9, 0),
+				LocalDateTime.of(2018, 10, 11, 9, 30), LocalDateTime.of(2018, 10, 11, 10, 0),
+				LocalDateTime.of(2018, 10, 11, 10, 15), LocalDateTime.of(2018, 10, 11, 10, 30)));
+		assertThat(LocalDateTime.of(2018, 10, 11, 10, 0).with(intersection(everyHalfHour, CronRule.parse("0 0 * * * *"))),
+				equalTo(LocalDateTime.of(2018, 10, 11, 11, 0)));
+	}
+
+	@Test
+	public void shouldFailWhenTheRulesNeverMeet() {
+		PeriodicTemporalAdjuster never = intersection(weekly(DayOfWeek.MONDAY), weekly(DayOfWeek.TUESDAY));
+		assertThrows(DateTimeException.class, () -> START.with(never));
+		PeriodicTemporalAdjuster allExcluded = except(FRIDAY, weekly(DayOfWeek.FRIDAY));
+		assertThrows(DateTimeException.class, () -> START.with(allExcluded));
+	}
+
+	@Test
+	public void shouldCompareByRules() {
+		assertThat(union(MON_WED_FRI, FIRST), equalTo(union(MON_WED_FRI, FIRST)));
+		assertThat(union(MON_WED_FRI, FIRST).hashCode(), equalTo(union(MON_WED_FRI, FIRST).hashCode()));
+		assertThat(union(MON_WED_FRI, FIRST), not(equalTo(intersection(MON_WED_FRI, FIRST))));
+		assertThat(except(FIRST, HOLIDAYS), equalTo(except(FIRST, new ArrayList<>(new TreeSet<>(HOLIDAYS)))));
+		assertThat(except(FIRST, HOLIDAYS), not(equalTo(except(FIRST, HOLIDAYS.subList(0, 5)))));
+		assertThat(union(MON_WED_FRI, FIRST).getPeriod(), equalTo(MON_WED_FRI.getPeriod()));
+	}
+
+}
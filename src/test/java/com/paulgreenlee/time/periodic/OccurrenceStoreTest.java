@@ -0,0 +1,198 @@
+package com.paulgreenlee.time.periodic;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.Month;
+import java.time.MonthDay;
+import java.time.Period;
+import java.time.temporal.ChronoField;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class OccurrenceStoreTest {
+
+	private static final LocalDate FROM = LocalDate.of(2018, 1, 1);
+	private static final LocalDate TO = LocalDate.of(2028, 1, 1);
+
+	private Path file;
+
+	@BeforeEach
+	public void createFile() throws IOException {
+		file = Files.createTempFile("occurrences", ".bin");
+	}
+
+	@AfterEach
+	public void deleteFile() throws IOException {
+		Files.deleteIfExists(file);
+	}
+
+	private static Map<String, PeriodicTemporalAdjuster> dateRules() {
+		Map<String, PeriodicTemporalAdjuster> rules = new LinkedHashMap<>();
+		rules.put("daily", new SimplePeriodicTemporalAdjuster(t -> t, Period.ofDays(1)));
+		rules.put("mondays", PeriodicTemporalAdjusters.weekly(DayOfWeek.MONDAY));
+		rules.put("weekdays", PeriodicTemporalAdjusters.weeklyOnDays(DayOfWeek.MONDAY, DayOfWeek.TUESDAY,
+				DayOfWeek.WEDNESDAY, DayOfWeek.THURSDAY, DayOfWeek.FRIDAY));
+		rules.put("valentines", PeriodicTemporalAdjusters.annually(MonthDay.of(2, 14)));
+		rules.put("thanksgiving", PeriodicTemporalAdjusters.forwardOnlyOf(new AllOfCompoundTemporalAdjuster(
+				Arrays.asList(Month.NOVEMBER, CalendarAdjusters.dayOfWeekInMonth(4, DayOfWeek.THURSDAY)), Period.ofYears(1))));
+		rules.put("leap days on a Monday", new AllOfCompoundTemporalAdjuster(
+				Arrays.asList(MonthDay.of(2, 29), DayOfWeek.MONDAY), Period.ofYears(1)));
+		rules.put("\u00fctf-8", PeriodicTemporalAdjusters.monthly(CalendarAdjusters.lastDayOfMonth()));
+		return rules;
+	}
+
+	@Test
+	public void shouldAnswerAsTheRulesDo() throws IOException {
+		Map<String, PeriodicTemporalAdjuster> rules = dateRules();
+		OccurrenceStore.write(file, rules, FROM, TO);
+		try (OccurrenceStore store = OccurrenceStore.open(file, rules)) {
+			assertThat(store.size(), equalTo(rules.size()));
+			Random random = new Random(17);
+			for (Map.Entry<String, PeriodicTemporalAdjuster> rule : rules.entrySet()) {
+				assertThat(store.contains(rule.getKey()), equalTo(true));
+				ForwardOnlyTemporalAdjuster forward = ForwardOnlyTemporalAdjuster.of(rule.getValue());
+				for (int i = 0; i < 2000; i++) {
+					// Before, in and after the range.
+					LocalDate date = FROM.minusYears(2).plusDays(random.nextInt(365 * 14));
+					assertThat(rule.getKey() + " after " + date, store.next(rule.getKey(), date), equalTo(date.with(forward)));
+				}
+			}
+		}
+	}
+
+	@Test
+	public void shouldAnswerAtEveryOccurrence() throws IOException {
+		Map<String, PeriodicTemporalAdjuster> rules = dateRules();
+		OccurrenceStore.write(file, rules, FROM, TO);
+		try (OccurrenceStore store = OccurrenceStore.open(file, rules)) {
+			for (Map.Entry<String, PeriodicTemporalAdjuster> rule : rules.entrySet()) {
+				LocalDate expected = FROM;
+				for (LocalDate date = FROM; date.isBefore(TO.plusDays(1)); date = expected) {
+					expected = date.with(ForwardOnlyTemporalAdjuster.of(rule.getValue()));
+					assertThat(rule.getKey() + " after " + date, store.next(rule.getKey(), date), equalTo(expected));
+				}
+			}
+		}
+	}
+
+	@Test
+	public void shouldStoreDateTimes() throws IOException {
+		Map<String, PeriodicTemporalAdjuster> rules = Collections.singletonMap("every 90 minutes",
+				new SimplePeriodicTemporalAdjuster(t -> t.with(ChronoField.SECOND_OF_MINUTE, 0), Duration.ofMinutes(90)));
+		LocalDateTime from = FROM.atStartOfDay();
+		LocalDateTime to = from.plusDays(30);
+		OccurrenceStore.write(file, rules, from, to);
+		try (OccurrenceStore store = OccurrenceStore.open(file, rules)) {
+			LocalDateTime time = from.plusSeconds(1).withNano(500);
+			assertThat(store.next("every 90 minutes", time), equalTo(from.plusMinutes(90)));
+			assertThat(store.next("every 90 minutes", to.plusHours(1)), equalTo(to.plusHours(2).plusMinutes(30)));
+		}
+	}
+
+	@Test
+	public void shouldUseTheRuleForKeysNotInTheFile() throws IOException {
+		Map<String, PeriodicTemporalAdjuster> rules = dateRules();
+		OccurrenceStore.write(file, Collections.singletonMap("mondays", rules.get("mondays")), FROM, TO);
+		try (OccurrenceStore store = OccurrenceStore.open(file, rules)) {
+			assertThat(store.contains("valentines"), equalTo(false));
+			assertThat(store.next("valentines", FROM), equalTo(LocalDate.of(2018, 2, 14)));
+			assertThrows(IllegalArgumentException.class, () -> store.next("unknown", FROM));
+		}
+	}
+
+	@Test
+	public void shouldAnswerWithoutTheRuleInsideTheRange() throws IOException {
+		OccurrenceStore.write(file, dateRules(), FROM, TO);
+		try (OccurrenceStore store = OccurrenceStore.open(file, Collections.emptyMap())) {
+			assertThat(store.next("mondays", FROM), equalTo(LocalDate.of(2018, 1, 8)));
+			assertThrows(IllegalArgumentException.class, () -> store.next("mondays", TO));
+		}
+	}
+
+	@Test
+	public void shouldRejectOtherFiles() throws IOException {
+		Files.write(file, new byte[] { 1, 2, 3, 4, 5, 6, 7, 8 });
+		assertThrows(IOException.class, () -> OccurrenceStore.open(file, dateRules()));
+	}
+
+	@Test
+	public void shouldRejectTruncatedFiles() throws IOException {
+		OccurrenceStore.write(file, dateRules(), FROM, TO);
+		byte[] bytes = Files.readAllBytes(file);
+		Files.write(file, Arrays.copyOf(bytes, 40));
+		assertThrows(IOException.class, () -> OccurrenceStore.open(file, dateRules()));
+	}
+
+	@Test
+	public void shouldRejectEntriesOutsideTheFile() throws IOException {
+		OccurrenceStore.write(file, dateRules(), FROM, TO);
+		byte[] bytes = Files.readAllBytes(file);
+		// The first entry is "daily": its blocks offset is at 40 and its data offset at 48.
+		long blocks = ByteBuffer.wrap(bytes).getLong(40);
+		byte[] data = bytes.clone();
+		ByteBuffer.wrap(data).putLong(48, bytes.length + 1000L);
+		Files.write(file, data);
+		assertThrows(IOException.class, () -> OccurrenceStore.open(file, dateRules()));
+		byte[] block = bytes.clone();
+		ByteBuffer.wrap(block).putInt((int) blocks + 12 + 8, Integer.MAX_VALUE);
+		Files.write(file, block);
+		assertThrows(IOException.class, () -> OccurrenceStore.open(file, dateRules()));
+		byte[] header = bytes.clone();
+		ByteBuffer.wrap(header).putLong(40, Long.MAX_VALUE);
+		Files.write(file, header);
+		assertThrows(IOException.class, () -> OccurrenceStore.open(file, dateRules()));
+		byte[] count = bytes.clone();
+		ByteBuffer.wrap(count).putInt(25, Integer.MAX_VALUE / 2);
+		Files.write(file, count);
+		assertThrows(IOException.class, () -> OccurrenceStore.open(file, dateRules()));
+		// The last entry's differences run to the end of the file.
+		Files.write(file, Arrays.copyOf(bytes, bytes.length - 1));
+		assertThrows(IOException.class, () -> OccurrenceStore.open(file, dateRules()));
+	}
+
+	@Test
+	public void shouldReplaceAFileWhileItIsOpen() throws IOException {
+		Map<String, PeriodicTemporalAdjuster> rules = dateRules();
+		OccurrenceStore.write(file, Collections.singletonMap("mondays", rules.get("mondays")), FROM, TO);
+		try (OccurrenceStore before = OccurrenceStore.open(file, rules)) {
+			OccurrenceStore.write(file, rules, FROM, TO);
+			assertThat(before.size(), equalTo(1));
+			assertThat(before.next("mondays", FROM), equalTo(LocalDate.of(2018, 1, 8)));
+			try (OccurrenceStore after = OccurrenceStore.open(file, rules)) {
+				assertThat(after.size(), equalTo(rules.size()));
+				assertThat(after.next("valentines", FROM), equalTo(LocalDate.of(2018, 2, 14)));
+			}
+		}
+		try (Stream<Path> files = Files.list(file.toAbsolutePath().getParent())) {
+			assertThat(files.filter(f -> f.getFileName().toString().startsWith(file.getFileName().toString())
+					&& f.toString().endsWith(".tmp")).count(), equalTo(0L));
+		}
+	}
+
+	@Test
+	public void shouldRejectFractionsOfSeconds() {
+		Map<String, PeriodicTemporalAdjuster> rules = Collections.singletonMap("fractions",
+				new SimplePeriodicTemporalAdjuster(t -> t.with(ChronoField.NANO_OF_SECOND, 5), Duration.ofSeconds(1)));
+		assertThrows(IllegalArgumentException.class, () -> OccurrenceStore.write(file, rules, FROM.atStartOfDay(),
+				FROM.atStartOfDay().plusMinutes(1)));
+	}
+
+}
@@ -0,0 +1,206 @@
+package com.paulgreenlee.time.periodic;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.DateTimeException;
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.Period;
+import java.time.temporal.ChronoField;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+public class OccurrenceTimelineTest {
+
+	private static final LocalDate START = LocalDate.of(2018, 1, 1);
+
+	public static Stream<Arguments> rules() {
+		return Stream.of(
+				Arguments.of(PeriodicTemporalAdjusters.weekly(DayOfWeek.MONDAY), 1000, "Weekly"),
+				Arguments.of(PeriodicTemporalAdjusters.weeklyOnDays(DayOfWeek.MONDAY, DayOfWeek.WEDNESDAY, DayOfWeek.FRIDAY), 1000,
+						"Several days a week"),
+				Arguments.of(PeriodicTemporalAdjusters.monthly(CalendarAdjusters.lastDayOfMonth()), 1000, "The last of the month"),
+				Arguments.of(PeriodicTemporalAdjusters.intersection(PeriodicTemporalAdjusters.weekly(DayOfWeek.FRIDAY),
+						PeriodicTemporalAdjusters.monthly(CalendarAdjusters.field(ChronoField.DAY_OF_MONTH, 13))), 1000,
+						"Friday the 13th"),
+				Arguments.of(PeriodicTemporalAdjusters.weeklyOnDays(DayOfWeek.TUESDAY, DayOfWeek.THURSDAY), 10, "Few held")
+			);
+	}
+
+	@ParameterizedTest(name="{index}: {2}")
+	@MethodSource(value = {"rules"})
+	public void shouldAnswerAsTheRuleDoes(PeriodicTemporalAdjuster rule, int maxOccurrences, String testDesc) {
+		OccurrenceTimeline<LocalDate> timeline = OccurrenceTimeline.ofDates(rule, START, Period.ofYears(1), maxOccurrences,
+				Runnable::run);
+		PeriodicTemporalAdjuster forwardOnly = PeriodicTemporalAdjusters.forwardOnlyOf(rule);
+		for (LocalDate date = START.minusDays(20); date.getYear() < 2024; date = date.plusDays(5)) {
+			assertThat(date.toString(), timeline.next(date), equalTo(date.with(forwardOnly)));
+			assertThat(date.toString(), timeline.next(date, 4),
+					equalTo(Occurrences.occurrences(rule, date, 4).collect(Collectors.toList())));
+			assertThat(timeline.size(), lessThanOrEqualTo(maxOccurrences));
+		}
+		assertThat(timeline.windowEnd(), greaterThan(LocalDate.of(2024, 1, 1)));
+		// A point long after the window is answered by the rule, and leaves the window where it is.
+		LocalDate windowEnd = timeline.windowEnd();
+		LocalDate later = LocalDate.of(2050, 6, 1);
+		assertThat(timeline.next(later), equalTo(later.with(forwardOnly)));
+		assertThat(timeline.windowEnd(), equalTo(windowEnd));
+		assertThat(timeline.next(later.plusDays(1)), equalTo(later.plusDays(1).with(forwardOnly)));
+	}
+
+	@Test
+	public void shouldKeepTheWindowForDistantPoints() {
+		PeriodicTemporalAdjuster rule = PeriodicTemporalAdjusters.weekly(DayOfWeek.MONDAY);
+		OccurrenceTimeline<LocalDate> timeline = OccurrenceTimeline.ofDates(rule, START, Period.ofYears(1), 1000, Runnable::run);
+		assertThat(timeline.next(LocalDate.of(2090, 1, 1)), equalTo(LocalDate.of(2090, 1, 2)));
+		assertThat(timeline.windowStart(), equalTo(START));
+		assertThat(timeline.windowEnd(), equalTo(LocalDate.of(2019, 1, 1)));
+		for (int i = 0; i < 100; i++)
+			timeline.next(START.plusDays(i));
+		assertThat(timeline.hitCount(), equalTo(100L));
+		assertThat(timeline.missCount(), equalTo(1L));
+		// Within a horizon of the end, the window is extended to the point.
+		assertThat(timeline.next(LocalDate.of(2019, 6, 1)), equalTo(LocalDate.of(2019, 6, 3)));
+		assertThat(timeline.windowEnd(), equalTo(LocalDate.of(2020, 6, 1)));
+		assertThat(timeline.windowStart(), equalTo(START));
+	}
+
+	@Test
+	public void shouldCarryOnFromTheLastOccurrenceHeld() {
+		PeriodicTemporalAdjuster rule = PeriodicTemporalAdjusters.weekly(DayOfWeek.TUESDAY);
+		LocalDateTime start = LocalDateTime.of(2021, 1, 1, 9, 30);
+		OccurrenceTimeline<LocalDateTime> timeline = OccurrenceTimeline.ofDateTimes(rule, start, Period.ofMonths(2), 1000,
+				Runnable::run);
+		timeline.next(LocalDateTime.of(2021, 2, 10, 17, 45, 7));
+		assertThat(timeline.windowEnd(), greaterThan(LocalDateTime.of(2021, 4, 1, 0, 0)));
+		assertThat(timeline.next(LocalDateTime.of(2021, 2, 20, 0, 0), 4), contains(LocalDateTime.of(2021, 2, 23, 9, 30),
+				LocalDateTime.of(2021, 3, 2, 9, 30), LocalDateTime.of(2021, 3, 9, 9, 30), LocalDateTime.of(2021, 3, 16, 9, 30)));
+		assertThat(timeline.missCount(), equalTo(0L));
+	}
+
+	@Test
+	public void shouldExtendTheWindowInTheBackground() {
+		List<Runnable> tasks = new ArrayList<>();
+		PeriodicTemporalAdjuster rule = PeriodicTemporalAdjusters.weekly(DayOfWeek.MONDAY);
+		OccurrenceTimeline<LocalDate> timeline = OccurrenceTimeline.ofDates(rule, START, Period.ofYears(1), 1000, tasks::add);
+		assertThat(timeline.windowStart(), equalTo(START));
+		assertThat(timeline.windowEnd(), equalTo(LocalDate.of(2019, 1, 1)));
+		assertThat(timeline.size(), equalTo(52));
+
+		assertThat(timeline.next(LocalDate.of(2018, 3, 1)), equalTo(LocalDate.of(2018, 3, 5)));
+		assertThat(tasks, empty());
+		// Past the middle of the window, but still answered from it while the task waits.
+		assertThat(timeline.next(LocalDate.of(2018, 9, 1)), equalTo(LocalDate.of(2018, 9, 3)));
+		assertThat(timeline.next(LocalDate.of(2018, 10, 1)), equalTo(LocalDate.of(2018, 10, 8)));
+		assertThat(tasks, hasSize(1));
+		assertThat(timeline.windowEnd(), equalTo(LocalDate.of(2019, 1, 1)));
+		assertThat(timeline.hitCount(), equalTo(3L));
+
+		assertThat(timeline.next(LocalDate.of(2019, 1, 1)), equalTo(LocalDate.of(2019, 1, 7)));
+		assertThat(timeline.missCount(), equalTo(1L));
+		tasks.remove(0).run();
+		assertThat(timeline.windowStart(), equalTo(START));
+		assertThat(timeline.windowEnd(), equalTo(LocalDate.of(2019, 9, 1)));
+		assertThat(timeline.next(LocalDate.of(2019, 1, 1)), equalTo(LocalDate.of(2019, 1, 7)));
+		assertThat(timeline.hitCount(), equalTo(4L));
+	}
+
+	@Test
+	public void shouldFallBackBeforeTheWindow() {
+		PeriodicTemporalAdjuster rule = PeriodicTemporalAdjusters.weekly(DayOfWeek.MONDAY);
+		OccurrenceTimeline<LocalDate> timeline = OccurrenceTimeline.ofDates(rule, START, Period.ofYears(1), 1000, Runnable::run);
+		assertThat(timeline.next(LocalDate.of(2017, 12, 1)), equalTo(LocalDate.of(2017, 12, 4)));
+		assertThat(timeline.next(LocalDate.of(2017, 12, 1), 6), contains(LocalDate.of(2017, 12, 4), LocalDate.of(2017, 12, 11),
+				LocalDate.of(2017, 12, 18), LocalDate.of(2017, 12, 25), LocalDate.of(2018, 1, 1), LocalDate.of(2018, 1, 8)));
+		assertThat(timeline.missCount(), equalTo(2L));
+		assertThat(timeline.windowStart(), equalTo(START));
+	}
+
+	@Test
+	public void shouldHoldDateTimes() {
+		PeriodicTemporalAdjuster rule = CronRule.parse("0 0,30 9-11 * * MON-FRI");
+		LocalDateTime start = LocalDateTime.of(2018, 10, 1, 0, 0);
+		OccurrenceTimeline<LocalDateTime> timeline = OccurrenceTimeline.ofDateTimes(rule, start, Duration.ofDays(14), 10000,
+				Runnable::run);
+		assertThat(timeline.size(), equalTo(60));
+		for (LocalDateTime time = start; time.isBefore(start.plusDays(60)); time = time.plusMinutes(97).plusNanos(1000)) {
+			assertThat(time.toString(), timeline.next(time), equalTo(time.with(PeriodicTemporalAdjusters.forwardOnlyOf(rule))));
+			assertThat(time.toString(), timeline.next(time, 3),
+					equalTo(Occurrences.occurrences(rule, time, 3).collect(Collectors.toList())));
+		}
+		assertThrows(IllegalArgumentException.class, () -> OccurrenceTimeline.ofDateTimes(
+				PeriodicTemporalAdjusters.weekly(t -> t.with(ChronoField.NANO_OF_SECOND, 5)), start, Duration.ofDays(14), 100));
+	}
+
+	@Test
+	public void shouldAnswerManyThreadsWhileExtending() throws Exception {
+		PeriodicTemporalAdjuster rule = PeriodicTemporalAdjusters.weeklyOnDays(DayOfWeek.MONDAY, DayOfWeek.THURSDAY);
+		PeriodicTemporalAdjuster forwardOnly = PeriodicTemporalAdjusters.forwardOnlyOf(rule);
+		ExecutorService extender = Executors.newSingleThreadExecutor();
+		ExecutorService readers = Executors.newFixedThreadPool(4);
+		try {
+			OccurrenceTimeline<LocalDate> timeline = OccurrenceTimeline.ofDates(rule, START, Period.ofMonths(3), 200, extender);
+			List<Future<Integer>> results = new ArrayList<>();
+			for (int reader = 0; reader < 4; reader++) {
+				long seed = reader;
+				results.add(readers.submit(() -> {
+					Random random = new Random(seed);
+					int wrong = 0;
+					for (int i = 0; i < 20000; i++) {
+						LocalDate date = START.plusDays(i / 10 + random.nextInt(30));
+						if (!timeline.next(date).equals(date.with(forwardOnly)))
+							wrong++;
+					}
+					return wrong;
+				}));
+			}
+			for (Future<Integer> result : results)
+				assertThat(result.get(), equalTo(0));
+			assertThat(timeline.hitCount(), greaterThan(0L));
+			assertThat(timeline.windowEnd(), greaterThan(START.plusMonths(3)));
+		} finally {
+			readers.shutdown();
+			extender.shutdown();
+			extender.awaitTermination(10, TimeUnit.SECONDS);
+		}
+	}
+
+	@Test
+	public void shouldStopAtTheLastOccurrence() {
+		PeriodicTemporalAdjuster rule = PeriodicTemporalAdjusters.annually(t -> {
+			if (t.get(ChronoField.YEAR) > 2019)
+				throw new DateTimeException("over");
+			return t.with(ChronoField.DAY_OF_YEAR, 100);
+		});
+		OccurrenceTimeline<LocalDate> timeline = OccurrenceTimeline.ofDates(rule, START, Period.ofYears(1), 100, Runnable::run);
+		assertThat(timeline.next(LocalDate.of(2018, 8, 1)), equalTo(LocalDate.of(2019, 4, 10)));
+		assertThat(timeline.next(LocalDate.of(2018, 8, 1), 1), contains(LocalDate.of(2019, 4, 10)));
+		assertThrows(DateTimeException.class, () -> timeline.next(LocalDate.of(2019, 6, 1)));
+	}
+
+	@Test
+	public void shouldRejectBadLimits() {
+		PeriodicTemporalAdjuster rule = PeriodicTemporalAdjusters.weekly(DayOfWeek.MONDAY);
+		assertThrows(IllegalArgumentException.class, () -> OccurrenceTimeline.ofDates(rule, START, Period.ofYears(1), 0));
+		assertThrows(IllegalArgumentException.class, () -> OccurrenceTimeline.ofDates(rule, START, Period.ZERO, 10));
+		assertThrows(DateTimeException.class, () -> OccurrenceTimeline.ofDates(rule, START, Duration.ofDays(1), 10));
+		assertThrows(NullPointerException.class, () -> OccurrenceTimeline.ofDates(rule, START, Period.ofYears(1), 10, null));
+	}
+
+}
@@ -0,0 +1,147 @@
+package com.paulgreenlee.time.periodic;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.DateTimeException;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.MonthDay;
+import java.time.Period;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoField;
+import java.time.temporal.Temporal;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+public class OccurrencesTest {
+
+	private static final LocalDate START = LocalDate.of(2018, 6, 20);
+
+	@Test
+	public void shouldMatchRepeatedForwardOnlyAdjustment() {
+		PeriodicTemporalAdjuster rule = PeriodicTemporalAdjusters.monthly(TemporalAdjusters.lastInMonth(DayOfWeek.FRIDAY));
+		PeriodicTemporalAdjuster forwardOnly = PeriodicTemporalAdjusters.forwardOnlyOf(rule);
+
+		List<LocalDate> expected = new ArrayList<>();
+		LocalDate date = START;
+		for (int i = 0; i < 24; i++) {
+			date = date.with(forwardOnly);
+			expected.add(date);
+		}
+
+		List<LocalDate> actual = Occurrences.occurrences(rule, START, 24).collect(Collectors.toList());
+		assertThat(actual, equalTo(expected));
+	}
+
+	@Test
+	public void shouldStopBeforeEnd() {
+		PeriodicTemporalAdjuster rule = PeriodicTemporalAdjusters.weekly(DayOfWeek.MONDAY);
+		List<LocalDate> actual = Occurrences.occurrences(rule, START, LocalDate.of(2018, 7, 9)).collect(Collectors.toList());
+		assertThat(actual, contains(LocalDate.of(2018, 6, 25), LocalDate.of(2018, 7, 2)));
+	}
+
+	@Test
+	public void shouldNotIncludeStart() {
+		PeriodicTemporalAdjuster rule = PeriodicTemporalAdjusters.annually(MonthDay.of(6, 20));
+		LocalDate first = Occurrences.occurrences(rule, START).findFirst().get();
+		assertThat(first, equalTo(LocalDate.of(2019, 6, 20)));
+	}
+
+	@Test
+	public void iteratorShouldRespectLimit() {
+		PeriodicTemporalAdjuster rule = PeriodicTemporalAdjusters.weekly(DayOfWeek.MONDAY);
+		Iterator<LocalDate> iterator = Occurrences.iterator(rule, START, 2);
+		assertThat(iterator.next(), equalTo(LocalDate.of(2018, 6, 25)));
+		assertThat(iterator.hasNext(), is(true));
+		assertThat(iterator.next(), equalTo(LocalDate.of(2018, 7, 2)));
+		assertThat(iterator.hasNext(), is(false));
+		assertThrows(NoSuchElementException.class, iterator::next);
+	}
+
+	@Test
+	public void shouldKeepTimeAndZone() {
+		PeriodicTemporalAdjuster rule = PeriodicTemporalAdjusters.everyNWeeks(DayOfWeek.THURSDAY, 2);
+		ZonedDateTime start = ZonedDateTime.of(LocalDateTime.of(2018, 3, 1, 9, 30), ZoneId.of("America/New_York"));
+		List<Temporal> actual = Occurrences.<Temporal>occurrences(rule, start, 2).collect(Collectors.toList());
+		assertThat(actual, equalTo(Arrays.asList(
+				ZonedDateTime.of(LocalDateTime.of(2018, 3, 15, 9, 30), ZoneId.of("America/New_York")),
+				ZonedDateTime.of(LocalDateTime.of(2018, 3, 29, 9, 30), ZoneId.of("America/New_York")))));
+	}
+
+	@Test
+	public void shouldVisitEachDayOfWeeklyOnDays() {
+		PeriodicTemporalAdjuster rule = PeriodicTemporalAdjusters.weeklyOnDays(DayOfWeek.FRIDAY, DayOfWeek.MONDAY, DayOfWeek.WEDNESDAY);
+		LocalDate monday = LocalDate.of(2018, 3, 5);
+		List<LocalDate> actual = Occurrences.occurrences(rule, monday, 5).collect(Collectors.toList());
+		assertThat(actual, equalTo(Arrays.asList(LocalDate.of(2018, 3, 7), LocalDate.of(2018, 3, 9), LocalDate.of(2018, 3, 12),
+				LocalDate.of(2018, 3, 14), LocalDate.of(2018, 3, 16))));
+		assertThat(LocalDate.of(2018, 3, 10).with(PeriodicTemporalAdjusters.forwardOnlyOf(rule)), equalTo(LocalDate.of(2018, 3, 12)));
+		assertThat(LocalDate.of(2018, 3, 10).with(PeriodicTemporalAdjusters.backwardOnlyOf(rule)), equalTo(LocalDate.of(2018, 3, 9)));
+	}
+
+	@Test
+	public void shouldRejectNegativeLimit() {
+		PeriodicTemporalAdjuster rule = PeriodicTemporalAdjusters.weekly(DayOfWeek.MONDAY);
+		assertThrows(IllegalArgumentException.class, () -> Occurrences.iterator(rule, START, -1));
+	}
+
+	public static Stream<Arguments> ranges() {
+		LocalDateTime dateTime = LocalDateTime.of(1990, 1, 1, 8, 0);
+		return Stream.of(
+				Arguments.of(PeriodicTemporalAdjusters.weekly(DayOfWeek.MONDAY), START, START.plusYears(30), "Weekly over thirty years"),
+				Arguments.of(PeriodicTemporalAdjusters.everyNWeeks(DayOfWeek.THURSDAY, 3), START, START.plusYears(30), "Counting from the start"),
+				Arguments.of(PeriodicTemporalAdjusters.weeklyOnDays(DayOfWeek.MONDAY, DayOfWeek.WEDNESDAY, DayOfWeek.FRIDAY), START, START.plusYears(30), "Weekly on days"),
+				Arguments.of(PeriodicTemporalAdjusters.monthly(t -> t.with(ChronoField.DAY_OF_MONTH, 15)), START, START.plusYears(300), "Opaque monthly"),
+				Arguments.of(new AllOfCompoundTemporalAdjuster(Arrays.asList(MonthDay.of(2, 29), DayOfWeek.MONDAY), Period.ofYears(1)),
+						START, START.plusYears(400), "Leap day on a Monday, with empty chunks"),
+				Arguments.of(PeriodicTemporalAdjusters.weekly(DayOfWeek.SUNDAY), dateTime, dateTime.plusYears(40), "Date-times"),
+				Arguments.of(PeriodicTemporalAdjusters.weekly(DayOfWeek.SUNDAY), ZonedDateTime.of(dateTime, ZoneId.of("Europe/Paris")),
+						ZonedDateTime.of(dateTime.plusYears(40), ZoneId.of("Europe/Paris")), "Zoned date-times"),
+				Arguments.of(PeriodicTemporalAdjusters.weekly(DayOfWeek.MONDAY), START, START.plusWeeks(3), "Too short to split")
+			);
+	}
+
+	@ParameterizedTest(name="{index}: {3}")
+	@MethodSource(value = {"ranges"})
+	public void occurrencesBetweenShouldMatchSequentialExpansion(PeriodicTemporalAdjuster rule, Temporal start, Temporal end, String testDesc) {
+		List<Temporal> expected = Occurrences.occurrences(rule, start, end).collect(Collectors.toList());
+		assertThat(Occurrences.occurrencesBetween(rule, start, end), equalTo(expected));
+		assertThat(Occurrences.parallelOccurrencesBetween(rule, start, end).collect(Collectors.toList()), equalTo(expected));
+	}
+
+	@Test
+	public void occurrencesBetweenShouldThrowWhereSequentialExpansionThrows() {
+		PeriodicTemporalAdjuster rule = PeriodicTemporalAdjusters.annually(CalendarAdjusters.field(ChronoField.YEAR, 2019));
+		LocalDate start = LocalDate.of(2000, 1, 1);
+		LocalDate end = LocalDate.of(2200, 1, 1);
+		assertThrows(DateTimeException.class, () -> Occurrences.occurrences(rule, start, end).count());
+		assertThrows(DateTimeException.class, () -> Occurrences.occurrencesBetween(rule, start, end));
+	}
+
+	@Test
+	public void parallelOccurrencesBetweenShouldBeSized() {
+		PeriodicTemporalAdjuster rule = PeriodicTemporalAdjusters.weekly(DayOfWeek.MONDAY);
+		Stream<LocalDate> stream = Occurrences.parallelOccurrencesBetween(rule, START, LocalDate.of(2018, 7, 9));
+		assertThat(stream.isParallel(), is(true));
+		Spliterator<LocalDate> spliterator = stream.spliterator();
+		assertThat(spliterator.hasCharacteristics(Spliterator.SIZED | Spliterator.ORDERED), is(true));
+		assertThat(spliterator.getExactSizeIfKnown(), equalTo(2L));
+	}
+
+}
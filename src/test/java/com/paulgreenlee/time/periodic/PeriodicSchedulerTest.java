@@ -0,0 +1,234 @@
+package com.paulgreenlee.time.periodic;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.Clock;
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.MonthDay;
+import java.time.Period;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoField;
+import java.time.temporal.TemporalAdjuster;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+public class PeriodicSchedulerTest {
+
+	private static final Instant START = Instant.parse("2018-03-01T00:00:00Z");
+	private static final ZoneId NEW_YORK = ZoneId.of("America/New_York");
+
+	/** Mondays at 9:30, which moves an hour against UTC when daylight saving starts. */
+	private static final PeriodicTemporalAdjuster MONDAY_MORNINGS = new AllOfCompoundTemporalAdjuster(Arrays.<TemporalAdjuster>asList(
+			DayOfWeek.MONDAY, CalendarAdjusters.field(ChronoField.HOUR_OF_DAY, 9), CalendarAdjusters.field(ChronoField.MINUTE_OF_HOUR, 30)),
+			Period.ofWeeks(1));
+
+	@Test
+	public void shouldFireAtEachOccurrence() {
+		MutableClock clock = new MutableClock(START);
+		PeriodicScheduler scheduler = new PeriodicScheduler(clock, Runnable::run);
+		List<Instant> fired = new ArrayList<>();
+		scheduler.schedule(MONDAY_MORNINGS, NEW_YORK, () -> fired.add(clock.instant()));
+
+		for (int hour = 0; hour < 24 * 7 * 12; hour++) {
+			clock.advance(Duration.ofHours(1));
+			scheduler.runDue();
+		}
+
+		List<Instant> expected = Occurrences.occurrences(MONDAY_MORNINGS, START.atZone(NEW_YORK), clock.instant().atZone(NEW_YORK))
+				.map(ZonedDateTime::toInstant).collect(Collectors.toList());
+		assertThat(fired.size(), equalTo(expected.size()));
+		for (int i = 0; i < expected.size(); i++) {
+			assertThat(fired.get(i), greaterThanOrEqualTo(expected.get(i)));
+			assertThat(fired.get(i), lessThan(expected.get(i).plus(Duration.ofHours(1))));
+		}
+	}
+
+	@Test
+	public void shouldNotFireEarly() {
+		MutableClock clock = new MutableClock(START);
+		PeriodicScheduler scheduler = new PeriodicScheduler(clock, Runnable::run);
+		AtomicInteger fired = new AtomicInteger();
+		ScheduledRecurrence recurrence = scheduler.schedule(MONDAY_MORNINGS, NEW_YORK, fired::incrementAndGet);
+		Instant first = recurrence.getNextFire().toInstant();
+		assertThat(recurrence.getNextFire(), equalTo(ZonedDateTime.of(2018, 3, 5, 9, 30, 0, 0, NEW_YORK)));
+
+		clock.set(first.minusMillis(1));
+		scheduler.runDue();
+		assertThat(fired.get(), equalTo(0));
+		clock.set(first);
+		scheduler.runDue();
+		assertThat(fired.get(), equalTo(1));
+		assertThat(recurrence.getNextFire(), equalTo(ZonedDateTime.of(2018, 3, 12, 9, 30, 0, 0, NEW_YORK)));
+	}
+
+	@Test
+	public void shouldFireMissedOccurrencesAfterAJump() {
+		MutableClock clock = new MutableClock(START);
+		PeriodicScheduler scheduler = new PeriodicScheduler(clock, Runnable::run, Duration.ofMillis(1));
+		List<String> fired = new ArrayList<>();
+		scheduler.schedule(MONDAY_MORNINGS, NEW_YORK, () -> fired.add("weekly"));
+		scheduler.schedule(PeriodicTemporalAdjusters.annually(MonthDay.of(12, 25)), ZoneOffset.UTC, () -> fired.add("annually"));
+
+		clock.advance(Duration.ofDays(365 * 3));
+		scheduler.runDue();
+		long mondays = Occurrences.occurrences(MONDAY_MORNINGS, START.atZone(NEW_YORK), clock.instant().atZone(NEW_YORK)).count();
+		assertThat(mondays, equalTo(156L));
+		assertThat(fired.stream().filter("weekly"::equals).count(), equalTo(mondays));
+		assertThat(fired.stream().filter("annually"::equals).count(), equalTo(3L));
+	}
+
+	@Test
+	public void shouldStopFiringWhenCancelled() {
+		MutableClock clock = new MutableClock(START);
+		PeriodicScheduler scheduler = new PeriodicScheduler(clock, Runnable::run);
+		AtomicInteger fired = new AtomicInteger();
+		ScheduledRecurrence recurrence = scheduler.schedule(MONDAY_MORNINGS, NEW_YORK, fired::incrementAndGet);
+		clock.advance(Duration.ofDays(7));
+		scheduler.runDue();
+		assertThat(fired.get(), equalTo(1));
+
+		assertThat(recurrence.timer().level, not(equalTo(-1)));
+		assertThat(recurrence.cancel(), is(true));
+		// Nothing is left in the wheel to hold on to the task until its next run.
+		assertThat(recurrence.timer().level, equalTo(-1));
+		assertThat(recurrence.cancel(), is(false));
+		assertThat(recurrence.isCancelled(), is(true));
+		assertThat(recurrence.getNextFire(), nullValue());
+		assertThat(scheduler.size(), equalTo(0L));
+		clock.advance(Duration.ofDays(70));
+		scheduler.runDue();
+		assertThat(fired.get(), equalTo(1));
+	}
+
+	@Test
+	public void shouldEndWhenRuleRunsOut() {
+		MutableClock clock = new MutableClock(START);
+		PeriodicScheduler scheduler = new PeriodicScheduler(clock, Runnable::run);
+		AtomicInteger fired = new AtomicInteger();
+		ScheduledRecurrence recurrence = scheduler.schedule(
+				PeriodicTemporalAdjusters.annually(CalendarAdjusters.field(ChronoField.YEAR, 2019)), ZoneOffset.UTC, fired::incrementAndGet);
+		assertThat(scheduler.size(), equalTo(1L));
+		clock.advance(Duration.ofDays(800));
+		scheduler.runDue();
+		assertThat(fired.get(), equalTo(1));
+		assertThat(recurrence.isDone(), is(true));
+		assertThat(recurrence.isCancelled(), is(false));
+		assertThat(scheduler.size(), equalTo(0L));
+	}
+
+	@Test
+	public void shouldFireManyRecurrences() {
+		MutableClock clock = new MutableClock(START);
+		PeriodicScheduler scheduler = new PeriodicScheduler(clock, Runnable::run);
+		AtomicInteger fired = new AtomicInteger();
+		Random random = new Random(5);
+		for (int i = 0; i < 100000; i++) {
+			PeriodicTemporalAdjuster rule = new AllOfCompoundTemporalAdjuster(Arrays.<TemporalAdjuster>asList(
+					DayOfWeek.of(1 + random.nextInt(7)), CalendarAdjusters.field(ChronoField.HOUR_OF_DAY, random.nextInt(24))),
+					Period.ofWeeks(1));
+			scheduler.schedule(rule, ZoneOffset.UTC, fired::incrementAndGet);
+		}
+		for (int hour = 0; hour < 24 * 7 * 3; hour++) {
+			clock.advance(Duration.ofHours(1));
+			scheduler.runDue();
+		}
+		assertThat(fired.get(), equalTo(300000));
+		assertThat(scheduler.size(), equalTo(100000L));
+	}
+
+	@Test
+	public void shouldNotHoldTheWheelWhileTasksRun() throws InterruptedException {
+		MutableClock clock = new MutableClock(START);
+		PeriodicScheduler scheduler = new PeriodicScheduler(clock, Runnable::run);
+		CountDownLatch running = new CountDownLatch(1);
+		CountDownLatch registered = new CountDownLatch(1);
+		scheduler.schedule(MONDAY_MORNINGS, NEW_YORK, () -> {
+			running.countDown();
+			try {
+				registered.await(10, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		});
+		ScheduledRecurrence other = scheduler.schedule(MONDAY_MORNINGS, NEW_YORK, () -> { });
+		clock.advance(Duration.ofDays(7));
+		Thread runner = new Thread(scheduler::runDue);
+		runner.start();
+		assertThat(running.await(10, TimeUnit.SECONDS), is(true));
+		// The task is running on the scheduler's thread, and registering and cancelling still go ahead.
+		ScheduledRecurrence added = scheduler.schedule(MONDAY_MORNINGS, NEW_YORK, () -> { });
+		assertThat(added.cancel(), is(true));
+		assertThat(other.cancel(), is(true));
+		registered.countDown();
+		runner.join(10000);
+		assertThat(runner.isAlive(), is(false));
+		assertThat(scheduler.size(), equalTo(1L));
+	}
+
+	@Test
+	public void shouldRunOnItsOwnThreadWhenStarted() throws InterruptedException {
+		CountDownLatch fired = new CountDownLatch(3);
+		PeriodicTemporalAdjuster everyFiftyMillis = new SimplePeriodicTemporalAdjuster(temporal -> temporal, Duration.ofMillis(50));
+		try (PeriodicScheduler scheduler = new PeriodicScheduler(Clock.systemUTC(), Runnable::run, Duration.ofMillis(5))) {
+			scheduler.schedule(everyFiftyMillis, ZoneOffset.UTC, fired::countDown);
+			scheduler.start();
+			assertThat(fired.await(10, TimeUnit.SECONDS), is(true));
+		}
+	}
+
+	@Test
+	public void shouldRejectSchedulingOnceClosed() {
+		PeriodicScheduler scheduler = new PeriodicScheduler(new MutableClock(START), Runnable::run);
+		scheduler.close();
+		assertThrows(IllegalStateException.class, () -> scheduler.schedule(MONDAY_MORNINGS, NEW_YORK, () -> { }));
+		assertThrows(IllegalStateException.class, scheduler::start);
+	}
+
+	private static class MutableClock extends Clock {
+
+		private volatile Instant instant;
+
+		MutableClock(Instant instant) {
+			this.instant = instant;
+		}
+
+		void advance(Duration duration) {
+			instant = instant.plus(duration);
+		}
+
+		void set(Instant instant) {
+			this.instant = instant;
+		}
+
+		@Override
+		public ZoneId getZone() {
+			return ZoneOffset.UTC;
+		}
+
+		@Override
+		public Clock withZone(ZoneId zone) {
+			return Clock.fixed(instant, zone);
+		}
+
+		@Override
+		public Instant instant() {
+			return instant;
+		}
+
+	}
+
+}
@@ -0,0 +1,133 @@
+package com.paulgreenlee.time.periodic;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.MonthDay;
+import java.time.Period;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoField;
+import java.time.temporal.Temporal;
+import java.time.temporal.TemporalAdjuster;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+public class PrimitiveAdjustersTest {
+
+	/**
+	 * Each rule is built by a function that is handed a wrapper for its
+	 * innermost adjusters. Wrapping them in a lambda hides them from the
+	 * library, which gives the same rule without any primitive form.
+	 */
+	public static Stream<Arguments> rules() {
+		return Stream.of(
+				Arguments.of(rule(w -> PeriodicTemporalAdjusters.forwardOnlyOf(PeriodicTemporalAdjusters.annually(w.apply(MonthDay.of(2, 29))))),
+						"Leap day, or the 28th"),
+				Arguments.of(rule(w -> PeriodicTemporalAdjusters.forwardOnlyOf(PeriodicTemporalAdjusters.monthly(w.apply(CalendarAdjusters.lastInMonth(DayOfWeek.FRIDAY))))),
+						"Last Friday"),
+				Arguments.of(rule(w -> PeriodicTemporalAdjusters.forwardOnlyOf(PeriodicTemporalAdjusters.everyNWeeks(w.apply(DayOfWeek.THURSDAY), 2))),
+						"Every other Thursday"),
+				Arguments.of(rule(w -> PeriodicTemporalAdjusters.forwardOnlyOf(PeriodicTemporalAdjusters.weekly(new NearestOfCompoundTemporalAdjuster(
+						Arrays.asList(w.apply(DayOfWeek.MONDAY), w.apply(DayOfWeek.WEDNESDAY), w.apply(DayOfWeek.FRIDAY)))))),
+						"Weekly on the nearest of Monday, Wednesday and Friday"),
+				Arguments.of(rule(w -> new NearestOfCompoundTemporalAdjuster(Arrays.asList(w.apply(MonthDay.of(1, 1)), w.apply(MonthDay.of(7, 1))))),
+						"Nearest of January 1 and July 1"),
+				Arguments.of(rule(w -> new NearestOfCompoundTemporalAdjuster(Arrays.asList(w.apply(MonthDay.of(1, 1)),
+						w.apply(CalendarAdjusters.field(ChronoField.YEAR, 2500))))),
+						"Nearest of January 1 and a date centuries away"),
+				Arguments.of(rule(w -> PeriodicTemporalAdjusters.forwardOnlyOf(new AllOfCompoundTemporalAdjuster(
+						Arrays.asList(w.apply(CalendarAdjusters.field(ChronoField.DAY_OF_MONTH, 13)), w.apply(DayOfWeek.FRIDAY)), Period.ofMonths(1)))),
+						"Friday the 13th"),
+				Arguments.of(rule(w -> PeriodicTemporalAdjusters.forwardOnlyOf(new AllOfCompoundTemporalAdjuster(
+						Arrays.asList(w.apply(DayOfWeek.MONDAY), w.apply(CalendarAdjusters.field(ChronoField.HOUR_OF_DAY, 9)),
+								w.apply(CalendarAdjusters.field(ChronoField.MINUTE_OF_HOUR, 30))), Period.ofWeeks(1)))),
+						"Mondays at 9:30"),
+				Arguments.of(rule(w -> PeriodicTemporalAdjusters.forwardOnlyOf(PeriodicTemporalAdjusters.annually(w.apply(CalendarAdjusters.field(ChronoField.YEAR, 2019))))),
+						"A year that comes and goes")
+			);
+	}
+
+	private static Function<Boolean, TemporalAdjuster> rule(Function<UnaryOperator<TemporalAdjuster>, TemporalAdjuster> factory) {
+		return opaque -> factory.apply(opaque ? adjuster -> temporal -> temporal.with(adjuster) : UnaryOperator.identity());
+	}
+
+	@ParameterizedTest(name="{index}: {1}")
+	@MethodSource(value = {"rules"})
+	public void shouldMatchTemporalAdjustment(Function<Boolean, TemporalAdjuster> rule, String testDesc) {
+		TemporalAdjuster primitive = rule.apply(false);
+		TemporalAdjuster opaque = rule.apply(true);
+		assertThat(EpochSecondAdjuster.of(primitive), notNullValue());
+		assertThat(EpochSecondAdjuster.of(opaque), nullValue());
+
+		for (LocalDate date = LocalDate.of(2015, 1, 1); date.getYear() < 2021; date = date.plusDays(19)) {
+			LocalDateTime dateTime = date.atTime(10, 15, 30, 123456789);
+			for (Temporal start : Arrays.<Temporal>asList(date, dateTime, dateTime.atOffset(ZoneOffset.ofHours(-5)),
+					dateTime.atZone(ZoneId.of("UTC")), dateTime.atZone(ZoneId.of("Europe/Paris"))))
+				assertThat(start.toString(), outcome(start, primitive), equalTo(outcome(start, opaque)));
+		}
+	}
+
+	/** The adjusted temporal, or the exception thrown instead. */
+	private static Object outcome(Temporal start, TemporalAdjuster adjuster) {
+		try {
+			return start.with(adjuster);
+		} catch (RuntimeException e) {
+			return e.getClass().getName() + ": " + e.getMessage();
+		}
+	}
+
+	@Test
+	public void shouldOnlyHaveEpochDayFormForDateOnlyRules() {
+		assertThat(EpochDayAdjuster.of(PeriodicTemporalAdjusters.weekly(DayOfWeek.MONDAY)), notNullValue());
+		assertThat(EpochDayAdjuster.of(PeriodicTemporalAdjusters.monthly(t -> t.with(DayOfWeek.MONDAY))), nullValue());
+
+		List<TemporalAdjuster> adjusters = new ArrayList<>(Arrays.asList(DayOfWeek.MONDAY, CalendarAdjusters.field(ChronoField.HOUR_OF_DAY, 9)));
+		assertThat(EpochDayAdjuster.of(new AllOfCompoundTemporalAdjuster(adjusters, Period.ofWeeks(1))), nullValue());
+		assertThat(EpochSecondAdjuster.of(new AllOfCompoundTemporalAdjuster(adjusters, Period.ofWeeks(1))), notNullValue());
+
+		adjusters.add(CalendarAdjusters.field(ChronoField.NANO_OF_SECOND, 5));
+		assertThat(EpochSecondAdjuster.of(new AllOfCompoundTemporalAdjuster(adjusters, Period.ofWeeks(1))), nullValue());
+	}
+
+	@Test
+	public void shouldUseEpochDayFormOfCustomAdjusters() {
+		PeriodicTemporalAdjuster rule = PeriodicTemporalAdjusters.forwardOnlyOf(
+				new SimplePeriodicTemporalAdjuster(new EveryTenthDay(), Period.ofDays(10)));
+
+		assertThat(LocalDate.of(2018, 1, 1).with(rule), equalTo(LocalDate.of(2018, 1, 9)));
+		assertThat(LocalDate.of(2018, 1, 9).with(rule), equalTo(LocalDate.of(2018, 1, 19)));
+		assertThat(LocalDate.of(2018, 1, 9).atTime(8, 0).with(rule), equalTo(LocalDate.of(2018, 1, 19).atTime(8, 0)));
+	}
+
+	/**
+	 * Moves back to the nearest epoch day divisible by ten. The Temporal form
+	 * throws, to show that only the epoch day form is used.
+	 */
+	private static class EveryTenthDay implements TemporalAdjuster, EpochDayAdjuster {
+
+		@Override
+		public Temporal adjustInto(Temporal temporal) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public long adjustEpochDay(long epochDay) {
+			return epochDay - Math.floorMod(epochDay, 10);
+		}
+
+	}
+
+}
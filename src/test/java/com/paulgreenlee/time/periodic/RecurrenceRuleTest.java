@@ -0,0 +1,367 @@
+package com.paulgreenlee.time.periodic;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.DateTimeException;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.MonthDay;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+public class RecurrenceRuleTest {
+
+	private static final LocalDate[] STARTS = {
+			LocalDate.of(2018, 1, 1),
+			LocalDate.of(2018, 3, 15),
+			LocalDate.of(2019, 12, 31),
+			LocalDate.of(2020, 2, 29),
+			LocalDate.of(1999, 5, 30),
+	};
+
+	public static Stream<Arguments> rules() {
+		return Stream.of(
+				Arguments.of("FREQ=DAILY", "Every day"),
+				Arguments.of("FREQ=DAILY;INTERVAL=3", "Every third day"),
+				Arguments.of("FREQ=DAILY;INTERVAL=45;BYDAY=MO", "Mondays every 45 days"),
+				Arguments.of("FREQ=DAILY;BYDAY=MO,WE,FR", "Daily on some days of the week"),
+				Arguments.of("FREQ=DAILY;BYMONTH=2;BYMONTHDAY=-1,1", "Daily at the ends of February"),
+				Arguments.of("FREQ=WEEKLY", "Weekly on the day of the start"),
+				Arguments.of("FREQ=WEEKLY;BYDAY=MO", "Every Monday"),
+				Arguments.of("FREQ=WEEKLY;BYDAY=TU,TH", "Every Tuesday and Thursday"),
+				Arguments.of("FREQ=WEEKLY;INTERVAL=2;BYDAY=MO,SU", "Every other week on Monday and Sunday"),
+				Arguments.of("FREQ=WEEKLY;INTERVAL=2;BYDAY=MO,SU;WKST=SU", "Every other week, starting on Sunday"),
+				Arguments.of("FREQ=WEEKLY;INTERVAL=3", "Every third week on the day of the start"),
+				Arguments.of("FREQ=WEEKLY;BYMONTH=1,7;BYDAY=FR", "Fridays in January and July"),
+				Arguments.of("FREQ=WEEKLY;INTERVAL=9;BYMONTH=2;BYDAY=SU", "Sundays in February every ninth week"),
+				Arguments.of("FREQ=MONTHLY", "Monthly on the day of the start"),
+				Arguments.of("FREQ=MONTHLY;BYMONTHDAY=15", "The 15th"),
+				Arguments.of("FREQ=MONTHLY;BYMONTHDAY=31", "The 31st, where there is one"),
+				Arguments.of("FREQ=MONTHLY;BYMONTHDAY=1,-1", "The first and last day"),
+				Arguments.of("FREQ=MONTHLY;BYMONTHDAY=-3", "Three days from the end"),
+				Arguments.of("FREQ=MONTHLY;BYDAY=2TU", "The second Tuesday"),
+				Arguments.of("FREQ=MONTHLY;BYDAY=-1FR,1MO", "The last Friday and first Monday"),
+				Arguments.of("FREQ=MONTHLY;BYDAY=5WE", "The fifth Wednesday, where there is one"),
+				Arguments.of("FREQ=MONTHLY;BYDAY=FR;BYMONTHDAY=13", "Friday the 13th"),
+				Arguments.of("FREQ=MONTHLY;BYDAY=MO,TU,WE,TH,FR;BYSETPOS=-1", "The last weekday"),
+				Arguments.of("FREQ=MONTHLY;BYDAY=MO,TU,WE,TH,FR;BYSETPOS=1,3,-2", "Some positions of weekdays"),
+				Arguments.of("FREQ=MONTHLY;BYDAY=SA,SU;BYSETPOS=9", "A ninth weekend day, where there is one"),
+				Arguments.of("FREQ=MONTHLY;INTERVAL=2;BYMONTHDAY=10", "Every other month"),
+				Arguments.of("FREQ=MONTHLY;INTERVAL=5", "Every fifth month on the day of the start"),
+				Arguments.of("FREQ=MONTHLY;INTERVAL=37;BYMONTHDAY=31", "The 31st every 37 months"),
+				Arguments.of("FREQ=MONTHLY;BYMONTH=3,6,9,12;BYDAY=-1MO", "The last Monday of each quarter"),
+				Arguments.of("FREQ=YEARLY", "Annually on the date of the start"),
+				Arguments.of("FREQ=YEARLY;BYMONTH=2;BYMONTHDAY=29", "Leap days"),
+				Arguments.of("FREQ=YEARLY;BYMONTH=11;BYDAY=4TH", "Thanksgiving"),
+				Arguments.of("FREQ=YEARLY;BYMONTH=5;BYDAY=-1MO", "Memorial Day"),
+				Arguments.of("FREQ=YEARLY;BYMONTH=1,4,7,10", "Quarterly on the day of the start"),
+				Arguments.of("FREQ=YEARLY;BYMONTH=12;BYMONTHDAY=25", "Christmas"),
+				Arguments.of("FREQ=YEARLY;BYDAY=MO;BYSETPOS=-1", "The last Monday of the year"),
+				Arguments.of("FREQ=YEARLY;INTERVAL=2;BYMONTH=2,3;BYDAY=MO;BYSETPOS=1,-1", "The first and last Mondays of February and March every other year"),
+				Arguments.of("FREQ=YEARLY;BYMONTHDAY=1;BYSETPOS=2,-2", "The second and penultimate first of the month"),
+				Arguments.of("FREQ=YEARLY;INTERVAL=4;BYMONTH=11;BYDAY=TU;BYMONTHDAY=2,3,4,5,6,7,8", "Election Day"),
+				Arguments.of("FREQ=YEARLY;INTERVAL=3", "Every third year on the date of the start")
+			);
+	}
+
+	@ParameterizedTest(name="{index}: {1}")
+	@MethodSource(value = {"rules"})
+	public void shouldExpandAsTheReferenceDoes(String text, String testDesc) {
+		RecurrenceRule rule = RecurrenceRule.parse(text);
+		for (LocalDate start : STARTS) {
+			List<LocalDate> expected = reference(text, start, 60);
+			assertThat(text + " from " + start, rule.occurrences(start).limit(60).collect(Collectors.toList()),
+					equalTo(expected));
+			LocalDateTime startTime = start.atTime(9, 30);
+			List<LocalDateTime> expectedTimes = expected.stream().map(d -> d.atTime(9, 30)).collect(Collectors.toList());
+			assertThat(text + " from " + startTime, rule.occurrences(startTime).limit(60).collect(Collectors.toList()),
+					equalTo(expectedTimes));
+		}
+	}
+
+	@ParameterizedTest(name="{index}: {1}")
+	@MethodSource(value = {"rules"})
+	public void shouldKeepItsMeaningInItsStandardForm(String text, String testDesc) {
+		RecurrenceRule rule = RecurrenceRule.parse(text);
+		RecurrenceRule reparsed = RecurrenceRule.parse(rule.toString());
+		assertThat(reparsed, equalTo(rule));
+		assertThat(reparsed.hashCode(), equalTo(rule.hashCode()));
+		assertThat(reparsed.toString(), equalTo(rule.toString()));
+	}
+
+	@Test
+	public void shouldIgnoreCaseOrderAndPrefix() {
+		RecurrenceRule rule = RecurrenceRule.parse("FREQ=MONTHLY;BYDAY=-1FR,MO;BYMONTH=1,6");
+		assertThat(RecurrenceRule.parse("rrule:bymonth=6,1;byday=mo,-1fr;freq=monthly"), equalTo(rule));
+		assertThat(rule.toString(), equalTo("FREQ=MONTHLY;BYMONTH=1,6;BYDAY=MO,-1FR"));
+		assertThat(rule.getFrequency(), equalTo(RecurrenceRule.Frequency.MONTHLY));
+		assertThat(rule.getInterval(), equalTo(1));
+	}
+
+	@Test
+	public void shouldCompileSimpleRulesToTheirUsualForms() {
+		LocalDate start = LocalDate.of(2018, 1, 1);
+		assertThat(RecurrenceRule.parse("FREQ=WEEKLY;BYDAY=MO").toAdjuster(start),
+				equalTo(PeriodicTemporalAdjusters.weekly(DayOfWeek.MONDAY)));
+		assertThat(RecurrenceRule.parse("FREQ=WEEKLY;BYDAY=MO,FR").toAdjuster(start),
+				equalTo(PeriodicTemporalAdjusters.weeklyOnDays(DayOfWeek.MONDAY, DayOfWeek.FRIDAY)));
+		assertThat(RecurrenceRule.parse("FREQ=YEARLY").toAdjuster(LocalDate.of(2018, 2, 14)),
+				equalTo(PeriodicTemporalAdjusters.annually(MonthDay.of(2, 14))));
+	}
+
+	@Test
+	public void shouldShareTheAdjusterOfRulesThatSayWhichDays() {
+		RecurrenceRule rule = RecurrenceRule.parse("FREQ=MONTHLY;BYDAY=2TU");
+		assertThat(rule.toAdjuster(LocalDate.of(2018, 1, 1)), sameInstance(rule.toAdjuster(LocalDate.of(1990, 7, 4))));
+	}
+
+	@Test
+	public void shouldStopAtCount() {
+		List<LocalDate> occurrences = RecurrenceRule.parse("FREQ=MONTHLY;BYDAY=2TU;COUNT=3")
+				.occurrences(LocalDate.of(2018, 1, 9)).collect(Collectors.toList());
+		assertThat(occurrences, contains(LocalDate.of(2018, 1, 9), LocalDate.of(2018, 2, 13), LocalDate.of(2018, 3, 13)));
+	}
+
+	@Test
+	public void shouldStopAtUntilInclusive() {
+		RecurrenceRule rule = RecurrenceRule.parse("FREQ=WEEKLY;BYDAY=MO;UNTIL=20180115");
+		assertThat(rule.occurrences(LocalDate.of(2018, 1, 1)).collect(Collectors.toList()),
+				contains(LocalDate.of(2018, 1, 1), LocalDate.of(2018, 1, 8), LocalDate.of(2018, 1, 15)));
+		assertThat(rule.occurrences(LocalDate.of(2018, 1, 1).atTime(23, 0)).collect(Collectors.toList()),
+				hasItem(LocalDateTime.of(2018, 1, 15, 23, 0)));
+		assertThat(rule.occurrences(LocalDate.of(2018, 2, 5)).collect(Collectors.toList()), empty());
+
+		RecurrenceRule timed = RecurrenceRule.parse("FREQ=DAILY;UNTIL=20180103T090000");
+		assertThat(timed.occurrences(LocalDateTime.of(2018, 1, 1, 9, 0)).collect(Collectors.toList()),
+				contains(LocalDateTime.of(2018, 1, 1, 9, 0), LocalDateTime.of(2018, 1, 2, 9, 0), LocalDateTime.of(2018, 1, 3, 9, 0)));
+		assertThat(timed.occurrences(LocalDateTime.of(2018, 1, 1, 9, 1)).collect(Collectors.toList()), hasSize(2));
+	}
+
+	@Test
+	public void shouldCompareUntilInUtcWithInstants() {
+		ZoneId newYork = ZoneId.of("America/New_York");
+		// 14:00 UTC is 09:00 in New York in January.
+		RecurrenceRule rule = RecurrenceRule.parse("FREQ=DAILY;UNTIL=20180103T140000Z");
+		assertThat(rule.occurrences(ZonedDateTime.of(2018, 1, 1, 9, 0, 0, 0, newYork)).count(), equalTo(3L));
+		assertThat(rule.occurrences(ZonedDateTime.of(2018, 1, 1, 9, 30, 0, 0, newYork)).count(), equalTo(2L));
+	}
+
+	@Test
+	public void shouldNotStartWithAStartThatIsNotAnOccurrence() {
+		assertThat(RecurrenceRule.parse("FREQ=MONTHLY;BYMONTHDAY=15;COUNT=2").occurrences(LocalDate.of(2018, 1, 1))
+				.collect(Collectors.toList()), contains(LocalDate.of(2018, 1, 15), LocalDate.of(2018, 2, 15)));
+	}
+
+	public static Stream<Arguments> invalidRules() {
+		return Stream.of(
+				Arguments.of("", "Empty"),
+				Arguments.of("INTERVAL=2", "No frequency"),
+				Arguments.of("FREQ=FORTNIGHTLY", "Unknown frequency"),
+				Arguments.of("FREQ=HOURLY", "Hourly"),
+				Arguments.of("FREQ=DAILY;FREQ=DAILY", "Repeated part"),
+				Arguments.of("FREQ=DAILY;INTERVAL=0", "Interval of zero"),
+				Arguments.of("FREQ=DAILY;INTERVAL=x", "Interval not a number"),
+				Arguments.of("FREQ=DAILY;COUNT=2;UNTIL=20180101", "Count and until"),
+				Arguments.of("FREQ=DAILY;UNTIL=20181301", "Invalid until"),
+				Arguments.of("FREQ=DAILY;UNTIL=2018-01-01", "Badly formatted until"),
+				Arguments.of("FREQ=DAILY;BYMONTH=13", "Month out of range"),
+				Arguments.of("FREQ=MONTHLY;BYMONTHDAY=0", "Day of the month zero"),
+				Arguments.of("FREQ=MONTHLY;BYMONTHDAY=32", "Day of the month out of range"),
+				Arguments.of("FREQ=MONTHLY;BYMONTHDAY=1,,2", "Empty value"),
+				Arguments.of("FREQ=WEEKLY;BYDAY=XX", "Unknown day of the week"),
+				Arguments.of("FREQ=WEEKLY;BYDAY=1MO", "Numbered day in a weekly rule"),
+				Arguments.of("FREQ=WEEKLY;BYMONTHDAY=1", "Day of the month in a weekly rule"),
+				Arguments.of("FREQ=MONTHLY;BYDAY=0MO", "Day numbered zero"),
+				Arguments.of("FREQ=MONTHLY;BYDAY=6MO", "Day numbered beyond the month"),
+				Arguments.of("FREQ=YEARLY;BYDAY=20MO", "Day numbered within the year"),
+				Arguments.of("FREQ=DAILY;BYSETPOS=1", "Set position in a daily rule"),
+				Arguments.of("FREQ=MONTHLY;BYSETPOS=1", "Set position alone"),
+				Arguments.of("FREQ=MONTHLY;BYSETPOS=0;BYDAY=MO", "Set position zero"),
+				Arguments.of("FREQ=DAILY;BYHOUR=9", "Hours"),
+				Arguments.of("FREQ=YEARLY;BYWEEKNO=20", "Week numbers"),
+				Arguments.of("FREQ=DAILY;COLOUR=RED", "Unknown part"),
+				Arguments.of("FREQ", "No value"),
+				Arguments.of("FREQ=DAILY;WKST=XX", "Unknown week start"),
+				Arguments.of("FREQ=YEARLY;BYMONTH=2;BYMONTHDAY=30", "February 30th"),
+				Arguments.of("FREQ=MONTHLY;INTERVAL=100000;BYMONTH=4;BYMONTHDAY=31", "April 31st, however seldom"),
+				Arguments.of("FREQ=DAILY;BYMONTH=4,6,9,11;BYMONTHDAY=-31", "The 31st from the end of a 30 day month"),
+				Arguments.of("FREQ=MONTHLY;BYDAY=FR;BYMONTHDAY=1,2,3,4,5,6;BYMONTH=2;BYSETPOS=2", "A second Friday in the first six days"),
+				Arguments.of("FREQ=MONTHLY;BYDAY=MO;BYSETPOS=6", "A sixth Monday")
+			);
+	}
+
+	@ParameterizedTest(name="{index}: {1}")
+	@MethodSource(value = {"invalidRules"})
+	public void shouldRejectInvalidRules(String text, String testDesc) {
+		assertThrows(IllegalArgumentException.class, () -> RecurrenceRule.parse(text));
+	}
+
+	@Test
+	public void shouldRejectStartsWithoutDates() {
+		assertThrows(DateTimeException.class, () -> RecurrenceRule.parse("FREQ=DAILY").toAdjuster(LocalTime.NOON));
+	}
+
+	@Test
+	public void shouldFailOnRulesThatNeverOccurFromTheStart() {
+		// Every seventh day from a Tuesday is a Tuesday.
+		RecurrenceRule mondays = RecurrenceRule.parse("FREQ=DAILY;INTERVAL=7;BYDAY=MO");
+		assertThrows(DateTimeException.class, () -> mondays.toAdjuster(LocalDate.of(2018, 1, 2)));
+		assertThat(mondays.occurrences(LocalDate.of(2018, 1, 1)).skip(1).findFirst().get(), equalTo(LocalDate.of(2018, 1, 8)));
+		RecurrenceRule february = RecurrenceRule.parse("FREQ=MONTHLY;BYMONTH=2");
+		assertThrows(DateTimeException.class, () -> february.occurrences(LocalDate.of(2018, 1, 30)).findFirst());
+		assertThat(february.occurrences(LocalDate.of(2018, 1, 29)).findFirst().get(), equalTo(LocalDate.of(2020, 2, 29)));
+	}
+
+	@Test
+	public void shouldJumpOverPeriodsTheIntervalSkips() {
+		RecurrenceRule leapDays = RecurrenceRule.parse("FREQ=YEARLY;INTERVAL=1000;BYMONTH=2;BYMONTHDAY=29");
+		// 3000 is not a leap year.
+		assertThat(leapDays.occurrences(LocalDate.of(2000, 1, 1)).limit(2).collect(Collectors.toList()),
+				contains(LocalDate.of(2000, 2, 29), LocalDate.of(4000, 2, 29)));
+		RecurrenceRule seldom = RecurrenceRule.parse("FREQ=MONTHLY;INTERVAL=100000;BYMONTHDAY=31");
+		assertThat(seldom.occurrences(LocalDate.of(2018, 1, 1)).limit(2).collect(Collectors.toList()),
+				contains(LocalDate.of(2018, 1, 31), LocalDate.of(10351, 5, 31)));
+	}
+
+	@Test
+	public void shouldParseEachRuleOnceInACache() {
+		RecurrenceRuleCache cache = new RecurrenceRuleCache(2);
+		RecurrenceRule rule = cache.get("FREQ=MONTHLY;BYDAY=2TU");
+		assertThat(cache.get("FREQ=MONTHLY;BYDAY=2TU"), sameInstance(rule));
+		assertThat(cache.size(), equalTo(1));
+		assertThrows(IllegalArgumentException.class, () -> cache.get("FREQ=NEVER"));
+		assertThat(cache.size(), equalTo(1));
+		cache.get("FREQ=DAILY");
+		cache.get("FREQ=WEEKLY");
+		assertThat(cache.size(), lessThanOrEqualTo(2));
+		assertThat(cache.maxEntries(), equalTo(2L));
+		cache.clear();
+		assertThat(cache.size(), equalTo(0));
+	}
+
+	/**
+	 * The first occurrences of a rule on or after the start, found by listing
+	 * every day of each period and filtering them as RFC 5545 describes.
+	 */
+	private static List<LocalDate> reference(String text, LocalDate start, int limit) {
+		Map<String, String> parts = new HashMap<>();
+		for (String part : text.split(";"))
+			parts.put(part.split("=")[0], part.split("=")[1]);
+		String frequency = parts.get("FREQ");
+		int interval = Integer.parseInt(parts.getOrDefault("INTERVAL", "1"));
+		DayOfWeek weekStart = dayOfWeek(parts.getOrDefault("WKST", "MO"));
+		List<Integer> months = numbers(parts.get("BYMONTH"));
+		List<Integer> monthDays = numbers(parts.get("BYMONTHDAY"));
+		List<Integer> setPositions = numbers(parts.get("BYSETPOS"));
+		List<String> days = parts.containsKey("BYDAY") ? Arrays.asList(parts.get("BYDAY").split(",")) : new ArrayList<>();
+		boolean defaults = monthDays.isEmpty() && days.isEmpty() && !frequency.equals("DAILY");
+
+		LocalDate periodStart;
+		ChronoUnit unit;
+		switch (frequency) {
+		case "DAILY":
+			periodStart = start;
+			unit = ChronoUnit.DAYS;
+			break;
+		case "WEEKLY":
+			periodStart = start.with(TemporalAdjusters.previousOrSame(weekStart));
+			unit = ChronoUnit.WEEKS;
+			break;
+		case "MONTHLY":
+			periodStart = start.withDayOfMonth(1);
+			unit = ChronoUnit.MONTHS;
+			break;
+		default:
+			periodStart = start.withDayOfYear(1);
+			unit = ChronoUnit.YEARS;
+		}
+		List<LocalDate> result = new ArrayList<>();
+		LocalDate last = start.plusYears(1000);
+		for (int period = 0; result.size() < limit; period++) {
+			LocalDate from = periodStart.plus((long) period * interval, unit);
+			if (from.isAfter(last))
+				break;
+			LocalDate to = from.plus(1, unit);
+			List<LocalDate> set = new ArrayList<>();
+			for (LocalDate date = from; date.isBefore(to); date = date.plusDays(1)) {
+				if (!months.isEmpty() && !months.contains(date.getMonthValue()))
+					continue;
+				int length = date.lengthOfMonth();
+				if (!monthDays.isEmpty() && !monthDays.contains(date.getDayOfMonth())
+						&& !monthDays.contains(date.getDayOfMonth() - length - 1))
+					continue;
+				LocalDate day = date;
+				if (!days.isEmpty() && !days.stream().anyMatch(code -> matches(code, day)))
+					continue;
+				if (defaults) {
+					if (frequency.equals("WEEKLY") && date.getDayOfWeek() != start.getDayOfWeek())
+						continue;
+					if (!frequency.equals("WEEKLY") && date.getDayOfMonth() != start.getDayOfMonth())
+						continue;
+					if (frequency.equals("YEARLY") && months.isEmpty() && date.getMonth() != start.getMonth())
+						continue;
+				}
+				set.add(date);
+			}
+			if (!setPositions.isEmpty()) {
+				List<LocalDate> selected = new ArrayList<>();
+				for (int i = 0; i < set.size(); i++) {
+					if (setPositions.contains(i + 1) || setPositions.contains(i - set.size()))
+						selected.add(set.get(i));
+				}
+				set = selected;
+			}
+			for (LocalDate date : set) {
+				if (!date.isBefore(start) && result.size() < limit)
+					result.add(date);
+			}
+		}
+		return result;
+	}
+
+	private static boolean matches(String day, LocalDate date) {
+		if (dayOfWeek(day.substring(day.length() - 2)) != date.getDayOfWeek())
+			return false;
+		if (day.length() == 2)
+			return true;
+		int ordinal = Integer.parseInt(day.substring(0, day.length() - 2));
+		return ordinal > 0 ? (date.getDayOfMonth() - 1) / 7 + 1 == ordinal
+				: (date.lengthOfMonth() - date.getDayOfMonth()) / 7 + 1 == -ordinal;
+	}
+
+	private static DayOfWeek dayOfWeek(String code) {
+		for (DayOfWeek dayOfWeek : DayOfWeek.values()) {
+			if (dayOfWeek.name().startsWith(code))
+				return dayOfWeek;
+		}
+		throw new IllegalArgumentException(code);
+	}
+
+	private static List<Integer> numbers(String values) {
+		List<Integer> numbers = new ArrayList<>();
+		if (values != null) {
+			for (String value : values.split(","))
+				numbers.add(Integer.parseInt(value));
+		}
+		return numbers;
+	}
+
+}
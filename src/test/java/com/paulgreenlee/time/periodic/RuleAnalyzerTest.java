@@ -0,0 +1,127 @@
+package com.paulgreenlee.time.periodic;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.DateTimeException;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.Month;
+import java.time.MonthDay;
+import java.time.Period;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoField;
+import java.time.temporal.Temporal;
+import java.time.temporal.TemporalAdjuster;
+import java.time.temporal.TemporalAmount;
+import java.util.Arrays;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+public class RuleAnalyzerTest {
+
+	private static AllOfCompoundTemporalAdjuster allOf(TemporalAmount period, TemporalAdjuster... adjusters) {
+		return new AllOfCompoundTemporalAdjuster(Arrays.asList(adjusters), period);
+	}
+
+	public static Stream<Arguments> impossibleRules() {
+		return Stream.of(
+				Arguments.of(allOf(Period.ofYears(1), MonthDay.of(1, 1), CalendarAdjusters.dayOfWeekInMonth(2, DayOfWeek.MONDAY)),
+						"January 1 on the second Monday"),
+				Arguments.of(allOf(Period.ofYears(1), Month.FEBRUARY, CalendarAdjusters.field(ChronoField.DAY_OF_MONTH, 30)),
+						"February 30"),
+				Arguments.of(allOf(Period.ofYears(1), Month.APRIL, CalendarAdjusters.lastDayOfMonth(),
+						CalendarAdjusters.field(ChronoField.DAY_OF_MONTH, 31)), "April 31 as the last day"),
+				Arguments.of(allOf(Period.ofWeeks(1), DayOfWeek.MONDAY, CalendarAdjusters.field(ChronoField.HOUR_OF_DAY, 9),
+						CalendarAdjusters.field(ChronoField.HOUR_OF_DAY, 10)), "Two hours of the day"),
+				Arguments.of(allOf(Period.ofMonths(1), Month.NOVEMBER, CalendarAdjusters.dayOfWeekInMonth(4, DayOfWeek.THURSDAY)),
+						"A month in the year every month"),
+				Arguments.of(allOf(Period.ofWeeks(1), DayOfWeek.FRIDAY, CalendarAdjusters.field(ChronoField.DAY_OF_MONTH, 13)),
+						"A day of the month every week"),
+				Arguments.of(PeriodicTemporalAdjusters.forwardOnlyOf(allOf(Period.ofYears(1), Month.JUNE,
+						CalendarAdjusters.firstDayOfYear())), "Nested in a forward-only rule"),
+				Arguments.of(allOf(Period.ofYears(1), Month.MAY, allOf(Period.ofMonths(1), DayOfWeek.MONDAY,
+						CalendarAdjusters.field(ChronoField.DAY_OF_MONTH, 31), DayOfWeek.TUESDAY)), "Nested in another all-of rule")
+			);
+	}
+
+	@ParameterizedTest(name="{index}: {1}")
+	@MethodSource(value = {"impossibleRules"})
+	public void shouldRejectImpossibleRules(PeriodicTemporalAdjuster rule, String testDesc) {
+		assertThrows(IllegalArgumentException.class, () -> PeriodicTemporalAdjusters.compile(rule));
+	}
+
+	public static Stream<Arguments> possibleRules() {
+		return Stream.of(
+				Arguments.of(allOf(Period.ofYears(1), Month.NOVEMBER, CalendarAdjusters.dayOfWeekInMonth(4, DayOfWeek.THURSDAY)),
+						"Thanksgiving"),
+				Arguments.of(allOf(Period.ofMonths(1), CalendarAdjusters.field(ChronoField.DAY_OF_MONTH, 13), DayOfWeek.FRIDAY),
+						"Friday the 13th"),
+				Arguments.of(allOf(Period.ofYears(1), MonthDay.of(2, 29), DayOfWeek.MONDAY), "Leap day on a Monday"),
+				Arguments.of(allOf(Period.ofYears(1), DayOfWeek.SUNDAY, Month.DECEMBER, CalendarAdjusters.lastDayOfMonth()),
+						"New Year's Eve on a Sunday"),
+				Arguments.of(allOf(Period.ofDays(1), CalendarAdjusters.nearestDayOfWeek(DayOfWeek.MONDAY, DayOfWeek.THURSDAY),
+						CalendarAdjusters.nearestDayOfMonth(1, 2, 3, 4, 5)), "Nearest days every day")
+			);
+	}
+
+	@ParameterizedTest(name="{index}: {1}")
+	@MethodSource(value = {"possibleRules"})
+	public void shouldAdjustAsBefore(AllOfCompoundTemporalAdjuster rule, String testDesc) {
+		PeriodicTemporalAdjuster compiled = PeriodicTemporalAdjusters.compile(rule);
+		assertThat(compiled, equalTo(rule));
+		PeriodicTemporalAdjuster forward = PeriodicTemporalAdjusters.forwardOnlyOf(rule);
+		PeriodicTemporalAdjuster compiledForward = PeriodicTemporalAdjusters.compile(forward);
+		ZoneId zone = ZoneId.of("America/New_York");
+		for (LocalDate date = LocalDate.of(1999, 12, 25); date.getYear() < 2030; date = date.plusDays(41)) {
+			LocalDateTime time = date.atTime(7, 30);
+			assertThat(date.toString(), date.with(compiled), equalTo(date.with(rule)));
+			assertThat(date.toString(), date.with(compiledForward), equalTo(date.with(forward)));
+			assertThat(date.toString(), time.with(compiledForward), equalTo(time.with(forward)));
+			// Not understood by the solver, so the checks are made on the temporal.
+			ZonedDateTime zoned = time.atZone(zone);
+			assertThat(date.toString(), zoned.with(compiledForward), equalTo(zoned.with(forward)));
+		}
+	}
+
+	@Test
+	public void shouldCheckTheRarestFirst() {
+		TemporalAdjuster fourthThursday = CalendarAdjusters.dayOfWeekInMonth(4, DayOfWeek.THURSDAY);
+		TemporalAdjuster opaque = t -> t;
+		AllOfCompoundTemporalAdjuster thanksgiving = allOf(Period.ofYears(1), opaque, Month.NOVEMBER, fourthThursday);
+		AllOfCompoundTemporalAdjuster compiled = (AllOfCompoundTemporalAdjuster) PeriodicTemporalAdjusters.compile(thanksgiving);
+		assertThat(compiled.adjusters, contains(opaque, Month.NOVEMBER, fourthThursday));
+		assertThat(compiled.checks(), contains(fourthThursday, Month.NOVEMBER, opaque));
+		assertThat(LocalDate.of(2018, 1, 1).with(compiled), equalTo(LocalDate.of(2018, 11, 22)));
+	}
+
+	@Test
+	public void shouldLeaveOtherRulesAlone() {
+		PeriodicTemporalAdjuster weekly = PeriodicTemporalAdjusters.weekly(DayOfWeek.MONDAY);
+		assertThat(PeriodicTemporalAdjusters.compile(weekly), sameInstance(weekly));
+		PeriodicTemporalAdjuster ordered = PeriodicTemporalAdjusters.forwardOnlyOf(allOf(Period.ofYears(1),
+				CalendarAdjusters.field(ChronoField.DAY_OF_YEAR, 60), DayOfWeek.MONDAY));
+		assertThat(PeriodicTemporalAdjusters.compile(ordered), sameInstance(ordered));
+		// Nothing can be said about an adjuster the library does not know.
+		TemporalAdjuster never = t -> { throw new DateTimeException("never"); };
+		PeriodicTemporalAdjuster opaque = allOf(Period.ofWeeks(1), never, DayOfWeek.MONDAY);
+		assertThat(PeriodicTemporalAdjusters.compile(opaque), equalTo(opaque));
+	}
+
+	@Test
+	public void shouldOnlyFailOnUseWithoutCompiling() {
+		PeriodicTemporalAdjuster impossible = allOf(Period.ofYears(1), MonthDay.of(1, 1), CalendarAdjusters.dayOfWeekInMonth(2, DayOfWeek.MONDAY));
+		Temporal start = LocalDate.of(2018, 1, 1);
+		assertThrows(DateTimeException.class, () -> start.with(impossible));
+		IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> PeriodicTemporalAdjusters.compile(impossible));
+		assertThat(e.getMessage(), containsString("no date meets all of them"));
+	}
+
+}
@@ -0,0 +1,156 @@
+package com.paulgreenlee.time.periodic;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.Month;
+import java.time.Period;
+import java.time.temporal.ChronoField;
+import java.time.temporal.TemporalAdjuster;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+public class RuleInternerTest {
+
+	private static PeriodicTemporalAdjuster thanksgiving() {
+		return PeriodicTemporalAdjusters.forwardOnlyOf(new AllOfCompoundTemporalAdjuster(
+				Arrays.asList(Month.NOVEMBER, CalendarAdjusters.dayOfWeekInMonth(4, DayOfWeek.THURSDAY)), Period.ofYears(1)));
+	}
+
+	private static NearestOfCompoundTemporalAdjuster nearestOf(TemporalAdjuster... adjusters) {
+		return new NearestOfCompoundTemporalAdjuster(Arrays.asList(adjusters));
+	}
+
+	public static Stream<Arguments> equivalentRules() {
+		return Stream.of(
+				Arguments.of(PeriodicTemporalAdjusters.forwardOnlyOf(PeriodicTemporalAdjusters.weekly(DayOfWeek.MONDAY)),
+						new ForwardOnlyTemporalAdjuster(DayOfWeek.MONDAY, Period.ofWeeks(1)), "Period of a wrapped rule"),
+				Arguments.of(PeriodicTemporalAdjusters.forwardOnlyOf(PeriodicTemporalAdjusters.forwardOnlyOf(PeriodicTemporalAdjusters.monthly(CalendarAdjusters.lastDayOfMonth()))),
+						PeriodicTemporalAdjusters.forwardOnlyOf(PeriodicTemporalAdjusters.monthly(CalendarAdjusters.lastDayOfMonth())), "Forward-only twice"),
+				Arguments.of(PeriodicTemporalAdjusters.backwardOnlyOf(PeriodicTemporalAdjusters.backwardOnlyOf(PeriodicTemporalAdjusters.weekly(DayOfWeek.FRIDAY))),
+						PeriodicTemporalAdjusters.backwardOnlyOf(PeriodicTemporalAdjusters.weekly(DayOfWeek.FRIDAY)), "Backward-only twice"),
+				Arguments.of(PeriodicTemporalAdjusters.weekly(nearestOf(DayOfWeek.MONDAY, nearestOf(DayOfWeek.WEDNESDAY, DayOfWeek.MONDAY), DayOfWeek.FRIDAY)),
+						PeriodicTemporalAdjusters.weekly(nearestOf(DayOfWeek.MONDAY, DayOfWeek.WEDNESDAY, DayOfWeek.FRIDAY)), "Nested and repeated nearest-of members"),
+				Arguments.of(PeriodicTemporalAdjusters.weekly(nearestOf(DayOfWeek.TUESDAY, DayOfWeek.TUESDAY)),
+						PeriodicTemporalAdjusters.weekly(DayOfWeek.TUESDAY), "Nearest of one"),
+				Arguments.of(PeriodicTemporalAdjusters.forwardOnlyOf(new AllOfCompoundTemporalAdjuster(Arrays.asList(Month.NOVEMBER, Month.NOVEMBER,
+						PeriodicTemporalAdjusters.monthly(CalendarAdjusters.dayOfWeekInMonth(4, DayOfWeek.THURSDAY))), Period.ofYears(1))),
+						thanksgiving(), "Repeated all-of member and a wrapped member")
+			);
+	}
+
+	@ParameterizedTest(name="{index}: {2}")
+	@MethodSource(value = {"equivalentRules"})
+	public void shouldMakeEquivalentRulesEqual(PeriodicTemporalAdjuster rule, PeriodicTemporalAdjuster simpler, String testDesc) {
+		PeriodicTemporalAdjuster canonical = PeriodicTemporalAdjusters.canonical(rule);
+		assertThat(canonical, equalTo(PeriodicTemporalAdjusters.canonical(simpler)));
+		assertThat(canonical.hashCode(), equalTo(PeriodicTemporalAdjusters.canonical(simpler).hashCode()));
+		assertThat(canonical.getPeriod(), equalTo(rule.getPeriod()));
+		Random random = new Random(5);
+		for (int i = 0; i < 2000; i++) {
+			LocalDate date = LocalDate.ofEpochDay(random.nextInt(50000));
+			assertThat(date.toString(), date.with(canonical), equalTo(date.with(rule)));
+		}
+	}
+
+	public static Stream<Arguments> rollingRules() {
+		return Stream.of(
+				Arguments.of(new AllOfCompoundTemporalAdjuster(Arrays.asList(DayOfWeek.FRIDAY, CalendarAdjusters.dayOfWeekInMonth(5, DayOfWeek.FRIDAY),
+						CalendarAdjusters.dayOfWeekInMonth(5, DayOfWeek.FRIDAY)), Period.ofYears(1)), LocalDate.of(2020, 2, 4),
+						LocalDate.of(2023, 3, 31), "Fifth Friday twice"),
+				Arguments.of(new AllOfCompoundTemporalAdjuster(Arrays.asList(CalendarAdjusters.field(ChronoField.DAY_OF_MONTH, 1),
+						CalendarAdjusters.dayOfWeekInMonth(-5, DayOfWeek.MONDAY), CalendarAdjusters.dayOfWeekInMonth(-5, DayOfWeek.MONDAY)),
+						Period.ofMonths(1)), LocalDate.of(2020, 7, 6), LocalDate.of(2020, 6, 1), "Fifth Monday from the end twice")
+			);
+	}
+
+	@ParameterizedTest(name="{index}: {3}")
+	@MethodSource(value = {"rollingRules"})
+	public void shouldKeepRepeatedAdjustersThatRollOn(PeriodicTemporalAdjuster rule, LocalDate date, LocalDate expected, String testDesc) {
+		assertThat(date.with(rule), equalTo(expected));
+		assertThat(date.with(PeriodicTemporalAdjusters.canonical(rule)), equalTo(expected));
+		assertThat(date.with(new RuleInterner().intern(rule)), equalTo(expected));
+	}
+
+	@Test
+	public void shouldKeepTheOrderOfChecks() {
+		TemporalAdjuster fourthThursday = CalendarAdjusters.dayOfWeekInMonth(4, DayOfWeek.THURSDAY);
+		PeriodicTemporalAdjuster compiled = PeriodicTemporalAdjusters.compile(new AllOfCompoundTemporalAdjuster(
+				Arrays.asList(Month.NOVEMBER, Month.NOVEMBER, fourthThursday), Period.ofYears(1)));
+		assertThat(((AllOfCompoundTemporalAdjuster) compiled).checks(), contains(fourthThursday, Month.NOVEMBER, Month.NOVEMBER));
+		AllOfCompoundTemporalAdjuster canonical = (AllOfCompoundTemporalAdjuster) new RuleInterner().intern(compiled);
+		assertThat(canonical.adjusters, contains(Month.NOVEMBER, fourthThursday));
+		assertThat(canonical.checks(), contains(fourthThursday, Month.NOVEMBER));
+	}
+
+	@Test
+	public void shouldKeepTheOrderOfMembers() {
+		PeriodicTemporalAdjuster mondayFirst = PeriodicTemporalAdjusters.weekly(nearestOf(DayOfWeek.MONDAY, DayOfWeek.WEDNESDAY));
+		PeriodicTemporalAdjuster wednesdayFirst = PeriodicTemporalAdjusters.weekly(nearestOf(DayOfWeek.WEDNESDAY, DayOfWeek.MONDAY));
+		assertThat(PeriodicTemporalAdjusters.canonical(mondayFirst), not(equalTo(PeriodicTemporalAdjusters.canonical(wednesdayFirst))));
+	}
+
+	@Test
+	public void shouldReturnCanonicalRulesAsTheyAre() {
+		PeriodicTemporalAdjuster rule = thanksgiving();
+		assertThat(PeriodicTemporalAdjusters.canonical(rule), sameInstance(rule));
+		PeriodicTemporalAdjuster opaque = new SimplePeriodicTemporalAdjuster(t -> t.with(ChronoField.DAY_OF_MONTH, 3), Period.ofMonths(1));
+		assertThat(PeriodicTemporalAdjusters.canonical(opaque), sameInstance(opaque));
+	}
+
+	@Test
+	public void shouldShareEqualRulesAndTheirParts() {
+		RuleInterner interner = new RuleInterner();
+		PeriodicTemporalAdjuster first = interner.intern(thanksgiving());
+		assertThat(interner.intern(thanksgiving()), sameInstance(first));
+
+		PeriodicTemporalAdjuster galloping = interner.intern(PeriodicTemporalAdjusters.forwardOnlyOf(
+				new AllOfCompoundTemporalAdjuster(Arrays.asList(Month.NOVEMBER, CalendarAdjusters.dayOfWeekInMonth(4, DayOfWeek.THURSDAY)),
+						Period.ofYears(1)), SearchStrategy.GALLOPING));
+		assertThat(galloping, not(sameInstance(first)));
+		assertThat(((ForwardOnlyTemporalAdjuster) galloping).adjuster(), sameInstance(((ForwardOnlyTemporalAdjuster) first).adjuster()));
+	}
+
+	@Test
+	public void shouldShareAcrossThreads() throws Exception {
+		RuleInterner interner = new RuleInterner();
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+			List<Future<PeriodicTemporalAdjuster>> futures = new ArrayList<>();
+			for (int i = 0; i < 1000; i++)
+				futures.add(executor.submit(() -> interner.intern(thanksgiving())));
+			PeriodicTemporalAdjuster first = futures.get(0).get();
+			for (Future<PeriodicTemporalAdjuster> future : futures)
+				assertThat(future.get(), sameInstance(first));
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void shouldLetUnusedRulesBeCollected() throws InterruptedException {
+		RuleInterner interner = new RuleInterner();
+		for (int day = 1; day <= 28; day++)
+			interner.intern(PeriodicTemporalAdjusters.monthly(CalendarAdjusters.field(ChronoField.DAY_OF_MONTH, day)));
+		assertThat(interner.size(), greaterThan(0));
+		for (int i = 0; i < 100 && interner.size() > 0; i++) {
+			System.gc();
+			Thread.sleep(10);
+		}
+		assertThat(interner.size(), equalTo(0));
+	}
+
+}
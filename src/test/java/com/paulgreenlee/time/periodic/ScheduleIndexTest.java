@@ -0,0 +1,156 @@
+package com.paulgreenlee.time.periodic;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.DateTimeException;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.MonthDay;
+import java.time.temporal.ChronoField;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+public class ScheduleIndexTest {
+
+	private static final LocalDate START = LocalDate.of(2018, 6, 20);
+
+	private static final List<PeriodicTemporalAdjuster> RULES = Arrays.asList(
+			PeriodicTemporalAdjusters.weekly(DayOfWeek.MONDAY),
+			PeriodicTemporalAdjusters.weeklyOnDays(DayOfWeek.TUESDAY, DayOfWeek.THURSDAY),
+			PeriodicTemporalAdjusters.everyNWeeks(DayOfWeek.FRIDAY, 2),
+			PeriodicTemporalAdjusters.monthly(CalendarAdjusters.lastInMonth(DayOfWeek.FRIDAY)),
+			PeriodicTemporalAdjusters.monthly(t -> t.with(ChronoField.DAY_OF_MONTH, 15)),
+			PeriodicTemporalAdjusters.annually(MonthDay.of(2, 29)));
+
+	@Test
+	public void shouldPollOccurrencesOfAllRulesInOrder() {
+		ScheduleIndex<Integer, LocalDate> index = new ScheduleIndex<>();
+		for (int i = 0; i < RULES.size(); i++)
+			index.put(i, RULES.get(i), START);
+
+		LocalDate end = START.plusYears(3);
+		List<ScheduleIndex.Entry<Integer, LocalDate>> expected = new ArrayList<>();
+		for (int i = 0; i < RULES.size(); i++) {
+			int key = i;
+			Occurrences.occurrences(RULES.get(i), START, end.plusDays(1))
+					.forEach(occurrence -> expected.add(new ScheduleIndex.Entry<>(key, occurrence)));
+		}
+		expected.sort(Comparator.comparing(ScheduleIndex.Entry<Integer, LocalDate>::getOccurrence)
+				.thenComparing(ScheduleIndex.Entry::getKey));
+
+		List<ScheduleIndex.Entry<Integer, LocalDate>> actual = new ArrayList<>();
+		for (LocalDate tick = START; !tick.isAfter(end); tick = tick.plusDays(10))
+			actual.addAll(index.pollDue(tick));
+		actual.addAll(index.pollDue(end));
+		List<LocalDate> times = actual.stream().map(ScheduleIndex.Entry::getOccurrence).collect(Collectors.toList());
+		assertThat(times, equalTo(times.stream().sorted().collect(Collectors.toList())));
+		// Ties come out in the order they were scheduled, so compare them sorted by key.
+		actual.sort(Comparator.comparing(ScheduleIndex.Entry<Integer, LocalDate>::getOccurrence)
+				.thenComparing(ScheduleIndex.Entry::getKey));
+		assertThat(actual, equalTo(expected));
+		assertThat(index.size(), equalTo(RULES.size()));
+	}
+
+	@Test
+	public void shouldMatchScanningEveryRule() {
+		Random random = new Random(7);
+		ScheduleIndex<Integer, LocalDate> index = new ScheduleIndex<>();
+		Map<Integer, LocalDate> scanned = new HashMap<>();
+		Map<Integer, PeriodicTemporalAdjuster> rules = new HashMap<>();
+		for (int step = 0; step < 5000; step++) {
+			int key = random.nextInt(300);
+			int operation = random.nextInt(4);
+			if (operation == 0) {
+				assertThat(index.remove(key), equalTo(scanned.remove(key) != null));
+				rules.remove(key);
+			} else if (operation == 1 && !scanned.isEmpty()) {
+				ScheduleIndex.Entry<Integer, LocalDate> polled = index.poll();
+				LocalDate earliest = scanned.values().stream().min(Comparator.naturalOrder()).get();
+				assertThat(polled.getOccurrence(), equalTo(earliest));
+				assertThat(scanned.get(polled.getKey()), equalTo(earliest));
+				scanned.put(polled.getKey(), earliest.with(PeriodicTemporalAdjusters.forwardOnlyOf(rules.get(polled.getKey()))));
+			} else {
+				PeriodicTemporalAdjuster rule = RULES.get(random.nextInt(RULES.size()));
+				LocalDate after = START.plusDays(random.nextInt(1000));
+				index.put(key, rule, after);
+				rules.put(key, rule);
+				scanned.put(key, after.with(PeriodicTemporalAdjusters.forwardOnlyOf(rule)));
+			}
+			assertThat(index.size(), equalTo(scanned.size()));
+		}
+		for (Map.Entry<Integer, LocalDate> entry : scanned.entrySet())
+			assertThat(index.nextOccurrence(entry.getKey()), equalTo(entry.getValue()));
+	}
+
+	@Test
+	public void bulkLoadShouldMatchInsertingEachRule() {
+		Random random = new Random(3);
+		Map<Integer, PeriodicTemporalAdjuster> rules = new LinkedHashMap<>();
+		for (int key = 0; key < 20000; key++)
+			rules.put(key, RULES.get(random.nextInt(RULES.size())));
+
+		ScheduleIndex<Integer, LocalDate> loaded = new ScheduleIndex<>();
+		loaded.put(-1, RULES.get(0), START);
+		loaded.putAll(rules, START);
+		ScheduleIndex<Integer, LocalDate> inserted = new ScheduleIndex<>();
+		inserted.put(-1, RULES.get(0), START);
+		rules.forEach((key, rule) -> inserted.put(key, rule, START));
+
+		assertThat(loaded.size(), equalTo(20001));
+		LocalDate end = START.plusMonths(6);
+		assertThat(loaded.pollDue(end), equalTo(inserted.pollDue(end)));
+	}
+
+	@Test
+	public void shouldPollTiesInTheOrderTheyWereScheduled() {
+		ScheduleIndex<String, LocalDate> index = new ScheduleIndex<>();
+		index.put("b", PeriodicTemporalAdjusters.weekly(DayOfWeek.MONDAY), START);
+		index.put("a", PeriodicTemporalAdjusters.weekly(DayOfWeek.MONDAY), START);
+		index.put("c", PeriodicTemporalAdjusters.weekly(DayOfWeek.MONDAY), START);
+		List<String> keys = index.pollDue(START.plusWeeks(1)).stream().map(ScheduleIndex.Entry::getKey).collect(Collectors.toList());
+		assertThat(keys, contains("b", "a", "c"));
+		assertThat(index.peek().getKey(), equalTo("b"));
+	}
+
+	@Test
+	public void shouldReplaceRuleForKey() {
+		ScheduleIndex<String, LocalDate> index = new ScheduleIndex<>();
+		index.put("x", PeriodicTemporalAdjusters.annually(MonthDay.of(12, 25)), START);
+		index.put("y", PeriodicTemporalAdjusters.annually(MonthDay.of(7, 4)), START);
+		index.put("x", PeriodicTemporalAdjusters.weekly(DayOfWeek.MONDAY), START);
+		assertThat(index.size(), equalTo(2));
+		assertThat(index.poll(), equalTo(new ScheduleIndex.Entry<>("x", LocalDate.of(2018, 6, 25))));
+	}
+
+	@Test
+	public void shouldDropRulesThatRunOut() {
+		ScheduleIndex<String, LocalDate> index = new ScheduleIndex<>();
+		index.put("once", PeriodicTemporalAdjusters.annually(CalendarAdjusters.field(ChronoField.YEAR, 2019)), START);
+		index.put("weekly", PeriodicTemporalAdjusters.weekly(DayOfWeek.MONDAY), START);
+		List<ScheduleIndex.Entry<String, LocalDate>> due = index.pollDue(START.plusYears(2));
+		assertThat(due.stream().filter(entry -> entry.getKey().equals("once")).count(), equalTo(1L));
+		assertThat(index.contains("once"), is(false));
+		assertThat(index.size(), equalTo(1));
+	}
+
+	@Test
+	public void shouldRejectRuleWithNoOccurrence() {
+		ScheduleIndex<String, LocalDate> index = new ScheduleIndex<>();
+		assertThrows(DateTimeException.class,
+				() -> index.put("never", PeriodicTemporalAdjusters.annually(CalendarAdjusters.field(ChronoField.YEAR, 2017)), START));
+		assertThat(index.isEmpty(), is(true));
+		assertThat(index.poll(), nullValue());
+	}
+
+}
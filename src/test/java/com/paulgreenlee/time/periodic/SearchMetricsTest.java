@@ -0,0 +1,202 @@
+package com.paulgreenlee.time.periodic;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.lang.reflect.Method;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.Period;
+import java.time.temporal.ChronoField;
+import java.time.temporal.TemporalAdjuster;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+public class SearchMetricsTest {
+
+	/** The 31st of each month, which the solver does not know, so it is searched for. */
+	private static final PeriodicTemporalAdjuster THIRTY_FIRSTS = new AllOfCompoundTemporalAdjuster(
+			Arrays.<TemporalAdjuster>asList(temporal -> temporal.with(ChronoField.DAY_OF_MONTH, 31)), Period.ofMonths(1));
+
+	private SearchStatistics statistics;
+
+	@BeforeEach
+	public void addStatistics() {
+		statistics = new SearchStatistics();
+		SearchMetrics.addListener(statistics);
+	}
+
+	@AfterEach
+	public void removeStatistics() {
+		SearchMetrics.removeListener(statistics);
+	}
+
+	public static Stream<Arguments> searches() {
+		return Stream.of(
+				Arguments.of(LocalDate.of(2018, 1, 1), LocalDate.of(2018, 1, 31), 0, 0, "Found in the first month"),
+				Arguments.of(LocalDate.of(2018, 4, 1), LocalDate.of(2018, 5, 31), 1, 1, "April has 30 days"),
+				Arguments.of(LocalDate.of(2018, 2, 1), LocalDate.of(2018, 3, 31), 1, 1, "February has 28 days"),
+				Arguments.of(LocalDate.of(2018, 9, 1), LocalDate.of(2018, 10, 31), 1, 1, "September has 30 days")
+			);
+	}
+
+	@ParameterizedTest(name="{index}: {4}")
+	@MethodSource(value = {"searches"})
+	public void shouldCountIterationsAndSwallowedExceptions(LocalDate start, LocalDate expected, int iterations,
+			int swallowed, String testDesc) {
+		assertThat(start.with(THIRTY_FIRSTS), equalTo(expected));
+		SearchStatistics.RuleStatistics counts = statistics.get(THIRTY_FIRSTS);
+		assertThat(counts.getSearches(), equalTo(1L));
+		assertThat(counts.getFailures(), equalTo(0L));
+		assertThat(counts.getNearLimit(), equalTo(0L));
+		assertThat(counts.getSwallowedExceptions(), equalTo((long) swallowed));
+		assertThat(counts.getMaxIterations(), equalTo((long) iterations));
+		assertThat(counts.getIterationHistogram()[SearchStatistics.RuleStatistics.bucket(iterations)], equalTo(1L));
+	}
+
+	@Test
+	public void shouldReportSearchesThatGiveUp() {
+		PeriodicTemporalAdjuster february30ths = new AllOfCompoundTemporalAdjuster(Arrays.<TemporalAdjuster>asList(
+				temporal -> temporal.with(ChronoField.MONTH_OF_YEAR, 2), temporal -> temporal.with(ChronoField.DAY_OF_MONTH, 30)),
+				Period.ofYears(1));
+		assertThrows(DateTimeException.class, () -> LocalDate.of(2018, 1, 1).with(february30ths));
+		SearchStatistics.RuleStatistics counts = statistics.get(february30ths);
+		assertThat(counts.getSearches(), equalTo(1L));
+		assertThat(counts.getFailures(), equalTo(1L));
+		assertThat(counts.getNearLimit(), equalTo(1L));
+		// Every period tried threw, the first as well as each one stepped to.
+		assertThat(counts.getSwallowedExceptions(), equalTo(counts.getMaxIterations() + 1));
+		assertThat(counts.getMaxIterations(), greaterThan(10000L));
+	}
+
+	@Test
+	public void shouldReportSolverGivingUp() {
+		PeriodicTemporalAdjuster twoTimes = new AllOfCompoundTemporalAdjuster(Arrays.<TemporalAdjuster>asList(
+				CalendarAdjusters.field(ChronoField.HOUR_OF_DAY, 1), CalendarAdjusters.field(ChronoField.HOUR_OF_DAY, 2)),
+				Period.ofDays(1));
+		assertThrows(DateTimeException.class, () -> LocalDateTime.of(2018, 1, 1, 0, 0).with(twoTimes));
+		assertThat(statistics.get(twoTimes).getFailures(), equalTo(1L));
+		assertThat(statistics.get(twoTimes).getNearLimit(), equalTo(1L));
+	}
+
+	@Test
+	public void shouldReportForwardOnlySearches() {
+		ForwardOnlyTemporalAdjuster firsts = new ForwardOnlyTemporalAdjuster(
+				temporal -> temporal.with(ChronoField.DAY_OF_MONTH, 1), Period.ofMonths(1));
+		assertThat(LocalDate.of(2018, 1, 15).with(firsts), equalTo(LocalDate.of(2018, 2, 1)));
+		assertThat(LocalDate.of(2018, 1, 1).with(firsts), equalTo(LocalDate.of(2018, 2, 1)));
+		SearchStatistics.RuleStatistics counts = statistics.get(firsts);
+		assertThat(counts.getSearches(), equalTo(2L));
+		assertThat(counts.getMaxIterations(), equalTo(1L));
+		assertThat(counts.getTotalNanos(), greaterThanOrEqualTo(0L));
+	}
+
+	@Test
+	public void shouldNotReportOnceRemoved() {
+		SearchMetrics.removeListener(statistics);
+		assertThat(LocalDate.of(2018, 4, 1).with(THIRTY_FIRSTS), equalTo(LocalDate.of(2018, 5, 31)));
+		assertThat(statistics.get(THIRTY_FIRSTS), nullValue());
+	}
+
+	@Test
+	public void shouldReportToEveryListener() {
+		SearchStatistics other = new SearchStatistics();
+		SearchMetrics.addListener(other);
+		try {
+			LocalDate.of(2018, 4, 1).with(THIRTY_FIRSTS);
+		} finally {
+			SearchMetrics.removeListener(other);
+		}
+		assertThat(statistics.get(THIRTY_FIRSTS).getSearches(), equalTo(1L));
+		assertThat(other.get(THIRTY_FIRSTS).getSearches(), equalTo(1L));
+	}
+
+	@Test
+	public void shouldKeepCountsForABoundedNumberOfRules() {
+		SearchStatistics bounded = new SearchStatistics(100);
+		for (int day = 1; day <= 1000; day++) {
+			PeriodicTemporalAdjuster rule = PeriodicTemporalAdjusters.annually(
+					CalendarAdjusters.field(ChronoField.DAY_OF_YEAR, day % 365 + 1));
+			bounded.searchCompleted(rule, 1, 10000, 0, 0, true);
+			assertThat(bounded.getAll().size(), lessThanOrEqualTo(100));
+		}
+		PeriodicTemporalAdjuster last = PeriodicTemporalAdjusters.annually(
+				CalendarAdjusters.field(ChronoField.DAY_OF_YEAR, 1000 % 365 + 1));
+		assertThat(bounded.get(last).getSearches(), greaterThan(0L));
+		bounded.clear();
+		assertThat(bounded.getAll().size(), equalTo(0));
+		assertThrows(IllegalArgumentException.class, () -> new SearchStatistics(0));
+	}
+
+	public static Stream<Arguments> buckets() {
+		return Stream.of(
+				Arguments.of(0, 0, "None"),
+				Arguments.of(1, 1, "One"),
+				Arguments.of(3, 2, "Top of a bucket"),
+				Arguments.of(4, 3, "Bottom of a bucket"),
+				Arguments.of(10001, 14, "Past the limit")
+			);
+	}
+
+	@ParameterizedTest(name="{index}: {2}")
+	@MethodSource(value = {"buckets"})
+	public void shouldBucketByPowersOfTwo(int iterations, int bucket, String testDesc) {
+		assertThat(SearchStatistics.RuleStatistics.bucket(iterations), equalTo(bucket));
+	}
+
+	@Test
+	public void shouldRecordFlightRecorderEvents() throws Exception {
+		assumeTrue(SearchMetrics.enableFlightRecorder(), "No Flight Recorder");
+		Path file = Files.createTempFile("search", ".jfr");
+		try {
+			// The Flight Recorder API is not there to compile against on Java 8.
+			Class<?> recordingClass = Class.forName("jdk.jfr.Recording");
+			Object recording = recordingClass.getConstructor().newInstance();
+			recordingClass.getMethod("enable", String.class).invoke(recording, FlightRecorderListener.SEARCH_EVENT);
+			recordingClass.getMethod("enable", String.class).invoke(recording, FlightRecorderListener.NEAR_LIMIT_EVENT);
+			recordingClass.getMethod("start").invoke(recording);
+			LocalDate.of(2018, 4, 1).with(THIRTY_FIRSTS);
+			LocalDate.of(2018, 6, 1).with(THIRTY_FIRSTS);
+			PeriodicTemporalAdjuster never = new AllOfCompoundTemporalAdjuster(Arrays.<TemporalAdjuster>asList(
+					CalendarAdjusters.field(ChronoField.HOUR_OF_DAY, 1), CalendarAdjusters.field(ChronoField.HOUR_OF_DAY, 2)),
+					Period.ofDays(1));
+			assertThrows(DateTimeException.class, () -> LocalDateTime.of(2018, 1, 1, 0, 0).with(never));
+			recordingClass.getMethod("stop").invoke(recording);
+			recordingClass.getMethod("dump", Path.class).invoke(recording, file);
+			recordingClass.getMethod("close").invoke(recording);
+
+			List<?> events = (List<?>) Class.forName("jdk.jfr.consumer.RecordingFile")
+					.getMethod("readAllEvents", Path.class).invoke(null, file);
+			long searches = 0;
+			long nearLimit = 0;
+			for (Object event : events) {
+				Object type = event.getClass().getMethod("getEventType").invoke(event);
+				Method getName = type.getClass().getMethod("getName");
+				String name = (String) getName.invoke(type);
+				if (FlightRecorderListener.SEARCH_EVENT.equals(name))
+					searches++;
+				else if (FlightRecorderListener.NEAR_LIMIT_EVENT.equals(name))
+					nearLimit++;
+			}
+			assertThat(searches, equalTo(3L));
+			assertThat(nearLimit, equalTo(1L));
+		} finally {
+			SearchMetrics.disableFlightRecorder();
+			Files.deleteIfExists(file);
+		}
+	}
+
+}
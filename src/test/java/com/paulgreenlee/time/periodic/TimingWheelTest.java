@@ -0,0 +1,99 @@
+package com.paulgreenlee.time.periodic;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+public class TimingWheelTest {
+
+	public static Stream<Arguments> spans() {
+		return Stream.of(
+				Arguments.of(0L, 200L, "Within the first level"),
+				Arguments.of(123456789L, 1L << 20, "Across the middle levels"),
+				Arguments.of(-5000L, 1L << 40, "Beyond the outermost level")
+			);
+	}
+
+	@ParameterizedTest(name="{index}: {2}")
+	@MethodSource(value = {"spans"})
+	public void shouldExpireEachTimerOnItsDeadline(long start, long span, String testDesc) {
+		Random random = new Random(span);
+		TimingWheel wheel = new TimingWheel(start);
+		List<TimingWheel.Timer> timers = new ArrayList<>();
+		for (int i = 0; i < 10000; i++) {
+			TimingWheel.Timer timer = new TimingWheel.Timer();
+			timer.deadline = start + (long) (random.nextDouble() * span);
+			timers.add(timer);
+			wheel.add(timer);
+		}
+		assertThat(wheel.size(), equalTo(timers.size()));
+
+		List<TimingWheel.Timer> expired = new ArrayList<>();
+		long[] last = { Long.MIN_VALUE };
+		while (wheel.size() > 0) {
+			long target = wheel.now() + 1 + (long) (random.nextDouble() * span / 50);
+			wheel.advance(target, timer -> {
+				assertThat(timer.deadline, equalTo(wheel.now() - 1));
+				assertThat(timer.deadline, greaterThanOrEqualTo(last[0]));
+				last[0] = timer.deadline;
+				expired.add(timer);
+			});
+			assertThat(wheel.now(), equalTo(target + 1));
+		}
+		assertThat(expired, containsInAnyOrder(timers.toArray()));
+	}
+
+	@ParameterizedTest(name="{index}: {2}")
+	@MethodSource(value = {"spans"})
+	public void shouldNotExpireRemovedTimers(long start, long span, String testDesc) {
+		Random random = new Random(span);
+		TimingWheel wheel = new TimingWheel(start);
+		List<TimingWheel.Timer> kept = new ArrayList<>();
+		List<TimingWheel.Timer> removed = new ArrayList<>();
+		for (int i = 0; i < 10000; i++) {
+			TimingWheel.Timer timer = new TimingWheel.Timer();
+			// Some in the same slots, so they are removed from the middle and ends of the lists.
+			timer.deadline = start + (long) (random.nextInt(50) * (span / 50.0));
+			wheel.add(timer);
+			(i % 3 == 0 ? removed : kept).add(timer);
+		}
+		for (TimingWheel.Timer timer : removed)
+			assertThat(wheel.remove(timer), is(true));
+		assertThat(wheel.remove(removed.get(0)), is(false));
+		assertThat(wheel.size(), equalTo(kept.size()));
+
+		List<TimingWheel.Timer> expired = new ArrayList<>();
+		wheel.advance(start + span, expired::add);
+		assertThat(expired, containsInAnyOrder(kept.toArray()));
+		assertThat(wheel.size(), equalTo(0));
+		assertThat(wheel.remove(kept.get(0)), is(false));
+	}
+
+	@ParameterizedTest(name="{index}: {2}")
+	@MethodSource(value = {"spans"})
+	public void shouldExpireTimersAddedWhileExpiring(long start, long span, String testDesc) {
+		TimingWheel wheel = new TimingWheel(start);
+		TimingWheel.Timer timer = new TimingWheel.Timer();
+		timer.deadline = start + span / 2;
+		wheel.add(timer);
+		List<Long> expiredAt = new ArrayList<>();
+		wheel.advance(start + span, expired -> {
+			expiredAt.add(wheel.now() - 1);
+			if (expiredAt.size() < 3) {
+				// Already due, so handed back on the next tick.
+				expired.deadline = start;
+				wheel.add(expired);
+			}
+		});
+		assertThat(expiredAt, contains(start + span / 2, start + span / 2 + 1, start + span / 2 + 2));
+	}
+
+}
@@ -0,0 +1,163 @@
+package com.paulgreenlee.time.periodic;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.DateTimeException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoField;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+public class ZoneOffsetTableTest {
+
+	private static final ZoneId NEW_YORK = ZoneId.of("America/New_York");
+
+	/** Spring forward, 02:00 to 03:00. */
+	private static final LocalDateTime IN_GAP = LocalDateTime.of(2018, 3, 11, 2, 30);
+
+	/** Fall back, 02:00 to 01:00. */
+	private static final LocalDateTime IN_OVERLAP = LocalDateTime.of(2018, 11, 4, 1, 30);
+
+	/** Half past every hour. */
+	private static final PeriodicTemporalAdjuster HOURLY = new SimplePeriodicTemporalAdjuster(
+			t -> t.with(ChronoField.MINUTE_OF_HOUR, 30), Duration.ofHours(1));
+
+	public static Stream<Arguments> zones() {
+		return Stream.of(
+				Arguments.of(NEW_YORK, "New York"),
+				Arguments.of(ZoneId.of("Europe/London"), "London"),
+				Arguments.of(ZoneId.of("Europe/Dublin"), "Dublin, with negative daylight saving"),
+				Arguments.of(ZoneId.of("Australia/Lord_Howe"), "Lord Howe, with half an hour of daylight saving"),
+				Arguments.of(ZoneId.of("Pacific/Apia"), "Apia, which skipped a day"),
+				Arguments.of(ZoneId.of("Asia/Kolkata"), "Kolkata"),
+				Arguments.of(ZoneOffset.ofHoursMinutes(5, 45), "A fixed offset"),
+				Arguments.of(ZoneId.of("UTC"), "UTC")
+			);
+	}
+
+	@ParameterizedTest(name="{index}: {1}")
+	@MethodSource(value = {"zones"})
+	public void shouldConvertLikeZonedDateTime(ZoneId zone, String testDesc) {
+		ZoneOffsetTable table = ZoneOffsetTable.of(zone);
+		Instant[] out = new Instant[2];
+		Random random = new Random(11);
+		LocalDateTime first = LocalDateTime.of(1750, 1, 1, 0, 0);
+		long seconds = ChronoUnit.SECONDS.between(first, LocalDateTime.of(2250, 1, 1, 0, 0));
+		for (int i = 0; i < 20000; i++) {
+			LocalDateTime local = first.plusSeconds((long) (random.nextDouble() * seconds)).withNano(random.nextInt(1000));
+			ZonedDateTime zoned = ZonedDateTime.of(local, zone);
+			assertThat(table.toInstants(local, GapPolicy.SHIFT, OverlapPolicy.EARLIER, out), equalTo(1));
+			assertThat(local.toString(), out[0], equalTo(zoned.toInstant()));
+			table.toInstants(local, GapPolicy.SHIFT, OverlapPolicy.LATER, out);
+			assertThat(local.toString(), out[0], equalTo(zoned.withLaterOffsetAtOverlap().toInstant()));
+		}
+	}
+
+	@ParameterizedTest(name="{index}: {1}")
+	@MethodSource(value = {"zones"})
+	public void shouldConvertEveryTransitionLikeZonedDateTime(ZoneId zone, String testDesc) {
+		ZoneOffsetTable table = ZoneOffsetTable.of(zone);
+		Instant[] out = new Instant[2];
+		Instant transition = Instant.parse("1790-01-01T00:00:00Z");
+		for (int i = 0; i < 2000; i++) {
+			if (zone.getRules().nextTransition(transition) == null)
+				break;
+			transition = zone.getRules().nextTransition(transition).getInstant();
+			LocalDateTime around = LocalDateTime.ofInstant(transition, zone).minusHours(3);
+			for (int minutes = 0; minutes < 6 * 60; minutes += 15) {
+				LocalDateTime local = around.plusMinutes(minutes);
+				table.toInstants(local, GapPolicy.SHIFT, OverlapPolicy.EARLIER, out);
+				assertThat(local.toString(), out[0], equalTo(ZonedDateTime.of(local, zone).toInstant()));
+			}
+		}
+	}
+
+	public static Stream<Arguments> policies() {
+		return Stream.of(
+				Arguments.of(IN_GAP, GapPolicy.SHIFT, OverlapPolicy.REJECT, Arrays.asList("2018-03-11T07:30:00Z"), "Shifted out of a gap"),
+				Arguments.of(IN_GAP, GapPolicy.NEXT_VALID_TIME, OverlapPolicy.REJECT, Arrays.asList("2018-03-11T07:00:00Z"), "Moved to the end of a gap"),
+				Arguments.of(IN_GAP, GapPolicy.SKIP, OverlapPolicy.REJECT, Arrays.asList(), "Skipped in a gap"),
+				Arguments.of(IN_OVERLAP, GapPolicy.REJECT, OverlapPolicy.EARLIER, Arrays.asList("2018-11-04T05:30:00Z"), "Earlier in an overlap"),
+				Arguments.of(IN_OVERLAP, GapPolicy.REJECT, OverlapPolicy.LATER, Arrays.asList("2018-11-04T06:30:00Z"), "Later in an overlap"),
+				Arguments.of(IN_OVERLAP, GapPolicy.REJECT, OverlapPolicy.BOTH, Arrays.asList("2018-11-04T05:30:00Z", "2018-11-04T06:30:00Z"), "Both in an overlap"),
+				Arguments.of(IN_GAP.minusYears(300), GapPolicy.NEXT_VALID_TIME, OverlapPolicy.REJECT, Arrays.asList("1718-03-11T07:26:02Z"), "Before the table, in local mean time"),
+				// The calendar repeats every 400 years, and so do the transitions.
+				Arguments.of(IN_GAP.plusYears(400), GapPolicy.NEXT_VALID_TIME, OverlapPolicy.REJECT, Arrays.asList("2418-03-11T07:00:00Z"), "After the table"),
+				Arguments.of(IN_OVERLAP.plusYears(400), GapPolicy.REJECT, OverlapPolicy.BOTH, Arrays.asList("2418-11-04T05:30:00Z", "2418-11-04T06:30:00Z"), "Both after the table")
+			);
+	}
+
+	@ParameterizedTest(name="{index}: {4}")
+	@MethodSource(value = {"policies"})
+	public void shouldFollowPolicies(LocalDateTime local, GapPolicy gap, OverlapPolicy overlap, List<String> expected, String testDesc) {
+		Instant[] out = new Instant[2];
+		int count = ZoneOffsetTable.of(NEW_YORK).toInstants(local, gap, overlap, out);
+		List<String> actual = new ArrayList<>();
+		for (int i = 0; i < count; i++)
+			actual.add(out[i].toString());
+		assertThat(actual, equalTo(expected));
+	}
+
+	@Test
+	public void shouldRejectAsAsked() {
+		Instant[] out = new Instant[2];
+		ZoneOffsetTable table = ZoneOffsetTable.of(NEW_YORK);
+		assertThrows(DateTimeException.class, () -> table.toInstants(IN_GAP, GapPolicy.REJECT, OverlapPolicy.EARLIER, out));
+		assertThrows(DateTimeException.class, () -> table.toInstants(IN_OVERLAP, GapPolicy.SHIFT, OverlapPolicy.REJECT, out));
+		assertThrows(DateTimeException.class, () -> table.toInstants(IN_OVERLAP.plusYears(400), GapPolicy.SHIFT, OverlapPolicy.REJECT, out));
+	}
+
+	@Test
+	public void shouldShareTables() {
+		assertThat(ZoneOffsetTable.of(NEW_YORK), sameInstance(ZoneOffsetTable.of(ZoneId.of("America/New_York"))));
+	}
+
+	@Test
+	public void shouldListInstantsAcrossTransitions() {
+		LocalDateTime springStart = IN_GAP.toLocalDate().atStartOfDay();
+		List<Instant> spring = Occurrences.instants(HOURLY, springStart, springStart.plusDays(1), NEW_YORK,
+				GapPolicy.SKIP, OverlapPolicy.BOTH).collect(Collectors.toList());
+		assertThat(spring, hasSize(23));
+		assertThat(new HashSet<>(spring), hasSize(23));
+
+		LocalDateTime fallStart = IN_OVERLAP.toLocalDate().atStartOfDay();
+		List<Instant> fall = Occurrences.instants(HOURLY, fallStart, fallStart.plusDays(1), NEW_YORK,
+				GapPolicy.SKIP, OverlapPolicy.BOTH).collect(Collectors.toList());
+		assertThat(fall, hasSize(25));
+		assertThat(fall, hasItems(Instant.parse("2018-11-04T05:30:00Z"), Instant.parse("2018-11-04T06:30:00Z")));
+		assertThat(Occurrences.instantsBetween(HOURLY, fallStart, fallStart.plusDays(1), NEW_YORK, GapPolicy.SKIP,
+				OverlapPolicy.BOTH), equalTo(fall));
+	}
+
+	@Test
+	public void shouldListInstantsLikeZonedDateTime() {
+		LocalDateTime start = LocalDateTime.of(2017, 12, 31, 0, 0);
+		LocalDateTime end = start.plusYears(2);
+		List<LocalDateTime> local = Occurrences.occurrences(HOURLY, start, end).collect(Collectors.toList());
+		for (ZoneId zone : Arrays.asList(NEW_YORK, ZoneId.of("Australia/Lord_Howe"), ZoneOffset.UTC)) {
+			List<Instant> expected = local.stream().map(t -> ZonedDateTime.of(t, zone).toInstant()).collect(Collectors.toList());
+			assertThat(Occurrences.instants(HOURLY, start, end, zone).collect(Collectors.toList()), equalTo(expected));
+			assertThat(Occurrences.instantsBetween(HOURLY, start, end, zone), equalTo(expected));
+			assertThat(Occurrences.toInstants(local, zone, GapPolicy.SHIFT, OverlapPolicy.EARLIER), equalTo(expected));
+		}
+	}
+
+}